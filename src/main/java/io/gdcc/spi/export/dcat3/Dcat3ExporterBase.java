@@ -3,17 +3,16 @@
 // Refactor: Split DCAT3 exporter into base + format-specific subclasses.
 package io.gdcc.spi.export.dcat3;
 
-import static io.gdcc.spi.export.dcat3.config.loader.FileResolver.resolveElementFile;
-
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gdcc.spi.export.ExportDataProvider;
 import io.gdcc.spi.export.ExportException;
 import io.gdcc.spi.export.Exporter;
-import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
 import io.gdcc.spi.export.dcat3.config.loader.RootConfigLoader;
 import io.gdcc.spi.export.dcat3.config.model.Element;
+import io.gdcc.spi.export.dcat3.config.model.Grouping;
+import io.gdcc.spi.export.dcat3.config.model.Paging;
 import io.gdcc.spi.export.dcat3.config.model.Relation;
 import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
 import io.gdcc.spi.export.dcat3.config.model.RootConfig;
@@ -21,18 +20,29 @@ import io.gdcc.spi.export.dcat3.config.validate.Severity;
 import io.gdcc.spi.export.dcat3.config.validate.ValidationMessage;
 import io.gdcc.spi.export.dcat3.config.validate.ValidationReport;
 import io.gdcc.spi.export.dcat3.config.validate.Validators;
+import io.gdcc.spi.export.dcat3.mapping.BlankNodeLabels;
+import io.gdcc.spi.export.dcat3.mapping.DeepScanRewriter;
+import io.gdcc.spi.export.dcat3.mapping.ElementCache;
+import io.gdcc.spi.export.dcat3.mapping.ElementMappers;
+import io.gdcc.spi.export.dcat3.mapping.EvaluationBudget;
+import io.gdcc.spi.export.dcat3.mapping.EvaluationBudgetExceededException;
+import io.gdcc.spi.export.dcat3.mapping.FragmentStore;
+import io.gdcc.spi.export.dcat3.mapping.IriMinter;
 import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder;
 import io.gdcc.spi.export.dcat3.mapping.Prefixes;
 import io.gdcc.spi.export.dcat3.mapping.ResourceMapper;
+import io.gdcc.spi.export.dcat3.mapping.ScopeGroups;
+import io.gdcc.spi.export.dcat3.mapping.TemplateFormatter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.jena.rdf.model.Model;
@@ -54,12 +64,26 @@ public abstract class Dcat3ExporterBase implements Exporter {
 
     protected RootConfig root;
 
+    // Learned deep-scan locations, kept for the lifetime of the exporter (dcat.optimize.deepScan)
+    private final DeepScanRewriter deepScanRewriter = new DeepScanRewriter();
+
+    // Minted IRI bases, kept for the lifetime of the exporter (dcat.iri.strict)
+    private final IriMinter iriMinter = new IriMinter();
+
+    // Graphs of elements whose input did not change, kept for the lifetime of the exporter
+    // (dcat.optimize.cacheElements), and on disk when a cache directory is configured (dcat.cache.*)
+    private final ElementCache elementCache;
+
+    // Element configs and their compiled mappers, kept for the lifetime of the exporter
+    private final ElementMappers elementMappers = new ElementMappers();
+
     protected Dcat3ExporterBase() {
         try {
             this.root = RootConfigLoader.load();
         } catch (IOException e) {
             logger.warning("cannot read configuration: " + e.getMessage());
         }
+        this.elementCache = new ElementCache(root == null ? null : FragmentStore.open(root.cache()));
     }
 
     public Boolean isHarvestable() {
@@ -104,6 +128,25 @@ public abstract class Dcat3ExporterBase implements Exporter {
 
     @Override
     public void exportDataset(ExportDataProvider dataProvider, OutputStream outputStream) throws ExportException {
+        exportPage(dataProvider, 0, outputStream);
+    }
+
+    /**
+     * Writes one page of a paged export. Elements with {@code element.<name>.page.size} contribute
+     * only the scopes of page {@code page} (0-based); the others are mapped as usual on page 0.
+     * Beyond page 0 only their relation links to the paged subjects are written, so only the
+     * subjects of elements related to a paged one are collected, and elements without such a
+     * relation are not mapped at all. The page count is known before any element is mapped. Each
+     * page is linked to its neighbours ({@code dcat.page.*}). Page 0 is what {@link #exportDataset}
+     * writes.
+     *
+     * @throws ExportException when the page does not exist or the export fails
+     */
+    public void exportPage(ExportDataProvider dataProvider, int page, OutputStream outputStream)
+            throws ExportException {
+        if (page < 0) {
+            throw new ExportException("DCAT export aborted: no page " + page);
+        }
         try {
             validateRootOrThrow(root);
 
@@ -113,18 +156,49 @@ public abstract class Dcat3ExporterBase implements Exporter {
             traceInputIfEnabled(mapper, exportData, root);
 
             JsonNode rootJson = mapper.valueToTree(exportData);
-            JaywayJsonFinder finder = new JaywayJsonFinder(rootJson);
+            EvaluationBudget budget = newEvaluationBudget(root);
+            JaywayJsonFinder finder = new JaywayJsonFinder(
+                    rootJson,
+                    new JaywayJsonFinder.Options(
+                            root.deepScanRewrite() ? deepScanRewriter : null,
+                            budget,
+                            root.strictIris() ? iriMinter : null,
+                            BlankNodeLabels.of(root.blankNodes(), rootJson)));
             Prefixes prefixes = new Prefixes(root.prefixes());
 
-            MapBuildResult build = buildElementModels(root, finder, prefixes);
+            PagePlan plan;
+            MapBuildResult build;
+            try {
+                plan = planPages(root, elementMappers, finder, prefixes);
+                if (page >= plan.pages()) {
+                    throw new ExportException(
+                            "DCAT export aborted: no page " + page + " (" + plan.pages() + " page(s))");
+                }
+                boolean cached = root.cacheElements() || root.cache() != null;
+                build = buildElementModels(
+                        root, elementMappers, plan, finder, rootJson, cached ? elementCache : null, prefixes, page);
+            } finally {
+                logBudget(budget);
+            }
 
             validateAllOrThrow(root, build.elementConfigs());
 
-            Model merged = mergeModels(prefixes, build.models());
-            applyRelations(merged, prefixes, root.relations(), build.subjects());
+            Model merged;
+            if (page == 0) {
+                merged = mergeModels(prefixes, build.models());
+                applyRelations(merged, prefixes, root.relations(), build.subjects());
+            } else {
+                Map<String, Model> pagedModels = new LinkedHashMap<>(build.models());
+                pagedModels.keySet().retainAll(plan.scopes().keySet());
+                merged = mergeModels(prefixes, pagedModels);
+                applyRelations(merged, prefixes, pagedRelations(root, plan), build.subjects());
+            }
+            addPageLinks(merged, prefixes, root.paging(), finder, page, plan.pages());
 
             writeAtomic(merged, getJenaWriterName(), outputStream);
 
+        } catch (EvaluationBudgetExceededException e) {
+            throw new ExportException("DCAT export aborted: evaluation budget exceeded", e);
         } catch (JenaException | IOException e) {
             logger.warning(e.getMessage());
             throw new ExportException("DCAT export failed", e);
@@ -145,6 +219,23 @@ public abstract class Dcat3ExporterBase implements Exporter {
         }
     }
 
+    /** Budget accounting for one export, or null when no dcat.budget.* limit is configured. */
+    private static EvaluationBudget newEvaluationBudget(RootConfig root) {
+        return root.budget() != null && root.budget().limited() ? new EvaluationBudget(root.budget()) : null;
+    }
+
+    private static void logBudget(EvaluationBudget budget) {
+        if (budget == null) {
+            return;
+        }
+        for (ValidationMessage message : budget.report()) {
+            logger.log(message.severity() == Severity.ERROR ? Level.SEVERE : Level.WARNING, message.toString());
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            budget.costs().forEach((path, cost) -> logger.fine("JSONPath cost " + path + ": " + cost));
+        }
+    }
+
     private static ExportData buildExportData(ExportDataProvider provider) {
         return ExportData.builder().provider(provider).build();
     }
@@ -164,41 +255,175 @@ public abstract class Dcat3ExporterBase implements Exporter {
         }
     }
 
-    private static MapBuildResult buildElementModels(RootConfig root, JaywayJsonFinder finder, Prefixes prefixes)
+    /**
+     * The scopes of the paged elements and the page count, worked out before anything is mapped.
+     * An element is paged when it has a page size and a scope and is not mapped in groups.
+     */
+    private static PagePlan planPages(
+            RootConfig root, ElementMappers elementMappers, JaywayJsonFinder finder, Prefixes prefixes)
+            throws IOException {
+        Map<String, List<JsonNode>> pagedScopes = new LinkedHashMap<>();
+        int pages = 1;
+        for (Element element : root.elements()) {
+            if (element.pageSize() <= 0) {
+                continue;
+            }
+            ElementMappers.Compiled compiled = elementMappers.get(
+                    element.id(), root.baseDir(), element.file(), prefixes, element.typeCurieOrIri());
+            List<JsonNode> scopes = compiled.mapper().scopes(finder.forElement(element.id()));
+            if (scopes != null && !grouped(element, scopes)) {
+                pagedScopes.put(element.id(), scopes);
+                pages = Math.max(pages, pageCount(scopes.size(), element.pageSize()));
+            }
+        }
+        return new PagePlan(pagedScopes, pages);
+    }
+
+    /** Relations with a paged element on either side: the ones written beyond page 0. */
+    private static List<Relation> pagedRelations(RootConfig root, PagePlan plan) {
+        return root.relations().stream()
+                .filter(relation -> plan.scopes().containsKey(relation.subjectElementId())
+                        || plan.scopes().containsKey(relation.objectElementId()))
+                .toList();
+    }
+
+    private static MapBuildResult buildElementModels(
+            RootConfig root,
+            ElementMappers elementMappers,
+            PagePlan plan,
+            JaywayJsonFinder finder,
+            JsonNode rootJson,
+            ElementCache elementCache,
+            Prefixes prefixes,
+            int page)
             throws IOException {
 
         Map<String, Model> models = new LinkedHashMap<>();
         Map<String, List<Resource>> subjects = new LinkedHashMap<>();
         Map<String, ResourceConfig> elementConfigs = new LinkedHashMap<>();
+        Set<String> related = new LinkedHashSet<>(); // beyond page 0: elements linked to a paged one
+        for (Relation relation : pagedRelations(root, plan)) {
+            related.add(relation.subjectElementId());
+            related.add(relation.objectElementId());
+        }
 
         for (Element element : root.elements()) {
-            try (InputStream in = resolveElementFile(root.baseDir(), element.file())) {
-                ResourceConfig resourceConfig = new ResourceConfigLoader().load(in);
-                elementConfigs.put(element.id(), resourceConfig);
-
-                ResourceMapper resourceMapper = new ResourceMapper(resourceConfig, prefixes, element.typeCurieOrIri());
-
-                Model elementModel = resourceMapper.build(finder);
+            ElementMappers.Compiled compiled = elementMappers.get(
+                    element.id(), root.baseDir(), element.file(), prefixes, element.typeCurieOrIri());
+            ResourceConfig resourceConfig = compiled.config();
+            elementConfigs.put(element.id(), resourceConfig);
+
+            JaywayJsonFinder elementFinder = finder.forElement(element.id());
+            ResourceMapper resourceMapper = compiled.mapper();
+            List<JsonNode> pagedScopes = plan.scopes().get(element.id());
+            Model elementModel;
+            if (pagedScopes != null) {
+                // Only the scopes of this page are mapped; the others stay unread JSON nodes
+                int from = (int) Math.min(pagedScopes.size(), page * element.pageSize());
+                int to = (int) Math.min(pagedScopes.size(), from + element.pageSize());
+                elementModel = ModelFactory.createModelForGraph(
+                        resourceMapper.buildGraph(elementFinder, pagedScopes.subList(from, to), from));
+            } else if (page > 0) {
+                if (!related.contains(element.id())) {
+                    continue;
+                }
+                elementModel = buildSubjects(
+                        root, elementMappers, element, resourceMapper, elementFinder, prefixes, elementConfigs);
+            } else if (elementCache != null && element.grouping() == null && element.pageSize() <= 0) {
+                elementModel = ModelFactory.createModelForGraph(
+                        elementCache.graph(element.id(), compiled, elementFinder, rootJson));
+            } else {
+                elementModel = buildGrouped(
+                        root, elementMappers, element, resourceMapper, elementFinder, prefixes, elementConfigs);
+                if (elementModel == null) {
+                    elementModel = resourceMapper.build(elementFinder);
+                }
+            }
 
-                // Collect all subjects by rdf:type (for later relation wiring)
-                String typeIri = prefixes.expand(element.typeCurieOrIri());
-                ResIterator it = elementModel.listResourcesWithProperty(RDF.type, elementModel.createResource(typeIri));
+            // Collect all subjects by rdf:type (for later relation wiring)
+            String typeIri = prefixes.expand(element.typeCurieOrIri());
+            ResIterator it = elementModel.listResourcesWithProperty(RDF.type, elementModel.createResource(typeIri));
 
-                List<Resource> subjectList = new ArrayList<>();
-                while (it.hasNext()) {
-                    subjectList.add(it.next());
-                }
+            List<Resource> subjectList = new ArrayList<>();
+            while (it.hasNext()) {
+                subjectList.add(it.next());
+            }
 
-                models.put(element.id(), elementModel);
-                if (!subjectList.isEmpty()) {
-                    subjects.put(element.id(), subjectList);
-                }
+            models.put(element.id(), elementModel);
+            if (!subjectList.isEmpty()) {
+                subjects.put(element.id(), subjectList);
             }
         }
 
         return new MapBuildResult(models, subjects, elementConfigs);
     }
 
+    /**
+     * Grouped mode ({@code element.<name>.group.*}): above the threshold the element is mapped with
+     * the group config, once per {@link ScopeGroups group} of its scopes.
+     *
+     * @return the grouped model, null when the element is not grouped or within the threshold
+     */
+    private static Model buildGrouped(
+            RootConfig root,
+            ElementMappers elementMappers,
+            Element element,
+            ResourceMapper resourceMapper,
+            JaywayJsonFinder finder,
+            Prefixes prefixes,
+            Map<String, ResourceConfig> elementConfigs)
+            throws IOException {
+        Grouping grouping = element.grouping();
+        if (grouping == null) {
+            return null;
+        }
+        List<JsonNode> scopes = resourceMapper.scopes(finder);
+        if (!grouped(element, scopes)) {
+            return null;
+        }
+        ElementMappers.Compiled group = elementMappers.get(
+                element.id() + "#group", root.baseDir(), grouping.file(), prefixes, element.typeCurieOrIri());
+        elementConfigs.put(element.id() + "#group", group.config());
+        logger.fine(() -> "element " + element.id() + ": " + scopes.size() + " scopes mapped in groups");
+        return ModelFactory.createModelForGraph(
+                group.mapper().buildGraph(finder, ScopeGroups.group(finder, scopes, grouping.by())));
+    }
+
+    /**
+     * The typed subjects of an element that is not written, only linked to the paged subjects:
+     * those of its groups when it is mapped in groups, else those of its scopes.
+     */
+    private static Model buildSubjects(
+            RootConfig root,
+            ElementMappers elementMappers,
+            Element element,
+            ResourceMapper resourceMapper,
+            JaywayJsonFinder finder,
+            Prefixes prefixes,
+            Map<String, ResourceConfig> elementConfigs)
+            throws IOException {
+        Grouping grouping = element.grouping();
+        List<JsonNode> scopes = grouping == null ? null : resourceMapper.scopes(finder);
+        if (!grouped(element, scopes)) {
+            return ModelFactory.createModelForGraph(resourceMapper.buildSubjects(finder, null));
+        }
+        ElementMappers.Compiled group = elementMappers.get(
+                element.id() + "#group", root.baseDir(), grouping.file(), prefixes, element.typeCurieOrIri());
+        elementConfigs.put(element.id() + "#group", group.config());
+        return ModelFactory.createModelForGraph(
+                group.mapper().buildSubjects(finder, ScopeGroups.group(finder, scopes, grouping.by())));
+    }
+
+    /** Whether {@code element} is mapped in groups over {@code scopes} (DCATCFG-017: not when incomplete). */
+    private static boolean grouped(Element element, List<JsonNode> scopes) {
+        Grouping grouping = element.grouping();
+        return grouping != null
+                && grouping.threshold() >= 1
+                && grouping.file() != null
+                && scopes != null
+                && scopes.size() > grouping.threshold();
+    }
+
     private static void validateAllOrThrow(RootConfig root, Map<String, ResourceConfig> elementConfigs)
             throws ExportException {
 
@@ -243,6 +468,31 @@ public abstract class Dcat3ExporterBase implements Exporter {
         }
     }
 
+    /** Links page {@code page} to its neighbours when the export has more than one page. */
+    private static void addPageLinks(
+            Model model, Prefixes prefixes, Paging paging, JaywayJsonFinder finder, int page, int pages) {
+        if (paging == null || pages < 2) {
+            return;
+        }
+        Resource current = model.createResource(pageIri(paging, finder, page));
+        if (page + 1 < pages) {
+            model.add(
+                    current,
+                    model.createProperty(prefixes.expand(paging.next())),
+                    model.createResource(pageIri(paging, finder, page + 1)));
+        }
+        if (page > 0) {
+            model.add(
+                    current,
+                    model.createProperty(prefixes.expand(paging.previous())),
+                    model.createResource(pageIri(paging, finder, page - 1)));
+        }
+    }
+
+    private static String pageIri(Paging paging, JaywayJsonFinder finder, int page) {
+        return TemplateFormatter.format(paging.iri(), Integer.toString(page), null, finder, null);
+    }
+
     private static void writeAtomic(Model model, String writerName, OutputStream outputStream) throws IOException {
         // make writing atomic, make sure no half written output stream leaves this code.
         ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
@@ -254,18 +504,22 @@ public abstract class Dcat3ExporterBase implements Exporter {
     // Small utilities
     // ---------------------------------------------------------------------------
 
+    private static int pageCount(int scopes, long pageSize) {
+        return (int) Math.max(1, (scopes + pageSize - 1) / pageSize);
+    }
+
     private static int compareResources(Resource a, Resource b) {
         String ka = a.isURIResource() ? a.getURI() : a.getId().getLabelString();
         String kb = b.isURIResource() ? b.getURI() : b.getId().getLabelString();
         return ka.compareTo(kb);
     }
 
-    /**
-     * Internal carrier for build results: element models, discovered subjects, and configs for
-     * validation.
-     */
+    /** Internal carrier for build results: element models, discovered subjects, configs for validation. */
     private record MapBuildResult(
             Map<String, Model> models,
             Map<String, List<Resource>> subjects,
             Map<String, ResourceConfig> elementConfigs) {}
+
+    /** The scope nodes of each paged element, by element id, and the page count of the export. */
+    private record PagePlan(Map<String, List<JsonNode>> scopes, int pages) {}
 }
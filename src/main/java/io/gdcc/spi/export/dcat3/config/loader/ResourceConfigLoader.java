@@ -1,16 +1,22 @@
 package io.gdcc.spi.export.dcat3.config.loader;
 
+import io.gdcc.spi.export.dcat3.config.model.Aggregate;
+import io.gdcc.spi.export.dcat3.config.model.Lookup;
 import io.gdcc.spi.export.dcat3.config.model.NodeTemplate;
 import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
 import io.gdcc.spi.export.dcat3.config.model.Subject;
 import io.gdcc.spi.export.dcat3.config.model.ValueSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.TreeMap;
@@ -27,8 +33,23 @@ public class ResourceConfigLoader {
     private static final Pattern NODE_PATTERN = Pattern.compile("^nodes\\.([^.]+)\\.(.+)$");
     private static final Pattern NODE_PROPERTY_PATTERN = Pattern.compile("^props\\.([^.]+)\\.(.+)$");
     private static final Pattern SUBJECT_JSON_INDEXED = Pattern.compile("^subject\\.iri\\.json\\.(\\d+)$");
+    private static final Pattern SCOPE_JSON_INDEXED = Pattern.compile("^scope\\.json\\.(\\d+)$");
     private static final Pattern NODE_IRI_JSON_INDEXED = Pattern.compile("^iri\\.json\\.(\\d+)$");
 
+    private final Path baseDir;
+
+    public ResourceConfigLoader() {
+        this(null);
+    }
+
+    /**
+     * @param baseDir directory code lists ({@code codeList}) are resolved against first, like element
+     *     files; may be null
+     */
+    public ResourceConfigLoader(Path baseDir) {
+        this.baseDir = baseDir;
+    }
+
     public ResourceConfig load(InputStream in) throws IOException {
         // 3.5: fail cleanly on missing mapping resource
         if (in == null) {
@@ -50,8 +71,9 @@ public class ResourceConfigLoader {
         subjectAcc.iriJsonPaths = readSubjectIndexedJsonPaths(property);
         Subject subject = subjectAcc.toSubject();
 
-        // Scope JSON
+        // Scope JSON, and the nested levels below it
         String scopeJson = property.getProperty("scope.json");
+        List<String> nestedScopes = readIndexed(property, SCOPE_JSON_INDEXED);
 
         // -------------------------
         // Top-level props accumulation
@@ -73,6 +95,7 @@ public class ResourceConfigLoader {
         Map<String, ValueSource> props = new LinkedHashMap<>();
         for (String propId : sortedKeys(propAcc)) {
             ValueSourceAccumulator acc = propAcc.get(propId);
+            acc.codeList = resolveCodeList(acc.codeList);
             props.put(propId, acc.toValueSource());
         }
 
@@ -100,6 +123,7 @@ public class ResourceConfigLoader {
                 case "multi" -> nodeAccumulators.multi = Boolean.parseBoolean(v);
                 case "onUnMappedValue" -> nodeAccumulators.onUnMappedValue = v;
                 case "onNoInputValue" -> nodeAccumulators.onNoInputValue = v;
+                case "codeList" -> nodeAccumulators.codeList = v;
                 default -> {
                     // node props: nodes.<nodeId>.props.<propId>.<...>
                     Matcher nodePropertyPatternMatcher = NODE_PROPERTY_PATTERN.matcher(tail);
@@ -132,7 +156,9 @@ public class ResourceConfigLoader {
             // Finalize node props deterministically (alphabetical by prop id)
             Map<String, ValueSource> nodeProps = new LinkedHashMap<>();
             for (String propId : sortedKeys(na.props)) {
-                nodeProps.put(propId, na.props.get(propId).toValueSource());
+                ValueSourceAccumulator acc = na.props.get(propId);
+                acc.codeList = resolveCodeList(acc.codeList);
+                nodeProps.put(propId, acc.toValueSource());
             }
 
             // Sort node iriMap deterministically (alphabetical by map key)
@@ -150,20 +176,41 @@ public class ResourceConfigLoader {
                     iriMapSorted,
                     nodeProps,
                     na.onUnMappedValue,
-                    na.onNoInputValue);
+                    na.onNoInputValue,
+                    resolveCodeList(na.codeList));
 
             nodes.put(na.nodeId, nodeTemplate);
         }
 
         // Build final ResourceConfig
-        return new ResourceConfig(subject, props, nodes, scopeJson);
+        return new ResourceConfig(subject, props, nodes, scopeJson, nestedScopes);
+    }
+
+    /**
+     * A code list found relative to {@code baseDir} becomes an absolute path; any other name is kept
+     * and resolved from cwd, user.home or the classpath when the mapping is compiled.
+     */
+    private String resolveCodeList(String name) {
+        if (name == null || name.isBlank() || baseDir == null) {
+            return name;
+        }
+        try {
+            Path relative = baseDir.resolve(name.trim()).normalize();
+            return Files.isRegularFile(relative) ? relative.toAbsolutePath().toString() : name;
+        } catch (InvalidPathException e) {
+            return name;
+        }
     }
 
     private static List<String> readSubjectIndexedJsonPaths(Properties property) {
+        return readIndexed(property, SUBJECT_JSON_INDEXED);
+    }
+
+    private static List<String> readIndexed(Properties property, Pattern indexed) {
         // Collect into a numeric map to preserve intended order even if Properties enumerates differently
         Map<Integer, String> ordered = new TreeMap<>();
         for (String name : property.stringPropertyNames()) {
-            Matcher m = SUBJECT_JSON_INDEXED.matcher(name);
+            Matcher m = indexed.matcher(name);
             if (!m.matches()) continue;
             int idx = Integer.parseInt(m.group(1));
             ordered.put(idx, property.getProperty(name));
@@ -210,6 +257,9 @@ public class ResourceConfigLoader {
         String predicate, as, lang, datatype, json, constValue, nodeRef, when, format;
         String onUnMappedValue, onNoInputValue;
         String mapEmpty, mapNonEmpty;
+        String aggregateFunction, aggregateOver, aggregateField, aggregateFilter;
+        String lookupIndex, lookupKey, lookupValue;
+        String codeList, transform;
         boolean multi;
 
         Map<Integer, String> indexedJsonPaths = new TreeMap<>();
@@ -240,7 +290,21 @@ public class ResourceConfigLoader {
                     onUnMappedValue,
                     onNoInputValue,
                     mapEmpty,
-                    mapNonEmpty);
+                    mapNonEmpty,
+                    toAggregate(),
+                    lookupIndex == null && lookupKey == null && lookupValue == null
+                            ? null
+                            : new Lookup(lookupIndex, lookupKey, lookupValue),
+                    codeList,
+                    transform);
+        }
+
+        private Aggregate toAggregate() {
+            if (aggregateFunction == null && aggregateOver == null && aggregateField == null && aggregateFilter == null) {
+                return null;
+            }
+            String function = aggregateFunction == null ? null : aggregateFunction.trim().toLowerCase(Locale.ROOT);
+            return new Aggregate(function, aggregateOver, aggregateField, aggregateFilter);
         }
     }
 
@@ -256,6 +320,7 @@ public class ResourceConfigLoader {
         boolean multi;
         String onUnMappedValue;
         String onNoInputValue;
+        String codeList;
 
         // node-level iriMap and props (sorted at finalisation)
         Map<String, String> iriMap = new LinkedHashMap<>();
@@ -283,6 +348,15 @@ public class ResourceConfigLoader {
             case "onNoInputValue" -> acc.onNoInputValue = value;
             case "map_empty" -> acc.mapEmpty = value;
             case "map_nonempty" -> acc.mapNonEmpty = value;
+            case "aggregate" -> acc.aggregateFunction = value;
+            case "aggregate.over" -> acc.aggregateOver = value;
+            case "aggregate.field" -> acc.aggregateField = value;
+            case "aggregate.filter" -> acc.aggregateFilter = value;
+            case "lookup.index" -> acc.lookupIndex = value;
+            case "lookup.key" -> acc.lookupKey = value;
+            case "lookup.value" -> acc.lookupValue = value;
+            case "codeList" -> acc.codeList = value;
+            case "transform" -> acc.transform = value;
             default -> {
                 if (keyTail.startsWith("json.")) {
                     String suffix = keyTail.substring("json.".length());
@@ -2,18 +2,26 @@ package io.gdcc.spi.export.dcat3.config.loader;
 
 import static io.gdcc.spi.export.dcat3.config.loader.FileResolver.resolveFile;
 
+import io.gdcc.spi.export.dcat3.config.model.BlankNodes;
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.model.Cache;
 import io.gdcc.spi.export.dcat3.config.model.Element;
 import io.gdcc.spi.export.dcat3.config.model.FormatFlags;
+import io.gdcc.spi.export.dcat3.config.model.Grouping;
+import io.gdcc.spi.export.dcat3.config.model.Paging;
 import io.gdcc.spi.export.dcat3.config.model.Relation;
 import io.gdcc.spi.export.dcat3.config.model.RootConfig;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -55,6 +63,11 @@ public final class RootConfigLoader {
 
     private static RootConfig parse(Properties properties, Path baseDir) {
         boolean trace = Boolean.parseBoolean(properties.getProperty("dcat.trace.enabled", "false"));
+        boolean deepScanRewrite = safeBoolean(properties.getProperty("dcat.optimize.deepScan"), false);
+        boolean cacheElements = safeBoolean(properties.getProperty("dcat.optimize.cacheElements"), false);
+        boolean strictIris = safeBoolean(properties.getProperty("dcat.iri.strict"), false);
+        Budget budget = parseBudget(properties);
+        BlankNodes blankNodes = parseBlankNodes(properties);
 
         // prefixes.*
         Map<String, String> prefixes = new LinkedHashMap<>();
@@ -64,7 +77,7 @@ public final class RootConfigLoader {
             }
         }
 
-        // elements: element.<name>.{id,type,file}
+        // elements: element.<name>.{id,type,file,group.*,page.size}
         List<Element> elements = new ArrayList<>();
         for (String key : properties.stringPropertyNames()) {
             Matcher matcher = ELEMENT_ID_PATTERN.matcher(key);
@@ -75,7 +88,12 @@ public final class RootConfigLoader {
             String id = properties.getProperty(base + ".id");
             String type = properties.getProperty(base + ".type");
             String file = properties.getProperty(base + ".file");
-            elements.add(new Element(id, type, file));
+            elements.add(new Element(
+                    id,
+                    type,
+                    file,
+                    parseGrouping(properties, base + ".group."),
+                    safeLong(properties.getProperty(base + ".page.size"))));
         }
 
         // Normalize ordering: Properties enumeration order is not guaranteed.
@@ -107,7 +125,96 @@ public final class RootConfigLoader {
         // dcat.format.<format>.<flag> -> defaults TRUE on absence
         Map<String, FormatFlags> formats = parseFormats(properties);
 
-        return new RootConfig(trace, prefixes, elements, relations, formats, baseDir);
+        return new RootConfig(
+                trace,
+                deepScanRewrite,
+                cacheElements,
+                strictIris,
+                budget,
+                blankNodes,
+                parsePaging(properties),
+                parseCache(properties, baseDir),
+                prefixes,
+                elements,
+                relations,
+                formats,
+                baseDir);
+    }
+
+    /** Parse dcat.budget.* limits; absent limits are 0 (no limit), the action defaults to warn. */
+    private static Budget parseBudget(Properties properties) {
+        String action = properties.getProperty("dcat.budget.action", Budget.WARN).trim().toLowerCase(Locale.ROOT);
+        return new Budget(
+                safeLong(properties.getProperty("dcat.budget.path.maxNodes")),
+                safeLong(properties.getProperty("dcat.budget.path.maxMillis")),
+                safeLong(properties.getProperty("dcat.budget.export.maxNodes")),
+                safeLong(properties.getProperty("dcat.budget.export.maxMillis")),
+                action);
+    }
+
+    /** Parse element.<name>.group.*; null when none of the keys is present. */
+    private static Grouping parseGrouping(Properties properties, String base) {
+        String threshold = properties.getProperty(base + "threshold");
+        String by = properties.getProperty(base + "by");
+        String file = properties.getProperty(base + "file");
+        if (threshold == null && by == null && file == null) {
+            return null;
+        }
+        return new Grouping(
+                safeLong(threshold),
+                by == null || by.isBlank() ? null : by.trim(),
+                file == null || file.isBlank() ? null : file.trim());
+    }
+
+    /** Parse dcat.bnode.*; labels default to anonymous. */
+    private static BlankNodes parseBlankNodes(Properties properties) {
+        String labels = properties
+                .getProperty("dcat.bnode.labels", BlankNodes.ANONYMOUS)
+                .trim()
+                .toLowerCase(Locale.ROOT);
+        String skolemBase = properties.getProperty("dcat.bnode.skolemBase");
+        return new BlankNodes(labels, skolemBase == null || skolemBase.isBlank() ? null : skolemBase.trim());
+    }
+
+    /** Parse dcat.page.*; null when no page IRI is set, links default to hydra:next/previous. */
+    private static Paging parsePaging(Properties properties) {
+        String iri = properties.getProperty("dcat.page.iri");
+        if (iri == null || iri.isBlank()) {
+            return null;
+        }
+        return new Paging(
+                iri.trim(),
+                properties.getProperty("dcat.page.next", Paging.HYDRA_NEXT).trim(),
+                properties.getProperty("dcat.page.previous", Paging.HYDRA_PREVIOUS).trim());
+    }
+
+    /** Parse dcat.cache.*; null when no directory is configured. */
+    private static Cache parseCache(Properties properties, Path baseDir) {
+        String dir = properties.getProperty("dcat.cache.dir");
+        if (dir == null || dir.isBlank()) {
+            return null;
+        }
+        Path path;
+        try {
+            path = Paths.get(dir.trim());
+            if (!path.isAbsolute() && baseDir != null) {
+                path = baseDir.resolve(path);
+            }
+        } catch (InvalidPathException e) {
+            path = null; // DCATCFG-036
+        }
+        long maxMegabytes = safeLong(properties.getProperty("dcat.cache.maxMegabytes"));
+        return new Cache(path, maxMegabytes == 0 ? Cache.DEFAULT_MAX_MEGABYTES : maxMegabytes);
+    }
+
+    /** null/blank -> 0 (no limit); unparsable -> -1 so validation can report it. */
+    private static long safeLong(String raw) {
+        if (raw == null || raw.trim().isEmpty()) return 0L;
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
     }
 
     /** Parse dcat.format.* flags, defaulting to TRUE when a flag is absent. */
@@ -0,0 +1,30 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+import java.util.Set;
+
+/**
+ * Aggregate value source ({@code props.<id>.aggregate.*}): one value computed over the elements of
+ * an array, e.g. the number of files or their summed size.
+ *
+ * @param function count | sum | min | max | any | all | distinct
+ * @param over JSONPath of the array to aggregate (scoped or root via $$ convention)
+ * @param field JSONPath of the aggregated value, relative to an element (e.g. {@code $.filesize})
+ * @param filter optional condition on an element, in {@code when} syntax with element-relative paths
+ */
+public record Aggregate(String function, String over, String field, String filter) {
+
+    public static final String COUNT = "count";
+    public static final String SUM = "sum";
+    public static final String MIN = "min";
+    public static final String MAX = "max";
+    public static final String ANY = "any";
+    public static final String ALL = "all";
+    public static final String DISTINCT = "distinct";
+
+    public static final Set<String> FUNCTIONS = Set.of(COUNT, SUM, MIN, MAX, ANY, ALL, DISTINCT);
+
+    /** True when the function cannot work without a field (sum, min, max, distinct). */
+    public boolean needsField() {
+        return SUM.equals(function) || MIN.equals(function) || MAX.equals(function) || DISTINCT.equals(function);
+    }
+}
@@ -0,0 +1,22 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+/**
+ * How blank nodes minted while mapping are labelled ({@code dcat.bnode.*}).
+ *
+ * @param labels anonymous (fresh labels per export) | hash (labels derived from element, scope
+ *     index and node template) | skolem (hash-derived IRIs under {@code skolemBase})
+ * @param skolemBase IRI prefix for skolem IRIs, e.g. {@code https://example.org/.well-known/genid/}
+ */
+public record BlankNodes(String labels, String skolemBase) {
+
+    public static final String ANONYMOUS = "anonymous";
+    public static final String HASH = "hash";
+    public static final String SKOLEM = "skolem";
+
+    public static final BlankNodes DEFAULT = new BlankNodes(ANONYMOUS, null);
+
+    /** True when labels are derived deterministically (hash or skolem). */
+    public boolean deterministic() {
+        return HASH.equals(labels) || SKOLEM.equals(labels);
+    }
+}
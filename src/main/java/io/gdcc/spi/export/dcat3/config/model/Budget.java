@@ -0,0 +1,25 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+/**
+ * JSONPath evaluation budget ({@code dcat.budget.*}). A limit of 0 means "no limit"; a negative
+ * limit marks an unparsable value and is reported by validation.
+ *
+ * @param pathMaxNodes estimated JSON nodes one path may visit during an export
+ * @param pathMaxMillis time one path may take during an export
+ * @param exportMaxNodes estimated JSON nodes all paths together may visit during an export
+ * @param exportMaxMillis time all paths together may take during an export
+ * @param action what to do when a limit is exceeded: warn | skip | abort
+ */
+public record Budget(long pathMaxNodes, long pathMaxMillis, long exportMaxNodes, long exportMaxMillis, String action) {
+
+    public static final String WARN = "warn";
+    public static final String SKIP = "skip";
+    public static final String ABORT = "abort";
+
+    public static final Budget UNLIMITED = new Budget(0, 0, 0, 0, WARN);
+
+    /** True when at least one limit is set. */
+    public boolean limited() {
+        return pathMaxNodes > 0 || pathMaxMillis > 0 || exportMaxNodes > 0 || exportMaxMillis > 0;
+    }
+}
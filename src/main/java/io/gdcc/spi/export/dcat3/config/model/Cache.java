@@ -0,0 +1,16 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+import java.nio.file.Path;
+
+/**
+ * Persistent store of mapped element and scope triples ({@code dcat.cache.*}), kept across exports
+ * and restarts so a re-export only maps what changed.
+ *
+ * @param dir directory of the store, relative paths resolved against the root file's directory
+ * @param maxMegabytes size bound of the store; least recently used entries are evicted beyond it
+ *     (absent: {@value #DEFAULT_MAX_MEGABYTES}; unparsable: -1)
+ */
+public record Cache(Path dir, long maxMegabytes) {
+
+    public static final long DEFAULT_MAX_MEGABYTES = 256;
+}
@@ -0,0 +1,238 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed {@code when} expression of a {@link ValueSource}: the property is only emitted when it
+ * holds.
+ *
+ * <p>Grammar ({@code &&} binds tighter than {@code ||}):
+ *
+ * <pre>
+ * condition := and ( '||' and )*
+ * and       := unary ( '&amp;&amp;' unary )*
+ * unary     := '!' unary | '(' condition ')' | path [ op operand ]
+ * op        := '==' | '!=' | '&lt;' | '&lt;=' | '&gt;' | '&gt;='
+ * operand   := path | 'text' | "text" | bare word or number
+ * </pre>
+ *
+ * A path is a JSONPath starting with {@code $} (scope) or {@code $$} (root). A path alone tests
+ * that it yields a non-blank value.
+ */
+public interface Condition {
+
+    /** Comparison operators. */
+    enum Operator {
+        EQ("=="),
+        NE("!="),
+        LE("<="),
+        GE(">="),
+        LT("<"),
+        GT(">");
+
+        public final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    /** {@code path}: the path yields at least one non-blank value. */
+    record Exists(String path) implements Condition {}
+
+    /** {@code path op operand}. */
+    record Compare(String path, Operator operator, Operand operand) implements Condition {}
+
+    /** Right-hand side of a comparison: another path or a constant. */
+    record Operand(String path, String value) {}
+
+    record Not(Condition condition) implements Condition {}
+
+    record All(List<Condition> conditions) implements Condition {}
+
+    record Any(List<Condition> conditions) implements Condition {}
+
+    /** @return the JSONPaths the condition reads, in order of appearance */
+    default List<String> paths() {
+        List<String> paths = new ArrayList<>();
+        collectPaths(this, paths);
+        return paths;
+    }
+
+    private static void collectPaths(Condition condition, List<String> paths) {
+        if (condition instanceof Exists exists) {
+            paths.add(exists.path());
+        } else if (condition instanceof Compare compare) {
+            paths.add(compare.path());
+            if (compare.operand().path() != null) {
+                paths.add(compare.operand().path());
+            }
+        } else if (condition instanceof Not not) {
+            collectPaths(not.condition(), paths);
+        } else if (condition instanceof All all) {
+            all.conditions().forEach(c -> collectPaths(c, paths));
+        } else if (condition instanceof Any any) {
+            any.conditions().forEach(c -> collectPaths(c, paths));
+        }
+    }
+
+    /**
+     * @param expression a {@code when} expression
+     * @return the parsed condition, null when {@code expression} is null or blank
+     * @throws IllegalArgumentException when the expression is malformed
+     */
+    static Condition parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return null;
+        }
+        return new Parser(expression).parse();
+    }
+
+    /** Recursive descent parser over the raw expression. */
+    final class Parser {
+        private final String s;
+        private int pos;
+
+        private Parser(String s) {
+            this.s = s;
+        }
+
+        private Condition parse() {
+            Condition condition = or();
+            skipSpaces();
+            if (pos < s.length()) {
+                throw error("unexpected '" + s.substring(pos) + "'");
+            }
+            return condition;
+        }
+
+        private Condition or() {
+            List<Condition> terms = new ArrayList<>();
+            terms.add(and());
+            while (accept("||")) {
+                terms.add(and());
+            }
+            return terms.size() == 1 ? terms.get(0) : new Any(List.copyOf(terms));
+        }
+
+        private Condition and() {
+            List<Condition> terms = new ArrayList<>();
+            terms.add(unary());
+            while (accept("&&")) {
+                terms.add(unary());
+            }
+            return terms.size() == 1 ? terms.get(0) : new All(List.copyOf(terms));
+        }
+
+        private Condition unary() {
+            skipSpaces();
+            if (peek("!") && !peek("!=")) {
+                pos++;
+                return new Not(unary());
+            }
+            if (accept("(")) {
+                Condition inner = or();
+                if (!accept(")")) {
+                    throw error("missing ')'");
+                }
+                return inner;
+            }
+            String path = path();
+            Operator operator = operator();
+            return operator == null ? new Exists(path) : new Compare(path, operator, operand());
+        }
+
+        private Operator operator() {
+            skipSpaces();
+            for (Operator operator : Operator.values()) {
+                if (accept(operator.symbol)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private Operand operand() {
+            skipSpaces();
+            if (pos >= s.length()) {
+                throw error("missing operand");
+            }
+            char c = s.charAt(pos);
+            if (c == '$') {
+                return new Operand(path(), null);
+            }
+            if (c == '\'' || c == '"') {
+                int end = s.indexOf(c, pos + 1);
+                if (end < 0) {
+                    throw error("unterminated string");
+                }
+                String value = s.substring(pos + 1, end);
+                pos = end + 1;
+                return new Operand(null, value);
+            }
+            int start = pos;
+            while (pos < s.length() && !Character.isWhitespace(s.charAt(pos)) && "&|()".indexOf(s.charAt(pos)) < 0) {
+                pos++;
+            }
+            if (pos == start) {
+                throw error("missing operand");
+            }
+            return new Operand(null, s.substring(start, pos));
+        }
+
+        /** A JSONPath up to the next space, operator or ')' outside brackets and quotes. */
+        private String path() {
+            skipSpaces();
+            if (pos >= s.length() || s.charAt(pos) != '$') {
+                throw error("expected a JSONPath starting with '$' at position " + pos);
+            }
+            int start = pos;
+            int depth = 0;
+            char quote = 0;
+            for (; pos < s.length(); pos++) {
+                char c = s.charAt(pos);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '[' || c == '(') {
+                    depth++;
+                } else if ((c == ']' || c == ')') && depth > 0) {
+                    depth--;
+                } else if (depth == 0 && (Character.isWhitespace(c) || "=!<>&|)".indexOf(c) >= 0)) {
+                    break;
+                }
+            }
+            if (quote != 0 || depth != 0) {
+                throw error("unbalanced brackets or quotes in " + s.substring(start));
+            }
+            return s.substring(start, pos);
+        }
+
+        private boolean accept(String token) {
+            skipSpaces();
+            if (peek(token)) {
+                pos += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean peek(String token) {
+            return s.startsWith(token, pos);
+        }
+
+        private void skipSpaces() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid when '" + s + "': " + message);
+        }
+    }
+}
@@ -1,3 +1,11 @@
 package io.gdcc.spi.export.dcat3.config.model;
 
-public record Element(String id, String typeCurieOrIri, String file) {}
+/**
+ * An element of the root config ({@code element.<name>.*}).
+ *
+ * @param grouping Grouped mode for large scope counts ({@code element.<name>.group.*}); null when
+ *     not configured
+ * @param pageSize Scopes per page of a paged export ({@code element.<name>.page.size}); 0 when the
+ *     element is not paged, -1 when unparsable
+ */
+public record Element(String id, String typeCurieOrIri, String file, Grouping grouping, long pageSize) {}
@@ -0,0 +1,11 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+/**
+ * Grouped mode of an element ({@code element.<name>.group.*}): above {@code threshold} scopes (e.g.
+ * files) the element is mapped once per group of scopes instead of once per scope.
+ *
+ * @param threshold largest scope count still mapped per scope; 0 when absent, -1 when unparsable
+ * @param by JSONPath of the group key, relative to a scope; null puts every scope in one group
+ * @param file resource config mapping one group, resolved like element files
+ */
+public record Grouping(long threshold, String by, String file) {}
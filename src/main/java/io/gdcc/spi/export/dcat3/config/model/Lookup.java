@@ -0,0 +1,11 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+/**
+ * Keyed lookup ({@code props.<id>.lookup.*}): the values read by {@code json} are keys into an
+ * index over another array, e.g. a file's persistent id into the ORE {@code ore:aggregates}.
+ *
+ * @param index JSONPath of the array to index (scoped or root via $$ convention)
+ * @param key JSONPath of an element's key, relative to the element
+ * @param value JSONPath of an element's value, relative to the element
+ */
+public record Lookup(String index, String key, String value) {}
@@ -3,6 +3,11 @@ package io.gdcc.spi.export.dcat3.config.model;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Declarative mapping for an embedded node ({@code nodes.<id>.*}).
+ *
+ * @param codeList External TSV/CSV code list consulted after the iriMap entries (optional)
+ */
 public record NodeTemplate(
         String id,
         String kind,
@@ -15,4 +20,5 @@ public record NodeTemplate(
         Map<String, String> iriMap,
         Map<String, ValueSource> props,
         String onUnMappedValue,
-        String onNoInputValue) {}
+        String onNoInputValue,
+        String codeList) {}
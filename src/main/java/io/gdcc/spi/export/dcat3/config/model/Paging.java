@@ -0,0 +1,16 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+/**
+ * Links between the pages of a paged export ({@code dcat.page.*}); elements opt in with {@code
+ * element.<name>.page.size}.
+ *
+ * @param iri IRI template of page k: {@code ${value}} is k (0-based), {@code ${$$.path}} reads the
+ *     export JSON
+ * @param next CURIE or IRI of the link to the next page
+ * @param previous CURIE or IRI of the link to the previous page
+ */
+public record Paging(String iri, String next, String previous) {
+
+    public static final String HYDRA_NEXT = "http://www.w3.org/ns/hydra/core#next";
+    public static final String HYDRA_PREVIOUS = "http://www.w3.org/ns/hydra/core#previous";
+}
@@ -1,9 +1,17 @@
 package io.gdcc.spi.export.dcat3.config.model;
 
+import java.util.List;
 import java.util.Map;
 
 /**
  * @param scopeJson JSONPath selecting the sub-tree(s) this resource mapping applies to. NEW
+ * @param nestedScopes JSONPaths of the levels below {@code scopeJson} ({@code scope.json.2},
+ *     {@code scope.json.3}, ...), each relative to a node of the level above; empty when the
+ *     element iterates one level
  */
 public record ResourceConfig(
-        Subject subject, Map<String, ValueSource> props, Map<String, NodeTemplate> nodes, String scopeJson) {}
+        Subject subject,
+        Map<String, ValueSource> props,
+        Map<String, NodeTemplate> nodes,
+        String scopeJson,
+        List<String> nestedScopes) {}
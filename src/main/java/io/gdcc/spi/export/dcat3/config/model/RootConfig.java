@@ -5,10 +5,27 @@ import java.util.List;
 import java.util.Map;
 
 /**
+ * @param deepScanRewrite Rewrite root-level deep scans to learned concrete paths
+ *     ({@code dcat.optimize.deepScan})
+ * @param cacheElements Reuse the graphs of elements whose input did not change since an earlier
+ *     export ({@code dcat.optimize.cacheElements})
+ * @param strictIris Percent-encode illegal characters in IRIs built while mapping ({@code
+ *     dcat.iri.strict})
+ * @param budget JSONPath evaluation budget ({@code dcat.budget.*})
+ * @param blankNodes Blank node labelling ({@code dcat.bnode.*})
+ * @param paging Links between pages of a paged export ({@code dcat.page.*}); null when not configured
+ * @param cache Persistent store of mapped triples ({@code dcat.cache.*}); null when not configured
  * @param baseDir Directory of the root file; used to resolve element files relative to it
  */
 public record RootConfig(
         boolean trace,
+        boolean deepScanRewrite,
+        boolean cacheElements,
+        boolean strictIris,
+        Budget budget,
+        BlankNodes blankNodes,
+        Paging paging,
+        Cache cache,
         Map<String, String> prefixes,
         List<Element> elements,
         List<Relation> relations,
@@ -0,0 +1,108 @@
+package io.gdcc.spi.export.dcat3.config.model;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * One function of a {@code transform} pipeline ({@code props.<id>.transform}), applied to every
+ * value before map and format.
+ *
+ * <p>A pipeline is a {@code |}-separated list of functions, each optionally followed by one
+ * argument in parentheses, e.g. {@code normalize | lower} or {@code datetime(dd-MM-yyyy HH:mm)}.
+ *
+ * @param function lower | upper | normalize | url-encode | number | integer | date | datetime |
+ *     wkt-bbox
+ * @param argument the text between the parentheses, trimmed; null when absent
+ */
+public record Transform(String function, String argument) {
+
+    public static final String LOWER = "lower";
+    public static final String UPPER = "upper";
+    public static final String NORMALIZE = "normalize";
+    public static final String URL_ENCODE = "url-encode";
+    public static final String NUMBER = "number";
+    public static final String INTEGER = "integer";
+    public static final String DATE = "date";
+    public static final String DATETIME = "datetime";
+    public static final String WKT_BBOX = "wkt-bbox";
+
+    public static final Set<String> FUNCTIONS =
+            Set.of(LOWER, UPPER, NORMALIZE, URL_ENCODE, NUMBER, INTEGER, DATE, DATETIME, WKT_BBOX);
+
+    /** Functions taking an optional argument: the input date pattern. */
+    private static final Set<String> WITH_ARGUMENT = Set.of(DATE, DATETIME);
+
+    /**
+     * @return the functions of {@code pipeline} in order, empty when it is null or blank
+     * @throws IllegalArgumentException when a function is unknown, takes no argument or has an
+     *     invalid date pattern
+     */
+    public static List<Transform> parse(String pipeline) {
+        List<Transform> transforms = new ArrayList<>();
+        if (pipeline == null || pipeline.isBlank()) {
+            return transforms;
+        }
+        for (String part : split(pipeline)) {
+            String text = part.trim();
+            String function = text;
+            String argument = null;
+            int open = text.indexOf('(');
+            if (open >= 0) {
+                if (!text.endsWith(")")) {
+                    throw invalid(pipeline, "missing ')' after " + text.substring(0, open).trim());
+                }
+                function = text.substring(0, open).trim();
+                argument = text.substring(open + 1, text.length() - 1).trim();
+            }
+            function = function.toLowerCase(Locale.ROOT);
+            if (function.isEmpty()) {
+                throw invalid(pipeline, "empty function");
+            }
+            if (!FUNCTIONS.contains(function)) {
+                throw invalid(pipeline, "unknown function " + function);
+            }
+            if (argument != null && !WITH_ARGUMENT.contains(function)) {
+                throw invalid(pipeline, function + " takes no argument");
+            }
+            if (argument != null && argument.isEmpty()) {
+                argument = null;
+            }
+            if (argument != null) {
+                try {
+                    DateTimeFormatter.ofPattern(argument, Locale.ROOT);
+                } catch (IllegalArgumentException e) {
+                    throw invalid(pipeline, "invalid date pattern " + argument + " (" + e.getMessage() + ")");
+                }
+            }
+            transforms.add(new Transform(function, argument));
+        }
+        return transforms;
+    }
+
+    /** Splits on {@code |} outside parentheses, so a date pattern may contain one. */
+    private static List<String> split(String pipeline) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < pipeline.length(); i++) {
+            char c = pipeline.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '|' && depth == 0) {
+                parts.add(pipeline.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(pipeline.substring(start));
+        return parts;
+    }
+
+    private static IllegalArgumentException invalid(String pipeline, String problem) {
+        return new IllegalArgumentException("Invalid transform '" + pipeline.trim() + "': " + problem);
+    }
+}
@@ -15,14 +15,18 @@ import java.util.Map;
  * @param jsonPaths Multi-source selectors: ordered list json.1, json.2, ...
  * @param nodeRef Node reference (for as=node-ref)
  * @param multi Multiplicity: if true and json resolves to multiple values, emit all
- * @param when Conditional emission (future use)
- * @param map Mapping table (optional): map.raw -> mapped
+ * @param when Condition the property is emitted under (see {@link Condition}); emitted always when absent
+ * @param map Mapping table (optional): map.raw -> mapped, plus prefix/suffix/regex pattern entries
  * @param format formatting template. Supports ${value}, ${1}, ${2}, ... and inline JSONPath
  *     placeholders like ${$.path} or ${$$.path}.
  * @param onUnMappedValue Fallback value when input exists but doesn't match any map key
  * @param onNoInputValue Fallback value when no input is present from JSON path
  * @param mapEmpty Value to use when JSON path returns empty collection/array
  * @param mapNonEmpty Value to use when JSON path returns non-empty collection/array
+ * @param aggregate Aggregate over an array used as the value source instead of json/const (optional)
+ * @param lookup Index the json values are looked up in (optional)
+ * @param codeList External TSV/CSV code list consulted after the map entries (optional)
+ * @param transform Pipeline of functions applied to each value before map and format (see {@link Transform})
  */
 public record ValueSource(
         String predicate,
@@ -40,4 +44,17 @@ public record ValueSource(
         String onUnMappedValue,
         String onNoInputValue,
         String mapEmpty,
-        String mapNonEmpty) {}
+        String mapNonEmpty,
+        Aggregate aggregate,
+        Lookup lookup,
+        String codeList,
+        String transform) {
+
+    /**
+     * Map key prefixes of pattern entries ({@code map.prefix.<prefix>}, {@code map.suffix.<suffix>},
+     * {@code map.regex.<pattern>}), in value maps and node IRI maps alike. Every other key is exact.
+     */
+    public static final String MAP_PREFIX = "prefix.";
+    public static final String MAP_SUFFIX = "suffix.";
+    public static final String MAP_REGEX = "regex.";
+}
@@ -54,6 +54,10 @@ public final class NodeTemplateValidator implements Validator<NodeTemplate> {
             }
         }
 
+        // iri map patterns
+        ValueSourceValidator.validateMap(nodeTemplate.iriMap(), base + ".map", out);
+        ValueSourceValidator.validateCodeList(nodeTemplate.codeList(), base + ".codeList", out);
+
         // props: validate only when present and non-empty
         if (!isNullOrEmpty(nodeTemplate.props())) {
             for (Map.Entry<String, ValueSource> e : nodeTemplate.props().entrySet()) {
@@ -40,7 +40,23 @@ public final class ResourceConfigValidator implements Validator<ResourceConfig>
                 out.addAll(new NodeTemplateValidator(prefixes).validate(e.getValue()));
             }
         }
-        // scopeJson is optional
+        // scopeJson is optional; nested levels need it and are relative to the level above
+        if (!isNullOrEmpty(resourceConfig.nestedScopes())) {
+            boolean scoped = !isBlank(resourceConfig.scopeJson());
+            for (int i = 0; i < resourceConfig.nestedScopes().size(); i++) {
+                String nested = safeTrim(resourceConfig.nestedScopes().get(i));
+                if (!scoped || !nested.startsWith("$") || nested.startsWith("$$")) {
+                    out.add(new ValidationMessage(
+                            Severity.ERROR,
+                            "DCATRSC-301",
+                            "resource.nestedScopes[" + i + "]",
+                            scoped
+                                    ? "Nested scope is not a relative JSONPath: " + nested
+                                    : "Nested scope without scope.json",
+                            "Set scope.json and start nested scopes with $ or $^"));
+                }
+            }
+        }
         return out;
     }
 }
@@ -2,9 +2,14 @@ package io.gdcc.spi.export.dcat3.config.validate;
 
 import static io.gdcc.spi.export.dcat3.config.validate.ValidationUtil.*;
 
+import io.gdcc.spi.export.dcat3.config.model.BlankNodes;
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.model.Cache;
 import io.gdcc.spi.export.dcat3.config.model.Element;
+import io.gdcc.spi.export.dcat3.config.model.Paging;
 import io.gdcc.spi.export.dcat3.config.model.Relation;
 import io.gdcc.spi.export.dcat3.config.model.RootConfig;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -104,6 +109,30 @@ public final class RootConfigValidator implements Validator<RootConfig> {
                             "Missing element mapping file",
                             "Set element.<id>.file in properties"));
                 }
+                if (element.grouping() != null
+                        && (element.grouping().threshold() < 1 || isBlank(element.grouping().file()))) {
+                    out.add(new ValidationMessage(
+                            Severity.ERROR,
+                            "DCATCFG-017",
+                            path + ".group",
+                            "Grouping requires a positive threshold and a group file",
+                            "Set element.<id>.group.threshold and element.<id>.group.file"));
+                }
+                if (element.pageSize() < 0) {
+                    out.add(new ValidationMessage(
+                            Severity.ERROR,
+                            "DCATCFG-018",
+                            path + ".pageSize",
+                            "Page size is not a non-negative number",
+                            "Use 0 (not paged) or a positive number for element.<id>.page.size"));
+                } else if (element.pageSize() > 0 && root.paging() == null) {
+                    out.add(new ValidationMessage(
+                            Severity.ERROR,
+                            "DCATCFG-019",
+                            path + ".pageSize",
+                            "Paged element without page IRIs",
+                            "Set dcat.page.iri, e.g. https://example.org/export?page=${value}"));
+                }
             }
         }
         // relations
@@ -160,6 +189,102 @@ public final class RootConfigValidator implements Validator<RootConfig> {
                 }
             }
         }
+        // evaluation budget
+        Budget budget = root.budget();
+        if (budget != null) {
+            long[] limits = {
+                budget.pathMaxNodes(), budget.pathMaxMillis(), budget.exportMaxNodes(), budget.exportMaxMillis()
+            };
+            for (long limit : limits) {
+                if (limit < 0) {
+                    out.add(new ValidationMessage(
+                            Severity.ERROR,
+                            "DCATCFG-030",
+                            "root.budget",
+                            "Budget limit is not a non-negative number",
+                            "Use 0 (no limit) or a positive number for dcat.budget.*.maxNodes/maxMillis"));
+                    break;
+                }
+            }
+            if (!Budget.WARN.equals(budget.action())
+                    && !Budget.SKIP.equals(budget.action())
+                    && !Budget.ABORT.equals(budget.action())) {
+                out.add(new ValidationMessage(
+                        Severity.ERROR,
+                        "DCATCFG-031",
+                        "root.budget.action",
+                        "Unknown budget action: " + budget.action(),
+                        "Use warn, skip or abort"));
+            }
+        }
+        // blank node labelling
+        BlankNodes blankNodes = root.blankNodes();
+        if (blankNodes != null) {
+            if (!BlankNodes.ANONYMOUS.equals(blankNodes.labels()) && !blankNodes.deterministic()) {
+                out.add(new ValidationMessage(
+                        Severity.ERROR,
+                        "DCATCFG-032",
+                        "root.blankNodes.labels",
+                        "Unknown blank node labelling: " + blankNodes.labels(),
+                        "Use anonymous, hash or skolem"));
+            }
+            if (BlankNodes.SKOLEM.equals(blankNodes.labels())) {
+                String base = blankNodes.skolemBase();
+                if (base == null || !CurieIriUtils.isIri(base)) {
+                    out.add(new ValidationMessage(
+                            Severity.ERROR,
+                            "DCATCFG-033",
+                            "root.blankNodes.skolemBase",
+                            "Skolem labelling needs an absolute IRI base: " + base,
+                            "Set dcat.bnode.skolemBase, e.g. https://example.org/.well-known/genid/"));
+                } else if (!base.contains("/.well-known/genid/")) {
+                    out.add(new ValidationMessage(
+                            Severity.WARNING,
+                            "DCATCFG-033",
+                            "root.blankNodes.skolemBase",
+                            "Skolem IRI base is not under /.well-known/genid/: " + base,
+                            "RDF 1.1 recommends skolem IRIs under /.well-known/genid/"));
+                }
+            }
+        }
+        // paging
+        Paging paging = root.paging();
+        if (paging != null) {
+            String[][] links = {{"next", paging.next()}, {"previous", paging.previous()}};
+            for (String[] link : links) {
+                String p = safeTrim(link[1]);
+                if (!CurieIriUtils.isIri(p) && !CurieIriUtils.curieHasKnownPrefix(p, prefixes)) {
+                    out.add(new ValidationMessage(
+                            Severity.ERROR,
+                            "DCATCFG-034",
+                            "root.paging." + link[0],
+                            "Page link is not a CURIE or IRI with a known prefix: " + p,
+                            "Set dcat.page." + link[0] + " or leave it out for hydra:" + link[0]));
+                }
+            }
+        }
+        // persistent triple cache
+        Cache cache = root.cache();
+        if (cache != null) {
+            if (cache.maxMegabytes() < 0) {
+                out.add(new ValidationMessage(
+                        Severity.ERROR,
+                        "DCATCFG-035",
+                        "root.cache.maxMegabytes",
+                        "Cache size is not a positive number",
+                        "Use a positive number of megabytes for dcat.cache.maxMegabytes"));
+            }
+            if (cache.dir() == null || (Files.exists(cache.dir()) && !Files.isDirectory(cache.dir()))) {
+                out.add(new ValidationMessage(
+                        Severity.ERROR,
+                        "DCATCFG-036",
+                        "root.cache.dir",
+                        cache.dir() == null
+                                ? "Cache directory is not a valid path"
+                                : "Cache directory is not a directory: " + cache.dir(),
+                        "Set dcat.cache.dir to a writable directory; it is created when missing"));
+            }
+        }
         return out;
     }
 }
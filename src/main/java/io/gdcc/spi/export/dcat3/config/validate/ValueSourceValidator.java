@@ -5,12 +5,24 @@ import static io.gdcc.spi.export.dcat3.config.validate.ValidationUtil.isBlank;
 import static io.gdcc.spi.export.dcat3.config.validate.ValidationUtil.isNullOrEmpty;
 import static io.gdcc.spi.export.dcat3.config.validate.ValidationUtil.safeTrim;
 
+import io.gdcc.spi.export.dcat3.config.loader.FileResolver;
+import io.gdcc.spi.export.dcat3.config.model.Aggregate;
+import io.gdcc.spi.export.dcat3.config.model.Condition;
+import io.gdcc.spi.export.dcat3.config.model.Lookup;
+import io.gdcc.spi.export.dcat3.config.model.Transform;
 import io.gdcc.spi.export.dcat3.config.model.ValueSource;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public final class ValueSourceValidator implements Validator<ValueSource> {
+    private static final Pattern BACK_REFERENCE = Pattern.compile("(?<!\\\\)\\\\(?:[1-9]|k<)");
+
     private final Map<String, String> prefixes;
     private final String pathPrefix;
 
@@ -62,15 +74,183 @@ public final class ValueSourceValidator implements Validator<ValueSource> {
         boolean hasSource = hasText(valueSource.json())
                 || hasText(valueSource.constValue())
                 || !isNullOrEmpty(valueSource.jsonPaths())
-                || hasText(valueSource.nodeRef());
+                || hasText(valueSource.nodeRef())
+                || valueSource.aggregate() != null;
         if (!hasSource) {
             out.add(new ValidationMessage(
                     Severity.WARNING,
                     "DCATRSC-106",
                     path,
-                    "No source configured (json/const/json.*/node) for value",
+                    "No source configured (json/const/json.*/node/aggregate) for value",
                     null));
         }
+        // when
+        if (hasText(valueSource.when())) {
+            try {
+                Condition.parse(valueSource.when());
+            } catch (IllegalArgumentException e) {
+                out.add(new ValidationMessage(
+                        Severity.ERROR,
+                        "DCATRSC-107",
+                        path + ".when",
+                        e.getMessage(),
+                        "Use a JSONPath, optionally compared (== != < <= > >=) with a JSONPath, 'text' or number,"
+                                + " combined with ! && || and parentheses"));
+            }
+        }
+        // transform
+        if (hasText(valueSource.transform())) {
+            try {
+                Transform.parse(valueSource.transform());
+            } catch (IllegalArgumentException e) {
+                out.add(new ValidationMessage(
+                        Severity.ERROR,
+                        "DCATRSC-116",
+                        path + ".transform",
+                        e.getMessage(),
+                        "Use functions " + String.join("|", new TreeSet<>(Transform.FUNCTIONS))
+                                + " separated by '|'; date and datetime take an optional input pattern"));
+            }
+        }
+        // map patterns
+        validateMap(valueSource.map(), path + ".map", out);
+        validateCodeList(valueSource.codeList(), path + ".codeList", out);
+        // aggregate
+        if (valueSource.aggregate() != null) {
+            validateAggregate(valueSource.aggregate(), path + ".aggregate", out);
+        }
+        // lookup
+        if (valueSource.lookup() != null) {
+            validateLookup(valueSource, path + ".lookup", out);
+        }
         return out;
     }
+
+    /** Pattern entries of a value map or node IRI map: valid regexes, non-empty prefixes/suffixes. */
+    static void validateMap(Map<String, String> map, String path, List<ValidationMessage> out) {
+        if (map == null) {
+            return;
+        }
+        for (String key : map.keySet()) {
+            if (key.equals(ValueSource.MAP_PREFIX) || key.equals(ValueSource.MAP_SUFFIX)
+                    || key.equals(ValueSource.MAP_REGEX)) {
+                out.add(new ValidationMessage(
+                        Severity.WARNING,
+                        "DCATRSC-114",
+                        path + "." + key,
+                        "Empty map pattern; the entry is used as an exact key",
+                        null));
+            } else if (key.startsWith(ValueSource.MAP_REGEX)) {
+                String regex = key.substring(ValueSource.MAP_REGEX.length());
+                String problem = null;
+                if (BACK_REFERENCE.matcher(regex).find()) {
+                    problem = "back-references are not supported";
+                } else {
+                    try {
+                        Pattern.compile(regex);
+                    } catch (PatternSyntaxException e) {
+                        problem = e.getDescription();
+                    }
+                }
+                if (problem != null) {
+                    out.add(new ValidationMessage(
+                            Severity.ERROR,
+                            "DCATRSC-113",
+                            path + "." + key,
+                            "Invalid map regex " + regex + ": " + problem,
+                            "Escape '=', ':' and spaces in property keys with a backslash"));
+                }
+            }
+        }
+    }
+
+    /** A configured code list must be readable (absolute, relative to the root config, cwd, user.home, classpath). */
+    static void validateCodeList(String codeList, String path, List<ValidationMessage> out) {
+        if (codeList == null) {
+            return;
+        }
+        String problem = null;
+        if (isBlank(codeList)) {
+            problem = "Empty code list";
+        } else {
+            try {
+                FileResolver.resolveFile(null, safeTrim(codeList)).in().close(); // readable
+            } catch (IOException | InvalidPathException e) {
+                problem = "Code list not found: " + safeTrim(codeList);
+            }
+        }
+        if (problem != null) {
+            out.add(new ValidationMessage(
+                    Severity.ERROR,
+                    "DCATRSC-115",
+                    path,
+                    problem,
+                    "Use a TSV or CSV file of key and value columns"));
+        }
+    }
+
+    private static void validateLookup(ValueSource valueSource, String path, List<ValidationMessage> out) {
+        Lookup lookup = valueSource.lookup();
+        if (isBlank(lookup.index()) || isBlank(lookup.key()) || isBlank(lookup.value())) {
+            out.add(new ValidationMessage(
+                    Severity.ERROR,
+                    "DCATRSC-111",
+                    path,
+                    "Lookup requires index, key and value paths",
+                    "e.g. lookup.index = $$.ore['ore:aggregates'], lookup.key = $['schema:sameAs']"));
+        }
+        for (String relative : new String[] {lookup.key(), lookup.value()}) {
+            if (hasText(relative) && (!safeTrim(relative).startsWith("$") || safeTrim(relative).startsWith("$$"))) {
+                out.add(new ValidationMessage(
+                        Severity.ERROR,
+                        "DCATRSC-111",
+                        path,
+                        "Lookup key and value must be JSONPaths relative to the element: " + relative,
+                        null));
+            }
+        }
+        if (isBlank(valueSource.json())) {
+            out.add(new ValidationMessage(
+                    Severity.ERROR, "DCATRSC-112", path, "Lookup requires json for the keys to look up", null));
+        }
+    }
+
+    private static void validateAggregate(Aggregate aggregate, String path, List<ValidationMessage> out) {
+        if (!Aggregate.FUNCTIONS.contains(safeTrim(aggregate.function()))) {
+            out.add(new ValidationMessage(
+                    Severity.ERROR,
+                    "DCATRSC-108",
+                    path,
+                    "Invalid aggregate function: " + aggregate.function(),
+                    "Use count|sum|min|max|any|all|distinct"));
+        }
+        if (isBlank(aggregate.over())) {
+            out.add(new ValidationMessage(
+                    Severity.ERROR, "DCATRSC-109", path + ".over", "Aggregate requires an array path (over)", null));
+        }
+        if (isBlank(aggregate.field())) {
+            if (aggregate.needsField()) {
+                out.add(new ValidationMessage(
+                        Severity.ERROR,
+                        "DCATRSC-109",
+                        path + ".field",
+                        "Aggregate " + aggregate.function() + " requires a field",
+                        null));
+            }
+        } else if (!safeTrim(aggregate.field()).startsWith("$") || safeTrim(aggregate.field()).startsWith("$$")) {
+            out.add(new ValidationMessage(
+                    Severity.ERROR,
+                    "DCATRSC-109",
+                    path + ".field",
+                    "Aggregate field must be a JSONPath relative to the element: " + aggregate.field(),
+                    "e.g. $.filesize"));
+        }
+        if (hasText(aggregate.filter())) {
+            try {
+                Condition.parse(aggregate.filter());
+            } catch (IllegalArgumentException e) {
+                out.add(new ValidationMessage(Severity.ERROR, "DCATRSC-110", path + ".filter", e.getMessage(), null));
+            }
+        }
+    }
 }
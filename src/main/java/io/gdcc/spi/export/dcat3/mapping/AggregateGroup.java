@@ -0,0 +1,223 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.dcat3.mapping.MappingSteps.isBlank;
+import static io.gdcc.spi.export.dcat3.mapping.MappingSteps.number;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gdcc.spi.export.dcat3.config.model.Aggregate;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ConditionStep;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * The aggregates ({@code props.*.aggregate.*}) of one program that run over the same array.
+ *
+ * <p>{@link #compute} reads the array once and feeds every element to all member aggregates, so a
+ * file count, a summed size and the distinct media types of {@code $$.datasetFileDetails} cost one
+ * pass instead of one JSONPath filter each. Filters with the same expression are tested once per
+ * element and shared by the members that use them. Results are cached by the {@link TripleSink}:
+ * per scope, or per run when the array is read from the root ({@code $$}).
+ *
+ * <p>Built by {@link MappingCompiler}; immutable once the program is compiled.
+ */
+final class AggregateGroup {
+
+    private final String over;
+    private final boolean root;
+    private final List<Spec> specs = new ArrayList<>();
+    private final List<String> filterExpressions = new ArrayList<>();
+    private final List<ConditionStep> filters = new ArrayList<>();
+
+    /** One member aggregate: function, element-relative field and index of its shared filter. */
+    private record Spec(String function, String field, SimpleJsonPath simpleField, int filter) {}
+
+    /** A property's handle on its aggregate in a group. */
+    static final class Member {
+        final AggregateGroup group;
+        final int index;
+
+        private Member(AggregateGroup group, int index) {
+            this.group = group;
+            this.index = index;
+        }
+
+        List<String> values(TripleSink sink, JaywayJsonFinder finder) {
+            return sink.aggregates(group, finder).get(index);
+        }
+    }
+
+    AggregateGroup(String over) {
+        this.over = over;
+        this.root = over.startsWith("$$");
+    }
+
+    /** True when the array is read from the root: the results hold for every scope of a run. */
+    boolean root() {
+        return root;
+    }
+
+    Member add(String function, String field, String filterExpression, ConditionStep filter) {
+        int filterIndex = -1;
+        if (filter != null) {
+            filterIndex = filterExpressions.indexOf(filterExpression);
+            if (filterIndex < 0) {
+                filterIndex = filters.size();
+                filterExpressions.add(filterExpression);
+                filters.add(filter);
+            }
+        }
+        String trimmedField = isBlank(field) ? null : field.trim();
+        SimpleJsonPath simpleField = trimmedField == null ? null : SimpleJsonPath.compile(trimmedField);
+        specs.add(new Spec(function, trimmedField, simpleField, filterIndex));
+        return new Member(this, specs.size() - 1);
+    }
+
+    /** @return the values of every member, in registration order, from a single pass over the array */
+    List<List<String>> compute(JaywayJsonFinder finder) {
+        Accumulator[] accumulators = new Accumulator[specs.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = new Accumulator(specs.get(i).function());
+        }
+        boolean[] passed = new boolean[filters.size()];
+        List<JsonNode> matches = root ? finder.nodesRoot(over.substring(1)) : finder.nodes(over);
+        for (JsonNode match : matches) {
+            if (match.isArray()) {
+                for (JsonNode element : match) {
+                    visit(finder, element, passed, accumulators);
+                }
+            } else {
+                visit(finder, match, passed, accumulators);
+            }
+        }
+        List<List<String>> results = new ArrayList<>(accumulators.length);
+        for (Accumulator accumulator : accumulators) {
+            results.add(accumulator.result());
+        }
+        return results;
+    }
+
+    private void visit(JaywayJsonFinder finder, JsonNode element, boolean[] passed, Accumulator[] accumulators) {
+        if (element == null || element.isNull() || element.isMissingNode()) {
+            return;
+        }
+        JaywayJsonFinder elementFinder = null;
+        for (int f = 0; f < passed.length; f++) {
+            if (elementFinder == null) {
+                elementFinder = finder.at(element);
+            }
+            passed[f] = filters.get(f).test(elementFinder);
+        }
+        for (int i = 0; i < accumulators.length; i++) {
+            Spec spec = specs.get(i);
+            boolean selected = spec.filter() < 0 || passed[spec.filter()];
+            String value = null;
+            if (selected && spec.field() != null) {
+                if (spec.simpleField() != null) {
+                    value = text(spec.simpleField().select(element));
+                } else {
+                    if (elementFinder == null) {
+                        elementFinder = finder.at(element);
+                    }
+                    List<String> values = elementFinder.list(spec.field());
+                    value = values.isEmpty() ? null : values.get(0);
+                }
+            }
+            accumulators[i].add(selected, spec.field() == null, value);
+        }
+    }
+
+    private static String text(JsonNode leaf) {
+        if (leaf == null || leaf.isNull() || leaf.isMissingNode()) {
+            return null;
+        }
+        if (leaf.isValueNode()) {
+            return leaf.isTextual() ? leaf.textValue() : leaf.asText();
+        }
+        return leaf.toString();
+    }
+
+    /** Running state of one aggregate. */
+    private static final class Accumulator {
+        private final String function;
+        private long count;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private String best;
+        private BigDecimal bestNumber;
+        private boolean any;
+        private boolean all = true;
+        private LinkedHashSet<String> distinct;
+
+        Accumulator(String function) {
+            this.function = function;
+        }
+
+        /**
+         * @param selected the element passed the filter
+         * @param noField the aggregate has no field: a selected element counts as a true value
+         * @param value the field value of a selected element, null when absent
+         */
+        void add(boolean selected, boolean noField, String value) {
+            boolean present = selected && (noField || !isBlank(value));
+            switch (function) {
+                case Aggregate.COUNT -> count += present ? 1 : 0;
+                case Aggregate.ANY -> any |= present && truthy(noField, value);
+                case Aggregate.ALL -> all &= present && truthy(noField, value);
+                case Aggregate.SUM -> {
+                    BigDecimal number = present ? number(value) : null;
+                    if (number != null) {
+                        sum = sum.add(number);
+                    }
+                }
+                case Aggregate.MIN, Aggregate.MAX -> {
+                    if (present && !noField) {
+                        keepBest(value.trim());
+                    }
+                }
+                case Aggregate.DISTINCT -> {
+                    if (present && !noField) {
+                        if (distinct == null) {
+                            distinct = new LinkedHashSet<>();
+                        }
+                        distinct.add(value.trim());
+                    }
+                }
+                default -> {
+                    // unknown function (DCATRSC-108): no value
+                }
+            }
+        }
+
+        private void keepBest(String value) {
+            BigDecimal number = number(value);
+            if (best == null) {
+                best = value;
+                bestNumber = number;
+                return;
+            }
+            int cmp = number != null && bestNumber != null ? number.compareTo(bestNumber) : value.compareTo(best);
+            if (Aggregate.MIN.equals(function) ? cmp < 0 : cmp > 0) {
+                best = value;
+                bestNumber = number;
+            }
+        }
+
+        private static boolean truthy(boolean noField, String value) {
+            return noField || !"false".equalsIgnoreCase(value.trim());
+        }
+
+        List<String> result() {
+            return switch (function) {
+                case Aggregate.COUNT -> List.of(Long.toString(count));
+                case Aggregate.SUM -> List.of(sum.toPlainString());
+                case Aggregate.ANY -> List.of(Boolean.toString(any));
+                case Aggregate.ALL -> List.of(Boolean.toString(all));
+                case Aggregate.MIN, Aggregate.MAX -> best == null ? Collections.emptyList() : List.of(best);
+                case Aggregate.DISTINCT -> distinct == null ? Collections.emptyList() : List.copyOf(distinct);
+                default -> Collections.emptyList();
+            };
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gdcc.spi.export.dcat3.config.model.BlankNodes;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+/**
+ * Deterministic blank nodes ({@code dcat.bnode.labels = hash | skolem}).
+ *
+ * <p>A blank node is identified by the dataset of the export, the element it belongs to, the index
+ * of its scope (for nested scopes the path of indexes from the outermost level, e.g. {@code 3/17}),
+ * the node template (or {@code subject}) that mints it and its sequence number among the blank
+ * nodes of that scope. The label is a SHA-256 over that identity (128 bits, hex), so the same input
+ * and config always give the same labels, whatever the mapping order of other scopes or threads,
+ * while the exports of two datasets never share a label. {@code hash} uses it as a blank node label,
+ * {@code skolem} appends it to the configured base IRI.
+ *
+ * <p>The dataset is identified by its persistent URL ({@code $.datasetJson.persistentUrl}), else by
+ * its persistent id ({@code $.datasetJson.datasetVersion.datasetPersistentId}); an export without
+ * either is labelled as before.
+ *
+ * <p>Immutable; safe to share between exports and threads.
+ */
+public final class BlankNodeLabels {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final String skolemBase; // null: labelled blank nodes
+    private final String dataset; // null: no dataset identity in the input
+
+    private BlankNodeLabels(String skolemBase, String dataset) {
+        this.skolemBase = skolemBase;
+        this.dataset = dataset;
+    }
+
+    /** @return the labelling for {@code config}, null when blank nodes stay anonymous */
+    public static BlankNodeLabels of(BlankNodes config) {
+        return of(config, null);
+    }
+
+    /**
+     * @param root the export JSON, whose dataset identity becomes part of every label
+     * @return the labelling for {@code config}, null when blank nodes stay anonymous
+     */
+    public static BlankNodeLabels of(BlankNodes config, JsonNode root) {
+        if (config == null || !config.deterministic()) {
+            return null;
+        }
+        return new BlankNodeLabels(
+                BlankNodes.SKOLEM.equals(config.labels()) ? config.skolemBase() : null, dataset(root));
+    }
+
+    private static String dataset(JsonNode root) {
+        if (root == null) {
+            return null;
+        }
+        JsonNode datasetJson = root.path("datasetJson");
+        for (JsonNode id : List.of(
+                datasetJson.path("persistentUrl"), datasetJson.path("datasetVersion").path("datasetPersistentId"))) {
+            if (id.isTextual() && !id.asText().isBlank()) {
+                return id.asText();
+            }
+        }
+        return null;
+    }
+
+    /** What the labels depend on besides the blank node identity: the mode, skolem base and dataset. */
+    String key() {
+        return (skolemBase == null ? "hash" : "skolem " + skolemBase) + (dataset == null ? "" : " " + dataset);
+    }
+
+    /** A labelled blank node, or a skolem IRI when a base is configured. */
+    Node mint(String element, String scope, String template, int sequence) {
+        String label = label(dataset, element, scope, template, sequence);
+        return skolemBase == null ? NodeFactory.createBlankNode("b" + label) : NodeFactory.createURI(skolemBase + label);
+    }
+
+    static String label(String element, int scope, String template, int sequence) {
+        return label(null, element, Integer.toString(scope), template, sequence);
+    }
+
+    static String label(String dataset, String element, String scope, String template, int sequence) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        String identity = element + '\u0000' + scope + '\u0000' + template + '\u0000' + sequence;
+        if (dataset != null) {
+            identity = dataset + '\u0000' + identity;
+        }
+        byte[] hash = digest.digest(identity.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash, 0, 16);
+    }
+}
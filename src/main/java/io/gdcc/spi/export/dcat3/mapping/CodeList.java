@@ -0,0 +1,351 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.gdcc.spi.export.dcat3.config.loader.FileResolver;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * External code list ({@code props.*.codeList}, {@code nodes.*.codeList}): a TSV or CSV file whose
+ * first column is the key and second column the mapped value, compiled into a sorted binary index.
+ *
+ * <p>The index keeps the entries sorted by the UTF-8 bytes of their keys behind a table of entry
+ * offsets, and {@link #get} binary-searches it in place: a list of tens of thousands of entries
+ * costs no heap beyond one decoded value per hit. Indexes are written to the directory named by
+ * {@value #CACHE_DIR_PROP} (default {@code ${java.io.tmpdir}/dcat3-codelists}) under the SHA-256 of
+ * their source and memory-mapped read-only, so a restart maps the existing index instead of parsing
+ * the list again. {@link #load} shares one instance per source file across all exporters and
+ * elements of the JVM; an edited file (new size or modification time) is compiled again and its
+ * index replaces the one of the earlier version, in memory and, unless another list still maps it,
+ * on disk, so edits do not accumulate indexes. When the directory is not writable the index stays
+ * in a heap buffer of the same layout.
+ *
+ * <p>Index layout, big-endian: magic, entry count, one offset per entry, then per entry the key
+ * length, key bytes, value length and value bytes.
+ */
+final class CodeList {
+    private static final Logger logger = Logger.getLogger(CodeList.class.getCanonicalName());
+
+    /** System property naming the directory of compiled indexes. */
+    static final String CACHE_DIR_PROP = "dataverse.dcat3.codeListCache";
+
+    private static final int MAGIC = 0x44434C31; // "DCL1"
+    private static final int HEADER = 8;
+
+    private static final Map<String, Loaded> LOADED = new ConcurrentHashMap<>(); // by name
+
+    /** The list compiled from {@code name} and the {@link #sourceKey} of the file it was compiled from. */
+    private record Loaded(String sourceKey, CodeList codeList) {}
+
+    private final ByteBuffer index; // read-only, absolute reads only: safe to share between threads
+    private final int size;
+    private final String digest; // SHA-256 of the source
+
+    private CodeList(ByteBuffer index, String digest) {
+        this.index = index;
+        this.size = index.getInt(4);
+        this.digest = digest;
+    }
+
+    /**
+     * @param location file name, resolved like element files (absolute, cwd, user.home, classpath)
+     * @return the shared code list, null when the location is blank or cannot be read (DCATRSC-115)
+     */
+    static CodeList load(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        String name = location.trim();
+        String sourceKey = sourceKey(name);
+        Loaded[] replaced = new Loaded[1];
+        try {
+            Loaded current = LOADED.compute(name, (unused, loaded) -> {
+                if (loaded != null && loaded.sourceKey().equals(sourceKey)) {
+                    return loaded;
+                }
+                try {
+                    Loaded compiled = new Loaded(sourceKey, compile(name));
+                    replaced[0] = loaded; // its index is released below
+                    return compiled;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (replaced[0] != null) {
+                release(replaced[0].codeList().digest);
+            }
+            return current.codeList();
+        } catch (UncheckedIOException e) {
+            logger.warning("cannot read code list " + name + ": " + e.getCause().getMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            logger.warning("cannot compile code list " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the index file of {@code digest} when no list held still maps it: the version an edit
+     * replaced. Mappers compiled against it keep their mapping, which outlives the file on POSIX
+     * systems; where the file is still in use it stays, as before.
+     */
+    private static void release(String digest) {
+        for (Loaded loaded : LOADED.values()) {
+            if (loaded.codeList().digest.equals(digest)) {
+                return;
+            }
+        }
+        try {
+            Files.deleteIfExists(cacheDir().resolve(digest + ".idx"));
+        } catch (IOException e) {
+            logger.fine(() -> "index " + digest + " of an earlier code list version kept: " + e.getMessage());
+        }
+    }
+
+    /**
+     * File name and content digest of the list at {@code location}, for {@link
+     * ResourceMappers#fingerprint}: unlike the resolved path it is the same on every installation
+     * that ships the same list.
+     */
+    static String fingerprint(String location) {
+        if (location == null || location.isBlank()) {
+            return location;
+        }
+        String name = location.trim();
+        CodeList codeList = load(name);
+        int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+        return name.substring(slash + 1) + "#" + (codeList == null ? "unreadable" : codeList.digest);
+    }
+
+    /** Number of code lists held, one per name. */
+    static int loaded() {
+        return LOADED.size();
+    }
+
+    /** Number of entries. */
+    int size() {
+        return size;
+    }
+
+    /** @return the value mapped to {@code key}, null when the list has no such key */
+    String get(String key) {
+        if (key == null || size == 0) {
+            return null;
+        }
+        byte[] probe = key.getBytes(UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int offset = index.getInt(HEADER + 4 * mid);
+            int cmp = compareKey(offset, probe);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                int valueOffset = offset + 4 + index.getInt(offset);
+                byte[] value = new byte[index.getInt(valueOffset)];
+                index.get(valueOffset + 4, value);
+                return new String(value, UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /** Unsigned byte order of the key at {@code offset} against {@code probe}: UTF-8 code point order. */
+    private int compareKey(int offset, byte[] probe) {
+        int length = index.getInt(offset);
+        int common = Math.min(length, probe.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.toUnsignedInt(index.get(offset + 4 + i)) - Byte.toUnsignedInt(probe[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - probe.length;
+    }
+
+    /** Files are keyed by size and modification time as well, so an edited list is compiled again. */
+    static String sourceKey(String name) {
+        try {
+            Path path = Paths.get(name);
+            if (Files.isRegularFile(path)) {
+                return path.toAbsolutePath().normalize() + "|" + Files.size(path) + "|"
+                        + Files.getLastModifiedTime(path).toMillis();
+            }
+        } catch (InvalidPathException | IOException e) {
+            // not a plain file: resolved by name
+        }
+        return name;
+    }
+
+    private static CodeList compile(String name) throws IOException {
+        byte[] source;
+        try (InputStream in = FileResolver.resolveFile(null, name).in()) {
+            source = in.readAllBytes();
+        }
+        boolean csv = name.toLowerCase(Locale.ROOT).endsWith(".csv");
+        String digest = digest(csv, source);
+        Path dir = cacheDir();
+        Path file = dir.resolve(digest + ".idx");
+        if (Files.isRegularFile(file)) {
+            ByteBuffer mapped = map(file);
+            if (valid(mapped)) {
+                return new CodeList(mapped, digest);
+            }
+        }
+        ByteBuffer built = build(parse(new String(source, UTF_8), csv));
+        try {
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, digest, ".tmp");
+            Files.write(temp, built.array());
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new CodeList(map(file), digest);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.fine(() -> "code list " + name + " kept on the heap: " + e.getMessage());
+            return new CodeList(built.asReadOnlyBuffer(), digest);
+        }
+    }
+
+    private static Path cacheDir() {
+        String configured = System.getProperty(CACHE_DIR_PROP);
+        return configured != null && !configured.isBlank()
+                ? Paths.get(configured.trim())
+                : Paths.get(System.getProperty("java.io.tmpdir"), "dcat3-codelists");
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static boolean valid(ByteBuffer index) {
+        return index.limit() >= HEADER
+                && index.getInt(0) == MAGIC
+                && index.getInt(4) >= 0
+                && HEADER + 4L * index.getInt(4) <= index.limit();
+    }
+
+    private static String digest(boolean csv, byte[] source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((csv ? "DCL1 csv\n" : "DCL1 tsv\n").getBytes(UTF_8)); // layout and parser
+            return HexFormat.of().formatHex(digest.digest(source));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Key and value of every line with two non-blank columns; blank lines and lines starting with
+     * {@code #} are skipped. The first entry of a key wins.
+     */
+    private static Map<String, String> parse(String text, boolean csv) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+            text = text.substring(1);
+        }
+        for (String line : text.split("\r?\n")) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            List<String> columns = csv ? csvColumns(line) : Arrays.asList(line.split("\t", 3));
+            if (columns.size() < 2) {
+                continue;
+            }
+            String key = columns.get(0).trim();
+            String value = columns.get(1).trim();
+            if (!key.isEmpty() && !value.isEmpty()) {
+                entries.putIfAbsent(key, value);
+            }
+        }
+        return entries;
+    }
+
+    /** Comma-separated columns; double quotes enclose commas, {@code ""} is a literal quote. */
+    private static List<String> csvColumns(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    column.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+
+    /** Lays out {@code entries} sorted by the unsigned UTF-8 bytes of their keys. */
+    private static ByteBuffer build(Map<String, String> entries) {
+        int count = entries.size();
+        byte[][] keys = new byte[count][];
+        byte[][] values = new byte[count][];
+        int i = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            keys[i] = entry.getKey().getBytes(UTF_8);
+            values[i] = entry.getValue().getBytes(UTF_8);
+            i++;
+        }
+        Integer[] order = new Integer[count];
+        long length = HEADER + 4L * count;
+        for (int e = 0; e < count; e++) {
+            order[e] = e;
+            length += 8L + keys[e].length + values[e].length;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Code list too large: " + length + " bytes");
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+
+        ByteBuffer index = ByteBuffer.allocate((int) length);
+        index.putInt(MAGIC).putInt(count);
+        int offset = HEADER + 4 * count;
+        for (int e : order) {
+            index.putInt(offset);
+            offset += 8 + keys[e].length + values[e].length;
+        }
+        for (int e : order) {
+            index.putInt(keys[e].length).put(keys[e]).putInt(values[e].length).put(values[e]);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,93 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.JsonPathException;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.ReadContext;
+import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Learned schema cache for deep-scan JSONPaths.
+ *
+ * <p>The export JSON has a stable shape, so a leading deep scan such as {@code $..metadataBlocks}
+ * always lands on the same concrete locations (here {@code
+ * $['datasetJson']['datasetVersion']['metadataBlocks']}). The first evaluation records those
+ * locations; later evaluations of any path starting with the same deep scan are rewritten to the
+ * concrete locations plus the remainder of the path.
+ *
+ * <p>{@link JaywayJsonFinder} falls back to the full deep scan when the rewritten paths find nothing,
+ * and then {@link #forget(String) forgets} what was learned so the next evaluation learns again. A
+ * rewrite can still miss matches at locations that only appear in later inputs, which is why the
+ * optimizer is opt-in ({@code dcat.optimize.deepScan = true}).
+ *
+ * <p>Instances are thread-safe and meant to be shared across exports.
+ */
+public final class DeepScanRewriter {
+
+    private static final Pattern LEADING_DEEP_SCAN = Pattern.compile("^\\$\\.\\.([A-Za-z0-9_]+)(.*)$");
+    private static final Configuration PATH_LIST = Configuration.builder()
+            .jsonProvider(new JacksonJsonProvider())
+            .mappingProvider(new JacksonMappingProvider())
+            .options(Option.AS_PATH_LIST, Option.ALWAYS_RETURN_LIST, Option.SUPPRESS_EXCEPTIONS)
+            .build();
+
+    // deep-scan prefix (e.g. "$..metadataBlocks") -> concrete locations it matched
+    private final Map<String, List<String>> learned = new ConcurrentHashMap<>();
+
+    /**
+     * Rewrite {@code jsonPath} to concrete paths, learning the locations of its leading deep scan
+     * from {@code context} when they are not known yet.
+     *
+     * @return the concrete paths (possibly empty), or null when the path does not start with a
+     *     rewritable deep scan ({@code $..name})
+     */
+    List<String> rewrite(String jsonPath, ReadContext context) {
+        Matcher matcher = LEADING_DEEP_SCAN.matcher(jsonPath.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        String rest = matcher.group(2);
+        if (!rest.isEmpty() && rest.charAt(0) != '.' && rest.charAt(0) != '[') {
+            return null;
+        }
+        String prefix = "$.." + matcher.group(1);
+        List<String> locations = learned.computeIfAbsent(prefix, p -> locate(p, context));
+
+        List<String> out = new ArrayList<>(locations.size());
+        for (String location : locations) {
+            out.add(location + rest);
+        }
+        return out;
+    }
+
+    /** Drop the learned locations for the leading deep scan of {@code jsonPath}. */
+    void forget(String jsonPath) {
+        Matcher matcher = LEADING_DEEP_SCAN.matcher(jsonPath.trim());
+        if (matcher.matches()) {
+            learned.remove("$.." + matcher.group(1));
+        }
+    }
+
+    /** Number of deep-scan prefixes with learned locations. */
+    int size() {
+        return learned.size();
+    }
+
+    private static List<String> locate(String deepScan, ReadContext context) {
+        try {
+            Object json = context.json();
+            List<String> paths = JsonPath.using(PATH_LIST).parse(json).read(deepScan);
+            return paths == null ? List.of() : List.copyOf(paths);
+        } catch (JsonPathException ex) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import org.apache.jena.graph.Graph;
+
+/**
+ * Element graphs kept across exports ({@code dcat.optimize.cacheElements}, {@code dcat.cache.*}).
+ *
+ * <p>Elements such as the catalog or a data service read only site-level input ({@code $$.env.*},
+ * catalog fields) and constants, so they map to the same triples for every dataset. {@link
+ * MappingCompiler#dependencies} works out the input subtrees an element reads; when they all lie
+ * under {@link #SITE_LEVEL} input, and the config, prefixes, type and code lists are unchanged and
+ * those subtrees equal the ones of the previous export of the element, its graph is reused without
+ * running its mapper or evaluating a path. Only such elements are kept in memory: the graph of an
+ * element reading dataset input (a dataset, its distributions) would rarely be reused and would
+ * hold every triple of the last dataset exported. Elements whose reads cannot be bounded (deep
+ * scans or filters on the root) are always mapped.
+ *
+ * <p>With a {@link FragmentStore} the triples are also kept on disk under a fingerprint: a SHA-256
+ * over the config fingerprint, the blank node and IRI settings and the content of the subtrees
+ * read. A scoped element is stored scope by scope instead: one entry per element, under the
+ * fingerprint of the config and the root ({@code $$}) subtrees the element reads, holds the
+ * fragment of each scope under a SHA-256 of the subtrees of its scope node the element reads
+ * ({@link MappingCompiler#scopeDependencies}; the whole node when they cannot be bounded). An export
+ * reads the entry once ({@link FragmentStore.ScopeFragments}), maps only the scopes without a
+ * fragment and, if it mapped any, writes the entry once; so a re-export after a metadata change maps
+ * only the scopes that changed, at one file read and at most one write per element. With
+ * deterministic blank node labels the scope index is part of the scope key, since the labels derive
+ * from it.
+ *
+ * <p>A graph mapped while the evaluation budget skipped paths ({@code dcat.budget.action = skip})
+ * depends on the load of that export, so it is neither kept in memory nor stored.
+ *
+ * <p>One entry is kept in memory per site-level element id. Cached graphs are shared and must not be
+ * modified.
+ * Instances are thread-safe and meant to be shared across exports.
+ */
+public final class ElementCache {
+    private static final Logger logger = Logger.getLogger(ElementCache.class.getCanonicalName());
+
+    /**
+     * Input subtrees that are the same for all datasets of a site or catalog: the environment and
+     * the catalog the dataset is part of.
+     */
+    static final List<String> SITE_LEVEL = List.of(
+            "$.env", "$.datasetORE['ore:describes']['schema:isPartOf']", "$.datasetSchemaDotOrg.includedInDataCatalog");
+
+    private final FragmentStore store; // null: in memory only
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** The graph of one export of an element and what it was mapped from. */
+    private record Entry(String fingerprint, List<JsonNode> inputs, Graph graph) {}
+
+    public ElementCache() {
+        this(null);
+    }
+
+    /** @param store persistent store of element and scope triples, null to keep graphs in memory only */
+    public ElementCache(FragmentStore store) {
+        this.store = store;
+    }
+
+    /**
+     * @param compiled the config and mapper of the element ({@link ElementMappers})
+     * @param finder the finder of the element ({@link JaywayJsonFinder#forElement})
+     * @param root the export JSON
+     * @return the cached graph of the element, or the one mapped now
+     */
+    public Graph graph(String elementId, ElementMappers.Compiled compiled, JaywayJsonFinder finder, JsonNode root) {
+        ResourceConfig resourceConfig = compiled.config();
+        ResourceMapper mapper = compiled.mapper();
+        List<String> dependencies = MappingCompiler.dependencies(resourceConfig);
+        boolean siteLevel = dependencies != null && dependencies.stream().allMatch(ElementCache::siteLevel);
+        if (dependencies == null || (!siteLevel && store == null)) {
+            return mapper.buildGraph(finder);
+        }
+        String fingerprint = compiled.fingerprint()
+                + "\n" + compiled.sourceKey()
+                + "\n" + elementId
+                + "\n" + (finder.blankNodeLabels() == null ? "anonymous" : finder.blankNodeLabels().key())
+                + "\n" + (finder.iriMinter() == null ? "" : "strict");
+        List<JsonNode> inputs = select(root, dependencies);
+        Entry entry = siteLevel ? entries.get(elementId) : null;
+        if (entry != null && entry.fingerprint().equals(fingerprint) && entry.inputs().equals(inputs)) {
+            logger.fine(() -> "element " + elementId + ": reused the graph of an earlier export");
+            return entry.graph();
+        }
+        long skipped = skipped(finder);
+        Graph graph = store == null
+                ? mapper.buildGraph(finder)
+                : stored(elementId, compiled, fingerprint, inputs, finder, root, skipped);
+        if (siteLevel && skipped(finder) == skipped) {
+            entries.put(elementId, new Entry(fingerprint, inputs, graph));
+        }
+        return graph;
+    }
+
+    /** Evaluations the budget of the export skipped so far; a graph mapped while they grow is not kept. */
+    private static long skipped(JaywayJsonFinder finder) {
+        EvaluationBudget budget = finder.budget();
+        return budget == null ? 0 : budget.skipped();
+    }
+
+    private static boolean siteLevel(String dependency) {
+        for (String root : SITE_LEVEL) {
+            if (dependency.startsWith(root)
+                    && (dependency.length() == root.length()
+                            || dependency.charAt(root.length()) == '.'
+                            || dependency.charAt(root.length()) == '[')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The graph of a scoped element with bounded root reads, scope by scope from its scope entry;
+     * of another element, the graph stored under its fingerprint or the one mapped and stored now.
+     * Nothing is stored when the budget skipped an evaluation while mapping ({@code skipped} grew).
+     */
+    private Graph stored(
+            String elementId,
+            ElementMappers.Compiled compiled,
+            String fingerprint,
+            List<JsonNode> inputs,
+            JaywayJsonFinder finder,
+            JsonNode root,
+            long skipped) {
+        ResourceMapper mapper = compiled.mapper();
+        List<String> rootDependencies = MappingCompiler.rootDependencies(compiled.config());
+        List<JsonNode> scopes = rootDependencies == null ? null : mapper.scopes(finder);
+        if (scopes != null) {
+            List<String> scopeDependencies = MappingCompiler.scopeDependencies(compiled.config());
+            StoredScopes stored = new StoredScopes(
+                    elementId,
+                    HexFormat.of().formatHex(digest(fingerprint + "\nscopes", select(root, rootDependencies))),
+                    scopes,
+                    scopeDependencies == null
+                            ? null
+                            : scopeDependencies.stream().map(SimpleJsonPath::compile).toList(),
+                    finder.blankNodeLabels() != null);
+            Graph graph = mapper.buildGraph(finder, scopes, stored);
+            if (skipped(finder) == skipped) {
+                stored.save();
+            }
+            return graph;
+        }
+        String key = HexFormat.of().formatHex(digest(fingerprint, inputs));
+        Graph graph = store.get(key);
+        if (graph == null) {
+            graph = mapper.buildGraph(finder);
+            if (skipped(finder) == skipped) {
+                store.put(key, graph);
+            }
+        }
+        return graph;
+    }
+
+    /** Fragments of the scopes of one element, read from and written to its scope entry. */
+    private final class StoredScopes implements MappingProgram.Fragments {
+        private final String elementId;
+        private final String key; // config fingerprint and root subtrees
+        private final List<JsonNode> scopes;
+        private final List<SimpleJsonPath> reads; // null: the whole scope node
+        private final boolean indexed; // labelled blank nodes: the scope index is part of the key
+        private final FragmentStore.ScopeFragments previous; // null: none stored
+        private final Map<String, Graph> mapped = new LinkedHashMap<>();
+        private final String[] keys;
+        private final MessageDigest digest = sha256();
+        private final DigestInput input = new DigestInput(digest);
+
+        StoredScopes(
+                String elementId, String key, List<JsonNode> scopes, List<SimpleJsonPath> reads, boolean indexed) {
+            this.elementId = elementId;
+            this.key = key;
+            this.scopes = scopes;
+            this.reads = reads;
+            this.indexed = indexed;
+            this.previous = store.getFragments(key);
+            this.keys = new String[scopes.size()];
+        }
+
+        /**
+         * SHA-256 of the subtrees of the scope node the element reads, the first 128 bits: the entry
+         * key already covers config and root.
+         */
+        @Override
+        public boolean stored(int index, Graph graph) {
+            if (indexed) {
+                digest.update(("\n" + index).getBytes(StandardCharsets.UTF_8));
+            }
+            JsonNode scope = scopes.get(index);
+            if (reads == null) {
+                input.update(scope);
+            } else {
+                for (SimpleJsonPath read : reads) {
+                    JsonNode node = read.select(scope);
+                    input.update(node == null ? MissingNode.getInstance() : node);
+                }
+            }
+            keys[index] = HexFormat.of().formatHex(digest.digest(), 0, 16);
+            return previous != null && previous.addTo(keys[index], graph);
+        }
+
+        @Override
+        public void mapped(int index, Graph fragment) {
+            mapped.put(keys[index], fragment);
+        }
+
+        /** Writes the entry when a scope was mapped. */
+        void save() {
+            logger.fine(() -> "element " + elementId + ": " + (scopes.size() - mapped.size()) + " of "
+                    + scopes.size() + " scopes reused");
+            if (!mapped.isEmpty()) {
+                store.putFragments(key, previous, mapped);
+            }
+        }
+    }
+
+    private static List<JsonNode> select(JsonNode root, List<String> dependencies) {
+        List<JsonNode> inputs = new ArrayList<>(dependencies.size());
+        for (String dependency : dependencies) {
+            JsonNode node = SimpleJsonPath.compile(dependency).select(root);
+            inputs.add(node == null ? MissingNode.getInstance() : node);
+        }
+        return inputs;
+    }
+
+    /** SHA-256 over {@code fingerprint} and the content of {@code inputs}. */
+    private static byte[] digest(String fingerprint, List<JsonNode> inputs) {
+        MessageDigest digest = sha256();
+        digest.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+        DigestInput digestInput = new DigestInput(digest);
+        for (JsonNode input : inputs) {
+            digestInput.update(input);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * A node tree fed to a digest as it is walked, without serializing it: a type tag per node, then
+     * field names and values, elements, the value of an integer or the text of another scalar; sizes
+     * and lengths keep it unambiguous.
+     * Bytes are collected in a block, as a digest update per tag or character is slow.
+     */
+    private static final class DigestInput {
+        private final MessageDigest digest;
+        private final byte[] block = new byte[1 << 10];
+        private int size;
+
+        DigestInput(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        void update(JsonNode input) {
+            put(0); // separates inputs; a missing node adds nothing else
+            if (!input.isMissingNode()) {
+                walk(input);
+            }
+            flush();
+        }
+
+        private void walk(JsonNode node) {
+            switch (node.getNodeType()) {
+                case OBJECT -> {
+                    put('{');
+                    putLength(node.size());
+                    for (Map.Entry<String, JsonNode> field : node.properties()) {
+                        putText(field.getKey());
+                        walk(field.getValue());
+                    }
+                }
+                case ARRAY -> {
+                    put('[');
+                    putLength(node.size());
+                    for (JsonNode element : node) {
+                        walk(element);
+                    }
+                }
+                case STRING -> {
+                    put('"');
+                    putText(node.textValue());
+                }
+                case NUMBER -> {
+                    if (node.isIntegralNumber() && node.canConvertToLong()) {
+                        put('i');
+                        putLength((int) (node.longValue() >>> 32));
+                        putLength((int) node.longValue());
+                    } else {
+                        put('#');
+                        putText(node.asText());
+                    }
+                }
+                case BOOLEAN -> put(node.booleanValue() ? 't' : 'f');
+                case NULL -> put('n');
+                default -> {
+                    put('?');
+                    putText(node.toString());
+                }
+            }
+        }
+
+        /** The length in chars, then ASCII as one byte, other chars as 0xFF and their two bytes. */
+        private void putText(String text) {
+            putLength(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                if (block.length - size < 3) {
+                    flush();
+                }
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    block[size++] = (byte) c;
+                } else {
+                    block[size++] = (byte) 0xFF;
+                    block[size++] = (byte) (c >>> 8);
+                    block[size++] = (byte) c;
+                }
+            }
+        }
+
+        private void putLength(int length) {
+            put(length >>> 24);
+            put(length >>> 16);
+            put(length >>> 8);
+            put(length);
+        }
+
+        private void put(int b) {
+            if (size == block.length) {
+                flush();
+            }
+            block[size++] = (byte) b;
+        }
+
+        private void flush() {
+            digest.update(block, 0, size);
+            size = 0;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import io.gdcc.spi.export.dcat3.config.loader.FileResolver;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.NodeTemplate;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.config.model.ValueSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Element configs and their mappers, kept for the lifetime of an exporter.
+ *
+ * <p>Loading an element file, lowering it into a {@link MappingProgram} (constants, templates,
+ * lookup tables, code lists) and fingerprinting it for {@link ResourceMappers} happen once per
+ * element; later exports reuse the result. An element is loaded and compiled again when its file
+ * (path, size, modification time), one of its code lists, the prefixes or the type change. Files on
+ * the classpath are read once.
+ *
+ * <p>Instances are thread-safe.
+ */
+public final class ElementMappers {
+    private static final Logger logger = Logger.getLogger(ElementMappers.class.getCanonicalName());
+
+    /**
+     * A loaded element config and its mapper.
+     *
+     * @param fingerprint {@link ResourceMappers#fingerprint} of config, prefixes and type
+     * @param sourceKey identifies the element file and code lists the config was loaded from
+     */
+    public record Compiled(ResourceConfig config, ResourceMapper mapper, String fingerprint, String sourceKey) {}
+
+    private record Entry(Compiled compiled, Map<String, String> prefixes, String type) {}
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param key identifies the config within the exporter, e.g. the element id
+     * @param baseDir directory of the root config, null when it was loaded from the classpath
+     * @param file the element file, resolved like {@link FileResolver#resolveFile}
+     */
+    public Compiled get(String key, Path baseDir, String file, Prefixes prefixes, String resourceTypeCurieOrIri)
+            throws IOException {
+        Map<String, String> prefixMap = prefixes.jena().getNsPrefixMap();
+        Path path = FileResolver.resolvePath(baseDir, file);
+        String fileKey = fileKey(path, file);
+        Entry entry = entries.get(key);
+        if (entry != null
+                && entry.prefixes().equals(prefixMap)
+                && Objects.equals(entry.type(), resourceTypeCurieOrIri)
+                && entry.compiled().sourceKey().equals(fileKey + codeListKeys(entry.compiled().config()))) {
+            return entry.compiled();
+        }
+
+        ResourceConfig config;
+        try (InputStream in =
+                path != null ? Files.newInputStream(path) : FileResolver.resolveElementFile(baseDir, file)) {
+            config = new ResourceConfigLoader(baseDir).load(in);
+        }
+        String fingerprint = ResourceMappers.fingerprint(config, prefixes, resourceTypeCurieOrIri);
+        Compiled compiled = new Compiled(
+                config,
+                ResourceMappers.create(config, prefixes, resourceTypeCurieOrIri, fingerprint),
+                fingerprint,
+                fileKey + codeListKeys(config));
+        entries.put(key, new Entry(compiled, prefixMap, resourceTypeCurieOrIri));
+        logger.fine(() -> "compiled " + key + " from " + file);
+        return compiled;
+    }
+
+    private static String fileKey(Path path, String file) throws IOException {
+        if (path == null) {
+            return "classpath:" + file;
+        }
+        return path.toAbsolutePath().normalize() + "|" + Files.size(path) + "|"
+                + Files.getLastModifiedTime(path).toMillis();
+    }
+
+    /** Source keys (path, size, modification time) of the code lists, so an edited list is compiled again. */
+    private static String codeListKeys(ResourceConfig resourceConfig) {
+        StringBuilder keys = new StringBuilder();
+        addCodeListKeys(keys, resourceConfig.props());
+        if (resourceConfig.nodes() != null) {
+            for (NodeTemplate nodeTemplate : resourceConfig.nodes().values()) {
+                addCodeListKey(keys, nodeTemplate.codeList());
+                addCodeListKeys(keys, nodeTemplate.props());
+            }
+        }
+        return keys.toString();
+    }
+
+    private static void addCodeListKeys(StringBuilder keys, Map<String, ValueSource> valueSources) {
+        if (valueSources != null) {
+            valueSources.values().forEach(valueSource -> addCodeListKey(keys, valueSource.codeList()));
+        }
+    }
+
+    private static void addCodeListKey(StringBuilder keys, String codeList) {
+        if (codeList != null && !codeList.isBlank()) {
+            keys.append('\n').append(CodeList.sourceKey(codeList.trim()));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.validate.Severity;
+import io.gdcc.spi.export.dcat3.config.validate.ValidationMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-export JSONPath cost accounting against a {@link Budget}.
+ *
+ * <p>{@link JaywayJsonFinder} asks {@link #admit(String, long)} before each evaluation and reports
+ * the outcome through {@link #record(String, long, long)}. Node counts are estimates taken before
+ * evaluation (path steps for simple paths; the searched document size, once per deep scan, for
+ * everything else), so a pathological deep scan can be refused before it runs. Time is measured.
+ *
+ * <p>When a limit is exceeded the configured action applies: {@code warn} keeps evaluating,
+ * {@code skip} answers further evaluations of the path (or of every path, for export limits) with no
+ * values, and {@code abort} throws {@link EvaluationBudgetExceededException}. Exceeded limits are
+ * reported once each through {@link #report()}.
+ *
+ * <p>One instance per export; not thread-safe.
+ */
+public final class EvaluationBudget {
+
+    private static final String HINT = "Avoid deep scans ($..) and filters over large arrays, or raise dcat.budget.*";
+
+    private final Budget limits;
+    private final Map<String, PathCost> costs = new LinkedHashMap<>();
+    private final Set<String> reportedPaths = new HashSet<>();
+    private final Set<String> skippedPaths = new HashSet<>();
+    private final List<ValidationMessage> messages = new ArrayList<>();
+    private long exportNodes;
+    private long exportNanos;
+    private boolean exportExceeded;
+    private long skipped;
+
+    public EvaluationBudget(Budget limits) {
+        this.limits = limits != null ? limits : Budget.UNLIMITED;
+    }
+
+    /**
+     * @return false when the path must not be evaluated (action {@code skip})
+     * @throws EvaluationBudgetExceededException when the action is {@code abort}
+     */
+    boolean admit(String jsonPath, long estimatedNodes) {
+        if ((exportExceeded && Budget.SKIP.equals(limits.action())) || skippedPaths.contains(jsonPath)) {
+            skipped++;
+            return false;
+        }
+        PathCost cost = costs.get(jsonPath);
+        long pathNodes = (cost != null ? cost.nodes : 0) + estimatedNodes;
+        boolean admitted = true;
+        if (limits.pathMaxNodes() > 0 && pathNodes > limits.pathMaxNodes()) {
+            admitted = exceeded(
+                    jsonPath,
+                    "DCATRUN-001",
+                    "JSONPath node budget exceeded: ~" + pathNodes + " nodes > " + limits.pathMaxNodes());
+        } else if (limits.exportMaxNodes() > 0 && exportNodes + estimatedNodes > limits.exportMaxNodes()) {
+            admitted = exportExceeded(
+                    "DCATRUN-003",
+                    "Export node budget exceeded at " + jsonPath + ": ~" + (exportNodes + estimatedNodes)
+                            + " nodes > " + limits.exportMaxNodes());
+        }
+        if (!admitted) {
+            skipped++;
+        }
+        return admitted;
+    }
+
+    /**
+     * Record one evaluation.
+     *
+     * @return false when the result must be discarded (action {@code skip})
+     * @throws EvaluationBudgetExceededException when the action is {@code abort}
+     */
+    boolean record(String jsonPath, long nodes, long nanos) {
+        PathCost cost = costs.computeIfAbsent(jsonPath, p -> new PathCost());
+        cost.evaluations++;
+        cost.nodes += nodes;
+        cost.nanos += nanos;
+        exportNodes += nodes;
+        exportNanos += nanos;
+
+        boolean keep = true;
+        if (limits.pathMaxMillis() > 0 && cost.millis() > limits.pathMaxMillis()) {
+            keep = exceeded(
+                    jsonPath,
+                    "DCATRUN-002",
+                    "JSONPath time budget exceeded: " + cost.millis() + " ms > " + limits.pathMaxMillis() + " ms");
+        }
+        if (limits.exportMaxMillis() > 0 && TimeUnit.NANOSECONDS.toMillis(exportNanos) > limits.exportMaxMillis()) {
+            keep &= exportExceeded(
+                    "DCATRUN-004",
+                    "Export time budget exceeded at " + jsonPath + ": " + TimeUnit.NANOSECONDS.toMillis(exportNanos)
+                            + " ms > " + limits.exportMaxMillis() + " ms");
+        }
+        if (!keep) {
+            skipped++;
+        }
+        return keep;
+    }
+
+    private boolean exceeded(String jsonPath, String code, String message) {
+        String where = "jsonPath " + jsonPath;
+        if (Budget.ABORT.equals(limits.action())) {
+            throw abort(code, where, message);
+        }
+        boolean skip = Budget.SKIP.equals(limits.action());
+        if (reportedPaths.add(jsonPath)) {
+            messages.add(new ValidationMessage(
+                    Severity.WARNING, code, where, message + (skip ? "; path skipped" : ""), HINT));
+        }
+        if (skip) {
+            skippedPaths.add(jsonPath);
+        }
+        return !skip;
+    }
+
+    private boolean exportExceeded(String code, String message) {
+        if (Budget.ABORT.equals(limits.action())) {
+            throw abort(code, "export", message);
+        }
+        if (!exportExceeded) {
+            exportExceeded = true;
+            boolean skip = Budget.SKIP.equals(limits.action());
+            messages.add(new ValidationMessage(
+                    Severity.WARNING, code, "export", message + (skip ? "; remaining paths skipped" : ""), HINT));
+        }
+        return !Budget.SKIP.equals(limits.action());
+    }
+
+    private EvaluationBudgetExceededException abort(String code, String path, String message) {
+        ValidationMessage error = new ValidationMessage(Severity.ERROR, code, path, message + "; export aborted", HINT);
+        messages.add(error);
+        return new EvaluationBudgetExceededException(error);
+    }
+
+    /**
+     * Evaluations answered with no values so far (action {@code skip}), refused or discarded: output
+     * mapped while this grows depends on the load of this export, not only on its input.
+     */
+    public long skipped() {
+        return skipped;
+    }
+
+    /** Budget messages collected during this export, in order of occurrence. */
+    public List<ValidationMessage> report() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    /** Cost per JSONPath during this export, in order of first evaluation. */
+    public Map<String, PathCost> costs() {
+        return Collections.unmodifiableMap(costs);
+    }
+
+    /** Accumulated cost of one JSONPath. */
+    public static final class PathCost {
+        private long evaluations;
+        private long nodes;
+        private long nanos;
+
+        public long evaluations() {
+            return evaluations;
+        }
+
+        public long nodes() {
+            return nodes;
+        }
+
+        public long millis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        @Override
+        public String toString() {
+            return evaluations + " evaluations, ~" + nodes + " nodes, " + millis() + " ms";
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import io.gdcc.spi.export.dcat3.config.validate.ValidationMessage;
+
+/** Thrown when a JSONPath evaluation budget with action {@code abort} is exceeded. */
+public class EvaluationBudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient ValidationMessage validationMessage;
+
+    public EvaluationBudgetExceededException(ValidationMessage validationMessage) {
+        super(validationMessage.toString());
+        this.validationMessage = validationMessage;
+    }
+
+    public ValidationMessage validationMessage() {
+        return validationMessage;
+    }
+}
@@ -0,0 +1,307 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+/**
+ * The binary encoding of {@link FragmentStore} entries: nodes by kind ({@code U} IRI, {@code B}
+ * blank node label, {@code L} literal lexical form, datatype and language), or ({@code R}) by their
+ * index among the nodes written before; numbers and lengths as variable-length integers.
+ *
+ * <p>Entries are written to and read from byte arrays with a cursor, a few bytes at a time, and
+ * deflated or inflated in one call: a data stream over a gzip stream costs a call chain, and for
+ * buffered streams a lock, per byte. Parts read back separately (the chunks of {@link
+ * FragmentStore.ScopeFragments}) are zlib data of a known size, inflated in place.
+ */
+final class FragmentCodec {
+
+    private FragmentCodec() {}
+
+    /** A growable byte array. */
+    static final class Output {
+        private byte[] bytes = new byte[1 << 12];
+        private int size;
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        /** Seven bits per byte, low bits first; counts, lengths and node indexes are mostly small. */
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] value) {
+            writeBytes(value, 0, value.length);
+        }
+
+        void writeBytes(byte[] value, int offset, int length) {
+            ensure(length);
+            System.arraycopy(value, offset, bytes, size, length);
+            size += length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Length-prefixed UTF-8. */
+        void writeString(String value) {
+            byte[] utf8 = (value == null ? "" : value).getBytes(UTF_8);
+            writeVarInt(utf8.length);
+            writeBytes(utf8);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        /** The bytes written as one gzip member, deflated at the fastest level. */
+        byte[] gzip() {
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(Math.max(64, size / 4));
+            try (GZIPOutputStream out = new GZIPOutputStream(gzipped, 1 << 13) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            }) {
+                out.write(bytes, 0, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // in-memory streams
+            }
+            return gzipped.toByteArray();
+        }
+
+        /** The bytes written as zlib data, deflated at the fastest level; {@link Input#inflate} reverses it. */
+        byte[] deflate() {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(bytes, 0, size);
+                deflater.finish();
+                byte[] deflated = new byte[Math.max(64, size / 4)];
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == deflated.length) {
+                        deflated = Arrays.copyOf(deflated, 2 * deflated.length);
+                    }
+                    length += deflater.deflate(deflated, length, deflated.length - length);
+                }
+                return Arrays.copyOf(deflated, length);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + more, 2 * bytes.length));
+            }
+        }
+    }
+
+    /** A byte array read from the front. */
+    static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /** The content of the gzip data {@code bytes}. */
+        static Input gunzip(byte[] bytes) throws IOException {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes), 1 << 13)) {
+                return new Input(in.readAllBytes());
+            }
+        }
+
+        /**
+         * The {@code size} bytes of the zlib data at {@code offset}, inflated into one array: the
+         * size is known, so there is no buffer to grow.
+         */
+        static Input inflate(byte[] bytes, int offset, int length, int size) throws IOException {
+            if (size / 1032 > length) {
+                throw new IOException("body size " + size + " beyond what deflate yields"); // at most 1032:1
+            }
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(bytes, offset, length);
+                byte[] inflated = new byte[size];
+                int read = 0;
+                while (read < size && !inflater.finished() && !inflater.needsInput()) {
+                    read += inflater.inflate(inflated, read, size - read);
+                }
+                if (read < size || !inflater.finished()) {
+                    throw new IOException("truncated or oversized body");
+                }
+                return new Input(inflated);
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        int readByte() throws IOException {
+            if (position >= bytes.length) {
+                throw new IOException("truncated entry");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        int readInt() throws IOException {
+            return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) {
+                        throw new IOException("negative length or index");
+                    }
+                    return value;
+                }
+            }
+            throw new IOException("malformed number");
+        }
+
+        /** Skips {@code length} bytes, which the caller reads from the array itself. */
+        int skip(int length) throws IOException {
+            if (length > bytes.length - position) {
+                throw new IOException("truncated entry");
+            }
+            int offset = position;
+            position += length;
+            return offset;
+        }
+
+        String readString() throws IOException {
+            int length = readVarInt();
+            if (length > bytes.length - position) {
+                throw new IOException("truncated entry");
+            }
+            String value = new String(bytes, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+    }
+
+    /**
+     * A node written before is written as its index in {@code nodes}, so predicates, types and
+     * repeated values are written and decoded once per entry.
+     */
+    static void writeNode(Output out, Node node, Map<Node, Integer> nodes, Map<String, Integer> names) {
+        Integer index = nodes.putIfAbsent(node, nodes.size());
+        if (index != null) {
+            out.writeByte('R');
+            out.writeVarInt(index);
+        } else {
+            writeTerm(out, node, names);
+        }
+    }
+
+    static Node readNode(Input in, List<Node> nodes, List<String> names) throws IOException {
+        int kind = in.readByte();
+        if (kind == 'R') {
+            int index = in.readVarInt();
+            if (index >= nodes.size()) {
+                throw new IOException("unknown node " + index);
+            }
+            return nodes.get(index);
+        }
+        Node node = readTerm(in, kind, names);
+        nodes.add(node);
+        return node;
+    }
+
+    /** Literal datatypes and languages go through {@code names}, as they repeat across literals. */
+    static void writeTerm(Output out, Node node, Map<String, Integer> names) {
+        if (node.isURI()) {
+            out.writeByte('U');
+            out.writeString(node.getURI());
+        } else if (node.isBlank()) {
+            out.writeByte('B');
+            out.writeString(node.getBlankNodeLabel());
+        } else if (node.isLiteral()) {
+            out.writeByte('L');
+            out.writeString(node.getLiteralLexicalForm());
+            writeName(out, node.getLiteralDatatypeURI(), names);
+            writeName(out, node.getLiteralLanguage(), names);
+        } else {
+            throw new IllegalArgumentException("Cannot store node " + node);
+        }
+    }
+
+    static Node readTerm(Input in, int kind, List<String> names) throws IOException {
+        return switch (kind) {
+            case 'U' -> NodeFactory.createURI(in.readString());
+            case 'B' -> NodeFactory.createBlankNode(in.readString());
+            case 'L' -> {
+                String lexical = in.readString();
+                String datatype = readName(in, names);
+                String lang = readName(in, names);
+                yield lang.isEmpty()
+                        ? NodeFactory.createLiteralDT(lexical, TypeMapper.getInstance().getSafeTypeByName(datatype))
+                        : NodeFactory.createLiteralLang(lexical, lang);
+            }
+            default -> throw new IOException("unknown node kind " + kind);
+        };
+    }
+
+    /** 0 and the string when new, otherwise its index plus one. */
+    private static void writeName(Output out, String name, Map<String, Integer> names) {
+        String value = name == null ? "" : name;
+        Integer index = names.putIfAbsent(value, names.size());
+        if (index != null) {
+            out.writeVarInt(index + 1);
+        } else {
+            out.writeVarInt(0);
+            out.writeString(value);
+        }
+    }
+
+    private static String readName(Input in, List<String> names) throws IOException {
+        int ref = in.readVarInt();
+        if (ref == 0) {
+            String name = in.readString();
+            names.add(name);
+            return name;
+        }
+        if (ref > names.size()) {
+            throw new IOException("unknown name " + ref);
+        }
+        return names.get(ref - 1);
+    }
+}
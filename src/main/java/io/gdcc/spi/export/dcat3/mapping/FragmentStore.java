@@ -0,0 +1,478 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import io.gdcc.spi.export.dcat3.config.model.Cache;
+import io.gdcc.spi.export.dcat3.mapping.FragmentCodec.Input;
+import io.gdcc.spi.export.dcat3.mapping.FragmentCodec.Output;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphMemFactory;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+
+/**
+ * Persistent, size-bounded store of mapped triples ({@code dcat.cache.*}), keyed by the
+ * fingerprints {@link ElementCache} computes for elements and scopes.
+ *
+ * <p>Each entry is one file, {@code <dir>/<first two key characters>/<key>.frag}, with the triples
+ * in a compact deflated encoding: node kind, then IRI, blank node label or literal lexical form,
+ * datatype and language, each distinct node once per entry or chunk. Labelled blank nodes keep
+ * their labels and reading an entry back needs no RDF parser. An entry holds either one graph
+ * ({@link #get}, {@link #put}) or the fragments of all scopes of an element by scope key ({@link
+ * ScopeFragments}), so an element with many scopes costs one file read and at most one write per
+ * export, not one per scope.
+ * The store keeps the entry sizes in memory in least recently used order; when a write takes it
+ * over its bound, the least recently used entries are deleted. A hit updates the file's
+ * modification time, so the order survives a restart, when it is rebuilt from the directory.
+ *
+ * <p>{@link #open} shares one instance per directory across all exporters of the JVM. Instances are
+ * thread-safe; a file that cannot be read is dropped and mapped again.
+ */
+public final class FragmentStore {
+    private static final Logger logger = Logger.getLogger(FragmentStore.class.getCanonicalName());
+
+    private static final int MAGIC = 0x44434632; // "DCF2"
+    private static final int FRAGMENTS_MAGIC = 0x44435332; // "DCS2"
+    private static final String SUFFIX = ".frag";
+
+    private static final Map<Path, FragmentStore> OPEN = new ConcurrentHashMap<>();
+
+    private final Path dir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(256, 0.75f, true); // guarded by this
+    private long totalBytes; // guarded by this
+
+    private FragmentStore(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the shared store of {@code cache.dir()}, null when the cache is not configured, or its
+     *     directory is invalid (DCATCFG-035, DCATCFG-036) or cannot be created
+     */
+    public static FragmentStore open(Cache cache) {
+        if (cache == null || cache.dir() == null || cache.maxMegabytes() <= 0) {
+            return null;
+        }
+        Path dir = cache.dir().toAbsolutePath().normalize();
+        try {
+            return OPEN.computeIfAbsent(dir, unused -> {
+                try {
+                    return load(dir, Math.min(cache.maxMegabytes(), Long.MAX_VALUE >> 20) << 20);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            logger.warning("cannot open cache directory " + dir + ": " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /** @return the triples stored under {@code key}, a new graph; null when there are none */
+    Graph get(String key) {
+        return read(key, FragmentStore::decode);
+    }
+
+    /** Stores the triples of {@code graph} under {@code key}, evicting the least recently used entries. */
+    void put(String key, Graph graph) {
+        write(key, encode(graph));
+    }
+
+    /** @return the scope fragments stored under {@code key} by {@link #putFragments}; null when there are none */
+    ScopeFragments getFragments(String key) {
+        return read(key, ScopeFragments::decode);
+    }
+
+    /**
+     * Stores the fragments of {@code previous} added in this run and {@code mapped}, by scope key, as
+     * one entry under {@code key}.
+     *
+     * @param previous the fragments read from the entry before, null when there were none
+     */
+    void putFragments(String key, ScopeFragments previous, Map<String, Graph> mapped) {
+        write(key, ScopeFragments.encode(previous, mapped));
+    }
+
+    private interface Decoder<T> {
+        T decode(byte[] bytes) throws IOException;
+    }
+
+    private <T> T read(String key, Decoder<T> decoder) {
+        synchronized (this) {
+            if (sizes.get(key) == null) { // also marks the entry as most recently used
+                return null;
+            }
+        }
+        Path file = file(key);
+        try {
+            T value = decoder.decode(Files.readAllBytes(file));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return value;
+        } catch (IOException | RuntimeException e) {
+            logger.fine(() -> "dropping unreadable cache entry " + file + ": " + e.getMessage());
+            remove(key);
+            return null;
+        }
+    }
+
+    private void write(String key, byte[] bytes) {
+        if (bytes.length > maxBytes) {
+            return;
+        }
+        Path file = file(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.fine(() -> "cannot write cache entry " + file + ": " + e.getMessage());
+            return;
+        }
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = sizes.put(key, (long) bytes.length);
+            totalBytes += bytes.length - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (!entry.getKey().equals(key)) {
+                    totalBytes -= entry.getValue();
+                    evicted.add(entry.getKey());
+                    eldest.remove();
+                }
+            }
+        }
+        evicted.forEach(this::delete);
+    }
+
+    /** Number of entries. */
+    synchronized int size() {
+        return sizes.size();
+    }
+
+    /** Total size of the entries in bytes. */
+    synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private void remove(String key) {
+        synchronized (this) {
+            Long size = sizes.remove(key);
+            if (size == null) {
+                return;
+            }
+            totalBytes -= size;
+        }
+        delete(key);
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            logger.fine(() -> "cannot delete cache entry " + key + ": " + e.getMessage());
+        }
+    }
+
+    private Path file(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    /**
+     * A store of {@code dir} not shared through {@link #open}, with the entry sizes and their order,
+     * oldest modification first, rebuilt from the directory.
+     */
+    static FragmentStore load(Path dir, long maxBytes) throws IOException {
+        Files.createDirectories(dir);
+        FragmentStore store = new FragmentStore(dir, maxBytes);
+        record Found(String key, long size, long modified) {}
+        List<Found> found = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file); // a write interrupted by a restart
+                }
+                if (!name.endsWith(SUFFIX)) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                found.add(new Found(
+                        name.substring(0, name.length() - SUFFIX.length()),
+                        attributes.size(),
+                        attributes.lastModifiedTime().toMillis()));
+            }
+        }
+        found.sort((a, b) -> Long.compare(a.modified(), b.modified()));
+        for (Found entry : found) {
+            store.sizes.put(entry.key(), entry.size());
+            store.totalBytes += entry.size();
+        }
+        return store;
+    }
+
+    static byte[] encode(Graph graph) {
+        Output out = new Output();
+        out.writeInt(MAGIC);
+        out.writeVarInt(graph.size());
+        Map<Node, Integer> nodes = new HashMap<>();
+        Map<String, Integer> names = new HashMap<>();
+        for (Iterator<Triple> it = graph.find(); it.hasNext(); ) {
+            Triple triple = it.next();
+            FragmentCodec.writeNode(out, triple.getSubject(), nodes, names);
+            FragmentCodec.writeNode(out, triple.getPredicate(), nodes, names);
+            FragmentCodec.writeNode(out, triple.getObject(), nodes, names);
+        }
+        return out.gzip();
+    }
+
+    static Graph decode(byte[] bytes) throws IOException {
+        Input in = Input.gunzip(bytes);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a cache entry");
+        }
+        Graph graph = GraphMemFactory.createDefaultGraph();
+        List<Node> nodes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int count = in.readVarInt();
+        for (int i = 0; i < count; i++) {
+            Node subject = FragmentCodec.readNode(in, nodes, names);
+            Node predicate = FragmentCodec.readNode(in, nodes, names);
+            graph.add(Triple.create(subject, predicate, FragmentCodec.readNode(in, nodes, names)));
+        }
+        return graph;
+    }
+
+    /**
+     * The fragments of the scopes of one element, read from one entry. The entry holds chunks of up
+     * to {@link #CHUNK} fragments; a chunk is an index (scope key and triple count per fragment)
+     * followed by a deflated body with the distinct nodes of the chunk and then the triples as node
+     * indexes. {@link #addTo} adds the triples of one scope without creating a graph per fragment;
+     * rewriting the entry copies the bodies of chunks still in use and encodes only new fragments.
+     */
+    static final class ScopeFragments {
+        static final int CHUNK = 256;
+
+        private static final class Chunk {
+            final String[] keys;
+            final int[] starts; // first triple of each fragment, and the triple count at the end
+            final int size; // of the body inflated
+            final byte[] entry; // the body is entry[offset, offset + length)
+            final int offset;
+            final int length;
+            final Node[] nodes;
+            final int[] triples; // three node indexes per triple
+            final boolean[] used;
+
+            Chunk(
+                    String[] keys,
+                    int[] starts,
+                    int size,
+                    byte[] entry,
+                    int offset,
+                    int length,
+                    Node[] nodes,
+                    int[] triples) {
+                this.keys = keys;
+                this.starts = starts;
+                this.size = size;
+                this.entry = entry;
+                this.offset = offset;
+                this.length = length;
+                this.nodes = nodes;
+                this.triples = triples;
+                this.used = new boolean[keys.length];
+            }
+
+            List<Triple> triples(int fragment) {
+                List<Triple> list = new ArrayList<>(starts[fragment + 1] - starts[fragment]);
+                for (int t = starts[fragment]; t < starts[fragment + 1]; t++) {
+                    list.add(triple(t));
+                }
+                return list;
+            }
+
+            Triple triple(int t) {
+                return Triple.create(nodes[triples[3 * t]], nodes[triples[3 * t + 1]], nodes[triples[3 * t + 2]]);
+            }
+        }
+
+        private record Location(Chunk chunk, int fragment) {}
+
+        private record Fragment(String key, List<Triple> triples) {}
+
+        private final List<Chunk> chunks;
+        private final Map<String, Location> index;
+
+        private ScopeFragments(List<Chunk> chunks, int fragments) {
+            this.chunks = chunks;
+            this.index = new HashMap<>(Math.max(16, fragments * 4 / 3 + 1));
+            for (Chunk chunk : chunks) {
+                for (int f = 0; f < chunk.keys.length; f++) {
+                    index.putIfAbsent(chunk.keys[f], new Location(chunk, f));
+                }
+            }
+        }
+
+        /** Number of scope keys with a fragment. */
+        int size() {
+            return index.size();
+        }
+
+        /** Adds the triples stored for {@code scopeKey} to {@code graph}; false when there are none. */
+        boolean addTo(String scopeKey, Graph graph) {
+            Location location = index.get(scopeKey);
+            if (location == null) {
+                return false;
+            }
+            Chunk chunk = location.chunk();
+            chunk.used[location.fragment()] = true;
+            for (int t = chunk.starts[location.fragment()]; t < chunk.starts[location.fragment() + 1]; t++) {
+                graph.add(chunk.triple(t));
+            }
+            return true;
+        }
+
+        /**
+         * Chunks of {@code previous} with at least half of their fragments used are copied as they
+         * are; the used fragments of the other chunks and the {@code mapped} ones go into new chunks.
+         */
+        static byte[] encode(ScopeFragments previous, Map<String, Graph> mapped) {
+            List<Chunk> kept = new ArrayList<>();
+            List<Fragment> pending = new ArrayList<>();
+            for (Chunk chunk : previous == null ? List.<Chunk>of() : previous.chunks) {
+                int used = 0;
+                for (boolean u : chunk.used) {
+                    used += u ? 1 : 0;
+                }
+                if (used > 0 && 2 * used >= chunk.keys.length) {
+                    kept.add(chunk);
+                } else {
+                    for (int f = 0; f < chunk.keys.length; f++) {
+                        if (chunk.used[f]) {
+                            pending.add(new Fragment(chunk.keys[f], chunk.triples(f)));
+                        }
+                    }
+                }
+            }
+            mapped.forEach((key, graph) -> pending.add(new Fragment(key, graph.find().toList())));
+
+            Output out = new Output();
+            out.writeInt(FRAGMENTS_MAGIC);
+            out.writeVarInt(kept.size() + (pending.size() + CHUNK - 1) / CHUNK);
+            for (Chunk chunk : kept) {
+                writeChunk(out, chunk.keys, chunk.starts, chunk.size);
+                out.writeVarInt(chunk.length);
+                out.writeBytes(chunk.entry, chunk.offset, chunk.length);
+            }
+            for (int from = 0; from < pending.size(); from += CHUNK) {
+                List<Fragment> fragments = pending.subList(from, Math.min(from + CHUNK, pending.size()));
+                String[] keys = new String[fragments.size()];
+                int[] starts = new int[fragments.size() + 1];
+                List<Triple> triples = new ArrayList<>();
+                for (int f = 0; f < fragments.size(); f++) {
+                    keys[f] = fragments.get(f).key();
+                    triples.addAll(fragments.get(f).triples());
+                    starts[f + 1] = triples.size();
+                }
+                Output body = body(triples);
+                byte[] deflated = body.deflate();
+                writeChunk(out, keys, starts, body.size());
+                out.writeVarInt(deflated.length);
+                out.writeBytes(deflated);
+            }
+            return out.toByteArray();
+        }
+
+        private static Output body(List<Triple> triples) {
+            Map<Node, Integer> nodes = new LinkedHashMap<>();
+            int[] indexes = new int[3 * triples.size()];
+            for (int t = 0; t < triples.size(); t++) {
+                Triple triple = triples.get(t);
+                indexes[3 * t] = nodes.computeIfAbsent(triple.getSubject(), unused -> nodes.size());
+                indexes[3 * t + 1] = nodes.computeIfAbsent(triple.getPredicate(), unused -> nodes.size());
+                indexes[3 * t + 2] = nodes.computeIfAbsent(triple.getObject(), unused -> nodes.size());
+            }
+            Output out = new Output();
+            Map<String, Integer> names = new HashMap<>();
+            out.writeVarInt(nodes.size());
+            for (Node node : nodes.keySet()) {
+                FragmentCodec.writeTerm(out, node, names);
+            }
+            for (int index : indexes) {
+                out.writeVarInt(index);
+            }
+            return out;
+        }
+
+        /** The index of a chunk and the inflated size of its body, which follows as length and bytes. */
+        private static void writeChunk(Output out, String[] keys, int[] starts, int size) {
+            out.writeVarInt(keys.length);
+            for (int f = 0; f < keys.length; f++) {
+                out.writeString(keys[f]);
+                out.writeVarInt(starts[f + 1] - starts[f]);
+            }
+            out.writeVarInt(size);
+        }
+
+        static ScopeFragments decode(byte[] bytes) throws IOException {
+            Input in = new Input(bytes);
+            if (in.readInt() != FRAGMENTS_MAGIC) {
+                throw new IOException("not a fragment entry");
+            }
+            int count = in.readVarInt();
+            List<Chunk> chunks = new ArrayList<>(Math.min(count, 1 << 16));
+            int fragments = 0;
+            for (int c = 0; c < count; c++) {
+                Chunk chunk = readChunk(in, bytes);
+                chunks.add(chunk);
+                fragments += chunk.keys.length;
+            }
+            return new ScopeFragments(chunks, fragments);
+        }
+
+        private static Chunk readChunk(Input in, byte[] entry) throws IOException {
+            int fragments = in.readVarInt();
+            String[] keys = new String[fragments];
+            int[] starts = new int[fragments + 1];
+            for (int f = 0; f < fragments; f++) {
+                keys[f] = in.readString();
+                starts[f + 1] = Math.addExact(starts[f], in.readVarInt());
+            }
+            int size = in.readVarInt();
+            int length = in.readVarInt();
+            int offset = in.skip(length);
+            Input bodyIn = Input.inflate(entry, offset, length, size);
+            Node[] nodes = new Node[bodyIn.readVarInt()];
+            List<String> names = new ArrayList<>();
+            for (int n = 0; n < nodes.length; n++) {
+                nodes[n] = FragmentCodec.readTerm(bodyIn, bodyIn.readByte(), names);
+            }
+            int[] triples = new int[Math.multiplyExact(3, starts[fragments])];
+            for (int t = 0; t < triples.length; t++) {
+                triples[t] = bodyIn.readVarInt();
+                if (triples[t] >= nodes.length) {
+                    throw new IOException("unknown node " + triples[t]);
+                }
+            }
+            return new Chunk(keys, starts, size, entry, offset, length, nodes, triples);
+        }
+    }
+}
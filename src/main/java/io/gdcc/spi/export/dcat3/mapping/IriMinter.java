@@ -0,0 +1,146 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * IRI checks and strict minting for values that become IRIs while mapping.
+ *
+ * <p>{@link #looksLikeIri} is the quick absolute-IRI check run on every candidate: a scheme ({@code
+ * ALPHA *( ALPHA / DIGIT / "+" / "-" / "." )}) followed by {@code ':'} and no line terminators. It
+ * accepts exactly what {@code "^[a-zA-Z][a-zA-Z0-9+.-]*:.*"} matched, without a regex.
+ *
+ * <p>With {@code dcat.iri.strict = true} an instance also repairs minted IRIs before they are
+ * emitted: characters an IRI cannot contain (spaces, controls, {@code <>"{}|\^`}, a second {@code
+ * #}) and a {@code %} not followed by two hex digits are percent-encoded as UTF-8, so a file name
+ * such as {@code my data.csv} becomes {@code my%20data.csv} instead of an IRI harvesters reject.
+ * IRIs that need no repair are returned as is. For the others, the part up to the last {@code '/'}
+ * (typically the access URL base shared by every file) is kept in an LRU cache, so only the last
+ * segment is encoded per value.
+ *
+ * <p>Instances are thread-safe and meant to be shared across exports.
+ */
+public final class IriMinter {
+
+    static final int CACHE_SIZE = 1024;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final Minted NO_BASE = new Minted("", false);
+
+    private final Map<String, Minted> bases = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Minted> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    /** A minted prefix and whether it already contains the fragment separator. */
+    private record Minted(String iri, boolean fragment) {}
+
+    /** @return true when {@code s} starts with a URI scheme and ':' (quick absolute IRI check) */
+    public static boolean looksLikeIri(String s) {
+        if (s == null || s.isEmpty() || !isAlpha(s.charAt(0))) {
+            return false;
+        }
+        int length = s.length();
+        int colon = 1;
+        while (colon < length && s.charAt(colon) != ':') {
+            char c = s.charAt(colon);
+            if (!isAlpha(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') {
+                return false;
+            }
+            colon++;
+        }
+        if (colon == length) {
+            return false;
+        }
+        for (int i = colon + 1; i < length; i++) {
+            if (isLineTerminator(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Percent-encode what an IRI cannot contain.
+     *
+     * @param iri an absolute IRI candidate (see {@link #looksLikeIri})
+     * @return {@code iri} itself when nothing needs encoding, the repaired IRI otherwise
+     */
+    public String mint(String iri) {
+        if (valid(iri)) {
+            return iri;
+        }
+        int cut = iri.lastIndexOf('/') + 1;
+        Minted base = cut == 0 ? NO_BASE : bases.computeIfAbsent(iri.substring(0, cut), IriMinter::encode);
+        StringBuilder out = new StringBuilder(iri.length() + 16).append(base.iri());
+        encode(iri, cut, base.fragment(), out);
+        return out.toString();
+    }
+
+    private static Minted encode(String prefix) {
+        StringBuilder out = new StringBuilder(prefix.length() + 16);
+        boolean fragment = encode(prefix, 0, false, out);
+        return new Minted(out.toString(), fragment);
+    }
+
+    /** Appends {@code s[from..]} encoded to {@code out}; returns whether a fragment was started. */
+    private static boolean encode(String s, int from, boolean fragment, StringBuilder out) {
+        for (int i = from; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '#' && !fragment) {
+                fragment = true;
+                out.append(c);
+            } else if (illegal(s, i, fragment)) {
+                for (byte b : String.valueOf(c).getBytes(StandardCharsets.UTF_8)) {
+                    out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+                }
+            } else {
+                out.append(c);
+            }
+        }
+        return fragment;
+    }
+
+    private static boolean valid(String s) {
+        boolean fragment = false;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '#' && !fragment) {
+                fragment = true;
+            } else if (illegal(s, i, fragment)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean illegal(String s, int i, boolean fragment) {
+        char c = s.charAt(i);
+        switch (c) {
+            case ' ', '<', '>', '"', '{', '}', '|', '\\', '^', '`':
+                return true;
+            case '#':
+                return fragment;
+            case '%':
+                return i + 2 >= s.length() || !isHex(s.charAt(i + 1)) || !isHex(s.charAt(i + 2));
+            default:
+                return c < 0x20 || (c >= 0x7F && c <= 0x9F);
+        }
+    }
+
+    private static boolean isAlpha(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    /** The line terminators {@code .} does not match in a {@link java.util.regex.Pattern}. */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -10,22 +10,46 @@ import com.jayway.jsonpath.ReadContext;
 import com.jayway.jsonpath.TypeRef;
 import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
 import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
 /**
  * JaywayJsonFinder: supports - list(): values from current scope - nodes(): subtree matches from
  * current scope - at(): create a finder scoped to a subtree while preserving original root -
  * listRoot(): values from original document root
+ *
+ * <p>Evaluation is tiered: simple member/index chains (see {@link SimpleJsonPath}) are answered
+ * directly from the {@link JsonNode} tree; filters, wildcards and deep scans go through Jayway. The
+ * Jayway context of a tree is only parsed when a path actually needs it.
+ *
+ * <p>A path starting with {@code $^} reads the enclosing scope (the finder {@link #at} was called
+ * on), {@code $^^} the one above that, and so on; past the outermost scope it reads the root.
  */
 public class JaywayJsonFinder {
     private static final Logger logger = Logger.getLogger(JaywayJsonFinder.class.getCanonicalName());
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
-    private final ReadContext ctx; // current scope
-    private final ReadContext originalRootCtx; // original document root
+    private final Document scope; // current scope
+    private final Document originalRoot; // original document root
+    private final boolean fastPath;
+    private final DeepScanRewriter rewriter; // optional, applied to root-level deep scans only
+    private final EvaluationBudget budget; // optional, per export
+    private final NodeCache nodes; // interned data-derived nodes, per export
+    private final Map<LookupIndex, Map<String, List<String>>> lookupIndexes; // built from the root, per export
+    private final IriMinter iriMinter; // optional, strict IRI minting
+    private final BlankNodeLabels blankNodeLabels; // optional, deterministic blank nodes
+    private final String element; // element being mapped, part of deterministic blank node labels
+    private final ScopeColumns columns; // columnar scope values, null when not scoped to a column row
+    private final int row;
+    private final JaywayJsonFinder outer; // enclosing scope for $^ paths, null at the root
 
     private static ReadContext createCtx(JsonNode root) {
         Configuration config = Configuration.builder()
@@ -38,38 +62,250 @@ public class JaywayJsonFinder {
     }
 
     public JaywayJsonFinder(JsonNode root) {
-        this.ctx = createCtx(root);
-        this.originalRootCtx = this.ctx; // initial root
+        this(root, true, Options.NONE);
     }
 
-    private JaywayJsonFinder(ReadContext ctx, ReadContext originalRootCtx) {
-        this.ctx = ctx;
-        this.originalRootCtx = originalRootCtx;
+    /**
+     * @param options collaborators of this export; {@link Options#NONE} for none
+     */
+    public JaywayJsonFinder(JsonNode root, Options options) {
+        this(root, true, options);
+    }
+
+    /**
+     * Optional collaborators of a root finder; a null component disables its feature.
+     *
+     * @param rewriter learned deep-scan locations shared across exports; null disables rewriting
+     * @param budget cost accounting for this export; null disables it
+     * @param iriMinter strict minting of IRIs built while mapping; null keeps them as built
+     * @param blankNodeLabels deterministic blank node labels; null keeps blank nodes anonymous
+     */
+    public record Options(
+            DeepScanRewriter rewriter, EvaluationBudget budget, IriMinter iriMinter, BlankNodeLabels blankNodeLabels) {
+
+        public static final Options NONE = new Options(null, null, null, null);
+
+        public Options withRewriter(DeepScanRewriter rewriter) {
+            return new Options(rewriter, budget, iriMinter, blankNodeLabels);
+        }
+
+        public Options withBudget(EvaluationBudget budget) {
+            return new Options(rewriter, budget, iriMinter, blankNodeLabels);
+        }
+
+        public Options withIriMinter(IriMinter iriMinter) {
+            return new Options(rewriter, budget, iriMinter, blankNodeLabels);
+        }
+
+        public Options withBlankNodeLabels(BlankNodeLabels blankNodeLabels) {
+            return new Options(rewriter, budget, iriMinter, blankNodeLabels);
+        }
+    }
+
+    /**
+     * @param fastPath false forces every path through Jayway (used to cross-check both tiers)
+     */
+    JaywayJsonFinder(JsonNode root, boolean fastPath) {
+        this(root, fastPath, Options.NONE);
+    }
+
+    private JaywayJsonFinder(JsonNode root, boolean fastPath, Options options) {
+        this.scope = new Document(root);
+        this.originalRoot = this.scope; // initial root
+        this.fastPath = fastPath;
+        this.rewriter = options.rewriter();
+        this.budget = options.budget();
+        this.nodes = new NodeCache(NodeCache.EXPORT_CAPACITY);
+        this.lookupIndexes = new ConcurrentHashMap<>();
+        this.iriMinter = options.iriMinter();
+        this.blankNodeLabels = options.blankNodeLabels();
+        this.element = "";
+        this.columns = null;
+        this.row = -1;
+        this.outer = null;
+    }
+
+    /** A finder for {@code scope} nested in {@code parent}. */
+    private JaywayJsonFinder(JaywayJsonFinder parent, Document scope, ScopeColumns columns, int row) {
+        this(parent, scope, columns, row, parent.element, parent);
+    }
+
+    private JaywayJsonFinder(
+            JaywayJsonFinder parent,
+            Document scope,
+            ScopeColumns columns,
+            int row,
+            String element,
+            JaywayJsonFinder outer) {
+        this.scope = scope;
+        this.originalRoot = parent.originalRoot;
+        this.fastPath = parent.fastPath;
+        this.rewriter = parent.rewriter;
+        this.budget = parent.budget;
+        this.nodes = parent.nodes;
+        this.lookupIndexes = parent.lookupIndexes;
+        this.iriMinter = parent.iriMinter;
+        this.blankNodeLabels = parent.blankNodeLabels;
+        this.element = element;
+        this.columns = columns;
+        this.row = row;
+        this.outer = outer;
+    }
+
+    /** IRIs and literals minted from this export's values; shared by every scope of the finder. */
+    NodeCache nodes() {
+        return nodes;
+    }
+
+    /** Lookup indexes over root arrays, built once per export and shared by every element and scope. */
+    Map<LookupIndex, Map<String, List<String>>> lookupIndexes() {
+        return lookupIndexes;
+    }
+
+    /** Cost accounting of this export, null when disabled. */
+    EvaluationBudget budget() {
+        return budget;
+    }
+
+    /** Strict minting of IRIs built while mapping, null when not enabled. */
+    IriMinter iriMinter() {
+        return iriMinter;
+    }
+
+    /**
+     * The same finder for mapping element {@code elementId}; the id keys deterministic blank node
+     * labels, so two elements never share one.
+     */
+    public JaywayJsonFinder forElement(String elementId) {
+        return new JaywayJsonFinder(this, scope, columns, row, elementId == null ? "" : elementId, outer);
+    }
+
+    /** Deterministic blank node labels, null when blank nodes stay anonymous. */
+    BlankNodeLabels blankNodeLabels() {
+        return blankNodeLabels;
+    }
+
+    String element() {
+        return element;
     }
 
     /** Execute a JSONPath against the current scope and return stringified values. */
     public List<String> list(String jsonPath) {
-        return listInternal(ctx, jsonPath);
+        int up = up(jsonPath);
+        if (up > 0) {
+            return enclosing(up).list(outerPath(jsonPath, up));
+        }
+        if (columns != null && jsonPath != null) {
+            List<String> values = columns.values(jsonPath, row);
+            if (values != null) {
+                return values;
+            }
+        }
+        return budgeted(scope, jsonPath, path -> listInternal(scope, path));
+    }
+
+    /**
+     * {@link #list(String)} for a path compiled ahead of time (generated mappers): value leaves are
+     * read straight from the scope node; budgets, columns and containers take the regular route.
+     */
+    List<String> list(String jsonPath, SimpleJsonPath simple) {
+        if (budget != null || columns != null || !fastPath) {
+            return list(jsonPath);
+        }
+        JsonNode leaf = simple.select(scope.node);
+        if (leaf == null || leaf.isNull()) {
+            return Collections.emptyList();
+        }
+        if (leaf.isValueNode()) {
+            return Collections.singletonList(leaf.isTextual() ? leaf.textValue() : leaf.asText());
+        }
+        return list(jsonPath);
     }
 
     /** Execute a JSONPath against the original document root and return stringified values. */
     public List<String> listRoot(String jsonPath) {
-        return listInternal(originalRootCtx, jsonPath);
+        return budgeted(originalRoot, jsonPath, path -> listInternal(originalRoot, path));
     }
 
-    private List<String> listInternal(ReadContext context, String jsonPath) {
+    /** Run one evaluation under the export's {@link EvaluationBudget}, if any. */
+    private <T> List<T> budgeted(Document document, String jsonPath, Function<String, List<T>> evaluation) {
+        if (budget == null || jsonPath == null || jsonPath.trim().isEmpty()) {
+            return evaluation.apply(jsonPath);
+        }
+        long estimate = estimateNodes(document, jsonPath);
+        if (!budget.admit(jsonPath, estimate)) {
+            return Collections.emptyList();
+        }
+        long start = System.nanoTime();
+        List<T> result = evaluation.apply(jsonPath);
+        return budget.record(jsonPath, estimate, System.nanoTime() - start) ? result : Collections.emptyList();
+    }
+
+    /** Steps for simple paths; otherwise the searched document size, once per deep scan. */
+    private long estimateNodes(Document document, String jsonPath) {
+        SimpleJsonPath simple = fastPath ? SimpleJsonPath.compile(jsonPath) : null;
+        if (simple != null) {
+            return simple.length();
+        }
+        int deepScans = 0;
+        for (int i = jsonPath.indexOf(".."); i >= 0; i = jsonPath.indexOf("..", i + 2)) {
+            deepScans++;
+        }
+        return Math.max(1, deepScans) * document.size();
+    }
+
+    private List<String> listInternal(Document document, String jsonPath) {
         if (jsonPath == null || jsonPath.trim().isEmpty()) {
             logger.warning("jsonPath is null or empty");
             return Collections.emptyList();
         }
-        List<Object> raw;
-        try {
-            raw = context.read(jsonPath, new TypeRef<List<Object>>() {});
-        } catch (JsonPathException ex) {
-            // Invalid or unparsable JsonPath -> behave as "no matches"
-            return Collections.emptyList();
+        SimpleJsonPath simple = fastPath ? SimpleJsonPath.compile(jsonPath) : null;
+        if (simple != null) {
+            JsonNode leaf = simple.select(document.node);
+            if (leaf == null || leaf.isNull()) {
+                return Collections.emptyList();
+            }
+            if (leaf.isValueNode()) {
+                return Collections.singletonList(leaf.isTextual() ? leaf.textValue() : leaf.asText());
+            }
+            // Objects and arrays keep Jayway's stringification.
         }
-        if (raw == null || raw.isEmpty()) {
+        List<String> rewrittenPaths = rewrite(document, jsonPath);
+        if (rewrittenPaths != null) {
+            List<String> out = new ArrayList<>();
+            for (String rewritten : rewrittenPaths) {
+                out.addAll(listInternal(document, rewritten));
+            }
+            if (!out.isEmpty()) {
+                return out;
+            }
+            return relearnIfFound(jsonPath, listJayway(document.context(), jsonPath));
+        }
+        return listJayway(document.context(), jsonPath);
+    }
+
+    /**
+     * Concrete paths for a root-level deep scan, see {@link DeepScanRewriter}; null when the path is
+     * not rewritten.
+     */
+    private List<String> rewrite(Document document, String jsonPath) {
+        if (rewriter == null || document != originalRoot) {
+            return null;
+        }
+        return rewriter.rewrite(jsonPath, document.context());
+    }
+
+    /** Full deep scan found what the rewrite missed: the input shape changed, learn again next time. */
+    private <T> List<T> relearnIfFound(String jsonPath, List<T> fullScan) {
+        if (!fullScan.isEmpty()) {
+            rewriter.forget(jsonPath);
+        }
+        return fullScan;
+    }
+
+    private static List<String> listJayway(ReadContext context, String jsonPath) {
+        List<Object> raw = readJayway(context, jsonPath);
+        if (raw.isEmpty()) {
             return Collections.emptyList();
         }
         List<String> out = new ArrayList<>(raw.size());
@@ -89,14 +325,210 @@ public class JaywayJsonFinder {
         return out;
     }
 
+    private static List<Object> readJayway(ReadContext context, String jsonPath) {
+        List<Object> raw;
+        try {
+            raw = context.read(jsonPath, new TypeRef<List<Object>>() {});
+        } catch (JsonPathException ex) {
+            // Invalid or unparsable JsonPath -> behave as "no matches"
+            return Collections.emptyList();
+        }
+        return raw == null ? Collections.emptyList() : raw;
+    }
+
+    /**
+     * Like {@link #list(String)}, but JSON scalars keep their type: strings stay {@link String},
+     * booleans {@link Boolean}, integral numbers {@link Long} (or {@link java.math.BigInteger}) and
+     * other numbers {@link Double} (or {@link java.math.BigDecimal}). Objects and arrays are
+     * stringified exactly as in {@link #list(String)}.
+     */
+    public List<Object> listTyped(String jsonPath) {
+        int up = up(jsonPath);
+        if (up > 0) {
+            return enclosing(up).listTyped(outerPath(jsonPath, up));
+        }
+        if (columns != null && jsonPath != null) {
+            List<Object> values = columns.typedValues(jsonPath, row);
+            if (values != null) {
+                return values;
+            }
+        }
+        return budgeted(scope, jsonPath, path -> listTypedInternal(scope, path));
+    }
+
+    /** Typed variant of {@link #listRoot(String)}; see {@link #listTyped(String)}. */
+    public List<Object> listRootTyped(String jsonPath) {
+        return budgeted(originalRoot, jsonPath, path -> listTypedInternal(originalRoot, path));
+    }
+
+    private List<Object> listTypedInternal(Document document, String jsonPath) {
+        if (jsonPath == null || jsonPath.trim().isEmpty()) {
+            logger.warning("jsonPath is null or empty");
+            return Collections.emptyList();
+        }
+        SimpleJsonPath simple = fastPath ? SimpleJsonPath.compile(jsonPath) : null;
+        if (simple != null) {
+            JsonNode leaf = simple.select(document.node);
+            if (leaf == null || leaf.isNull()) {
+                return Collections.emptyList();
+            }
+            if (leaf.isValueNode()) {
+                return Collections.singletonList(scalar(leaf));
+            }
+        }
+        List<String> rewrittenPaths = rewrite(document, jsonPath);
+        if (rewrittenPaths != null) {
+            List<Object> out = new ArrayList<>();
+            for (String rewritten : rewrittenPaths) {
+                out.addAll(listTypedInternal(document, rewritten));
+            }
+            if (!out.isEmpty()) {
+                return out;
+            }
+            return relearnIfFound(jsonPath, typedJayway(document.context(), jsonPath));
+        }
+        return typedJayway(document.context(), jsonPath);
+    }
+
+    private static List<Object> typedJayway(ReadContext context, String jsonPath) {
+        List<Object> raw = readJayway(context, jsonPath);
+        if (raw.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> out = new ArrayList<>(raw.size());
+        for (Object object : raw) {
+            if (object == null) {
+                continue;
+            }
+            if (object instanceof Integer || object instanceof Short || object instanceof Byte) {
+                out.add(((Number) object).longValue());
+            } else if (object instanceof Number || object instanceof Boolean) {
+                out.add(object);
+            } else {
+                out.add(object.toString());
+            }
+        }
+        return out;
+    }
+
+    /** Typed value of a scalar node; see {@link #listTyped(String)}. */
+    static Object scalar(JsonNode leaf) {
+        if (leaf.isTextual()) {
+            return leaf.textValue();
+        }
+        if (leaf.isBoolean()) {
+            return leaf.booleanValue();
+        }
+        if (leaf.isIntegralNumber()) {
+            return leaf.canConvertToLong() ? (Object) leaf.longValue() : leaf.bigIntegerValue();
+        }
+        if (leaf.isNumber()) {
+            return leaf.numberValue();
+        }
+        return leaf.asText();
+    }
+
     /** Return matching subtrees as JsonNode list from the current scope. */
     public List<JsonNode> nodes(String jsonPath) {
         if (jsonPath == null || jsonPath.trim().isEmpty()) {
             return Collections.emptyList();
         }
+        int up = up(jsonPath);
+        if (up > 0) {
+            return enclosing(up).nodes(outerPath(jsonPath, up));
+        }
+        return budgeted(scope, jsonPath, this::nodesRewritten);
+    }
+
+    /**
+     * {@link #nodes(String)} one at a time: a plain array scope ({@code <simple path>[*]}) is walked
+     * in place, so its elements are neither copied nor collected into a list. Other paths (and any
+     * path under an evaluation budget) go through {@link #nodes(String)}.
+     */
+    void forEachNode(String jsonPath, Consumer<JsonNode> action) {
+        int up = up(jsonPath);
+        if (up > 0) {
+            enclosing(up).forEachNode(outerPath(jsonPath, up), action);
+            return;
+        }
+        JsonNode array = fastPath && budget == null ? plainArray(jsonPath) : null;
+        if (array != null) {
+            array.forEach(action);
+            return;
+        }
+        nodes(jsonPath).forEach(action);
+    }
+
+    /** The array a {@code <simple path>[*]} path iterates, null when the path or the node is not one. */
+    private JsonNode plainArray(String jsonPath) {
+        if (jsonPath == null) {
+            return null;
+        }
+        String trimmed = jsonPath.trim();
+        if (!trimmed.endsWith("[*]")) {
+            return null;
+        }
+        SimpleJsonPath arrayPath = SimpleJsonPath.compile(trimmed.substring(0, trimmed.length() - 3));
+        JsonNode array = arrayPath == null ? null : arrayPath.select(scope.node);
+        return array != null && array.isArray() ? array : null;
+    }
+
+    /** Number of {@code ^} after the {@code $} of a {@code $^} path; 0 for any other path. */
+    static int up(String jsonPath) {
+        if (jsonPath == null || jsonPath.length() < 2 || jsonPath.charAt(0) != '$' || jsonPath.charAt(1) != '^') {
+            return 0;
+        }
+        int up = 1;
+        while (up + 1 < jsonPath.length() && jsonPath.charAt(up + 1) == '^') {
+            up++;
+        }
+        return up;
+    }
+
+    /** {@code $^^.a} read from the finder two scopes out is {@code $.a}. */
+    private static String outerPath(String jsonPath, int up) {
+        return "$" + jsonPath.substring(up + 1);
+    }
+
+    /** The finder {@code up} scopes out; the outermost one when there are fewer. */
+    private JaywayJsonFinder enclosing(int up) {
+        JaywayJsonFinder finder = this;
+        for (int i = 0; i < up && finder.outer != null; i++) {
+            finder = finder.outer;
+        }
+        return finder;
+    }
+
+    private List<JsonNode> nodesRewritten(String jsonPath) {
+        List<String> rewrittenPaths = rewrite(scope, jsonPath);
+        if (rewrittenPaths != null) {
+            List<JsonNode> out = new ArrayList<>();
+            for (String rewritten : rewrittenPaths) {
+                out.addAll(nodesInternal(rewritten));
+            }
+            if (!out.isEmpty()) {
+                return out;
+            }
+            return relearnIfFound(jsonPath, nodesInternal(jsonPath));
+        }
+        return nodesInternal(jsonPath);
+    }
+
+    private List<JsonNode> nodesInternal(String jsonPath) {
+        SimpleJsonPath simple = fastPath ? SimpleJsonPath.compile(jsonPath) : null;
+        if (simple != null) {
+            JsonNode match = simple.select(scope.node);
+            if (match == null) {
+                return Collections.emptyList();
+            }
+            if (!match.isNull()) {
+                return Collections.singletonList(match);
+            }
+            // explicit JSON null: let Jayway decide, as before
+        }
         List<Object> raw;
         try {
-            raw = ctx.read(jsonPath, new TypeRef<List<Object>>() {});
+            raw = scope.context().read(jsonPath, new TypeRef<List<Object>>() {});
         } catch (JsonPathException ex) {
             return Collections.emptyList();
         }
@@ -111,9 +543,78 @@ public class JaywayJsonFinder {
         return result;
     }
 
+    /** Return matching subtrees as JsonNode list from the original document root. */
+    List<JsonNode> nodesRoot(String jsonPath) {
+        return new JaywayJsonFinder(this, originalRoot, null, -1, element, null).nodes(jsonPath);
+    }
+
     /** Create a finder scoped to the given subtree, preserving the original root for listRoot(). */
     public JaywayJsonFinder at(JsonNode node) {
-        ReadContext subCtx = createCtx(node);
-        return new JaywayJsonFinder(subCtx, originalRootCtx);
+        return new JaywayJsonFinder(this, new Document(node), null, -1);
+    }
+
+    /**
+     * Columnar extraction for scope paths of the form {@code <simple path>[*]}, e.g. {@code
+     * $.datasetFileDetails[*]}: a single pass over the array pulls {@code relativePaths} into columns.
+     *
+     * @return the columns, or null when the scope is not a plain array (use {@link #nodes(String)})
+     */
+    ScopeColumns columns(String scopePath, Collection<String> relativePaths) {
+        if (!fastPath || scopePath == null) {
+            return null;
+        }
+        String trimmed = scopePath.trim();
+        if (!trimmed.endsWith("[*]")) {
+            return null;
+        }
+        SimpleJsonPath arrayPath = SimpleJsonPath.compile(trimmed.substring(0, trimmed.length() - 3));
+        if (arrayPath == null) {
+            return null;
+        }
+        JsonNode array = arrayPath.select(scope.node);
+        if (array == null || !array.isArray()) {
+            return null;
+        }
+        return ScopeColumns.extract(array, relativePaths);
+    }
+
+    /** Create a finder scoped to one row of {@code columns}; columnized paths are served from there. */
+    JaywayJsonFinder atRow(ScopeColumns columns, int row) {
+        return new JaywayJsonFinder(this, new Document(columns.row(row)), columns, row);
+    }
+
+    /** A JSON tree plus its Jayway context, parsed on first use only. */
+    private static final class Document {
+        private final JsonNode node;
+        private volatile ReadContext context;
+        private long size = -1; // node count, computed for budget estimates only
+
+        Document(JsonNode node) {
+            this.node = node != null ? node : MAPPER.createObjectNode();
+        }
+
+        ReadContext context() {
+            ReadContext ctx = context;
+            if (ctx == null) {
+                ctx = createCtx(node);
+                context = ctx;
+            }
+            return ctx;
+        }
+
+        long size() {
+            if (size < 0) {
+                long count = 0;
+                ArrayDeque<JsonNode> pending = new ArrayDeque<>();
+                pending.push(node);
+                while (!pending.isEmpty()) {
+                    JsonNode current = pending.pop();
+                    count++;
+                    current.elements().forEachRemaining(pending::push);
+                }
+                size = count;
+            }
+            return size;
+        }
     }
 }
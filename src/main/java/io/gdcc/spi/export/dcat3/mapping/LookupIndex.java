@@ -0,0 +1,95 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash index behind a {@code lookup} value source: key to values over the elements of an array.
+ *
+ * <p>The index is built in one pass over the array and then answers each probe in O(1), where a
+ * {@code $$..[?(@.key == ...)]} filter per scope would scan the array again for every file. Indexes
+ * over root ({@code $$}) arrays are built once per export and shared by every element and scope
+ * through the finder; indexes over scoped arrays once per scope through the {@link TripleSink}.
+ * Equal index definitions share one index.
+ *
+ * @param index JSONPath of the array, trimmed
+ * @param key element-relative JSONPath of the key, trimmed
+ * @param value element-relative JSONPath of the value, trimmed
+ */
+record LookupIndex(String index, String key, String value) {
+
+    boolean root() {
+        return index.startsWith("$$");
+    }
+
+    /**
+     * @param probes keys read from the scope (surrounding whitespace ignored)
+     * @param multi false: only the first value of the first probe that has one
+     * @return the values of every probe, in probe and element order
+     */
+    List<String> values(TripleSink sink, JaywayJsonFinder finder, List<String> probes, boolean multi) {
+        if (probes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, List<String>> entries = root()
+                ? finder.lookupIndexes().computeIfAbsent(this, lookup -> lookup.build(finder))
+                : sink.lookupIndex(this, finder);
+        List<String> out = null;
+        for (String probe : probes) {
+            List<String> values = probe == null ? null : entries.get(probe.trim());
+            if (values == null) {
+                continue;
+            }
+            if (!multi) {
+                return Collections.singletonList(values.get(0));
+            }
+            if (out == null) {
+                out = new ArrayList<>();
+            }
+            out.addAll(values);
+        }
+        return out == null ? Collections.emptyList() : out;
+    }
+
+    /** One pass over the array: every element with a non-blank key and value becomes an entry. */
+    Map<String, List<String>> build(JaywayJsonFinder finder) {
+        List<JsonNode> matches = root() ? finder.nodesRoot(index.substring(1)) : finder.nodes(index);
+        SimpleJsonPath simpleKey = SimpleJsonPath.compile(key);
+        SimpleJsonPath simpleValue = SimpleJsonPath.compile(value);
+        Map<String, List<String>> entries = new HashMap<>();
+        for (JsonNode match : matches) {
+            Iterable<JsonNode> elements = match.isArray() ? match : List.of(match);
+            for (JsonNode element : elements) {
+                if (element == null || element.isNull()) {
+                    continue;
+                }
+                JaywayJsonFinder elementFinder = simpleKey == null || simpleValue == null ? finder.at(element) : null;
+                String k = MappingSteps.trimToNull(read(element, key, simpleKey, elementFinder));
+                String v = k == null ? null : MappingSteps.trimToNull(read(element, value, simpleValue, elementFinder));
+                if (v != null) {
+                    entries.computeIfAbsent(k, unused -> new ArrayList<>(1)).add(v);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static String read(JsonNode element, String path, SimpleJsonPath simple, JaywayJsonFinder elementFinder) {
+        if (simple == null) {
+            List<String> values = elementFinder.list(path);
+            return values.isEmpty() ? null : values.get(0);
+        }
+        JsonNode leaf = simple.select(element);
+        if (leaf == null || leaf.isNull() || leaf.isMissingNode()) {
+            return null;
+        }
+        if (leaf.isValueNode()) {
+            return leaf.isTextual() ? leaf.textValue() : leaf.asText();
+        }
+        return leaf.toString();
+    }
+}
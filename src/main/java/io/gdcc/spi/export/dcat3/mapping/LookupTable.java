@@ -0,0 +1,273 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.dcat3.config.model.ValueSource.MAP_PREFIX;
+import static io.gdcc.spi.export.dcat3.config.model.ValueSource.MAP_REGEX;
+import static io.gdcc.spi.export.dcat3.config.model.ValueSource.MAP_SUFFIX;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A value map ({@code props.*.map.*}, {@code nodes.*.iri.map.*}) compiled once by {@link
+ * MappingCompiler} into an immutable hash table.
+ *
+ * <p>{@link #get} is the exact lookup of value maps. {@link #getNormalized} is the node IRI map
+ * lookup: the value with parameters stripped and lower-cased first, the value as is second. The
+ * table records whether every key is already in normalized form; values that are normalized
+ * themselves (the common {@code text/csv}) are then looked up once without building a key, and a
+ * missed normalized lookup skips the second one.
+ *
+ * <p>Pattern entries ({@code map.prefix.*}, {@code map.suffix.*}, {@code map.regex.*}) are tried
+ * when no exact key matches, in this order: the longest matching prefix, the longest matching
+ * suffix, then the first regex (by pattern text) matching the whole value. Prefixes and suffixes
+ * live in one trie each, regexes in a single alternation whose matching group tells which entry
+ * matched, so a lookup walks the value once per kind however many patterns there are.
+ *
+ * <p>An external {@link CodeList} ({@code codeList}) is consulted last, after every inline entry
+ * missed; inline entries thus override single codes of a shared list.
+ */
+final class LookupTable {
+
+    private static final Pattern BACK_REFERENCE = Pattern.compile("(?<!\\\\)\\\\(?:[1-9]|k<)");
+
+    private final Map<String, String> entries;
+    private final boolean keysNormalized; // every key equals its own normalization
+    private final Trie prefixes; // null when none
+    private final Trie suffixes; // null when none, keys reversed
+    private final Pattern regex; // null when none: (p1)|(p2)|...
+    private final int[] regexGroups; // group number of each alternative
+    private final String[] regexValues;
+    private final List<String> values;
+    private final CodeList codeList; // null when none
+
+    private LookupTable(
+            Map<String, String> entries,
+            Trie prefixes,
+            Trie suffixes,
+            Pattern regex,
+            int[] regexGroups,
+            String[] regexValues,
+            List<String> values,
+            CodeList codeList) {
+        this.entries = entries;
+        this.keysNormalized = entries.keySet().stream().allMatch(LookupTable::normalized);
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.regex = regex;
+        this.regexGroups = regexGroups;
+        this.regexValues = regexValues;
+        this.values = values;
+        this.codeList = codeList;
+    }
+
+    /** @return the compiled table, null when {@code map} is null or empty */
+    static LookupTable of(Map<String, String> map) {
+        return of(map, null);
+    }
+
+    /** @return the compiled table, null when {@code map} is null or empty and there is no code list */
+    static LookupTable of(Map<String, String> map, CodeList codeList) {
+        if ((map == null || map.isEmpty()) && codeList == null) {
+            return null;
+        }
+        if (map == null) {
+            map = Map.of();
+        }
+        Map<String, String> entries = new HashMap<>();
+        Trie prefixes = null;
+        Trie suffixes = null;
+        Map<String, String> regexes = new TreeMap<>(); // precedence: pattern text
+        List<String> values = new ArrayList<>();
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (key == null || value == null) {
+                continue;
+            }
+            if (key.startsWith(MAP_PREFIX) && key.length() > MAP_PREFIX.length()) {
+                prefixes = prefixes == null ? new Trie() : prefixes;
+                prefixes.put(key.substring(MAP_PREFIX.length()), false, value);
+            } else if (key.startsWith(MAP_SUFFIX) && key.length() > MAP_SUFFIX.length()) {
+                suffixes = suffixes == null ? new Trie() : suffixes;
+                suffixes.put(key.substring(MAP_SUFFIX.length()), true, value);
+            } else if (key.startsWith(MAP_REGEX) && key.length() > MAP_REGEX.length()) {
+                if (!compiles(key.substring(MAP_REGEX.length()))) {
+                    continue; // DCATRSC-113
+                }
+                regexes.put(key.substring(MAP_REGEX.length()), value);
+            } else {
+                entries.put(key, value);
+            }
+            values.add(value);
+        }
+
+        Pattern regex = null;
+        int[] regexGroups = new int[regexes.size()];
+        String[] regexValues = new String[regexes.size()];
+        if (!regexes.isEmpty()) {
+            StringBuilder alternation = new StringBuilder();
+            int group = 1;
+            int i = 0;
+            for (Map.Entry<String, String> entry : regexes.entrySet()) {
+                if (i > 0) {
+                    alternation.append('|');
+                }
+                alternation.append('(').append(entry.getKey()).append(')');
+                regexGroups[i] = group;
+                regexValues[i] = entry.getValue();
+                group += 1 + Pattern.compile(entry.getKey()).matcher("").groupCount();
+                i++;
+            }
+            regex = Pattern.compile(alternation.toString());
+        }
+        return new LookupTable(
+                Map.copyOf(entries), prefixes, suffixes, regex, regexGroups, regexValues, List.copyOf(values), codeList);
+    }
+
+    /** Exact lookup, then patterns, then the code list; null when unmapped. */
+    String get(String value) {
+        if (value == null) {
+            return null;
+        }
+        String mapped = entries.get(value);
+        if (mapped == null) {
+            mapped = matchPatterns(value);
+        }
+        return mapped != null || codeList == null ? mapped : codeList.get(value);
+    }
+
+    /**
+     * Normalized lookup (parameters such as {@code "; charset=..."} stripped, lower case), falling
+     * back to the exact value; patterns, then the code list, are matched the same way after both exact
+     * lookups missed.
+     *
+     * @param base a trimmed, non-blank input value
+     * @return the mapped value, null when neither form is mapped
+     */
+    String getNormalized(String base) {
+        if (normalized(base)) {
+            String mapped = entries.get(base);
+            if (mapped == null) {
+                mapped = matchPatterns(base);
+            }
+            return mapped != null || codeList == null ? mapped : codeList.get(base);
+        }
+        String key = MappingSteps.stripParameters(base).toLowerCase();
+        String mapped = entries.get(key);
+        if (mapped == null && !keysNormalized) {
+            mapped = entries.get(base);
+        }
+        if (mapped == null) {
+            mapped = matchPatterns(key);
+        }
+        if (mapped == null) {
+            mapped = matchPatterns(base);
+        }
+        if (mapped == null && codeList != null) {
+            mapped = codeList.get(key);
+            if (mapped == null) {
+                mapped = codeList.get(base);
+            }
+        }
+        return mapped;
+    }
+
+    /** Every mapped value of the inline entries, exact and pattern; code list values are not listed. */
+    Collection<String> values() {
+        return values;
+    }
+
+    private String matchPatterns(String value) {
+        if (prefixes != null) {
+            String mapped = prefixes.longest(value, false);
+            if (mapped != null) {
+                return mapped;
+            }
+        }
+        if (suffixes != null) {
+            String mapped = suffixes.longest(value, true);
+            if (mapped != null) {
+                return mapped;
+            }
+        }
+        if (regex != null) {
+            Matcher matcher = regex.matcher(value);
+            if (matcher.matches()) {
+                for (int i = 0; i < regexGroups.length; i++) {
+                    if (matcher.start(regexGroups[i]) >= 0) {
+                        return regexValues[i];
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Valid and free of back-references (they would point at the wrong group in the alternation). */
+    static boolean compiles(String pattern) {
+        if (BACK_REFERENCE.matcher(pattern).find()) {
+            return false;
+        }
+        try {
+            Pattern.compile(pattern);
+            return true;
+        } catch (PatternSyntaxException e) {
+            return false;
+        }
+    }
+
+    /**
+     * True when {@code stripParameters(s).toLowerCase()} is {@code s}: no parameters, no outer
+     * whitespace and no upper case. Non-ASCII characters take the full normalization (locale rules).
+     */
+    private static boolean normalized(String s) {
+        if (s.isEmpty()) {
+            return true;
+        }
+        if (s.charAt(0) <= ' ' || s.charAt(s.length() - 1) <= ' ') {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ';' || (c >= 'A' && c <= 'Z') || c > 0x7E) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Character trie of prefixes (or of reversed suffixes) answering the longest match. */
+    private static final class Trie {
+        private final Map<Character, Trie> children = new HashMap<>();
+        private String value; // mapped value of the key ending here, null when none
+
+        void put(String key, boolean reversed, String mapped) {
+            Trie node = this;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(reversed ? key.length() - 1 - i : i);
+                node = node.children.computeIfAbsent(c, unused -> new Trie());
+            }
+            node.value = mapped;
+        }
+
+        /** Value of the longest key that starts (or, reversed, ends) {@code s}; null when none. */
+        String longest(String s, boolean reversed) {
+            Trie node = this;
+            String best = null;
+            for (int i = 0; i < s.length() && node != null; i++) {
+                node = node.children.get(s.charAt(reversed ? s.length() - 1 - i : i));
+                if (node != null && node.value != null) {
+                    best = node.value;
+                }
+            }
+            return best;
+        }
+    }
+}
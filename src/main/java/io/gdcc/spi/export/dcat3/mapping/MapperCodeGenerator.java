@@ -0,0 +1,409 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.dcat3.config.loader.FileResolver.resolveElementFile;
+
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.loader.RootConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Element;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.config.model.RootConfig;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.BlankSubject;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ConstObject;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ConstSubject;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.IriObjects;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.LiteralObjects;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.PropertyStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ValueObjects;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import org.apache.jena.graph.Node;
+
+/**
+ * Generates Java source for one {@link ResourceMapper} subclass per element of a root config, for
+ * profiles that are fixed at build time (e.g. {@code application_profiles/AP_NL30/mapping}).
+ *
+ * <p>The generated {@code mapScope} is straight-line code: predicates, types and constant objects
+ * are static {@link Node} constants, plain {@code json} properties read simple paths straight from
+ * the scope node, and triples go to the program's {@link TripleSink}. Properties the generator
+ * does not specialise (map, format, map_empty/map_nonempty, typed JSON literals, node refs, {@code
+ * when}, aggregates, lookups) and formatted subjects call the step compiled by {@link
+ * MappingCompiler}, so generated and compiled mappers share one set of semantics.
+ *
+ * <p>{@code mapScope} replaces the body of one scope ({@link ResourceMapper#scopeBody}); scope
+ * selection, nesting, paging, groups and stored fragments stay with the program, so every run of
+ * the mapper uses the generated code. A generated mapper still compiles its config in the
+ * constructor, as the fallback steps and scope handling come from that program; {@link
+ * ElementMappers} does this once per exporter, not per export.
+ *
+ * <p>Each mapper carries a {@link ResourceMapperFactory} registered in {@code META-INF/services};
+ * {@link ResourceMappers#create} only uses it for the exact config it was generated from.
+ *
+ * <p>Usage: {@code MapperCodeGenerator <dcat-root.properties> <source dir> <resource dir>}; see the
+ * {@code codegen} Maven profile.
+ */
+public final class MapperCodeGenerator {
+
+    static final String PACKAGE = MapperCodeGenerator.class.getPackageName();
+    static final String SERVICE_FILE = "META-INF/services/" + ResourceMapperFactory.class.getName();
+
+    /** One generated mapper class. */
+    public record GeneratedMapper(String className, String fingerprint, String source) {}
+
+    private MapperCodeGenerator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException(
+                    "Usage: MapperCodeGenerator <dcat-root.properties> <source dir> <resource dir>");
+        }
+        System.setProperty(RootConfigLoader.SYS_PROP, args[0]);
+        List<GeneratedMapper> mappers = generate(RootConfigLoader.load());
+
+        Path sourceDir = Paths.get(args[1]).resolve(PACKAGE.replace('.', '/'));
+        Files.createDirectories(sourceDir);
+        for (GeneratedMapper mapper : mappers) {
+            Files.writeString(sourceDir.resolve(mapper.className() + ".java"), mapper.source());
+        }
+
+        // merge with providers generated for other profiles in the same build
+        Path serviceFile = Paths.get(args[2]).resolve(SERVICE_FILE);
+        Files.createDirectories(serviceFile.getParent());
+        TreeSet<String> providers = new TreeSet<>();
+        if (Files.exists(serviceFile)) {
+            Files.readAllLines(serviceFile).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .forEach(providers::add);
+        }
+        mappers.forEach(mapper -> providers.add(PACKAGE + "." + mapper.className() + "$Factory"));
+        Files.write(serviceFile, providers, StandardCharsets.UTF_8);
+    }
+
+    /** Generate a mapper for every element of {@code root}. */
+    public static List<GeneratedMapper> generate(RootConfig root) throws IOException {
+        Prefixes prefixes = new Prefixes(root.prefixes());
+        List<GeneratedMapper> mappers = new ArrayList<>();
+        for (Element element : root.elements()) {
+            ResourceConfig resourceConfig;
+            try (InputStream in = resolveElementFile(root.baseDir(), element.file())) {
+                resourceConfig = new ResourceConfigLoader(root.baseDir()).load(in);
+            }
+            mappers.add(generate(element.id(), resourceConfig, prefixes, element.typeCurieOrIri()));
+        }
+        return mappers;
+    }
+
+    /** Generate the mapper for one element. */
+    public static GeneratedMapper generate(
+            String elementId, ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri) {
+        String fingerprint = ResourceMappers.fingerprint(resourceConfig, prefixes, resourceTypeCurieOrIri);
+        String className = "Generated" + camelCase(elementId) + "Mapper_" + fingerprint.substring(0, 8);
+        MappingProgram program = MappingCompiler.compile(resourceConfig, prefixes, resourceTypeCurieOrIri);
+        return new GeneratedMapper(
+                className, fingerprint, new ClassWriter(className, elementId, fingerprint, program, resourceConfig).write());
+    }
+
+    /** Writes one class; fields, constructor lines and scope body are collected per property. */
+    private static final class ClassWriter {
+        private final String className;
+        private final String elementId;
+        private final String fingerprint;
+        private final MappingProgram program;
+        private final ResourceConfig resourceConfig;
+        private final StringBuilder constants = new StringBuilder();
+        private final StringBuilder fields = new StringBuilder();
+        private final StringBuilder init = new StringBuilder();
+        private final StringBuilder body = new StringBuilder();
+
+        ClassWriter(
+                String className,
+                String elementId,
+                String fingerprint,
+                MappingProgram program,
+                ResourceConfig resourceConfig) {
+            this.className = className;
+            this.elementId = elementId;
+            this.fingerprint = fingerprint;
+            this.program = program;
+            this.resourceConfig = resourceConfig;
+        }
+
+        String write() {
+            writeSubject();
+            writeType();
+            if (resourceConfig.props() != null) {
+                int index = 0;
+                for (String id : resourceConfig.props().keySet()) {
+                    PropertyStep step = program.prop(id);
+                    if (step != null) {
+                        writeProperty(index++, id, step);
+                    }
+                }
+            }
+
+            StringBuilder out = new StringBuilder();
+            out.append("package ").append(PACKAGE).append(";\n\n");
+            out.append("import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;\n");
+            out.append("import java.util.List;\n");
+            out.append("import java.util.function.BiConsumer;\n");
+            out.append("import org.apache.jena.datatypes.TypeMapper;\n");
+            out.append("import org.apache.jena.graph.Node;\n");
+            out.append("import org.apache.jena.graph.NodeFactory;\n");
+            out.append("import org.apache.jena.vocabulary.RDF;\n\n");
+            out.append("/** Generated by MapperCodeGenerator for element '")
+                    .append(javadoc(elementId))
+                    .append("'; do not edit. */\n");
+            out.append("public final class ").append(className).append(" extends ResourceMapper {\n\n");
+            out.append("    static final String FINGERPRINT = ").append(literal(fingerprint)).append(";\n");
+            out.append(constants).append('\n');
+            out.append(fields);
+            out.append("\n    ")
+                    .append(className)
+                    .append("(ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri) {\n");
+            out.append("        super(resourceConfig, prefixes, resourceTypeCurieOrIri);\n");
+            out.append(init);
+            out.append("    }\n\n");
+            out.append("    @Override\n");
+            out.append("    BiConsumer<TripleSink, JaywayJsonFinder> scopeBody() {\n");
+            out.append("        return this::mapScope;\n");
+            out.append("    }\n\n");
+            out.append("    private void mapScope(TripleSink sink, JaywayJsonFinder finder) {\n");
+            out.append(body);
+            out.append("    }\n\n");
+            out.append("    /** Registers this mapper with {@link ResourceMappers}. */\n");
+            out.append("    public static final class Factory implements ResourceMapperFactory {\n");
+            out.append("        @Override\n");
+            out.append("        public String fingerprint() {\n");
+            out.append("            return FINGERPRINT;\n");
+            out.append("        }\n\n");
+            out.append("        @Override\n");
+            out.append("        public ResourceMapper create(\n");
+            out.append("                ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri) {\n");
+            out.append("            return new ")
+                    .append(className)
+                    .append("(resourceConfig, prefixes, resourceTypeCurieOrIri);\n");
+            out.append("        }\n");
+            out.append("    }\n");
+            out.append("}\n");
+            return out.toString();
+        }
+
+        private void writeSubject() {
+            if (program.subject() instanceof ConstSubject constSubject) {
+                constants.append("    private static final Node SUBJECT = NodeFactory.createURI(")
+                        .append(literal(constSubject.iri))
+                        .append(");\n");
+                body.append("        Node subject = SUBJECT;\n");
+            } else if (program.subject() instanceof BlankSubject) {
+                body.append("        Node subject = sink.blank(MappingSteps.SUBJECT);\n");
+            } else {
+                fields.append("    private final MappingSteps.SubjectStep subjectStep;\n");
+                init.append("        subjectStep = program().subject();\n");
+                body.append("        Node subject = subjectStep.create(sink, finder);\n");
+            }
+        }
+
+        private void writeType() {
+            Node type = program.type();
+            if (type == null) {
+                return;
+            }
+            if (type.isURI()) {
+                constants.append("    private static final Node TYPE = NodeFactory.createURI(")
+                        .append(literal(type.getURI()))
+                        .append(");\n");
+                body.append("        sink.add(subject, RDF.Nodes.type, TYPE);\n");
+            } else {
+                body.append("        sink.add(subject, RDF.Nodes.type, program().type());\n");
+            }
+        }
+
+        private void writeProperty(int index, String id, PropertyStep step) {
+            String property = "P_" + index;
+            constants.append("    private static final Node ")
+                    .append(property)
+                    .append(" = NodeFactory.createURI(")
+                    .append(literal(step.predicate.getURI()))
+                    .append(");\n");
+            body.append("        // props.").append(comment(id)).append('\n');
+
+            if (step.when != null) {
+                // conditional properties keep the compiled condition in front of their objects
+                writeDelegate(index, id);
+            } else if (step.objects instanceof ConstObject constObject) {
+                String constant = "C_" + index;
+                constants.append("    private static final Node ")
+                        .append(constant)
+                        .append(" = ")
+                        .append(node(constObject.node))
+                        .append(";\n");
+                body.append("        sink.add(subject, ").append(property).append(", ").append(constant).append(");\n");
+            } else if (step.objects instanceof IriObjects iri && isPlainJson(iri)) {
+                writeValues(index, iri, "iri", () -> {
+                    body.append("            Node node = MappingSteps.mintIri(sink, finder, iri);\n");
+                    body.append("            if (node != null) {\n");
+                    body.append("                sink.add(subject, ").append(property).append(", node);\n");
+                    body.append("            }\n");
+                });
+            } else if (step.objects instanceof LiteralObjects literals
+                    && isPlainJson(literals)
+                    && !literals.mapsEmptiness
+                    && literals.datatype == null) {
+                String literalOf = literals.lang == null
+                        ? "NodeFactory.createLiteralString(%s)"
+                        : "NodeFactory.createLiteralLang(%s, " + literal(literals.lang) + ")";
+                // values read at run time go through the sink's node caches
+                String internedOf =
+                        "sink.literal(%s, null, " + (literals.lang == null ? "null" : literal(literals.lang)) + ")";
+                String onNoInput = MappingSteps.trimToNull(literals.onNoInputValue);
+                if (onNoInput != null) {
+                    String constant = "D_" + index;
+                    constants.append("    private static final Node ")
+                            .append(constant)
+                            .append(" = ")
+                            .append(String.format(literalOf, literal(onNoInput)))
+                            .append(";\n");
+                    writeValues(index, literals, "lexical", () -> literalBody(property, internedOf));
+                    body.append("        if (values_").append(index).append(".isEmpty()) {\n");
+                    body.append("            sink.add(subject, ")
+                            .append(property)
+                            .append(", ")
+                            .append(constant)
+                            .append(");\n");
+                    body.append("        }\n");
+                } else {
+                    writeValues(index, literals, "lexical", () -> literalBody(property, internedOf));
+                }
+            } else {
+                writeDelegate(index, id);
+            }
+        }
+
+        private void writeDelegate(int index, String id) {
+            String field = "prop_" + index;
+            fields.append("    private final MappingSteps.PropertyStep ").append(field).append(";\n");
+            init.append("        ")
+                    .append(field)
+                    .append(" = program().prop(")
+                    .append(literal(id))
+                    .append(");\n");
+            body.append("        ").append(field).append(".emit(sink, subject, finder);\n");
+        }
+
+        private void literalBody(String property, String nodeOf) {
+            body.append("            if (lexical != null) {\n");
+            body.append("                sink.add(subject, ")
+                    .append(property)
+                    .append(", ")
+                    .append(String.format(nodeOf, "lexical"))
+                    .append(");\n");
+            body.append("            }\n");
+        }
+
+        /** values_N = the json values; then the first (or each, for multi) trimmed into {@code variable}. */
+        private void writeValues(int index, ValueObjects values, String variable, Runnable perValue) {
+            String list = "values_" + index;
+            body.append("        List<String> ").append(list).append(" = ").append(read(index, values.json)).append(";\n");
+            if (values.multi) {
+                body.append("        for (String value : ").append(list).append(") {\n");
+            } else {
+                body.append("        if (!").append(list).append(".isEmpty()) {\n");
+                body.append("            String value = ").append(list).append(".get(0);\n");
+            }
+            body.append("            String ").append(variable).append(" = MappingSteps.trimToNull(value);\n");
+            perValue.run();
+            body.append("        }\n");
+        }
+
+        /** Read expression for a json source: root, precompiled simple path, or the finder. */
+        private String read(int index, String json) {
+            if (json.startsWith("$$")) {
+                return "finder.listRoot(" + literal(json.substring(1)) + ")";
+            }
+            if (SimpleJsonPath.compile(json) != null) {
+                String constant = "J_" + index;
+                constants.append("    private static final SimpleJsonPath ")
+                        .append(constant)
+                        .append(" = SimpleJsonPath.compile(")
+                        .append(literal(json))
+                        .append(");\n");
+                return "finder.list(" + literal(json) + ", " + constant + ")";
+            }
+            return "finder.list(" + literal(json) + ")";
+        }
+
+        private static boolean isPlainJson(ValueObjects values) {
+            return values.constValue == null
+                    && values.json != null
+                    && values.map == null
+                    && values.format == null
+                    && values.aggregate == null
+                    && values.lookup == null
+                    && values.transform == null;
+        }
+
+        private static String node(Node node) {
+            if (node.isURI()) {
+                return "NodeFactory.createURI(" + literal(node.getURI()) + ")";
+            }
+            String lexical = literal(node.getLiteralLexicalForm());
+            if (!node.getLiteralLanguage().isEmpty()) {
+                return "NodeFactory.createLiteralLang(" + lexical + ", " + literal(node.getLiteralLanguage()) + ")";
+            }
+            return "NodeFactory.createLiteralDT(" + lexical + ", TypeMapper.getInstance().getSafeTypeByName("
+                    + literal(node.getLiteralDatatypeURI()) + "))";
+        }
+    }
+
+    /** Java string literal for {@code value}, non-ASCII escaped. */
+    static String literal(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private static String comment(String text) {
+        return text.replaceAll("[\\r\\n]", " ").replace("\\u", "\\\\u");
+    }
+
+    private static String javadoc(String text) {
+        return comment(text).replace("*/", "*&#47;");
+    }
+
+    static String camelCase(String id) {
+        StringBuilder out = new StringBuilder();
+        boolean upper = true;
+        for (char c : id.toCharArray()) {
+            if (Character.isLetterOrDigit(c) && c < 0x80) {
+                out.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,600 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.dcat3.mapping.MappingSteps.isBlank;
+import static io.gdcc.spi.export.dcat3.mapping.MappingSteps.looksLikeIri;
+import static io.gdcc.spi.export.dcat3.mapping.MappingSteps.trimToNull;
+
+import io.gdcc.spi.export.dcat3.config.model.Aggregate;
+import io.gdcc.spi.export.dcat3.config.model.Condition;
+import io.gdcc.spi.export.dcat3.config.model.Lookup;
+import io.gdcc.spi.export.dcat3.config.model.NodeTemplate;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.config.model.Subject;
+import io.gdcc.spi.export.dcat3.config.model.Transform;
+import io.gdcc.spi.export.dcat3.config.model.ValueSource;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.AllCondition;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.AnyCondition;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.BNodeStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.BlankSubject;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.CompareCondition;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ConditionStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ConstObject;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ConstSubject;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ExistsCondition;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.FormattedSubject;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.IriNodeStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.IriObjects;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.LiteralObjects;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.NodeRefObjects;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.NotCondition;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.NodeStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.ObjectStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.PropertyStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.SubjectStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.TypedJsonLiterals;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+/**
+ * Lowers a {@link ResourceConfig} into a {@link MappingProgram}.
+ *
+ * <p>Everything that does not depend on the input JSON is decided here, once per element: CURIE
+ * expansion of predicates, types and datatypes, the object strategy per property ({@code as}),
+ * constant objects, blank/empty option checks, {@code when} conditions and node template
+ * references. Config-derived nodes (predicates, types, constant and mapped values) are interned in
+ * the program's {@link NodeCache}.
+ */
+final class MappingCompiler {
+
+    private static final ObjectStep NOTHING = (sink, subject, predicate, finder) -> 0;
+
+    private final ResourceConfig resourceConfig;
+    private final Prefixes prefixes;
+    private final Map<String, NodeStep> nodes = new LinkedHashMap<>();
+    private final NodeCache constants = new NodeCache();
+    private final Map<String, AggregateGroup> aggregateGroups = new HashMap<>(); // by array path
+
+    private MappingCompiler(ResourceConfig resourceConfig, Prefixes prefixes) {
+        this.resourceConfig = resourceConfig;
+        this.prefixes = prefixes;
+    }
+
+    static MappingProgram compile(ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri) {
+        return new MappingCompiler(resourceConfig, prefixes).compile(resourceTypeCurieOrIri);
+    }
+
+    /**
+     * The input subtrees an element reads, as root-relative member/index JSONPaths: whatever the
+     * element maps lies under one of them, so two inputs with equal subtrees yield the same triples.
+     * Paths inside a scope are covered by the prefix of {@code scope.json}; {@code $$} paths, and
+     * {@code $^} paths going past the outermost scope (which read the root), are rebased on the root.
+     *
+     * @return the subtree paths, null when a read cannot be bounded (a deep scan, wildcard or filter
+     *     on the root, a root reference inside a filter)
+     */
+    static List<String> dependencies(ResourceConfig resourceConfig) {
+        return dependencies(resourceConfig, true);
+    }
+
+    /**
+     * The root subtrees every scope of a scoped element reads besides its own scope node: those of
+     * its {@code $$} paths and of {@code $^} paths going past the outermost scope. Together with the
+     * scope node they determine the triples of the scope.
+     *
+     * @return the subtree paths, null when a read cannot be bounded
+     */
+    static List<String> rootDependencies(ResourceConfig resourceConfig) {
+        return dependencies(resourceConfig, false);
+    }
+
+    /**
+     * The subtrees of its scope node a scoped element reads, as scope-relative member/index
+     * JSONPaths: two scope nodes with equal subtrees map to the same triples, given equal {@link
+     * #rootDependencies}.
+     *
+     * @return the subtree paths, null when a read cannot be bounded or the element has nested scopes
+     */
+    static List<String> scopeDependencies(ResourceConfig resourceConfig) {
+        if (trimToNull(resourceConfig.scopeJson()) == null
+                || !nestedScopes(resourceConfig.nestedScopes()).isEmpty()) {
+            return null;
+        }
+        Set<String> dependencies = new LinkedHashSet<>();
+        for (String jsonPath : inputPaths(resourceConfig)) {
+            String path = jsonPath.trim();
+            if (path.startsWith("$$") || JaywayJsonFinder.up(path) > 0 || !path.startsWith("$")) {
+                continue; // a root dependency (one scope level: $^ reads the root), or not a path
+            }
+            String prefix = SimpleJsonPath.prefix(path);
+            if (prefix == null || path.indexOf('$', 1) >= 0) {
+                return null;
+            }
+            dependencies.add(prefix);
+        }
+        return List.copyOf(dependencies);
+    }
+
+    private static List<String> dependencies(ResourceConfig resourceConfig, boolean withScope) {
+        String scopeJson = trimToNull(resourceConfig.scopeJson());
+        Set<String> dependencies = new LinkedHashSet<>();
+        if (withScope && scopeJson != null && !addDependency(dependencies, scopeJson, 0)) {
+            return null;
+        }
+        List<String> nestedScopes = scopeJson == null ? List.of() : nestedScopes(resourceConfig.nestedScopes());
+        for (int level = 0; level < nestedScopes.size(); level++) {
+            if (!addDependency(dependencies, nestedScopes.get(level), level + 1)) {
+                return null;
+            }
+        }
+        int depth = scopeJson == null ? 0 : 1 + nestedScopes.size(); // where subject, props and nodes read
+        for (String jsonPath : inputPaths(resourceConfig)) {
+            if (!addDependency(dependencies, jsonPath, depth)) {
+                return null;
+            }
+        }
+        return List.copyOf(dependencies);
+    }
+
+    /**
+     * @param depth the scope levels {@code jsonPath} is read below the root: 0 unscoped or for
+     *     {@code scope.json}, 1 inside a scope, more inside nested scopes
+     * @return false when {@code jsonPath} reads input no member/index prefix bounds
+     */
+    private static boolean addDependency(Set<String> dependencies, String jsonPath, int depth) {
+        String path = jsonPath.trim();
+        int up = JaywayJsonFinder.up(path);
+        if (path.startsWith("$$")) {
+            path = path.substring(1);
+        } else if (up > 0 && up >= depth) {
+            path = "$" + path.substring(up + 1); // past the outermost scope: the root
+        } else if (depth > 0 || !path.startsWith("$")) {
+            return true; // under the scope prefix, or not a path
+        }
+        String prefix = SimpleJsonPath.prefix(path);
+        if (prefix == null || path.indexOf('$', 1) >= 0) {
+            return false;
+        }
+        dependencies.add(prefix);
+        return true;
+    }
+
+    /** Every JSONPath read by subject, props and nodes, including conditions, aggregates and lookups. */
+    private static List<String> inputPaths(ResourceConfig resourceConfig) {
+        List<String> paths = new ArrayList<>();
+        Subject subject = resourceConfig.subject();
+        if (subject != null) {
+            addInputPaths(paths, subject.iriJson(), subject.iriJsonPaths(), subject.iriFormat());
+        }
+        addInputPaths(paths, resourceConfig.props());
+        if (resourceConfig.nodes() != null) {
+            for (NodeTemplate nodeTemplate : resourceConfig.nodes().values()) {
+                addInputPaths(paths, nodeTemplate.iriJson(), nodeTemplate.iriJsonPaths(), nodeTemplate.iriFormat());
+                addInputPaths(paths, nodeTemplate.props());
+            }
+        }
+        return paths;
+    }
+
+    private static void addInputPaths(List<String> paths, Map<String, ValueSource> valueSources) {
+        if (valueSources == null) {
+            return;
+        }
+        for (ValueSource valueSource : valueSources.values()) {
+            addInputPaths(paths, valueSource.json(), valueSource.jsonPaths(), valueSource.format());
+            paths.addAll(whenPaths(valueSource));
+            if (valueSource.aggregate() != null && !isBlank(valueSource.aggregate().over())) {
+                paths.add(valueSource.aggregate().over());
+            }
+            if (valueSource.lookup() != null && !isBlank(valueSource.lookup().index())) {
+                paths.add(valueSource.lookup().index());
+            }
+        }
+    }
+
+    private static void addInputPaths(List<String> paths, String json, List<String> jsonPaths, String format) {
+        if (!isBlank(json)) {
+            paths.add(json);
+        }
+        if (jsonPaths != null) {
+            jsonPaths.stream().filter(jsonPath -> !isBlank(jsonPath)).forEach(paths::add);
+        }
+        paths.addAll(TemplateFormatter.inlinePaths(format));
+    }
+
+    private MappingProgram compile(String resourceTypeCurieOrIri) {
+        // Node templates first (they may reference each other), then their nested props.
+        Map<String, NodeTemplate> templates = resourceConfig.nodes();
+        if (templates != null) {
+            templates.forEach((id, nodeTemplate) -> nodes.put(id, nodeStep(id, nodeTemplate)));
+            templates.forEach((id, nodeTemplate) -> nodes.get(id)
+                    .props(propertySteps(nodeTemplate.props()).values().toArray(new PropertyStep[0])));
+            Map<String, Boolean> invariant = new HashMap<>();
+            templates.keySet().forEach(id -> {
+                if (nodes.get(id) instanceof IriNodeStep iriNode) {
+                    iriNode.invariant(invariant(id, invariant));
+                }
+            });
+        }
+
+        String scopeJson = resourceConfig.scopeJson();
+        boolean scoped = scopeJson != null && !scopeJson.isBlank();
+        List<String> nestedScopes = scoped ? nestedScopes(resourceConfig.nestedScopes()) : List.of();
+        Node type = resourceTypeCurieOrIri == null ? null : resource(prefixes.expand(resourceTypeCurieOrIri));
+
+        return new MappingProgram(
+                prefixes,
+                scoped ? scopeJson : null,
+                nestedScopes,
+                // nested elements read their paths from the innermost level: nothing to columnize
+                scoped && nestedScopes.isEmpty() ? scopedPaths() : Collections.emptySet(),
+                subjectStep(resourceConfig.subject()),
+                type,
+                propertySteps(resourceConfig.props()),
+                constants);
+    }
+
+    private static SubjectStep subjectStep(Subject subject) {
+        String constIri = subject.iriConst();
+        if (constIri == null && subject.iriTemplate() != null) {
+            constIri = subject.iriTemplate();
+        }
+        String jsonPath = isBlank(subject.iriJson()) ? null : subject.iriJson();
+        String format = isBlank(subject.iriFormat()) ? null : subject.iriFormat();
+        if (format == null && (constIri != null || jsonPath == null)) {
+            return isBlank(constIri) ? new BlankSubject() : new ConstSubject(constIri);
+        }
+        List<String> jsonPaths = subject.iriJsonPaths();
+        boolean hasJsonPaths = jsonPaths != null && !jsonPaths.isEmpty();
+        return new FormattedSubject(
+                constIri, jsonPath, hasJsonPaths, jsonPaths == null ? Collections.emptyList() : jsonPaths, format);
+    }
+
+    private Map<String, PropertyStep> propertySteps(Map<String, ValueSource> valueSources) {
+        Map<String, PropertyStep> steps = new LinkedHashMap<>();
+        if (valueSources == null) {
+            return steps;
+        }
+        valueSources.forEach((id, valueSource) -> {
+            String predicateIri = prefixes.expand(valueSource.predicate());
+            if (predicateIri != null) {
+                steps.put(
+                        id,
+                        new PropertyStep(
+                                constants.iri(predicateIri), objectStep(valueSource), conditionStep(valueSource.when())));
+            }
+        });
+        return steps;
+    }
+
+    /** The compiled {@code when} condition, null when absent; a malformed one never holds (DCATRSC-107). */
+    private static ConditionStep conditionStep(String when) {
+        Condition condition;
+        try {
+            condition = Condition.parse(when);
+        } catch (IllegalArgumentException e) {
+            return finder -> false;
+        }
+        return condition == null ? null : conditionStep(condition);
+    }
+
+    private static ConditionStep conditionStep(Condition condition) {
+        if (condition instanceof Condition.Exists exists) {
+            return new ExistsCondition(exists.path());
+        }
+        if (condition instanceof Condition.Compare compare) {
+            return new CompareCondition(
+                    compare.path(),
+                    compare.operator(),
+                    compare.operand().path(),
+                    compare.operand().value());
+        }
+        if (condition instanceof Condition.Not not) {
+            return new NotCondition(conditionStep(not.condition()));
+        }
+        if (condition instanceof Condition.All all) {
+            return new AllCondition(all.conditions().stream()
+                    .map(MappingCompiler::conditionStep)
+                    .toArray(ConditionStep[]::new));
+        }
+        Condition.Any any = (Condition.Any) condition;
+        return new AnyCondition(
+                any.conditions().stream().map(MappingCompiler::conditionStep).toArray(ConditionStep[]::new));
+    }
+
+    private ObjectStep objectStep(ValueSource vs) {
+        String as = vs.as();
+        if ("node-ref".equals(as)) {
+            return new NodeRefObjects(nodes.get(vs.nodeRef()));
+        }
+
+        if (vs.aggregate() != null && isBlank(vs.aggregate().over())) {
+            return NOTHING; // DCATRSC-109
+        }
+        ValueTransform transform;
+        try {
+            transform = ValueTransform.compile(Transform.parse(vs.transform()), vs.jsonPaths());
+        } catch (IllegalArgumentException e) {
+            return NOTHING; // DCATRSC-116
+        }
+        AggregateGroup.Member aggregate = aggregate(vs.aggregate());
+        LookupIndex lookup = lookup(vs.lookup());
+        LookupTable map = LookupTable.of(vs.map(), CodeList.load(vs.codeList()));
+        String format = isBlank(vs.format()) ? null : vs.format();
+        boolean plain = map == null && format == null && aggregate == null && lookup == null && transform == null;
+
+        if ("iri".equals(as)) {
+            if (vs.constValue() != null && plain) {
+                String iri = trimToNull(vs.constValue());
+                return looksLikeIri(iri) ? new ConstObject(constants.iri(iri)) : NOTHING;
+            }
+            if (format == null && map != null) {
+                map.values().forEach(this::internIri);
+            }
+            return new IriObjects(
+                    vs.constValue(), vs.json(), vs.multi(), map, format, vs.jsonPaths(), aggregate, lookup, transform);
+        }
+
+        RDFDatatype datatype = resolveDatatype(vs.datatype());
+        String lang = isBlank(vs.lang()) ? null : vs.lang();
+        boolean mapsEmptiness = vs.mapEmpty() != null || vs.mapNonEmpty() != null;
+        if (vs.constValue() != null && plain && !mapsEmptiness) {
+            String value = trimToNull(vs.constValue());
+            return value == null ? NOTHING : new ConstObject(constants.literal(value, datatype, lang));
+        }
+        if (format == null) {
+            // values the literal pipeline can produce without reading them from the input
+            if (map != null) {
+                map.values().forEach(value -> internLiteral(value, datatype, lang));
+            }
+            internLiteral(vs.onUnMappedValue(), datatype, lang);
+            internLiteral(vs.onNoInputValue(), datatype, lang);
+            internLiteral(vs.mapEmpty(), datatype, lang);
+            internLiteral(vs.mapNonEmpty(), datatype, lang);
+        }
+        if (datatype != null && vs.constValue() == null && vs.json() != null && plain && !mapsEmptiness) {
+            return new TypedJsonLiterals(vs.json(), vs.multi(), trimToNull(vs.onNoInputValue()), datatype);
+        }
+        return new LiteralObjects(
+                vs.constValue(),
+                vs.json(),
+                vs.multi(),
+                map,
+                format,
+                vs.jsonPaths(),
+                aggregate,
+                lookup,
+                transform,
+                vs.onUnMappedValue(),
+                vs.onNoInputValue(),
+                vs.mapEmpty(),
+                vs.mapNonEmpty(),
+                datatype,
+                lang);
+    }
+
+    /**
+     * Registers an aggregate with the group of its array, so aggregates over the same array share one
+     * pass; null when absent.
+     */
+    private AggregateGroup.Member aggregate(Aggregate aggregate) {
+        if (aggregate == null) {
+            return null;
+        }
+        String over = aggregate.over().trim();
+        ConditionStep filter;
+        try {
+            Condition condition = Condition.parse(aggregate.filter());
+            filter = condition == null ? null : conditionStep(condition);
+        } catch (IllegalArgumentException e) {
+            filter = finder -> false; // DCATRSC-110
+        }
+        String filterExpression = isBlank(aggregate.filter()) ? null : aggregate.filter().trim();
+        return aggregateGroups
+                .computeIfAbsent(over, AggregateGroup::new)
+                .add(aggregate.function(), aggregate.field(), filterExpression, filter);
+    }
+
+    /** The index of a lookup; null when absent or incomplete (DCATRSC-111). Equal definitions share one index. */
+    private static LookupIndex lookup(Lookup lookup) {
+        if (lookup == null || isBlank(lookup.index()) || isBlank(lookup.key()) || isBlank(lookup.value())) {
+            return null;
+        }
+        return new LookupIndex(lookup.index().trim(), lookup.key().trim(), lookup.value().trim());
+    }
+
+    private NodeStep nodeStep(String id, NodeTemplate nodeTemplate) {
+        Node type = nodeTemplate.type() == null ? null : resource(prefixes.expand(nodeTemplate.type()));
+        if (!"iri".equals(nodeTemplate.kind())) {
+            return new BNodeStep(id, type);
+        }
+
+        IriNodeStep.InputMode inputMode;
+        if (!isBlank(nodeTemplate.iriJson())) {
+            inputMode = IriNodeStep.InputMode.JSON;
+        } else if (!isBlank(nodeTemplate.iriConst()) || !isBlank(nodeTemplate.iriFormat())) {
+            // const nodes do not depend on JSON input; format-only nodes may use inline placeholders
+            inputMode = IriNodeStep.InputMode.NO_INPUT;
+        } else if (nodeTemplate.iriJsonPaths() != null && !nodeTemplate.iriJsonPaths().isEmpty()) {
+            inputMode = IriNodeStep.InputMode.JSON_PATHS;
+        } else {
+            inputMode = IriNodeStep.InputMode.NONE;
+        }
+
+        LookupTable iriMap = LookupTable.of(nodeTemplate.iriMap(), CodeList.load(nodeTemplate.codeList()));
+        if (iriMap != null) {
+            iriMap.values().forEach(this::internIri);
+        }
+        internIri(nodeTemplate.iriConst());
+        internIri(nodeTemplate.onNoInputValue());
+        internIri(nodeTemplate.onUnMappedValue());
+        return new IriNodeStep(
+                type,
+                inputMode,
+                nodeTemplate.iriJson(),
+                nodeTemplate.iriJsonPaths(),
+                nodeTemplate.multi(),
+                isBlank(nodeTemplate.iriConst()) ? null : nodeTemplate.iriConst(),
+                trimToNull(nodeTemplate.onNoInputValue()),
+                trimToNull(nodeTemplate.onUnMappedValue()),
+                iriMap,
+                isBlank(nodeTemplate.iriFormat()) ? null : nodeTemplate.iriFormat());
+    }
+
+    /**
+     * Whether node template {@code id} builds the same node(s) in every scope: an IRI node whose IRI
+     * sources and nested props only read the root ({@code $$}) or constants. Blank nodes are never
+     * invariant (each emission is a fresh node), neither are IRI nodes linking to them.
+     */
+    private boolean invariant(String id, Map<String, Boolean> known) {
+        Boolean cached = known.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        NodeTemplate nodeTemplate = resourceConfig.nodes().get(id);
+        if (nodeTemplate == null) {
+            return true; // unknown node-ref: never emits
+        }
+        known.put(id, false); // cycles are not invariant
+        boolean invariant = "iri".equals(nodeTemplate.kind())
+                && rootOnly(nodeTemplate.iriJson())
+                && rootOnly(nodeTemplate.iriJsonPaths())
+                && rootOnly(TemplateFormatter.inlinePaths(nodeTemplate.iriFormat()));
+        if (invariant && nodeTemplate.props() != null) {
+            for (ValueSource vs : nodeTemplate.props().values()) {
+                boolean propInvariant = rootOnly(whenPaths(vs))
+                        && (vs.aggregate() == null || rootOnly(vs.aggregate().over()))
+                        && (vs.lookup() == null || rootOnly(vs.lookup().index()))
+                        && ("node-ref".equals(vs.as())
+                                ? invariant(vs.nodeRef(), known)
+                                : rootOnly(vs.json())
+                                        && rootOnly(vs.jsonPaths())
+                                        && rootOnly(TemplateFormatter.inlinePaths(vs.format())));
+                if (!propInvariant) {
+                    invariant = false;
+                    break;
+                }
+            }
+        }
+        known.put(id, invariant);
+        return invariant;
+    }
+
+    private static boolean rootOnly(String jsonPath) {
+        return isBlank(jsonPath) || jsonPath.startsWith("$$");
+    }
+
+    private static boolean rootOnly(List<String> jsonPaths) {
+        return jsonPaths == null || jsonPaths.stream().allMatch(MappingCompiler::rootOnly);
+    }
+
+    private RDFDatatype resolveDatatype(String datatypeIri) {
+        // EXPAND CURIE datatypes to full IRIs before TypeMapper lookup
+        if (datatypeIri != null && !datatypeIri.isBlank() && !datatypeIri.startsWith("http")) {
+            String expanded = prefixes.expand(datatypeIri);
+            if (expanded != null) {
+                datatypeIri = expanded;
+            }
+        }
+        if (datatypeIri == null || datatypeIri.isBlank()) {
+            return null;
+        }
+        return TypeMapper.getInstance().getSafeTypeByName(datatypeIri);
+    }
+
+    /** As Model.createResource(uri): a null IRI gives a blank node. */
+    private Node resource(String iri) {
+        return iri == null ? NodeFactory.createBlankNode() : constants.iri(iri);
+    }
+
+    /** Pre-intern an IRI the steps may mint from config values (trimmed, as the steps do). */
+    private void internIri(String value) {
+        String iri = trimToNull(value);
+        if (looksLikeIri(iri)) {
+            constants.iri(iri);
+        }
+    }
+
+    /** Pre-intern a literal the steps may mint from config values (trimmed, as the steps do). */
+    private void internLiteral(String value, RDFDatatype datatype, String lang) {
+        String lexical = trimToNull(value);
+        if (lexical != null) {
+            constants.literal(lexical, datatype, lang);
+        }
+    }
+
+    /** Scope-relative JSONPaths read by subject, props and nodes; the candidates for column extraction. */
+    private Set<String> scopedPaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        Subject subject = resourceConfig.subject();
+        if (subject != null) {
+            addScopedPath(paths, subject.iriJson());
+            addScopedPaths(paths, subject.iriJsonPaths());
+            addScopedPaths(paths, TemplateFormatter.inlinePaths(subject.iriFormat()));
+        }
+        addScopedPaths(paths, resourceConfig.props());
+        if (resourceConfig.nodes() != null) {
+            for (NodeTemplate nodeTemplate : resourceConfig.nodes().values()) {
+                addScopedPath(paths, nodeTemplate.iriJson());
+                addScopedPaths(paths, nodeTemplate.iriJsonPaths());
+                addScopedPaths(paths, TemplateFormatter.inlinePaths(nodeTemplate.iriFormat()));
+                addScopedPaths(paths, nodeTemplate.props());
+            }
+        }
+        return paths;
+    }
+
+    private static void addScopedPaths(Set<String> paths, Map<String, ValueSource> valueSources) {
+        if (valueSources == null) {
+            return;
+        }
+        for (ValueSource valueSource : valueSources.values()) {
+            addScopedPath(paths, valueSource.json());
+            addScopedPaths(paths, valueSource.jsonPaths());
+            addScopedPaths(paths, TemplateFormatter.inlinePaths(valueSource.format()));
+            addScopedPaths(paths, whenPaths(valueSource));
+        }
+    }
+
+    /** JSONPaths read by the {@code when} condition of {@code valueSource}; empty when absent or malformed. */
+    private static List<String> whenPaths(ValueSource valueSource) {
+        try {
+            Condition condition = Condition.parse(valueSource.when());
+            return condition == null ? Collections.emptyList() : condition.paths();
+        } catch (IllegalArgumentException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static void addScopedPaths(Set<String> paths, List<String> jsonPaths) {
+        if (jsonPaths != null) {
+            jsonPaths.forEach(jsonPath -> addScopedPath(paths, jsonPath));
+        }
+    }
+
+    /** Nested scopes, trimmed; a blank or {@code $$} level selects nothing (DCATRSC-301). */
+    private static List<String> nestedScopes(List<String> configured) {
+        List<String> levels = new ArrayList<>();
+        if (configured != null) {
+            for (String path : configured) {
+                levels.add(path == null ? "" : path.trim());
+            }
+        }
+        return levels;
+    }
+
+    private static void addScopedPath(Set<String> paths, String jsonPath) {
+        if (jsonPath != null && jsonPath.startsWith("$") && !jsonPath.startsWith("$$") && !jsonPath.startsWith("$^")) {
+            paths.add(jsonPath);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.PropertyStep;
+import io.gdcc.spi.export.dcat3.mapping.MappingSteps.SubjectStep;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphMemFactory;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * A {@link io.gdcc.spi.export.dcat3.config.model.ResourceConfig} compiled by {@link MappingCompiler}:
+ * a subject step, an optional type and a flat array of property steps, run once per scope. Triples
+ * go through a {@link TripleSink} straight into a {@link Graph}.
+ *
+ * <p>With nested scopes the steps run once per node of the innermost level. The levels are walked
+ * depth-first below each outermost scope, one node at a time (see {@link
+ * JaywayJsonFinder#forEachNode}), so a level is never collected into a list when it is a plain array.
+ *
+ * <p>Immutable after compilation; one program can be run concurrently for different inputs.
+ */
+final class MappingProgram {
+
+    private final Prefixes prefixes;
+    private final String scopeJson; // null when the element is not scoped
+    private final String[] nestedScopes; // levels below scopeJson, outermost first
+    private final Set<String> scopedPaths;
+    private final SubjectStep subject;
+    private final Node type; // null when absent
+    private final Map<String, PropertyStep> propsById;
+    private final PropertyStep[] props;
+    private final NodeCache constants;
+
+    MappingProgram(
+            Prefixes prefixes,
+            String scopeJson,
+            List<String> nestedScopes,
+            Set<String> scopedPaths,
+            SubjectStep subject,
+            Node type,
+            Map<String, PropertyStep> propsById,
+            NodeCache constants) {
+        this.prefixes = prefixes;
+        this.scopeJson = scopeJson;
+        this.nestedScopes = nestedScopes.toArray(new String[0]);
+        this.scopedPaths = scopedPaths;
+        this.subject = subject;
+        this.type = type;
+        this.propsById = propsById;
+        this.props = propsById.values().toArray(new PropertyStep[0]);
+        this.constants = constants;
+    }
+
+    SubjectStep subject() {
+        return subject;
+    }
+
+    Node type() {
+        return type;
+    }
+
+    /** @return the compiled step of prop {@code id}, null when the prop has no usable predicate */
+    PropertyStep prop(String id) {
+        return propsById.get(id);
+    }
+
+    Graph run(JaywayJsonFinder finder) {
+        return run(finder, this::runScope);
+    }
+
+    /**
+     * Run {@code body} once per scope; generated mappers supply their own body and keep the scope
+     * handling (columns, nodes, unscoped) of the program.
+     */
+    Graph run(JaywayJsonFinder finder, BiConsumer<TripleSink, JaywayJsonFinder> body) {
+        TripleSink sink = sink(finder);
+
+        if (scopeJson == null) {
+            body.accept(sink, finder);
+            return sink.graph();
+        }
+
+        // Array scopes (e.g. one row per file) are read column-wise in one pass
+        BiConsumer<TripleSink, JaywayJsonFinder> scopeBody = nested(body);
+        ScopeColumns columns = finder.columns(scopeJson, scopedPaths);
+        if (columns != null) {
+            for (int row = 0; row < columns.size(); row++) {
+                sink.scope(row);
+                scopeBody.accept(sink, finder.atRow(columns, row));
+            }
+            return sink.graph();
+        }
+        return runScopes(sink, finder, finder.nodes(scopeJson), 0, scopeBody);
+    }
+
+    /**
+     * @return the scope nodes of {@code finder}, null when the element is not scoped; the elements of
+     *     a plain array scope are the input nodes themselves, not copies
+     */
+    List<JsonNode> scopes(JaywayJsonFinder finder) {
+        if (scopeJson == null) {
+            return null;
+        }
+        List<JsonNode> scopes = new ArrayList<>();
+        finder.forEachNode(scopeJson, scopes::add);
+        return scopes;
+    }
+
+    /**
+     * Run once per given scope node instead of the configured scope (e.g. groups of files, or one
+     * page of them); scope indexes, which blank node labels derive from, start at {@code first}.
+     */
+    Graph run(JaywayJsonFinder finder, List<JsonNode> scopes, int first) {
+        return run(finder, scopes, first, this::runScope);
+    }
+
+    /** {@link #run(JaywayJsonFinder, List, int)} with the scope body of a generated mapper. */
+    Graph run(
+            JaywayJsonFinder finder,
+            List<JsonNode> scopes,
+            int first,
+            BiConsumer<TripleSink, JaywayJsonFinder> body) {
+        return runScopes(sink(finder), finder, scopes, first, nested(body));
+    }
+
+    /**
+     * Map each scope into a fragment graph of its own, taking the stored triples of a scope instead
+     * when {@code fragments} has them; the result holds every fragment.
+     */
+    Graph run(JaywayJsonFinder finder, List<JsonNode> scopes, Fragments fragments) {
+        return run(finder, scopes, fragments, this::runScope);
+    }
+
+    /** {@link #run(JaywayJsonFinder, List, Fragments)} with the scope body of a generated mapper. */
+    Graph run(
+            JaywayJsonFinder finder,
+            List<JsonNode> scopes,
+            Fragments fragments,
+            BiConsumer<TripleSink, JaywayJsonFinder> scopeBody) {
+        TripleSink sink = sink(finder);
+        Graph graph = sink.graph();
+        BiConsumer<TripleSink, JaywayJsonFinder> body = nested(scopeBody);
+        for (int index = 0; index < scopes.size(); index++) {
+            if (!fragments.stored(index, graph)) {
+                Graph fragment = GraphMemFactory.createDefaultGraph();
+                sink.target(fragment);
+                sink.scope(index);
+                body.accept(sink, finder.at(scopes.get(index)));
+                sink.flush();
+                fragments.mapped(index, fragment);
+                GraphUtil.addInto(graph, fragment);
+            }
+        }
+        return graph;
+    }
+
+    /** Per-scope fragments kept between runs (see {@link ElementCache}). */
+    interface Fragments {
+
+        /**
+         * Adds the stored triples of scope {@code index} to {@code graph}.
+         *
+         * @return false when there are none and the scope must be mapped
+         */
+        boolean stored(int index, Graph graph);
+
+        /** Called with the triples of scope {@code index} after it was mapped. */
+        void mapped(int index, Graph fragment);
+    }
+
+    /** {@code body} run on the innermost nodes below an outermost scope; {@code body} itself when not nested. */
+    private BiConsumer<TripleSink, JaywayJsonFinder> nested(BiConsumer<TripleSink, JaywayJsonFinder> body) {
+        if (nestedScopes.length == 0) {
+            return body;
+        }
+        return (sink, scoped) -> descend(sink, scoped, 0, Integer.toString(sink.scopeIndex()), body);
+    }
+
+    /** Walks level {@code level} below {@code finder}; {@code path} holds the indexes of the levels above. */
+    private void descend(
+            TripleSink sink,
+            JaywayJsonFinder finder,
+            int level,
+            String path,
+            BiConsumer<TripleSink, JaywayJsonFinder> body) {
+        int[] index = {0};
+        finder.forEachNode(nestedScopes[level], node -> {
+            String nodePath = path + '/' + index[0]++;
+            JaywayJsonFinder nested = finder.at(node);
+            if (level + 1 < nestedScopes.length) {
+                descend(sink, nested, level + 1, nodePath, body);
+            } else {
+                sink.scope(nodePath);
+                body.accept(sink, nested);
+            }
+        });
+    }
+
+    private TripleSink sink(JaywayJsonFinder finder) {
+        Graph graph = GraphMemFactory.createDefaultGraph();
+        graph.getPrefixMapping().setNsPrefixes(prefixes.jena());
+        return new TripleSink(graph, constants, finder.nodes(), finder.blankNodeLabels(), finder.element());
+    }
+
+    private static Graph runScopes(
+            TripleSink sink,
+            JaywayJsonFinder finder,
+            List<JsonNode> scopes,
+            int first,
+            BiConsumer<TripleSink, JaywayJsonFinder> body) {
+        for (int index = 0; index < scopes.size(); index++) {
+            sink.scope(first + index);
+            body.accept(sink, finder.at(scopes.get(index)));
+        }
+        return sink.graph();
+    }
+
+    /**
+     * Only the subject and its type per scope, e.g. to link the subjects of an element that is not
+     * written itself; subjects and their labels are the ones a full run mints.
+     */
+    Graph runSubjects(JaywayJsonFinder finder, List<JsonNode> scopes) {
+        return scopes == null ? run(finder, this::subjectScope) : run(finder, scopes, 0, this::subjectScope);
+    }
+
+    private void subjectScope(TripleSink sink, JaywayJsonFinder scoped) {
+        Node resource = subject.create(sink, scoped);
+        if (type != null) {
+            sink.add(resource, RDF.Nodes.type, type);
+        }
+    }
+
+    private void runScope(TripleSink sink, JaywayJsonFinder scoped) {
+        Node resource = subject.create(sink, scoped);
+        if (type != null) {
+            sink.add(resource, RDF.Nodes.type, type);
+        }
+        for (PropertyStep prop : props) {
+            prop.emit(sink, resource, scoped);
+        }
+    }
+}
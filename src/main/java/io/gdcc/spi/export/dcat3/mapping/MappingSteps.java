@@ -0,0 +1,852 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import io.gdcc.spi.export.dcat3.config.model.Condition;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Step objects of a {@link MappingProgram}. Every step is built once by {@link MappingCompiler} with
+ * CURIEs expanded, datatypes resolved and blank/empty options folded away, so the interpreter only
+ * evaluates JSONPaths and adds triples. Steps work on Jena {@link Node}s and write to a {@link
+ * TripleSink}; no Model/Resource wrappers are created while mapping.
+ */
+final class MappingSteps {
+
+    private MappingSteps() {}
+
+    // ---------------------------------------------------------------------------
+    // Subjects
+    // ---------------------------------------------------------------------------
+
+    /** Template name of blank subjects in deterministic blank node labels. */
+    static final String SUBJECT = "subject";
+
+    /** Mints the subject of one scope. */
+    interface SubjectStep {
+        Node create(TripleSink sink, JaywayJsonFinder finder);
+    }
+
+    /** subject.iri.const / subject.iri.template without format. */
+    static final class ConstSubject implements SubjectStep {
+        final String iri;
+        private final Node node;
+
+        ConstSubject(String iri) {
+            this.iri = iri;
+            this.node = NodeFactory.createURI(iri);
+        }
+
+        @Override
+        public Node create(TripleSink sink, JaywayJsonFinder finder) {
+            return node;
+        }
+    }
+
+    /** No usable IRI configured: one blank node per scope. */
+    static final class BlankSubject implements SubjectStep {
+        @Override
+        public Node create(TripleSink sink, JaywayJsonFinder finder) {
+            return sink.blank(SUBJECT);
+        }
+    }
+
+    /** subject.iri.json and/or subject.iri.format (with optional json.N placeholders). */
+    static final class FormattedSubject implements SubjectStep {
+        private final String constIri;
+        private final String jsonPath;
+        private final boolean hasJsonPaths;
+        private final List<String> jsonPaths;
+        private final TemplateFormatter.Template format; // null when absent
+
+        FormattedSubject(String constIri, String jsonPath, boolean hasJsonPaths, List<String> jsonPaths, String format) {
+            this.constIri = constIri;
+            this.jsonPath = jsonPath;
+            this.hasJsonPaths = hasJsonPaths;
+            this.jsonPaths = jsonPaths;
+            this.format = format == null ? null : TemplateFormatter.compile(format);
+        }
+
+        @Override
+        public Node create(TripleSink sink, JaywayJsonFinder finder) {
+            String iri = constIri;
+            String base = null;
+            if (iri == null && jsonPath != null) {
+                List<String> values = listScopedOrRoot(finder, jsonPath);
+                base = values.isEmpty() ? "" : values.get(0);
+                iri = base; // fallback if no format provided
+            }
+            if (iri == null && hasJsonPaths) {
+                iri = ""; // only jsonPaths: built via format
+            }
+            if (format != null) {
+                iri = format.format(base == null ? "" : base, jsonPaths, finder, s -> s == null ? "" : s.trim());
+            }
+            if (isBlank(iri)) {
+                return sink.blank(SUBJECT);
+            }
+            IriMinter minter = finder.iriMinter();
+            return NodeFactory.createURI(minter != null && looksLikeIri(iri) ? minter.mint(iri) : iri);
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Properties
+    // ---------------------------------------------------------------------------
+
+    /**
+     * One configured property: a pre-resolved predicate plus the strategy producing its objects,
+     * guarded by its compiled {@code when} condition. The condition runs first, so the value paths of
+     * a property whose condition fails are never evaluated.
+     */
+    static final class PropertyStep {
+        final Node predicate;
+        final ObjectStep objects;
+        final ConditionStep when; // null when absent
+
+        PropertyStep(Node predicate, ObjectStep objects, ConditionStep when) {
+            this.predicate = predicate;
+            this.objects = objects;
+            this.when = when;
+        }
+
+        /** @return number of triples added */
+        int emit(TripleSink sink, Node subject, JaywayJsonFinder finder) {
+            if (when != null && !when.test(finder)) {
+                return 0;
+            }
+            return objects.emit(sink, subject, predicate, finder);
+        }
+    }
+
+    /** Strategy for the objects of a property, fixed per property kind at compile time. */
+    interface ObjectStep {
+        /** @return number of triples added */
+        int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder);
+    }
+
+    /** Constant object (literal or IRI) without map or format: built once. */
+    static final class ConstObject implements ObjectStep {
+        final Node node;
+
+        ConstObject(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder) {
+            sink.add(subject, predicate, node);
+            return 1;
+        }
+    }
+
+    /**
+     * Value pipeline shared by IRI and literal objects: source (const | json | format-only),
+     * transform, map, format.
+     */
+    abstract static class ValueObjects implements ObjectStep {
+        final String constValue;
+        final String json;
+        final boolean multi;
+        final LookupTable map; // null when absent or empty
+        final String format; // null when absent or blank
+        final List<String> jsonPaths;
+        final AggregateGroup.Member aggregate; // null when absent
+        final LookupIndex lookup; // null when absent: json values are used as read
+        final ValueTransform transform; // null when absent
+        private final TemplateFormatter.Template template; // format, parsed once
+
+        ValueObjects(
+                String constValue,
+                String json,
+                boolean multi,
+                LookupTable map,
+                String format,
+                List<String> jsonPaths,
+                AggregateGroup.Member aggregate,
+                LookupIndex lookup,
+                ValueTransform transform) {
+            this.constValue = constValue;
+            this.json = json;
+            this.multi = multi;
+            this.map = map;
+            this.format = format;
+            this.jsonPaths = jsonPaths;
+            this.aggregate = aggregate;
+            this.lookup = lookup;
+            this.transform = transform;
+            this.template = format == null ? null : TemplateFormatter.compile(format);
+        }
+
+        List<String> values(TripleSink sink, JaywayJsonFinder finder) {
+            if (aggregate != null) {
+                return aggregate.values(sink, finder); // every value: distinct may give several
+            }
+            if (constValue != null) {
+                return Collections.singletonList(constValue);
+            }
+            if (json != null) {
+                List<String> values = listScopedOrRoot(finder, json);
+                if (lookup != null) {
+                    // json values are keys into the index
+                    List<String> probes = multi || values.size() <= 1 ? values : values.subList(0, 1);
+                    return lookup.values(sink, finder, probes, multi);
+                }
+                if (multi) {
+                    return values;
+                }
+                return values.isEmpty() ? Collections.emptyList() : Collections.singletonList(values.get(0));
+            }
+            // If format contains inline JSONPaths or indexed placeholders, ensure we have a single base value;
+            // likewise for a transform reading json.N itself (wkt-bbox)
+            if (format != null || (transform != null && transform.readsPaths())) {
+                return Collections.singletonList("");
+            }
+            return Collections.emptyList();
+        }
+
+        /** @return the transformed value, null when the transform drops it */
+        String transformValue(String value, JaywayJsonFinder finder) {
+            return transform == null || value == null ? value : transform.apply(value, finder);
+        }
+
+        String mapValue(String value) {
+            if (value == null) {
+                return null;
+            }
+            return map != null ? map.get(value) : value;
+        }
+
+        /** Supports ${value}, ${1..n} and inline ${$.path}/${$$.path}; ${value} is media-type normalized. */
+        String formatValue(String value, JaywayJsonFinder finder) {
+            if (format == null) {
+                return value;
+            }
+            String base = value;
+            if ((base == null || base.isEmpty()) && json != null && lookup == null) {
+                List<String> values = listScopedOrRoot(finder, json);
+                base = values.isEmpty() ? "" : values.get(0);
+            }
+            return template.format(base, jsonPaths, finder, MappingSteps::normalizeMediaTypeBase);
+        }
+    }
+
+    /** as = iri */
+    static final class IriObjects extends ValueObjects {
+        IriObjects(
+                String constValue,
+                String json,
+                boolean multi,
+                LookupTable map,
+                String format,
+                List<String> jsonPaths,
+                AggregateGroup.Member aggregate,
+                LookupIndex lookup,
+                ValueTransform transform) {
+            super(constValue, json, multi, map, format, jsonPaths, aggregate, lookup, transform);
+        }
+
+        @Override
+        public int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder) {
+            int emitted = 0;
+            for (String value : values(sink, finder)) {
+                String input = transformValue(value, finder);
+                if (input == null) {
+                    continue;
+                }
+                Node iri = mintIri(sink, finder, trimToNull(formatValue(mapValue(input), finder)));
+                if (iri != null) {
+                    sink.add(subject, predicate, iri);
+                    emitted++;
+                }
+            }
+            return emitted;
+        }
+    }
+
+    /** as = literal: transform, map, map_empty/map_nonempty and fallbacks, then format. */
+    static final class LiteralObjects extends ValueObjects {
+        final String onUnMappedValue;
+        final String onNoInputValue;
+        final String mapEmpty;
+        final String mapNonEmpty;
+        final boolean mapsEmptiness;
+        final RDFDatatype datatype;
+        final String lang; // null when absent or blank
+
+        LiteralObjects(
+                String constValue,
+                String json,
+                boolean multi,
+                LookupTable map,
+                String format,
+                List<String> jsonPaths,
+                AggregateGroup.Member aggregate,
+                LookupIndex lookup,
+                ValueTransform transform,
+                String onUnMappedValue,
+                String onNoInputValue,
+                String mapEmpty,
+                String mapNonEmpty,
+                RDFDatatype datatype,
+                String lang) {
+            super(constValue, json, multi, map, format, jsonPaths, aggregate, lookup, transform);
+            this.onUnMappedValue = onUnMappedValue;
+            this.onNoInputValue = onNoInputValue;
+            this.mapEmpty = mapEmpty;
+            this.mapNonEmpty = mapNonEmpty;
+            this.mapsEmptiness = mapEmpty != null || mapNonEmpty != null;
+            this.datatype = datatype;
+            this.lang = lang;
+        }
+
+        @Override
+        public int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder) {
+            List<String> rawValues = values(sink, finder);
+            boolean hasInput = !rawValues.isEmpty();
+
+            if (mapsEmptiness) {
+                // map based on collection emptiness
+                String mapped = hasInput ? mapNonEmpty : mapEmpty;
+                return mapped == null ? 0 : emitLiteral(sink, subject, predicate, finder, mapped);
+            }
+            if (!hasInput) {
+                return onNoInputValue == null ? 0 : emitLiteral(sink, subject, predicate, finder, onNoInputValue);
+            }
+            int emitted = 0;
+            for (String raw : rawValues) {
+                String input = transformValue(raw, finder);
+                if (input == null) {
+                    continue; // the transform cannot handle it
+                }
+                String value = mapValue(input);
+                if (value == null && map != null) {
+                    // unmapped input
+                    value = onUnMappedValue;
+                }
+                emitted += emitLiteral(sink, subject, predicate, finder, value);
+            }
+            return emitted;
+        }
+
+        private int emitLiteral(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder, String value) {
+            String lexical = trimToNull(formatValue(value, finder));
+            if (lexical == null) {
+                return 0;
+            }
+            sink.add(subject, predicate, sink.literal(lexical, datatype, lang));
+            return 1;
+        }
+    }
+
+    /**
+     * Datatype literals from a plain json source: numbers and booleans are handed to Jena in value
+     * form when the datatype accepts them, instead of being stringified and re-parsed.
+     */
+    static final class TypedJsonLiterals implements ObjectStep {
+        private final String json;
+        private final boolean multi;
+        private final String onNoInputValue; // trimmed, null when absent
+        private final RDFDatatype datatype;
+
+        TypedJsonLiterals(String json, boolean multi, String onNoInputValue, RDFDatatype datatype) {
+            this.json = json;
+            this.multi = multi;
+            this.onNoInputValue = onNoInputValue;
+            this.datatype = datatype;
+        }
+
+        @Override
+        public int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder) {
+            List<Object> values = json.startsWith("$$") ? finder.listRootTyped(json.substring(1)) : finder.listTyped(json);
+            if (values.isEmpty()) {
+                if (onNoInputValue == null) {
+                    return 0;
+                }
+                sink.add(subject, predicate, sink.literal(onNoInputValue, datatype, null));
+                return 1;
+            }
+            int limit = multi ? values.size() : 1;
+            int emitted = 0;
+            for (int i = 0; i < limit; i++) {
+                Object value = values.get(i);
+                Node literal;
+                if (value instanceof String text) {
+                    String lexical = trimToNull(text);
+                    if (lexical == null) {
+                        continue;
+                    }
+                    literal = sink.literal(lexical, datatype, null);
+                } else if (datatype instanceof XSDDatatype && datatype.isValidValue(value)) {
+                    literal = NodeFactory.createLiteralByValue(value, datatype);
+                } else {
+                    literal = sink.literal(value.toString(), datatype, null);
+                }
+                sink.add(subject, predicate, literal);
+                emitted++;
+            }
+            return emitted;
+        }
+    }
+
+    /** as = node-ref */
+    static final class NodeRefObjects implements ObjectStep {
+        private final NodeStep node; // null when the node id is unknown: emit nothing
+
+        NodeRefObjects(NodeStep node) {
+            this.node = node;
+        }
+
+        @Override
+        public int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder) {
+            return node == null ? 0 : node.emit(sink, subject, predicate, finder);
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Conditions (when)
+    // ---------------------------------------------------------------------------
+
+    /** A compiled {@code when} condition, tested against the current scope. */
+    interface ConditionStep {
+        boolean test(JaywayJsonFinder finder);
+    }
+
+    /** {@code path}: at least one non-blank value. */
+    static final class ExistsCondition implements ConditionStep {
+        private final String path;
+
+        ExistsCondition(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public boolean test(JaywayJsonFinder finder) {
+            for (String value : listScopedOrRoot(finder, path)) {
+                if (!isBlank(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * {@code path op operand}: true when any value of the path compares as required with the
+     * operand (a constant, or the first value of another path). Both sides compare as numbers when
+     * both parse as numbers, as strings otherwise. {@code !=} is the negation of {@code ==}, so it
+     * also holds when the path yields nothing.
+     */
+    static final class CompareCondition implements ConditionStep {
+        private final String path;
+        private final Condition.Operator operator;
+        private final String operandPath; // null for a constant operand
+        private final String operandValue;
+        private final BigDecimal operandNumber; // constant operand parsed once, null when not numeric
+
+        CompareCondition(String path, Condition.Operator operator, String operandPath, String operandValue) {
+            this.path = path;
+            this.operator = operator;
+            this.operandPath = operandPath;
+            this.operandValue = operandValue;
+            this.operandNumber = operandPath == null ? number(operandValue) : null;
+        }
+
+        @Override
+        public boolean test(JaywayJsonFinder finder) {
+            String right = operandValue;
+            BigDecimal rightNumber = operandNumber;
+            if (operandPath != null) {
+                List<String> values = listScopedOrRoot(finder, operandPath);
+                right = values.isEmpty() ? null : values.get(0);
+                rightNumber = number(right);
+            }
+            boolean any = false;
+            if (right != null) {
+                for (String value : listScopedOrRoot(finder, path)) {
+                    if (value != null && matches(value, right, rightNumber)) {
+                        any = true;
+                        break;
+                    }
+                }
+            }
+            return operator == Condition.Operator.NE ? !any : any;
+        }
+
+        private boolean matches(String value, String right, BigDecimal rightNumber) {
+            BigDecimal number = rightNumber == null ? null : number(value);
+            int cmp = number != null ? number.compareTo(rightNumber) : value.compareTo(right);
+            return switch (operator) {
+                case EQ, NE -> cmp == 0;
+                case LT -> cmp < 0;
+                case LE -> cmp <= 0;
+                case GT -> cmp > 0;
+                case GE -> cmp >= 0;
+            };
+        }
+    }
+
+    static final class NotCondition implements ConditionStep {
+        private final ConditionStep condition;
+
+        NotCondition(ConditionStep condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean test(JaywayJsonFinder finder) {
+            return !condition.test(finder);
+        }
+    }
+
+    /** {@code a && b && ...}, short-circuiting left to right. */
+    static final class AllCondition implements ConditionStep {
+        private final ConditionStep[] conditions;
+
+        AllCondition(ConditionStep[] conditions) {
+            this.conditions = conditions;
+        }
+
+        @Override
+        public boolean test(JaywayJsonFinder finder) {
+            for (ConditionStep condition : conditions) {
+                if (!condition.test(finder)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** {@code a || b || ...}, short-circuiting left to right. */
+    static final class AnyCondition implements ConditionStep {
+        private final ConditionStep[] conditions;
+
+        AnyCondition(ConditionStep[] conditions) {
+            this.conditions = conditions;
+        }
+
+        @Override
+        public boolean test(JaywayJsonFinder finder) {
+            for (ConditionStep condition : conditions) {
+                if (condition.test(finder)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Node templates
+    // ---------------------------------------------------------------------------
+
+    /**
+     * A compiled node template. Nested properties are attached after construction because node
+     * templates may reference each other; they are not changed once compilation is done.
+     */
+    abstract static class NodeStep {
+        final Node type; // null when absent
+        private PropertyStep[] props = new PropertyStep[0];
+
+        NodeStep(Node type) {
+            this.type = type;
+        }
+
+        void props(PropertyStep[] props) {
+            this.props = props;
+        }
+
+        abstract int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder);
+
+        int emitNestedProps(TripleSink sink, Node resource, JaywayJsonFinder finder) {
+            int emitted = 0;
+            for (PropertyStep prop : props) {
+                emitted += prop.emit(sink, resource, finder);
+            }
+            return emitted;
+        }
+    }
+
+    /** kind = bnode: emitted only if at least one nested property is emitted. */
+    static final class BNodeStep extends NodeStep {
+        private final String id;
+
+        BNodeStep(String id, Node type) {
+            super(type);
+            this.id = id;
+        }
+
+        @Override
+        int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder) {
+            Node resource = sink.blank(id);
+            if (emitNestedProps(sink, resource, finder) == 0) {
+                // suppress typed-only (or completely empty) bnodes.
+                return 0;
+            }
+            if (type != null) {
+                sink.add(resource, RDF.Nodes.type, type);
+            }
+            sink.add(subject, predicate, resource);
+            return 1;
+        }
+    }
+
+    /** kind = iri: const, onNoInputValue, map, onUnMappedValue, format, raw IRI, in that order. */
+    static final class IriNodeStep extends NodeStep {
+        enum InputMode {
+            JSON, // iri.json
+            NO_INPUT, // iri.const or format only: emit once without input
+            JSON_PATHS, // first iri.json.N that yields values
+            NONE // nothing configured: never emitted
+        }
+
+        private final InputMode inputMode;
+        private final String iriJson;
+        private final List<String> iriJsonPaths;
+        private final boolean multi;
+        private final String iriConst; // null when blank
+        private final String onNoInputValue; // trimmed
+        private final String onUnMappedValue; // trimmed
+        private final LookupTable iriMap; // null when absent or empty
+        private final TemplateFormatter.Template iriFormat; // null when blank
+        private boolean invariant; // same output in every scope: materialized once per run
+
+        IriNodeStep(
+                Node type,
+                InputMode inputMode,
+                String iriJson,
+                List<String> iriJsonPaths,
+                boolean multi,
+                String iriConst,
+                String onNoInputValue,
+                String onUnMappedValue,
+                LookupTable iriMap,
+                String iriFormat) {
+            super(type);
+            this.inputMode = inputMode;
+            this.iriJson = iriJson;
+            this.iriJsonPaths = iriJsonPaths;
+            this.multi = multi;
+            this.iriConst = iriConst;
+            this.onNoInputValue = onNoInputValue;
+            this.onUnMappedValue = onUnMappedValue;
+            this.iriMap = iriMap;
+            this.iriFormat = iriFormat == null ? null : TemplateFormatter.compile(iriFormat);
+        }
+
+        /** Set by the compiler once nested props are attached (see {@link MappingCompiler}). */
+        void invariant(boolean invariant) {
+            this.invariant = invariant;
+        }
+
+        boolean invariant() {
+            return invariant;
+        }
+
+        /**
+         * Links the node(s) to {@code subject}. A scope-invariant node is built (nested props, type)
+         * in the first scope of a run only; later scopes add the linking triple.
+         */
+        @Override
+        int emit(TripleSink sink, Node subject, Node predicate, JaywayJsonFinder finder) {
+            List<Node> resources = invariant ? sink.materialized(this) : null;
+            if (resources == null) {
+                resources = resources(sink, finder);
+                if (invariant) {
+                    sink.materialize(this, resources);
+                }
+            }
+            for (Node resource : resources) {
+                sink.add(subject, predicate, resource);
+            }
+            return resources.size();
+        }
+
+        private List<Node> resources(TripleSink sink, JaywayJsonFinder finder) {
+            List<String> bases = inputs(finder);
+            if (!multi && bases.size() > 1) {
+                bases = bases.subList(0, 1);
+            }
+            if (bases.isEmpty()) {
+                if (onNoInputValue == null) {
+                    return Collections.emptyList();
+                }
+                bases = Collections.singletonList(null); // signals "no input"
+            }
+            if (bases.size() == 1) {
+                Node resource = build(sink, finder, bases.get(0));
+                return resource == null ? Collections.emptyList() : Collections.singletonList(resource);
+            }
+            List<Node> resources = new ArrayList<>(bases.size());
+            for (String base : bases) {
+                Node resource = build(sink, finder, base);
+                if (resource != null) {
+                    resources.add(resource);
+                }
+            }
+            return resources;
+        }
+
+        private List<String> inputs(JaywayJsonFinder finder) {
+            switch (inputMode) {
+                case JSON:
+                    return listScopedOrRoot(finder, iriJson);
+                case NO_INPUT:
+                    return Collections.singletonList(null);
+                case JSON_PATHS:
+                    for (String jsonPath : iriJsonPaths) {
+                        if (jsonPath == null || jsonPath.isBlank()) {
+                            continue;
+                        }
+                        List<String> values = listScopedOrRoot(finder, jsonPath);
+                        if (!values.isEmpty()) {
+                            return values;
+                        }
+                    }
+                    return Collections.emptyList();
+                default:
+                    return Collections.emptyList();
+            }
+        }
+
+        private Node build(TripleSink sink, JaywayJsonFinder finder, String baseRaw) {
+            String base = baseRaw == null ? null : baseRaw.trim();
+            boolean hasInput = !isBlank(base);
+
+            String iri = iriConst;
+            if (iri == null && !hasInput) {
+                iri = onNoInputValue;
+            }
+            if (iri == null && hasInput && iriMap != null) {
+                // normalized lookup (also strips parameters like "; charset=..."), then the raw value
+                iri = iriMap.getNormalized(base);
+                if (iri == null) {
+                    iri = onUnMappedValue;
+                }
+            }
+            if (iri == null && iriFormat != null) {
+                iri = iriFormat.format(base, Collections.emptyList(), finder, MappingSteps::normalizeMediaTypeBase);
+            }
+            // last resort: only use base as IRI if it looks like an absolute IRI
+            if (iri == null && looksLikeIri(base)) {
+                iri = base;
+            }
+            if (iri == null && hasInput) {
+                iri = onUnMappedValue;
+            }
+
+            // If we cannot resolve a proper IRI, omit entirely (no blank node fallback).
+            Node resource = mintIri(sink, finder, trimToNull(iri));
+            if (resource == null) {
+                return null;
+            }
+            emitNestedProps(sink, resource, finder);
+            // rdf:type even without nested props; an IRI resource is not "empty"
+            if (type != null) {
+                sink.add(resource, RDF.Nodes.type, type);
+            }
+            return resource;
+        }
+    }
+
+    // ---------------------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------------------
+
+    /** If JSONPath starts with "$$", query original root; else, current scope. */
+    static List<String> listScopedOrRoot(JaywayJsonFinder finder, String jsonPath) {
+        if (jsonPath != null && jsonPath.startsWith("$$")) {
+            return finder.listRoot(jsonPath.substring(1)); // strip one '$'
+        }
+        return finder.list(jsonPath);
+    }
+
+    static String stripParameters(String s) {
+        if (s == null) {
+            return null;
+        }
+        String t = s.trim();
+        int i = t.indexOf(';');
+        return (i >= 0) ? t.substring(0, i).trim() : t;
+    }
+
+    /**
+     * Normalize a media-type-like base to a safe "type/subtype" token (lowercase, no params/whitespace).
+     * Used only when interpolating ${value} into IRIs (e.g., IANA media types).
+     */
+    static String normalizeMediaTypeBase(String base) {
+        if (base == null) {
+            return "";
+        }
+        String contentType = stripParameters(base);
+        contentType = contentType == null ? "" : contentType.trim();
+        String[] parts = contentType.split("/");
+        if (parts.length == 2 && !parts[0].isBlank() && !parts[1].isBlank()) {
+            return parts[0] + "/" + parts[1];
+        }
+        return contentType;
+    }
+
+    /** Typed, language-tagged or plain (xsd:string) literal, as Model.createTypedLiteral/createLiteral. */
+    static Node literal(String lexical, RDFDatatype datatype, String lang) {
+        if (datatype != null) {
+            return NodeFactory.createLiteralDT(lexical, datatype);
+        }
+        if (lang != null) {
+            return NodeFactory.createLiteralLang(lexical, lang);
+        }
+        return NodeFactory.createLiteralString(lexical);
+    }
+
+    /** The value as a number, null when it is not one (compared as text then). */
+    static BigDecimal number(String s) {
+        if (s == null || s.isEmpty()) {
+            return null;
+        }
+        char c = s.charAt(0);
+        if (!(c >= '0' && c <= '9') && c != '-' && c != '+' && c != '.') {
+            return null; // skip the exception for plain words
+        }
+        try {
+            return new BigDecimal(s.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    static String trimToNull(String s) {
+        if (s == null) {
+            return null;
+        }
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    static boolean looksLikeIri(String s) {
+        // quick absolute IRI check (scheme ":" ...)
+        return IriMinter.looksLikeIri(s);
+    }
+
+    /**
+     * The node of an IRI minted while mapping; null when it is not an absolute IRI. With strict
+     * minting ({@code dcat.iri.strict}) illegal characters are percent-encoded first.
+     */
+    static Node mintIri(TripleSink sink, JaywayJsonFinder finder, String iri) {
+        if (!looksLikeIri(iri)) {
+            return null;
+        }
+        IriMinter minter = finder.iriMinter();
+        return sink.iri(minter == null ? iri : minter.mint(iri));
+    }
+}
@@ -0,0 +1,124 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+/**
+ * Interned IRI and literal {@link Node}s, so a value that repeats across scopes (a media type, a
+ * license or rights IRI, a checksum algorithm) is one node instead of one per triple.
+ *
+ * <p>Two lifetimes are used:
+ *
+ * <ul>
+ *   <li>per program: {@link MappingCompiler} fills an unbounded cache with the nodes derived from
+ *       the config (predicates, types, constant and mapped IRIs and literals). It is only read once
+ *       compilation is done, so it can be shared by concurrent runs.
+ *   <li>per export: {@link JaywayJsonFinder} carries a bounded cache for IRIs and literals read from
+ *       the input; the oldest entries are evicted once {@link #EXPORT_CAPACITY} are held. Most input
+ *       values (file names, ids, checksums) occur once, so a value is only interned the second time
+ *       it is met: a table of hashes remembers values seen once, and unique values never enter or
+ *       churn the cache.
+ * </ul>
+ *
+ * {@link TripleSink} looks up the program cache first and falls back to the export cache.
+ */
+final class NodeCache {
+
+    static final int EXPORT_CAPACITY = 4096;
+
+    private final Map<String, Node> iris;
+    private final Map<LiteralKey, Node> literals;
+    private final int[] seen; // bounded caches only: hashes of values met once, by slot
+
+    /** Unbounded, for config-derived nodes. */
+    NodeCache() {
+        this.iris = new HashMap<>();
+        this.literals = new HashMap<>();
+        this.seen = null;
+    }
+
+    /**
+     * Bounded to {@code capacity} IRIs and {@code capacity} literals, oldest evicted first; values
+     * are interned from their second occurrence on.
+     */
+    NodeCache(int capacity) {
+        this.iris = bounded(capacity);
+        this.literals = bounded(capacity);
+        this.seen = new int[Integer.highestOneBit(Math.max(1, capacity)) * 2];
+    }
+
+    /** The interned IRI node, created on first use. */
+    Node iri(String iri) {
+        Node node = iris.get(iri);
+        if (node == null) {
+            node = NodeFactory.createURI(iri);
+            if (admit(iri.hashCode())) {
+                iris.put(iri, node);
+            }
+        }
+        return node;
+    }
+
+    /** The interned literal node, created on first use (see {@link MappingSteps#literal}). */
+    Node literal(String lexical, RDFDatatype datatype, String lang) {
+        return literal(new LiteralKey(lexical, datatype, lang));
+    }
+
+    /** {@link #literal(String, RDFDatatype, String)} for a key the caller already probed with. */
+    Node literal(LiteralKey key) {
+        Node node = literals.get(key);
+        if (node == null) {
+            node = MappingSteps.literal(key.lexical(), key.datatype(), key.lang());
+            if (admit(key.hashCode())) {
+                literals.put(key, node);
+            }
+        }
+        return node;
+    }
+
+    /** @return the cached IRI node, null when absent; never adds */
+    Node cachedIri(String iri) {
+        return iris.get(iri);
+    }
+
+    /** @return the cached literal node, null when absent; never adds */
+    Node cachedLiteral(LiteralKey key) {
+        return literals.get(key);
+    }
+
+    int size() {
+        return iris.size() + literals.size();
+    }
+
+    /**
+     * Whether a value with {@code hash} may be cached: always for unbounded caches, otherwise when
+     * it was seen before. A colliding hash only admits a value early.
+     */
+    private boolean admit(int hash) {
+        if (seen == null) {
+            return true;
+        }
+        int slot = (hash ^ (hash >>> 16)) & (seen.length - 1);
+        if (seen[slot] == hash) {
+            return true;
+        }
+        seen[slot] = hash;
+        return false;
+    }
+
+    private static <K> Map<K, Node> bounded(int capacity) {
+        return new LinkedHashMap<>(Math.min(capacity, 256), 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Node> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Lexical form, datatype and language of a literal; built once per lookup by {@link TripleSink}. */
+    record LiteralKey(String lexical, RDFDatatype datatype, String lang) {}
+}
@@ -1,504 +1,84 @@
 package io.gdcc.spi.export.dcat3.mapping;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import io.gdcc.spi.export.dcat3.config.model.NodeTemplate;
 import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
-import io.gdcc.spi.export.dcat3.config.model.Subject;
-import io.gdcc.spi.export.dcat3.config.model.ValueSource;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import org.apache.jena.datatypes.RDFDatatype;
-import org.apache.jena.datatypes.TypeMapper;
-import org.apache.jena.rdf.model.Literal;
+import java.util.function.BiConsumer;
+import org.apache.jena.graph.Graph;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
-import org.apache.jena.rdf.model.Property;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.vocabulary.RDF;
 
+/**
+ * Maps the export JSON to RDF for one element.
+ *
+ * <p>The {@link ResourceConfig} is compiled once, in the constructor, into a {@link MappingProgram}:
+ * predicates, types and datatypes are resolved, the object strategy of each property is fixed and
+ * constant objects are built up front. {@link #buildGraph(JaywayJsonFinder)} only runs that program
+ * and returns the triples as a {@link Graph}; {@link #build(JaywayJsonFinder)} wraps it in a Model.
+ *
+ * <p>Use {@link ResourceMappers#create} to pick up a mapper generated at build time by {@link
+ * MapperCodeGenerator} when one matches the config.
+ */
 public class ResourceMapper {
 
-    private final ResourceConfig resourceConfig;
-    private final Prefixes prefixes;
-    private final String resourceTypeCurieOrIri;
+    private final MappingProgram program;
 
     public ResourceMapper(ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri) {
-        this.resourceConfig = resourceConfig;
-        this.prefixes = prefixes;
-        this.resourceTypeCurieOrIri = resourceTypeCurieOrIri;
+        this.program = MappingCompiler.compile(resourceConfig, prefixes, resourceTypeCurieOrIri);
     }
 
     public Model build(JaywayJsonFinder finder) {
-        Model model = ModelFactory.createDefaultModel();
-        model.setNsPrefixes(prefixes.jena());
-
-        List<JsonNode> scopes;
-        if (resourceConfig.scopeJson() != null && !resourceConfig.scopeJson().isBlank()) {
-            scopes = finder.nodes(resourceConfig.scopeJson());
-            if (scopes.isEmpty()) {
-                return model;
-            }
-        } else {
-            scopes = Collections.singletonList(null);
-        }
-
-        for (JsonNode scopeNode : scopes) {
-            JaywayJsonFinder scoped = (scopeNode == null) ? finder : finder.at(scopeNode);
-            Resource subject = createSubject(model, scoped);
-
-            if (resourceTypeCurieOrIri != null) {
-                subject.addProperty(RDF.type, model.createResource(prefixes.expand(resourceTypeCurieOrIri)));
-            }
-
-            resourceConfig.props().forEach((id, valueSource) -> addProperty(model, subject, scoped, valueSource));
-        }
-        return model;
+        return ModelFactory.createModelForGraph(buildGraph(finder));
     }
 
-    /**
-     * Create subject resource for each scope.
-     * Supported:
-     * - iriConst
-     * - iriTemplate (treated as fixed string)
-     * - iriJson (+ optional iriFormat)
-     * Formatting uses TemplateFormatter for consistency and supports inline JSON placeholders.
-     */
-    private Resource createSubject(Model model, JaywayJsonFinder finder) {
-        Subject subjectCfg = resourceConfig.subject();
-
-        String iri = subjectCfg.iriConst();
-        if (iri == null && subjectCfg.iriTemplate() != null) {
-            iri = subjectCfg.iriTemplate();
-        }
-
-        // Gather base for ${value} (optional)
-        String base = null;
-        if (iri == null && subjectCfg.iriJson() != null && !subjectCfg.iriJson().isBlank()) {
-            List<String> values = listScopedOrRoot(finder, subjectCfg.iriJson());
-            base = values.isEmpty() ? "" : values.get(0);
-            iri = base; // fallback if no format provided
-        }
-
-        if (iri == null
-                && subjectCfg.iriJsonPaths() != null
-                && !subjectCfg.iriJsonPaths().isEmpty()) {
-            // If only jsonPaths exist (no iriJson), we still can build via iriFormat
-            iri = ""; // placeholder
-        }
-
-        if (subjectCfg.iriFormat() != null && !subjectCfg.iriFormat().isBlank()) {
-            iri = TemplateFormatter.format(
-                    subjectCfg.iriFormat(),
-                    base == null ? "" : base,
-                    subjectCfg.iriJsonPaths() == null ? java.util.Collections.emptyList() : subjectCfg.iriJsonPaths(),
-                    finder,
-                    s -> s == null ? "" : s.trim());
-        }
-
-        return isBlank(iri) ? model.createResource() : model.createResource(iri);
+    public Graph buildGraph(JaywayJsonFinder finder) {
+        BiConsumer<TripleSink, JaywayJsonFinder> body = scopeBody();
+        return body == null ? program.run(finder) : program.run(finder, body);
     }
 
-    private void addProperty(Model model, Resource subject, JaywayJsonFinder finder, ValueSource valueSource) {
-        String predicateIri = prefixes.expand(valueSource.predicate());
-        if (predicateIri == null) {
-            return;
-        }
-        Property property = model.createProperty(predicateIri);
-
-        for (RDFNode rdfNode : resolveObjects(model, finder, valueSource)) {
-            subject.addProperty(property, rdfNode);
-        }
+    /** @return the nodes the configured scope selects, null when the element is not scoped */
+    public List<JsonNode> scopes(JaywayJsonFinder finder) {
+        return program.scopes(finder);
     }
 
-    private List<RDFNode> resolveObjects(Model model, JaywayJsonFinder finder, ValueSource valueSource) {
-        return switch (valueSource.as()) {
-            case "node-ref" -> buildNodeRefs(model, finder, valueSource);
-            case "iri" -> valuesFromSource(finder, valueSource).stream()
-                    .map(applyMapIfAny(valueSource))
-                    .map(applyFormatIfAny(valueSource, finder))
-                    .map(ResourceMapper::trimToNull)
-                    .filter(Objects::nonNull)
-                    .filter(ResourceMapper::looksLikeIri)
-                    .map(model::createResource)
-                    .collect(Collectors.toList());
-            default -> resolveLiteralValues(model, finder, valueSource);
-        };
+    /** Maps once per node of {@code scopes} (e.g. {@link ScopeGroups}), ignoring the configured scope. */
+    public Graph buildGraph(JaywayJsonFinder finder, List<JsonNode> scopes) {
+        return buildGraph(finder, scopes, 0);
     }
 
     /**
-     * Build node references for a property defined as "node-ref" in the config.
-     * Issue #34 fix: do NOT emit empty typed nodes.
-     * - kind=iri: if IRI resolves blank/invalid -> omit node (no bnode fallback)
-     * - kind=bnode: emit only if at least one nested property emitted
-     * - If no input value is present, use nodeTemplate.onNoInputValue if configured.
-     * - If input is present but mapping fails, use nodeTemplate.onUnMappedValue if configured.
+     * Maps a slice of the configured scopes, e.g. one page; {@code firstScope} is the index of the
+     * slice's first node among all scopes, so blank node labels match those of the full export.
      */
-    private List<RDFNode> buildNodeRefs(Model model, JaywayJsonFinder finder, ValueSource vs) {
-        NodeTemplate nodeTemplate = resourceConfig.nodes().get(vs.nodeRef());
-        if (nodeTemplate == null) {
-            // Config error: better to omit than to generate an empty bnode.
-            return Collections.emptyList();
-        }
-
-        // Gather base values from iriJson (handles multi)
-        List<String> bases;
-        if ("iri".equals(nodeTemplate.kind())) {
-            bases = resolveNodeIriInputs(finder, nodeTemplate);
-            if (!nodeTemplate.multi() && !bases.isEmpty()) {
-                bases = Collections.singletonList(bases.get(0));
-            }
-
-            // if no input, still allow emission if onNoInputValue exists
-            if (bases.isEmpty()) {
-                if (!isBlank(nodeTemplate.onNoInputValue())) {
-                    bases = Collections.singletonList(null); // signals "no input" to buildIriNode
-                } else {
-                    return Collections.emptyList();
-                }
-            }
-        } else {
-            bases = Collections.singletonList(null);
-        }
-
-        List<RDFNode> out = new ArrayList<>(bases.size());
-
-        for (String baseRaw : bases) {
-            if ("iri".equals(nodeTemplate.kind())) {
-                Resource iriNode = buildIriNode(model, finder, nodeTemplate, baseRaw);
-                if (iriNode != null) {
-                    out.add(iriNode);
-                }
-            } else {
-                Resource bnode = buildBNode(model, finder, nodeTemplate);
-                if (bnode != null) {
-                    out.add(bnode);
-                }
-            }
-        }
-
-        return out;
-    }
-
-    private List<String> resolveNodeIriInputs(JaywayJsonFinder finder, NodeTemplate nodeTemplate) {
-        if (nodeTemplate.iriJson() != null && !nodeTemplate.iriJson().isBlank()) {
-            return listScopedOrRoot(finder, nodeTemplate.iriJson());
-        }
-        if (nodeTemplate.iriConst() != null && !nodeTemplate.iriConst().isBlank()) {
-            // iri.const nodes do not depend on JSON input; emit once.
-            return Collections.singletonList(null);
-        }
-        if (nodeTemplate.iriFormat() != null && !nodeTemplate.iriFormat().isBlank()) {
-            // Format-only nodes may rely on inline placeholders and should still attempt emission.
-            return Collections.singletonList(null);
-        }
-        if (nodeTemplate.iriJsonPaths() == null || nodeTemplate.iriJsonPaths().isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        // Resolve the first configured path that yields values.
-        for (String jsonPath : nodeTemplate.iriJsonPaths()) {
-            if (jsonPath == null || jsonPath.isBlank()) {
-                continue;
-            }
-            List<String> values = listScopedOrRoot(finder, jsonPath);
-            if (!values.isEmpty()) {
-                return values;
-            }
-        }
-        return Collections.emptyList();
-    }
-
-    private Resource buildIriNode(Model model, JaywayJsonFinder finder, NodeTemplate nodeTemplate, String baseRaw) {
-        String iri = null;
-
-        // Normalize base input
-        String base = baseRaw == null ? null : baseRaw.trim();
-        boolean hasInput = !isBlank(base);
-
-        // 1) iriConst wins (always)
-        if (nodeTemplate.iriConst() != null && !nodeTemplate.iriConst().isBlank()) {
-            iri = nodeTemplate.iriConst();
-        }
-
-        // 2) If no input and iri is still not set, try onNoInputValue
-        if (iri == null && !hasInput) {
-            iri = trimToNull(nodeTemplate.onNoInputValue());
-        }
-
-        // 3) node-level map (normalize lookup key; also strip parameters like "; charset=...")
-        if (iri == null
-                && hasInput
-                && nodeTemplate.iriMap() != null
-                && !nodeTemplate.iriMap().isEmpty()) {
-
-            String key = stripParameters(base).toLowerCase();
-            iri = nodeTemplate.iriMap().getOrDefault(key, nodeTemplate.iriMap().get(base));
-        }
-
-        // 4) unmapped input -> onUnMappedValue (only when input exists)
-        if (iri == null && hasInput) {
-            String unmapped = trimToNull(nodeTemplate.onUnMappedValue());
-            if (unmapped != null
-                    && nodeTemplate.iriMap() != null
-                    && !nodeTemplate.iriMap().isEmpty()
-                    && !nodeTemplate.iriMap().containsKey(stripParameters(base).toLowerCase())
-                    && !nodeTemplate.iriMap().containsKey(base)) {
-                iri = unmapped;
-            }
-        }
-
-        // 5) format: TemplateFormatter (supports ${value} + inline JSON placeholders)
-        if (iri == null
-                && nodeTemplate.iriFormat() != null
-                && !nodeTemplate.iriFormat().isBlank()) {
-            iri = TemplateFormatter.format(
-                    nodeTemplate.iriFormat(),
-                    base,
-                    Collections.emptyList(),
-                    finder,
-                    ResourceMapper::normalizeMediaTypeBase);
-        }
-
-        // 4) last resort: only use base as IRI if it looks like an absolute IRI
-        if (iri == null && looksLikeIri(base)) {
-            iri = base;
-        }
-
-        // 4b) Issue #41: if input exists but still no resolvable IRI -> onUnMappedValue
-        if (iri == null && hasInput) {
-            iri = trimToNull(nodeTemplate.onUnMappedValue());
-        }
-
-        iri = trimToNull(iri);
-
-        // If we cannot resolve a proper IRI, omit entirely (no blank node fallback).
-        if (!looksLikeIri(iri)) {
-            return null;
-        }
-
-        Resource resource = model.createResource(iri);
-
-        // Attach nested properties (if any)
-        emitNestedProps(model, finder, nodeTemplate, resource);
-
-        // rdf:type if provided (even if no nested props; IRI resource is not "empty")
-        if (nodeTemplate.type() != null) {
-            resource.addProperty(RDF.type, model.createResource(prefixes.expand(nodeTemplate.type())));
-        }
-
-        // Note: emittedProps is not used to suppress IRI nodes; the existence of the IRI is enough.
-        return resource;
-    }
-
-    private Resource buildBNode(Model model, JaywayJsonFinder finder, NodeTemplate nodeTemplate) {
-        Resource resource = model.createResource(); // blank node
-
-        int emittedProps = emitNestedProps(model, finder, nodeTemplate, resource);
-
-        // suppress typed-only (or completely empty) bnodes.
-        if (emittedProps == 0) {
-            return null;
-        }
-
-        // rdf:type only if something meaningful exists
-        if (nodeTemplate.type() != null) {
-            resource.addProperty(RDF.type, model.createResource(prefixes.expand(nodeTemplate.type())));
-        }
-        return resource;
-    }
-
-    private int emitNestedProps(Model model, JaywayJsonFinder finder, NodeTemplate nodeTemplate, Resource resource) {
-        int emitted = 0;
-        Map<String, ValueSource> nested = nodeTemplate.props();
-        if (nested == null || nested.isEmpty()) {
-            return 0;
-        }
-        for (Map.Entry<String, ValueSource> entry : nested.entrySet()) {
-            ValueSource pvs = entry.getValue();
-            String pred = prefixes.expand(pvs.predicate());
-            if (pred == null) {
-                continue;
-            }
-            Property property = model.createProperty(pred);
-            List<RDFNode> objs = resolveObjects(model, finder, pvs);
-            if (objs == null || objs.isEmpty()) {
-                continue;
-            }
-            for (RDFNode obj : objs) {
-                resource.addProperty(property, obj);
-                emitted++;
-            }
-        }
-        return emitted;
-    }
-
-    private static String stripParameters(String s) {
-        if (s == null) {
-            return null;
-        }
-        String t = s.trim();
-        int i = t.indexOf(';');
-        return (i >= 0) ? t.substring(0, i).trim() : t;
+    public Graph buildGraph(JaywayJsonFinder finder, List<JsonNode> scopes, int firstScope) {
+        BiConsumer<TripleSink, JaywayJsonFinder> body = scopeBody();
+        return body == null ? program.run(finder, scopes, firstScope) : program.run(finder, scopes, firstScope, body);
     }
 
     /**
-     * Normalize a media-type-like base to a safe "type/subtype" token (lowercase, no params/whitespace).
-     * Used only when interpolating ${value} into IRIs (e.g., IANA media types).
+     * Only the typed subjects, per configured scope or, when {@code scopes} is not null, per given
+     * node; for relations to an element that is not written (see {@code Dcat3ExporterBase#exportPage}).
      */
-    private static String normalizeMediaTypeBase(String base) {
-        if (base == null) {
-            return "";
-        }
-        String contentType = stripParameters(base);
-        contentType = contentType == null ? "" : contentType.trim();
-        String[] parts = contentType.split("/");
-        if (parts.length == 2 && !parts[0].isBlank() && !parts[1].isBlank()) {
-            return parts[0] + "/" + parts[1];
-        }
-        return contentType;
-    }
-
-    private List<String> valuesFromSource(JaywayJsonFinder finder, ValueSource valueSource) {
-        if (valueSource.constValue() != null) {
-            return Collections.singletonList(valueSource.constValue());
-        }
-        if (valueSource.json() != null) {
-            List<String> values = listScopedOrRoot(finder, valueSource.json());
-            if (valueSource.multi()) {
-                return values;
-            }
-            return values.isEmpty() ? Collections.emptyList() : Collections.singletonList(values.get(0));
-        }
-        // If format contains inline JSONPaths or indexed placeholders, ensure we have a single base value
-        if (valueSource.format() != null && !valueSource.format().isBlank()) {
-            return Collections.singletonList("");
-        }
-        return Collections.emptyList();
+    public Graph buildSubjects(JaywayJsonFinder finder, List<JsonNode> scopes) {
+        return program.runSubjects(finder, scopes);
     }
 
-    /** If JSONPath starts with "$$", query original root; else, current scope. */
-    private List<String> listScopedOrRoot(JaywayJsonFinder finder, String jsonPath) {
-        if (jsonPath != null && jsonPath.startsWith("$$")) {
-            return finder.listRoot(jsonPath.substring(1)); // strip one '$'
-        }
-        return finder.list(jsonPath);
-    }
-
-    private Function<String, String> applyMapIfAny(ValueSource valueSource) {
-        return s -> {
-            if (s == null) {
-                return null;
-            }
-            if (valueSource.map() != null && !valueSource.map().isEmpty()) {
-                return valueSource.map().getOrDefault(s, null);
-            }
-            return s;
-        };
+    /** Maps the configured scopes one fragment graph per scope, reusing the fragments already stored. */
+    Graph buildGraph(JaywayJsonFinder finder, List<JsonNode> scopes, MappingProgram.Fragments fragments) {
+        BiConsumer<TripleSink, JaywayJsonFinder> body = scopeBody();
+        return body == null ? program.run(finder, scopes, fragments) : program.run(finder, scopes, fragments, body);
     }
 
     /**
-     * Unified formatting for literal/iri values. Delegates to TemplateFormatter.
-     * - Supports ${value}, ${1..n}, inline ${$.path}/${$$.path}
-     * - Keeps existing "media type normalization" behavior for ${value}
+     * The triples of one scope, null to run the compiled steps. Generated subclasses return their
+     * straight-line code, so paged, grouped and fragment runs use it as well as {@link #buildGraph}.
      */
-    private Function<String, String> applyFormatIfAny(ValueSource valueSource, JaywayJsonFinder finder) {
-        return s -> {
-            if (valueSource.format() == null || valueSource.format().isBlank()) {
-                return s;
-            }
-            String base = s;
-            if ((base == null || base.isEmpty()) && valueSource.json() != null) {
-                List<String> values = listScopedOrRoot(finder, valueSource.json());
-                base = values.isEmpty() ? "" : values.get(0);
-            }
-            return TemplateFormatter.format(
-                    valueSource.format(),
-                    base,
-                    valueSource.jsonPaths(),
-                    finder,
-                    ResourceMapper::normalizeMediaTypeBase);
-        };
-    }
-
-    private Literal literal(Model model, String value, String lang, String datatypeIri) {
-        // EXPAND CURIE datatypes to full IRIs before TypeMapper lookup
-        if (datatypeIri != null && !datatypeIri.isBlank() && !datatypeIri.startsWith("http")) {
-            String expanded = prefixes.expand(datatypeIri);
-            if (expanded != null) {
-                datatypeIri = expanded;
-            }
-        }
-        if (datatypeIri != null && !datatypeIri.isBlank()) {
-            RDFDatatype dt = TypeMapper.getInstance().getSafeTypeByName(datatypeIri);
-            return model.createTypedLiteral(value, dt);
-        }
-        if (lang != null && !lang.isBlank()) {
-            return model.createLiteral(value, lang);
-        }
-        return model.createLiteral(value);
-    }
-
-    private static boolean isBlank(String s) {
-        return s == null || s.trim().isEmpty();
-    }
-
-    private static String trimToNull(String s) {
-        if (s == null) {
-            return null;
-        }
-        String t = s.trim();
-        return t.isEmpty() ? null : t;
+    BiConsumer<TripleSink, JaywayJsonFinder> scopeBody() {
+        return null;
     }
 
-    private static boolean looksLikeIri(String s) {
-        // quick absolute IRI check (scheme ":" ...)
-        return s != null && s.matches("^[a-zA-Z][a-zA-Z0-9+.-]*:.*");
-    }
-
-    private List<RDFNode> resolveLiteralValues(Model model, JaywayJsonFinder finder, ValueSource valueSource) {
-        List<String> rawValues = valuesFromSource(finder, valueSource);
-        boolean hasInput = !rawValues.isEmpty();
-
-        List<String> processedValues;
-
-        // Special handling for map_empty/map_nonempty: map based on collection emptiness
-        if (valueSource.mapEmpty() != null || valueSource.mapNonEmpty() != null) {
-            String mappedValue = hasInput ? valueSource.mapNonEmpty() : valueSource.mapEmpty();
-            processedValues = (mappedValue != null) ? Collections.singletonList(mappedValue) : Collections.emptyList();
-        } else {
-            // Normal processing: apply map to each value
-            processedValues = rawValues.stream().map(applyMapIfAny(valueSource)).collect(Collectors.toList());
-
-            // Apply fallback logic for unmapped values
-            if (hasInput && valueSource.map() != null && !valueSource.map().isEmpty()) {
-                processedValues = processedValues.stream()
-                        .map(val -> {
-                            // If value was mapped to null (unmapped), use onUnMappedValue
-                            if (val == null && valueSource.onUnMappedValue() != null) {
-                                return valueSource.onUnMappedValue();
-                            }
-                            return val;
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            // If no input at all, use onNoInputValue if configured
-            if (!hasInput && valueSource.onNoInputValue() != null) {
-                processedValues = Collections.singletonList(valueSource.onNoInputValue());
-            }
-        }
-
-        return processedValues.stream()
-                .map(applyFormatIfAny(valueSource, finder))
-                .map(ResourceMapper::trimToNull)
-                .filter(Objects::nonNull)
-                .map(val -> literal(model, val, valueSource.lang(), valueSource.datatype()))
-                .collect(Collectors.toList());
+    /** The compiled program; generated subclasses reuse its scope handling and fallback steps. */
+    MappingProgram program() {
+        return program;
     }
 }
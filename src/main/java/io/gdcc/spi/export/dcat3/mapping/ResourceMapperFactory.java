@@ -0,0 +1,16 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+
+/**
+ * Service interface for mappers generated at build time by {@link MapperCodeGenerator}. Providers
+ * are discovered with {@link java.util.ServiceLoader} and only used for configs whose {@link
+ * ResourceMappers#fingerprint fingerprint} matches the one they were generated from.
+ */
+public interface ResourceMapperFactory {
+
+    /** Fingerprint of the element config, prefixes and type the mapper was generated from. */
+    String fingerprint();
+
+    ResourceMapper create(ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri);
+}
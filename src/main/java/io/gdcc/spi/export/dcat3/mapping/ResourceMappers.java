@@ -0,0 +1,117 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Creates the {@link ResourceMapper} for an element: a generated mapper (see {@link
+ * MapperCodeGenerator}) when one on the classpath was generated from exactly this config, prefixes
+ * and type; the compiled {@link ResourceMapper} otherwise.
+ */
+public final class ResourceMappers {
+    private static final Logger logger = Logger.getLogger(ResourceMappers.class.getCanonicalName());
+
+    private ResourceMappers() {}
+
+    public static ResourceMapper create(
+            ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri) {
+        return create(
+                resourceConfig,
+                prefixes,
+                resourceTypeCurieOrIri,
+                fingerprint(resourceConfig, prefixes, resourceTypeCurieOrIri));
+    }
+
+    /** @param fingerprint {@link #fingerprint} of the arguments, when the caller already has it */
+    static ResourceMapper create(
+            ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri, String fingerprint) {
+        ResourceMapperFactory generated = Generated.FACTORIES.get(fingerprint);
+        if (generated != null) {
+            logger.fine(() -> "Using generated mapper " + generated.getClass().getName());
+            return generated.create(resourceConfig, prefixes, resourceTypeCurieOrIri);
+        }
+        return new ResourceMapper(resourceConfig, prefixes, resourceTypeCurieOrIri);
+    }
+
+    /**
+     * SHA-256 over everything a generated mapper folds into its code: the loaded config, the prefix
+     * mapping and the type. Maps are rendered key-sorted, so load order does not matter. Code lists
+     * count by file name and content ({@link CodeList#fingerprint}), not by the path they resolve
+     * to, so a mapper generated in the build matches the deployed config.
+     */
+    public static String fingerprint(ResourceConfig resourceConfig, Prefixes prefixes, String resourceTypeCurieOrIri) {
+        StringBuilder canonical = new StringBuilder();
+        canonical(resourceConfig, canonical);
+        canonical.append('\n');
+        canonical(prefixes.jena().getNsPrefixMap(), canonical);
+        canonical.append('\n').append(resourceTypeCurieOrIri);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void canonical(Object value, StringBuilder out) {
+        if (value instanceof Record record) {
+            out.append(record.getClass().getSimpleName()).append('[');
+            for (RecordComponent component : record.getClass().getRecordComponents()) {
+                out.append(component.getName()).append('=');
+                try {
+                    Object componentValue = component.getAccessor().invoke(record);
+                    if (component.getName().equals("codeList") && componentValue instanceof String codeList) {
+                        out.append(CodeList.fingerprint(codeList));
+                    } else {
+                        canonical(componentValue, out);
+                    }
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot read " + component, e);
+                }
+                out.append(';');
+            }
+            out.append(']');
+        } else if (value instanceof Map<?, ?> map) {
+            out.append('{');
+            new TreeMap<>(map).forEach((key, entry) -> {
+                out.append(key).append('=');
+                canonical(entry, out);
+                out.append(';');
+            });
+            out.append('}');
+        } else if (value instanceof List<?> list) {
+            out.append('(');
+            list.forEach(entry -> {
+                canonical(entry, out);
+                out.append(';');
+            });
+            out.append(')');
+        } else {
+            out.append(value);
+        }
+    }
+
+    /** Lazily loaded generated mapper factories by fingerprint. */
+    private static final class Generated {
+        static final Map<String, ResourceMapperFactory> FACTORIES = load();
+
+        private static Map<String, ResourceMapperFactory> load() {
+            Map<String, ResourceMapperFactory> factories = new HashMap<>();
+            for (ResourceMapperFactory factory :
+                    ServiceLoader.load(ResourceMapperFactory.class, ResourceMappers.class.getClassLoader())) {
+                factories.put(factory.fingerprint(), factory);
+            }
+            return factories;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar view of a scope array such as {@code $.datasetFileDetails[*]}.
+ *
+ * <p>One pass over the array extracts every simple relative path an element reads (e.g.
+ * {@code $.filename}, {@code $.filesize}, {@code $.checksum.value}) into a column. Columns whose
+ * values are all integral numbers are stored as {@code long[]}, everything else as {@code String[]}.
+ * Paths that are not simple, or that resolve to objects/arrays, are not columnized; the scoped finder
+ * evaluates those per row as before.
+ */
+final class ScopeColumns {
+
+    private final JsonNode[] rows;
+    private final Map<String, Column> columns;
+
+    private ScopeColumns(JsonNode[] rows, Map<String, Column> columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /** Extract {@code relativePaths} from every element of {@code array} in a single pass. */
+    static ScopeColumns extract(JsonNode array, Collection<String> relativePaths) {
+        int size = array.size();
+        JsonNode[] rows = new JsonNode[size];
+
+        String[] keys = new String[relativePaths.size()];
+        SimpleJsonPath[] paths = new SimpleJsonPath[keys.length];
+        int width = 0;
+        for (String path : relativePaths) {
+            SimpleJsonPath compiled = SimpleJsonPath.compile(path);
+            if (compiled != null) {
+                keys[width] = path;
+                paths[width] = compiled;
+                width++;
+            }
+        }
+
+        JsonNode[][] leaves = new JsonNode[width][size];
+        int row = 0;
+        for (JsonNode element : array) {
+            rows[row] = element;
+            for (int c = 0; c < width; c++) {
+                leaves[c][row] = paths[c].select(element);
+            }
+            row++;
+        }
+
+        Map<String, Column> columns = new HashMap<>(width * 2);
+        for (int c = 0; c < width; c++) {
+            Column column = Column.of(leaves[c]);
+            if (column != null) {
+                columns.put(keys[c], column);
+            }
+        }
+        return new ScopeColumns(rows, columns);
+    }
+
+    int size() {
+        return rows.length;
+    }
+
+    JsonNode row(int row) {
+        return rows[row];
+    }
+
+    /**
+     * @return the stringified values of {@code path} at {@code row}, or null when the path is not
+     *     columnized
+     */
+    List<String> values(String path, int row) {
+        Column column = columns.get(path);
+        return column == null ? null : column.values(row);
+    }
+
+    /**
+     * @return the typed values of {@code path} at {@code row} (see {@link
+     *     JaywayJsonFinder#listTyped(String)}), or null when the path is not columnized
+     */
+    List<Object> typedValues(String path, int row) {
+        Column column = columns.get(path);
+        return column == null ? null : column.typedValues(row);
+    }
+
+    private interface Column {
+        List<String> values(int row);
+
+        List<Object> typedValues(int row);
+
+        static Column of(JsonNode[] leaves) {
+            boolean integral = true;
+            for (JsonNode leaf : leaves) {
+                if (leaf == null || leaf.isNull()) {
+                    continue;
+                }
+                if (!leaf.isValueNode()) {
+                    // objects/arrays keep Jayway's stringification
+                    return null;
+                }
+                if (!(leaf.isIntegralNumber() && leaf.canConvertToLong())) {
+                    integral = false;
+                }
+            }
+            return integral ? LongColumn.of(leaves) : TextColumn.of(leaves);
+        }
+    }
+
+    private static final class LongColumn implements Column {
+        private final long[] values;
+        private final boolean[] present;
+
+        private LongColumn(long[] values, boolean[] present) {
+            this.values = values;
+            this.present = present;
+        }
+
+        static LongColumn of(JsonNode[] leaves) {
+            long[] values = new long[leaves.length];
+            boolean[] present = new boolean[leaves.length];
+            for (int i = 0; i < leaves.length; i++) {
+                JsonNode leaf = leaves[i];
+                if (leaf != null && !leaf.isNull()) {
+                    values[i] = leaf.longValue();
+                    present[i] = true;
+                }
+            }
+            return new LongColumn(values, present);
+        }
+
+        @Override
+        public List<String> values(int row) {
+            return present[row] ? Collections.singletonList(Long.toString(values[row])) : Collections.emptyList();
+        }
+
+        @Override
+        public List<Object> typedValues(int row) {
+            return present[row] ? Collections.singletonList(values[row]) : Collections.emptyList();
+        }
+    }
+
+    private static final class TextColumn implements Column {
+        private final String[] values;
+        private final Object[] typed; // non-textual scalars only (booleans, decimals); null otherwise
+
+        private TextColumn(String[] values, Object[] typed) {
+            this.values = values;
+            this.typed = typed;
+        }
+
+        static TextColumn of(JsonNode[] leaves) {
+            String[] values = new String[leaves.length];
+            Object[] typed = new Object[leaves.length];
+            for (int i = 0; i < leaves.length; i++) {
+                JsonNode leaf = leaves[i];
+                if (leaf != null && !leaf.isNull()) {
+                    values[i] = leaf.isTextual() ? leaf.textValue() : leaf.asText();
+                    if (!leaf.isTextual()) {
+                        typed[i] = JaywayJsonFinder.scalar(leaf);
+                    }
+                }
+            }
+            return new TextColumn(values, typed);
+        }
+
+        @Override
+        public List<String> values(int row) {
+            String value = values[row];
+            return value == null ? Collections.emptyList() : Collections.singletonList(value);
+        }
+
+        @Override
+        public List<Object> typedValues(int row) {
+            String value = values[row];
+            if (value == null) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(typed[row] != null ? typed[row] : value);
+        }
+    }
+}
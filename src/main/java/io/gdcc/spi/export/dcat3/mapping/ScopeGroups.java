@@ -0,0 +1,53 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups the scope nodes of an element ({@code element.<name>.group.by}) into one synthetic scope
+ * per distinct key, for the grouped mode of elements with very many scopes (e.g. files).
+ *
+ * <p>A group node has the fields {@code index} (0-based, in order of first appearance), {@code key}
+ * (the first value of {@code by}, null when absent), {@code count} and {@code files}, an array of the
+ * original scope nodes. The array holds references, not copies, so grouping costs one key lookup
+ * per scope; group configs read it with aggregates over {@code $.files}.
+ */
+public final class ScopeGroups {
+
+    private ScopeGroups() {}
+
+    /**
+     * @param finder the finder of the element, used to read {@code by} relative to each scope
+     * @param scopes the scope nodes, in document order
+     * @param by JSONPath of the group key relative to a scope; null or blank puts all in one group
+     * @return one group node per distinct key
+     */
+    public static List<JsonNode> group(JaywayJsonFinder finder, List<JsonNode> scopes, String by) {
+        boolean keyed = by != null && !by.isBlank();
+        Map<String, ArrayNode> members = new LinkedHashMap<>();
+        for (JsonNode scope : scopes) {
+            String key = null;
+            if (keyed) {
+                List<String> values = finder.at(scope).list(by);
+                key = values.isEmpty() ? null : values.get(0);
+            }
+            members.computeIfAbsent(key, unused -> JsonNodeFactory.instance.arrayNode()).add(scope);
+        }
+        List<JsonNode> groups = new ArrayList<>(members.size());
+        for (Map.Entry<String, ArrayNode> entry : members.entrySet()) {
+            ObjectNode group = JsonNodeFactory.instance.objectNode();
+            group.put("index", groups.size());
+            group.put("key", entry.getKey());
+            group.put("count", entry.getValue().size());
+            group.set("files", entry.getValue());
+            groups.add(group);
+        }
+        return groups;
+    }
+}
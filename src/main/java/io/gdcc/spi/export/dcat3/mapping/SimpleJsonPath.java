@@ -0,0 +1,204 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled form of a "simple" JSONPath: a plain chain of member and index steps, e.g.
+ * {@code $.filename}, {@code $.checksum.value}, {@code $['datasetJson'].datasetVersion} or
+ * {@code $.files[0].id}.
+ *
+ * <p>Simple paths are evaluated as direct {@link JsonNode#get} chains. Everything else (filters,
+ * wildcards, deep scans, slices, unions, functions) is rejected by {@link #compile(String)} and left
+ * to Jayway.
+ */
+final class SimpleJsonPath {
+
+    /** Compiled paths kept; configured paths come first, built ones (prefixes, rewrites) may not fit. */
+    static final int CACHE_SIZE = 4096;
+
+    private static final Map<String, SimpleJsonPath> CACHE = new ConcurrentHashMap<>();
+    private static final SimpleJsonPath NOT_SIMPLE = new SimpleJsonPath(new String[0], new int[0]);
+
+    private final String[] names; // member name per step, null for index steps
+    private final int[] indexes; // array index per step, -1 for member steps
+
+    private SimpleJsonPath(String[] names, int[] indexes) {
+        this.names = names;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Compile {@code jsonPath} into a member/index chain.
+     *
+     * @return the compiled path, or null when the path needs the full Jayway engine
+     */
+    static SimpleJsonPath compile(String jsonPath) {
+        if (jsonPath == null) {
+            return null;
+        }
+        SimpleJsonPath compiled = CACHE.get(jsonPath);
+        if (compiled == null) {
+            compiled = parse(jsonPath);
+            if (CACHE.size() < CACHE_SIZE) { // once full, further paths are parsed on every call
+                CACHE.putIfAbsent(jsonPath, compiled);
+            }
+        }
+        return compiled == NOT_SIMPLE ? null : compiled;
+    }
+
+    /** Number of cached paths. */
+    static int cached() {
+        return CACHE.size();
+    }
+
+    /**
+     * Resolve the path against {@code node}.
+     *
+     * @return the matched node, or null when any step does not match
+     */
+    JsonNode select(JsonNode node) {
+        JsonNode current = node;
+        for (int i = 0; i < names.length && current != null; i++) {
+            String name = names[i];
+            if (name != null) {
+                current = current.isObject() ? current.get(name) : null;
+            } else {
+                current = current.isArray() ? current.get(indexes[i]) : null;
+            }
+        }
+        return current;
+    }
+
+    /** Number of member/index steps. */
+    int length() {
+        return names.length;
+    }
+
+    /**
+     * The longest leading member/index chain of {@code jsonPath}: the node every match lies under.
+     * E.g. {@code $.datasetFileDetails} for {@code $.datasetFileDetails[*].filename}, {@code $.a}
+     * for {@code $.a.b.length()}.
+     *
+     * @return the prefix, or null when the path is not a {@code $} path or starts with a non-simple
+     *     step (a deep scan, wildcard or filter on the root)
+     */
+    static String prefix(String jsonPath) {
+        if (jsonPath == null) {
+            return null;
+        }
+        String path = jsonPath.trim();
+        if (path.isEmpty() || path.charAt(0) != '$') {
+            return null;
+        }
+        int end = scan(path, new ArrayList<>(), new ArrayList<>());
+        return end > 1 ? path.substring(0, end) : null;
+    }
+
+    private static SimpleJsonPath parse(String jsonPath) {
+        String path = jsonPath.trim();
+        if (path.length() < 2 || path.charAt(0) != '$') {
+            return NOT_SIMPLE;
+        }
+        List<String> names = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        if (scan(path, names, indexes) != path.length() || names.isEmpty()) {
+            return NOT_SIMPLE;
+        }
+
+        int[] idx = new int[indexes.size()];
+        for (int k = 0; k < idx.length; k++) {
+            idx[k] = indexes.get(k);
+        }
+        return new SimpleJsonPath(names.toArray(new String[0]), idx);
+    }
+
+    /**
+     * Collects the member/index steps of {@code path} (which starts with {@code $}) up to the first
+     * step that is not simple.
+     *
+     * @return the end of the last simple step; {@code path.length()} when the whole path is simple
+     */
+    private static int scan(String path, List<String> names, List<Integer> indexes) {
+        int i = 1;
+        int end = 1;
+        int n = path.length();
+        while (i < n) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                int start = ++i;
+                while (i < n && isNameChar(path.charAt(i))) {
+                    i++;
+                }
+                if (i == start) {
+                    // "$..x" (deep scan), "$.*" (wildcard) or a trailing dot
+                    return end;
+                }
+                if (i < n && path.charAt(i) == '(') {
+                    // a function such as length() applies to the steps before it
+                    return end;
+                }
+                names.add(path.substring(start, i));
+                indexes.add(-1);
+            } else if (c == '[') {
+                int close = path.indexOf(']', i);
+                if (close < 0) {
+                    return end;
+                }
+                String inner = path.substring(i + 1, close).trim();
+                if (isQuotedName(inner)) {
+                    names.add(inner.substring(1, inner.length() - 1));
+                    indexes.add(-1);
+                } else if (isIndex(inner)) {
+                    names.add(null);
+                    indexes.add(Integer.parseInt(inner));
+                } else {
+                    // filters, wildcards, slices, unions, negative indexes
+                    return end;
+                }
+                i = close + 1;
+            } else {
+                return end;
+            }
+            end = i;
+        }
+        return end;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isQuotedName(String s) {
+        if (s.length() < 3) {
+            return false;
+        }
+        char quote = s.charAt(0);
+        if ((quote != '\'' && quote != '"') || s.charAt(s.length() - 1) != quote) {
+            return false;
+        }
+        for (int i = 1; i < s.length() - 1; i++) {
+            char c = s.charAt(i);
+            if (c == '\'' || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIndex(String s) {
+        if (s.isEmpty() || s.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
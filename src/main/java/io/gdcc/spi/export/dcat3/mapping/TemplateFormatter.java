@@ -1,5 +1,6 @@
 package io.gdcc.spi.export.dcat3.mapping;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
@@ -13,6 +14,9 @@ import java.util.function.Function;
  *   <li>${1}, ${2}, ... - replaced by values resolved from jsonPaths in order
  *   <li>${$.path} / ${$$.path} - inline JSONPath placeholders resolved via JaywayJsonFinder
  * </ul>
+ *
+ * <p>{@link #compile} parses a template once into literal segments and placeholder slots; the
+ * mapping steps format with that {@link Template}. {@link #format} is the reference behaviour.
  */
 public final class TemplateFormatter {
 
@@ -113,6 +117,189 @@ public final class TemplateFormatter {
         return out.toString();
     }
 
+    /**
+     * Parse a template once for repeated formatting.
+     *
+     * @param template the template string, may contain placeholders
+     * @return the parsed template (never null)
+     */
+    public static Template compile(String template) {
+        return new Template(template);
+    }
+
+    /**
+     * A template split into literal segments and slots for ${value}, ${n} and inline JSONPaths, so
+     * formatting is one pass over a presized builder. Results are the same as {@link #format}, which
+     * substitutes ${value} and ${n} first and then resolves inline placeholders in the result: a
+     * template whose tokens only appear after that substitution (a token inside another token),
+     * and values that themselves contain "${", take that reference route.
+     *
+     * <p>Immutable; safe to share between threads.
+     */
+    public static final class Template {
+        private static final int VALUE = 0;
+        private static final int INLINE = -1;
+
+        private final String source;
+        private final boolean blank;
+        private final boolean legacy;
+        private final String[] literals; // literals[i] precedes slots[i]; the last one is the tail
+        private final int[] slots; // VALUE, INLINE or the 1-based index of ${n}
+        private final String[] inlinePaths; // per slot, set for INLINE
+        private final boolean usesValue;
+        private final int maxIndex;
+        private final int literalLength;
+
+        private Template(String source) {
+            this.source = source;
+            this.blank = source == null || source.isBlank();
+
+            List<String> literalList = new ArrayList<>();
+            List<Integer> slotList = new ArrayList<>();
+            List<String> pathList = new ArrayList<>();
+            boolean nested = false;
+            StringBuilder literal = new StringBuilder();
+            int start = 0;
+            while (!blank) {
+                int open = source.indexOf("${", start);
+                if (open < 0) {
+                    literal.append(source, start, source.length());
+                    break;
+                }
+                literal.append(source, start, open);
+                int close = source.indexOf('}', open + 2);
+                if (close < 0) {
+                    // malformed, kept as text
+                    literal.append(source, open, source.length());
+                    break;
+                }
+                String token = source.substring(open + 2, close);
+                nested |= token.contains("${");
+                int index = index(token);
+                if (token.equals("value") || index > 0 || token.startsWith("$")) {
+                    literalList.add(literal.toString());
+                    literal.setLength(0);
+                    slotList.add(token.equals("value") ? VALUE : index > 0 ? index : INLINE);
+                    pathList.add(token.startsWith("$") ? token : null);
+                } else {
+                    // unknown tokens are left intact
+                    literal.append(source, open, close + 1);
+                }
+                start = close + 1;
+            }
+            literalList.add(literal.toString());
+
+            this.legacy = nested;
+            this.literals = literalList.toArray(new String[0]);
+            this.slots = slotList.stream().mapToInt(Integer::intValue).toArray();
+            this.inlinePaths = pathList.toArray(new String[0]);
+            this.usesValue = slotList.contains(VALUE);
+            this.maxIndex = Math.max(0, slotList.stream().mapToInt(Integer::intValue).max().orElse(0)); // INLINE < 0
+            this.literalLength = literalList.stream().mapToInt(String::length).sum();
+        }
+
+        /** 1-based index of a ${n} token as format() writes it, 0 when the token is not one. */
+        private static int index(String token) {
+            if (token.isEmpty() || token.length() > 9 || token.charAt(0) < '1' || token.charAt(0) > '9') {
+                return 0;
+            }
+            for (int i = 1; i < token.length(); i++) {
+                if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+                    return 0;
+                }
+            }
+            return Integer.parseInt(token);
+        }
+
+        /** See {@link TemplateFormatter#format}. */
+        public String format(
+                String baseValue,
+                List<String> jsonPaths,
+                JaywayJsonFinder finder,
+                Function<String, String> baseNormalizer) {
+            if (blank) {
+                return baseValue == null ? "" : baseValue;
+            }
+            if (legacy) {
+                return TemplateFormatter.format(source, baseValue, jsonPaths, finder, baseNormalizer);
+            }
+
+            String base = "";
+            if (usesValue) {
+                base = baseValue == null ? "" : baseValue;
+                if (baseNormalizer != null) {
+                    base = baseNormalizer.apply(base);
+                    base = base == null ? "" : base;
+                }
+            }
+            int indexed = jsonPaths == null ? 0 : Math.min(maxIndex, jsonPaths.size());
+            String[] values = new String[indexed];
+            for (int i = 0; i < indexed; i++) {
+                values[i] = firstOrEmpty(resolveListScopedOrRoot(finder, jsonPaths.get(i)));
+            }
+            if (base.contains("${") || containsPlaceholder(values)) {
+                // substituted values are rescanned by format()
+                return TemplateFormatter.format(source, baseValue, jsonPaths, finder, baseNormalizer);
+            }
+
+            StringBuilder out = new StringBuilder(literalLength + 32 * slots.length);
+            for (int i = 0; i < slots.length; i++) {
+                out.append(literals[i]);
+                int slot = slots[i];
+                if (slot == VALUE) {
+                    out.append(base);
+                } else if (slot == INLINE) {
+                    out.append(firstOrEmpty(resolveListScopedOrRoot(finder, inlinePaths[i])));
+                } else if (slot <= indexed) {
+                    out.append(values[slot - 1]);
+                } else {
+                    // no jsonPath for this index: left intact
+                    out.append("${").append(slot).append('}');
+                }
+            }
+            return out.append(literals[slots.length]).toString();
+        }
+
+        private static boolean containsPlaceholder(String[] values) {
+            for (String value : values) {
+                if (value.contains("${")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+
+    /** Inline JSONPath placeholders (${$.path} / ${$$.path}) of a template, in order of appearance. */
+    static List<String> inlinePaths(String template) {
+        if (template == null || template.isEmpty()) {
+            return List.of();
+        }
+        List<String> out = new ArrayList<>();
+        int start = 0;
+        while (true) {
+            int open = template.indexOf("${", start);
+            if (open < 0) {
+                break;
+            }
+            int close = template.indexOf("}", open + 2);
+            if (close < 0) {
+                break;
+            }
+            String token = template.substring(open + 2, close);
+            if (token.startsWith("$")) {
+                out.add(token);
+            }
+            start = close + 1;
+        }
+        return out;
+    }
+
     /** If JSONPath starts with "$$", query original root; else, current scope. */
     static List<String> resolveListScopedOrRoot(JaywayJsonFinder finder, String jsonPath) {
         if (finder == null || jsonPath == null) {
@@ -0,0 +1,162 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+
+/**
+ * Collects the triples emitted by a {@link MappingProgram} and adds them to a {@link Graph} in
+ * batches, so the graph sees one bulk add (and one event notification) per batch instead of one
+ * Model/Resource round trip per statement. Object nodes minted from input values are interned
+ * through the program's and the export's {@link NodeCache}.
+ *
+ * <p>Not thread-safe; one sink per mapping run.
+ */
+final class TripleSink {
+
+    static final int BATCH_SIZE = 1024;
+
+    private Graph graph;
+    private final NodeCache constants; // per program, read-only
+    private final NodeCache nodes; // per export
+    private final BlankNodeLabels labels; // null: anonymous blank nodes
+    private final String element;
+    private int scope;
+    private String scopePath; // nested scopes only: indexes from the outermost level, e.g. "3/17"
+    private int blankNodes; // minted in the current scope
+    private final List<Triple> batch = new ArrayList<>(BATCH_SIZE);
+    private Map<MappingSteps.NodeStep, List<Node>> materialized; // scope-invariant nodes built in this run
+    private Map<AggregateGroup, List<List<String>>> aggregates; // of this scope; root groups of this run
+    private Map<LookupIndex, Map<String, List<String>>> lookupIndexes; // over scoped arrays, of this scope
+
+    TripleSink(Graph graph, NodeCache constants, NodeCache nodes, BlankNodeLabels labels, String element) {
+        this.graph = graph;
+        this.constants = constants;
+        this.nodes = nodes;
+        this.labels = labels;
+        this.element = element;
+    }
+
+    /**
+     * Send the triples of the following scopes to {@code target}, e.g. a fragment graph of one
+     * scope. Scope-invariant nodes are built again for it, so every target holds complete nodes.
+     */
+    void target(Graph target) {
+        flush();
+        this.graph = target;
+        this.materialized = null;
+    }
+
+    /** Start scope {@code index} of the run (0 for unscoped elements). */
+    void scope(int index) {
+        this.scope = index;
+        start(null);
+    }
+
+    /** Start a nested scope of the current outermost scope, {@code path} being its indexes from there. */
+    void scope(String path) {
+        start(path);
+    }
+
+    /** Index of the current outermost scope. */
+    int scopeIndex() {
+        return scope;
+    }
+
+    private void start(String path) {
+        this.scopePath = path;
+        this.blankNodes = 0;
+        if (aggregates != null) {
+            aggregates.keySet().removeIf(group -> !group.root());
+        }
+        if (lookupIndexes != null) {
+            lookupIndexes.clear();
+        }
+    }
+
+    /**
+     * A blank node minted by {@code template} ({@code subject} or a node template id): anonymous, or
+     * labelled from element, scope index, template and its sequence number in the scope.
+     */
+    Node blank(String template) {
+        int sequence = blankNodes++;
+        if (labels == null) {
+            return NodeFactory.createBlankNode();
+        }
+        return labels.mint(element, scopePath != null ? scopePath : Integer.toString(scope), template, sequence);
+    }
+
+    void add(Node subject, Node predicate, Node object) {
+        batch.add(Triple.create(subject, predicate, object));
+        if (batch.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /** Interned IRI node for a value read or mapped at run time. */
+    Node iri(String iri) {
+        Node node = constants.cachedIri(iri);
+        return node != null ? node : nodes.iri(iri);
+    }
+
+    /** Interned literal node for a value read or mapped at run time. */
+    Node literal(String lexical, RDFDatatype datatype, String lang) {
+        NodeCache.LiteralKey key = new NodeCache.LiteralKey(lexical, datatype, lang);
+        Node node = constants.cachedLiteral(key);
+        return node != null ? node : nodes.literal(key);
+    }
+
+    /** @return the nodes a scope-invariant node step built earlier in this run, null before that */
+    List<Node> materialized(MappingSteps.NodeStep step) {
+        return materialized == null ? null : materialized.get(step);
+    }
+
+    void materialize(MappingSteps.NodeStep step, List<Node> nodes) {
+        if (materialized == null) {
+            materialized = new IdentityHashMap<>();
+        }
+        materialized.put(step, nodes);
+    }
+
+    /** The results of {@code group} for the current scope, computed in one pass on first use. */
+    List<List<String>> aggregates(AggregateGroup group, JaywayJsonFinder finder) {
+        if (aggregates == null) {
+            aggregates = new IdentityHashMap<>();
+        }
+        List<List<String>> results = aggregates.get(group);
+        if (results == null) {
+            results = group.compute(finder);
+            aggregates.put(group, results);
+        }
+        return results;
+    }
+
+    /** The index over a scoped array for the current scope, built on first use. */
+    Map<String, List<String>> lookupIndex(LookupIndex index, JaywayJsonFinder finder) {
+        if (lookupIndexes == null) {
+            lookupIndexes = new HashMap<>();
+        }
+        return lookupIndexes.computeIfAbsent(index, lookup -> lookup.build(finder));
+    }
+
+    void flush() {
+        if (!batch.isEmpty()) {
+            GraphUtil.add(graph, batch);
+            batch.clear();
+        }
+    }
+
+    /** The target graph with every pending triple added. */
+    Graph graph() {
+        flush();
+        return graph;
+    }
+}
@@ -0,0 +1,238 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.dcat3.mapping.MappingSteps.listScopedOrRoot;
+
+import io.gdcc.spi.export.dcat3.config.model.Transform;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@code transform} pipeline compiled into an array of functions, run on each value before map
+ * and format.
+ *
+ * <p>Functions are resolved once by {@link MappingCompiler}; a value a function cannot handle (an
+ * unparsable date or number) yields null and is dropped. Date patterns are compiled into
+ * {@link DateTimeFormatter}s (immutable, thread-safe) cached JVM-wide by pattern. Numbers in plain
+ * integer form, the common byte size, are canonicalized with {@code long} arithmetic; only other
+ * forms go through {@link BigDecimal}.
+ */
+final class ValueTransform {
+
+    /** ISO date, optionally followed by {@code T}, a time and an offset. */
+    private static final DateTimeFormatter ISO = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart()
+            .appendLiteral('T')
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .optionalStart()
+            .appendOffsetId()
+            .optionalEnd()
+            .optionalEnd()
+            .toFormatter(Locale.ROOT);
+
+    private static final Map<String, DateTimeFormatter> PATTERNS = new ConcurrentHashMap<>();
+
+    /** One function of the pipeline. */
+    @FunctionalInterface
+    interface Function {
+        /** @return the transformed value, null when the value cannot be transformed */
+        String apply(String value, JaywayJsonFinder finder);
+    }
+
+    private final Function[] functions;
+    private final boolean readsPaths;
+
+    private ValueTransform(Function[] functions, boolean readsPaths) {
+        this.functions = functions;
+        this.readsPaths = readsPaths;
+    }
+
+    /**
+     * @param transforms the parsed pipeline
+     * @param jsonPaths {@code json.N} of the value source; four of them feed {@code wkt-bbox}
+     * @return the compiled pipeline, null when {@code transforms} is empty
+     */
+    static ValueTransform compile(List<Transform> transforms, List<String> jsonPaths) {
+        if (transforms.isEmpty()) {
+            return null;
+        }
+        boolean corners = jsonPaths != null && jsonPaths.size() == 4;
+        Function[] functions = new Function[transforms.size()];
+        boolean readsPaths = false;
+        for (int i = 0; i < functions.length; i++) {
+            Transform transform = transforms.get(i);
+            functions[i] = function(transform, corners ? jsonPaths : null);
+            readsPaths |= corners && i == 0 && Transform.WKT_BBOX.equals(transform.function());
+        }
+        return new ValueTransform(functions, readsPaths);
+    }
+
+    /** True when the pipeline starts with {@code wkt-bbox} over four {@code json.N}: it needs no base value. */
+    boolean readsPaths() {
+        return readsPaths;
+    }
+
+    String apply(String value, JaywayJsonFinder finder) {
+        String out = value;
+        for (Function function : functions) {
+            if (out == null) {
+                return null;
+            }
+            out = function.apply(out, finder);
+        }
+        return out;
+    }
+
+    private static Function function(Transform transform, List<String> corners) {
+        return switch (transform.function()) {
+            case Transform.LOWER -> (value, finder) -> value.toLowerCase(Locale.ROOT);
+            case Transform.UPPER -> (value, finder) -> value.toUpperCase(Locale.ROOT);
+            case Transform.NORMALIZE -> (value, finder) -> normalize(value);
+            case Transform.URL_ENCODE -> (value, finder) ->
+                    URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+            case Transform.NUMBER -> (value, finder) -> number(value, false);
+            case Transform.INTEGER -> (value, finder) -> number(value, true);
+            case Transform.DATE, Transform.DATETIME -> {
+                DateTimeFormatter parser = transform.argument() == null
+                        ? ISO
+                        : PATTERNS.computeIfAbsent(
+                                transform.argument(), pattern -> DateTimeFormatter.ofPattern(pattern, Locale.ROOT));
+                boolean dateTime = Transform.DATETIME.equals(transform.function());
+                yield (value, finder) -> date(value.trim(), parser, dateTime);
+            }
+            case Transform.WKT_BBOX -> corners == null
+                    ? (value, finder) -> wktBox(value.trim().split("[\\s,;]+"))
+                    : (value, finder) -> wktBox(read(corners, finder));
+            default -> (value, finder) -> null; // DCATRSC-116
+        };
+    }
+
+    /** NFC, runs of whitespace collapsed to one space, trimmed. */
+    private static String normalize(String value) {
+        String nfc = Normalizer.isNormalized(value, Normalizer.Form.NFC)
+                ? value
+                : Normalizer.normalize(value, Normalizer.Form.NFC);
+        if (collapsed(nfc)) {
+            return nfc;
+        }
+        StringBuilder out = new StringBuilder(nfc.length());
+        boolean pending = false;
+        for (int i = 0; i < nfc.length(); i++) {
+            char c = nfc.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pending = out.length() > 0;
+            } else {
+                if (pending) {
+                    out.append(' ');
+                    pending = false;
+                }
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /** True when the only whitespace is single spaces between other characters. */
+    private static boolean collapsed(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)
+                    && (c != ' ' || i == 0 || i == s.length() - 1 || s.charAt(i - 1) == ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Canonical decimal: no leading zeros or plus sign, no trailing fraction zeros, no exponent;
+     * {@code truncate} drops the fraction.
+     */
+    private static String number(String value, boolean truncate) {
+        String s = value.trim();
+        int digits = s.length() - (s.startsWith("-") || s.startsWith("+") ? 1 : 0);
+        if (digits > 0 && digits <= 18 && allDigits(s, s.length() - digits)) {
+            return Long.toString(Long.parseLong(s));
+        }
+        BigDecimal number = MappingSteps.number(s);
+        if (number == null || Math.abs((long) number.scale()) > 1000 || number.precision() > 1000) {
+            return null; // not a number, or a plain form of unreasonable length
+        }
+        if (truncate) {
+            return number.setScale(0, RoundingMode.DOWN).toPlainString();
+        }
+        BigDecimal stripped = number.stripTrailingZeros();
+        return (stripped.scale() < 0 ? stripped.setScale(0) : stripped).toPlainString();
+    }
+
+    private static boolean allDigits(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** xsd:date, or xsd:dateTime (with offset when the input has one); dates become midnight. */
+    private static String date(String value, DateTimeFormatter parser, boolean dateTime) {
+        TemporalAccessor parsed;
+        try {
+            parsed = parser.parseBest(value, OffsetDateTime::from, LocalDateTime::from, LocalDate::from);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        if (!dateTime) {
+            return LocalDate.from(parsed).toString();
+        }
+        if (parsed instanceof OffsetDateTime offset) {
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(offset);
+        }
+        LocalDateTime local = parsed instanceof LocalDate date ? date.atStartOfDay() : (LocalDateTime) parsed;
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(local);
+    }
+
+    private static String[] read(List<String> paths, JaywayJsonFinder finder) {
+        String[] values = new String[paths.size()];
+        for (int i = 0; i < values.length; i++) {
+            List<String> found = listScopedOrRoot(finder, paths.get(i));
+            values[i] = found.isEmpty() ? null : found.get(0);
+        }
+        return values;
+    }
+
+    /** WKT polygon of a box given as west, south, east, north; null unless all four are numbers. */
+    private static String wktBox(String[] corners) {
+        if (corners.length != 4) {
+            return null;
+        }
+        String[] c = new String[4];
+        for (int i = 0; i < 4; i++) {
+            c[i] = corners[i] == null ? null : number(corners[i], false);
+            if (c[i] == null) {
+                return null;
+            }
+        }
+        String west = c[0];
+        String south = c[1];
+        String east = c[2];
+        String north = c[3];
+        return "POLYGON((" + west + " " + south + ", " + east + " " + south + ", " + east + " " + north + ", "
+                + west + " " + north + ", " + west + " " + south + "))";
+    }
+}
@@ -4,10 +4,13 @@ import static io.gdcc.spi.export.util.TestUtil.getExportDataProvider;
 import static io.gdcc.spi.export.util.TestUtil.readModel;
 import static io.gdcc.spi.export.util.TestUtil.toValidationReport;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import io.gdcc.spi.export.ExportDataProvider;
+import io.gdcc.spi.export.ExportException;
 import io.gdcc.spi.export.Exporter;
 import io.gdcc.spi.export.dcat3.config.loader.RootConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Paging;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.net.URISyntaxException;
@@ -17,9 +20,13 @@ import java.nio.file.Path;
 import java.util.Locale;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.shacl.ShaclValidator;
 import org.apache.jena.shacl.ValidationReport;
+import org.apache.jena.vocabulary.RDF;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -136,6 +143,85 @@ class Dcat3ExporterTest {
         assertThat(exporter.getDisplayName(Locale.ROOT)).isEqualTo("DCAT-AP-NL (Turtle)");
     }
 
+    @Test
+    void exportPage_maps_one_slice_of_a_paged_element_per_page() throws Exception {
+        Path rootFile = temp.resolve("dcat-root.properties");
+        Files.writeString(
+                rootFile,
+                """
+            prefix.dcat = http://www.w3.org/ns/dcat#
+            prefix.dct  = http://purl.org/dc/terms/
+            dcat.page.iri = https://example.org/export?page=${value}
+            element.dataset.id   = dataset
+            element.dataset.type = dcat:Dataset
+            element.dataset.file = dcat-dataset.properties
+            element.distribution.id   = distribution
+            element.distribution.type = dcat:Distribution
+            element.distribution.file = dcat-distribution.properties
+            element.distribution.page.size = 2
+            element.catalog.id   = catalog
+            element.catalog.type = dcat:Catalog
+            element.catalog.file = dcat-catalog.properties
+            relation.dataset_has_distribution.subject   = dataset
+            relation.dataset_has_distribution.predicate = dcat:distribution
+            relation.dataset_has_distribution.object    = distribution
+            """);
+        Files.writeString(
+                temp.resolve("dcat-dataset.properties"),
+                """
+            subject.iri.const = https://example.org/dataset
+            props.title.predicate = dct:title
+            props.title.const = Dataset
+            """);
+        Files.writeString(temp.resolve("dcat-catalog.properties"), "subject.iri.const = https://example.org/catalog");
+        Files.writeString(
+                temp.resolve("dcat-distribution.properties"),
+                """
+            scope.json = $.datasetFileDetails[*]
+            subject.iri.json = $.id
+            subject.iri.format = https://example.org/file/${value}
+            props.title.predicate = dct:title
+            props.title.json = $.filename
+            """);
+        System.setProperty(RootConfigLoader.SYS_PROP, rootFile.toString());
+        ExportDataProvider provider = getExportDataProvider("src/test/resources/input/export_data_source_lightweight");
+        Dcat3ExporterBase exporter = new Dcat3ExporterTurtle();
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        exporter.exportDataset(provider, first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        exporter.exportPage(provider, 1, second);
+
+        Model page0 = readModel(first.toByteArray(), Lang.TURTLE);
+        Model page1 = readModel(second.toByteArray(), Lang.TURTLE);
+        Resource dataset = page0.createResource("https://example.org/dataset");
+        Property distribution = page0.createProperty("http://www.w3.org/ns/dcat#distribution");
+        Resource pageIri0 = page0.createResource("https://example.org/export?page=0");
+        Resource pageIri1 = page0.createResource("https://example.org/export?page=1");
+
+        assertThat(page0.contains(dataset, RDF.type, (RDFNode) null)).isTrue();
+        assertThat(page0.listStatements(dataset, distribution, (RDFNode) null).toList()).hasSize(2);
+        assertThat(page0.contains(pageIri0, page0.createProperty(Paging.HYDRA_NEXT), pageIri1)).isTrue();
+
+        assertThat(page0.contains(page0.createResource("https://example.org/catalog"), RDF.type, (RDFNode) null))
+                .isTrue();
+
+        // beyond page 0 the dataset only contributes its links to the distributions of the page
+        assertThat(page1.contains(dataset, RDF.type, (RDFNode) null)).isFalse();
+        assertThat(page1.contains(dataset, page1.createProperty("http://purl.org/dc/terms/title"), (RDFNode) null))
+                .isFalse();
+        assertThat(page1.contains(page1.createResource("https://example.org/catalog"), null, (RDFNode) null))
+                .isFalse();
+        assertThat(page1.listStatements(dataset, distribution, (RDFNode) null).toList()).hasSize(1);
+        assertThat(page1.contains(dataset, distribution, page1.createResource("https://example.org/file/6")))
+                .isTrue();
+        assertThat(page1.contains(pageIri1, page1.createProperty(Paging.HYDRA_PREVIOUS), pageIri0)).isTrue();
+        assertThat(page1.contains(pageIri1, page1.createProperty(Paging.HYDRA_NEXT), (RDFNode) null)).isFalse();
+
+        assertThatThrownBy(() -> exporter.exportPage(provider, 2, new ByteArrayOutputStream()))
+                .isInstanceOf(ExportException.class);
+    }
+
     /** Simple factory mapping the csv 'formatKey' to an exporter instance. */
     private static Dcat3ExporterBase createExporter(String key) {
         return (Dcat3ExporterBase)
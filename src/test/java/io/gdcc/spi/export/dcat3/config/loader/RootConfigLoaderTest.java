@@ -4,13 +4,18 @@ import static io.gdcc.spi.export.dcat3.config.loader.FileResolver.resolveElement
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import io.gdcc.spi.export.dcat3.config.model.Cache;
+import io.gdcc.spi.export.dcat3.config.model.Element;
 import io.gdcc.spi.export.dcat3.config.model.FormatFlags;
+import io.gdcc.spi.export.dcat3.config.model.Grouping;
+import io.gdcc.spi.export.dcat3.config.model.Paging;
 import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
 import io.gdcc.spi.export.dcat3.config.model.RootConfig;
 import io.gdcc.spi.export.dcat3.config.model.ValueSource;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -58,6 +63,10 @@ public class RootConfigLoaderTest {
 
         // Assert: root-level settings
         assertThat(rootConfig.trace()).isTrue();
+        assertThat(rootConfig.deepScanRewrite()).isFalse();
+        assertThat(rootConfig.cacheElements()).isFalse();
+        assertThat(rootConfig.cache()).isNull();
+        assertThat(rootConfig.strictIris()).isFalse();
         assertThat(rootConfig.prefixes())
                 .containsEntry("dcat", "http://www.w3.org/ns/dcat#")
                 .containsEntry("dct", "http://purl.org/dc/terms/");
@@ -88,6 +97,99 @@ public class RootConfigLoaderTest {
         }
     }
 
+    @Test
+    void parses_element_grouping() throws Exception {
+        Path rootFile = temp.resolve("dcat-root-grouped.properties");
+        Files.writeString(
+                rootFile,
+                """
+            prefix.dcat = http://www.w3.org/ns/dcat#
+            element.distribution.id   = distribution
+            element.distribution.type = dcat:Distribution
+            element.distribution.file = dcat-distribution.properties
+            element.distribution.group.threshold = 500
+            element.distribution.group.by        = $.contentType
+            element.distribution.group.file      = dcat-distribution-grouped.properties
+            element.dataset.id   = dataset
+            element.dataset.type = dcat:Dataset
+            element.dataset.file = dcat-dataset.properties
+            """);
+        System.setProperty(RootConfigLoader.SYS_PROP, rootFile.toString());
+
+        RootConfig rootConfig = RootConfigLoader.load();
+
+        assertThat(rootConfig.elements()).extracting(Element::id).containsExactlyInAnyOrder("dataset", "distribution");
+        for (Element element : rootConfig.elements()) {
+            if (element.id().equals("dataset")) {
+                assertThat(element.grouping()).isNull();
+            } else {
+                assertThat(element.grouping())
+                        .isEqualTo(new Grouping(500, "$.contentType", "dcat-distribution-grouped.properties"));
+            }
+        }
+    }
+
+    @Test
+    void parses_paging() throws Exception {
+        Path rootFile = temp.resolve("dcat-root-paged.properties");
+        Files.writeString(
+                rootFile,
+                """
+            prefix.dcat = http://www.w3.org/ns/dcat#
+            prefix.as   = https://www.w3.org/ns/activitystreams#
+            dcat.page.iri  = https://example.org/export?page=${value}
+            dcat.page.next = as:next
+            element.distribution.id   = distribution
+            element.distribution.type = dcat:Distribution
+            element.distribution.file = dcat-distribution.properties
+            element.distribution.page.size = 1000
+            """);
+        System.setProperty(RootConfigLoader.SYS_PROP, rootFile.toString());
+
+        RootConfig rootConfig = RootConfigLoader.load();
+
+        assertThat(rootConfig.elements().get(0).pageSize()).isEqualTo(1000L);
+        assertThat(rootConfig.paging())
+                .isEqualTo(new Paging("https://example.org/export?page=${value}", "as:next", Paging.HYDRA_PREVIOUS));
+    }
+
+    @Test
+    void parses_element_cache_option() throws Exception {
+        Path rootFile = temp.resolve("dcat-root-cached.properties");
+        Files.writeString(
+                rootFile,
+                """
+            dcat.optimize.cacheElements = true
+            element.catalog.id   = catalog
+            element.catalog.type = dcat:Catalog
+            element.catalog.file = dcat-catalog.properties
+            """);
+        System.setProperty(RootConfigLoader.SYS_PROP, rootFile.toString());
+
+        assertThat(RootConfigLoader.load().cacheElements()).isTrue();
+    }
+
+    @Test
+    void parses_cache_relative_to_root_dir() throws Exception {
+        Path rootFile = temp.resolve("dcat-root-cache.properties");
+        Files.writeString(
+                rootFile,
+                """
+            dcat.cache.dir = cache/dcat
+            element.catalog.id   = catalog
+            element.catalog.type = dcat:Catalog
+            element.catalog.file = dcat-catalog.properties
+            """);
+        System.setProperty(RootConfigLoader.SYS_PROP, rootFile.toString());
+
+        RootConfig root = RootConfigLoader.load();
+        assertThat(root.cache().dir()).isEqualTo(temp.resolve("cache/dcat"));
+        assertThat(root.cache().maxMegabytes()).isEqualTo(Cache.DEFAULT_MAX_MEGABYTES);
+
+        Files.writeString(rootFile, "dcat.cache.maxMegabytes = 64\n", StandardOpenOption.APPEND);
+        assertThat(RootConfigLoader.load().cache().maxMegabytes()).isEqualTo(64);
+    }
+
     @Test
     void resolves_root_from_cwd_when_not_absolute() throws Exception {
         // Arrange: create root under the temp dir and set SYS_PROP to a relative name
@@ -3,14 +3,22 @@ package io.gdcc.spi.export.dcat3.config.validate;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
+import io.gdcc.spi.export.dcat3.config.model.BlankNodes;
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.model.Cache;
 import io.gdcc.spi.export.dcat3.config.model.Element;
+import io.gdcc.spi.export.dcat3.config.model.Grouping;
+import io.gdcc.spi.export.dcat3.config.model.Paging;
 import io.gdcc.spi.export.dcat3.config.model.Relation;
 import io.gdcc.spi.export.dcat3.config.model.RootConfig;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -52,4 +60,106 @@ class RootConfigValidatorTest {
         List<ValidationMessage> messages = validator.validate(root);
         assertThat(messages).extracting(ValidationMessage::code).contains("DCATCFG-015", "DCATCFG-016");
     }
+
+    @Test
+    @DisplayName("RootConfigValidator rejects a grouping without a positive threshold or a group file")
+    void rootConfig_invalid_grouping() {
+        RootConfigValidator validator = new RootConfigValidator();
+        when(root.prefixes()).thenReturn(Map.of("dcat", "http://www.w3.org/ns/dcat#"));
+        when(element.id()).thenReturn("distribution");
+        when(element.typeCurieOrIri()).thenReturn("dcat:Distribution");
+        when(element.file()).thenReturn("distribution.properties");
+        when(root.elements()).thenReturn(List.of(element));
+        when(root.relations()).thenReturn(List.of());
+
+        when(element.grouping()).thenReturn(new Grouping(0, "$.contentType", null));
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).contains("DCATCFG-017");
+
+        when(element.grouping()).thenReturn(new Grouping(500, "$.contentType", "distribution-grouped.properties"));
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).doesNotContain("DCATCFG-017");
+    }
+
+    @Test
+    @DisplayName("RootConfigValidator rejects bad page sizes, paging without page IRIs and unknown page links")
+    void rootConfig_invalid_paging() {
+        RootConfigValidator validator = new RootConfigValidator();
+        when(root.prefixes()).thenReturn(Map.of("dcat", "http://www.w3.org/ns/dcat#"));
+        when(element.id()).thenReturn("distribution");
+        when(element.typeCurieOrIri()).thenReturn("dcat:Distribution");
+        when(element.file()).thenReturn("distribution.properties");
+        when(root.elements()).thenReturn(List.of(element));
+        when(root.relations()).thenReturn(List.of());
+
+        when(element.pageSize()).thenReturn(-1L);
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).contains("DCATCFG-018");
+
+        when(element.pageSize()).thenReturn(1000L);
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).contains("DCATCFG-019");
+
+        String pageIri = "https://example.org/export?page=${value}";
+        when(root.paging()).thenReturn(new Paging(pageIri, "hydra:next", Paging.HYDRA_PREVIOUS));
+        assertThat(validator.validate(root))
+                .extracting(ValidationMessage::code)
+                .contains("DCATCFG-034")
+                .doesNotContain("DCATCFG-018", "DCATCFG-019");
+
+        when(root.paging()).thenReturn(new Paging(pageIri, Paging.HYDRA_NEXT, Paging.HYDRA_PREVIOUS));
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).doesNotContain("DCATCFG-034");
+    }
+
+    @Test
+    @DisplayName("RootConfigValidator rejects negative budget limits and unknown budget actions")
+    void rootConfig_invalid_budget() {
+        RootConfigValidator validator = new RootConfigValidator();
+        when(root.prefixes()).thenReturn(Map.of("dcat", "http://www.w3.org/ns/dcat#"));
+        when(root.elements()).thenReturn(List.of());
+        when(root.relations()).thenReturn(List.of());
+        when(root.budget()).thenReturn(new Budget(-1, 0, 0, 0, "retry"));
+
+        List<ValidationMessage> messages = validator.validate(root);
+        assertThat(messages).extracting(ValidationMessage::code).contains("DCATCFG-030", "DCATCFG-031");
+    }
+
+    @Test
+    @DisplayName("RootConfigValidator rejects unknown blank node labelling and skolem without a base")
+    void rootConfig_invalid_blank_nodes() {
+        RootConfigValidator validator = new RootConfigValidator();
+        when(root.prefixes()).thenReturn(Map.of("dcat", "http://www.w3.org/ns/dcat#"));
+        when(root.elements()).thenReturn(List.of());
+        when(root.relations()).thenReturn(List.of());
+
+        when(root.blankNodes()).thenReturn(new BlankNodes("random", null));
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).contains("DCATCFG-032");
+
+        when(root.blankNodes()).thenReturn(new BlankNodes(BlankNodes.SKOLEM, null));
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).contains("DCATCFG-033");
+
+        when(root.blankNodes()).thenReturn(new BlankNodes(BlankNodes.SKOLEM, "https://example.org/genid/"));
+        assertThat(validator.validate(root).stream()
+                        .filter(message -> message.code().equals("DCATCFG-033"))
+                        .map(ValidationMessage::severity)
+                        .toList())
+                .containsExactly(Severity.WARNING);
+    }
+
+    @Test
+    @DisplayName("RootConfigValidator rejects negative cache sizes and cache directories that are not directories")
+    void rootConfig_invalid_cache(@TempDir Path dir) throws Exception {
+        RootConfigValidator validator = new RootConfigValidator();
+        when(root.prefixes()).thenReturn(Map.of("dcat", "http://www.w3.org/ns/dcat#"));
+        when(root.elements()).thenReturn(List.of());
+        when(root.relations()).thenReturn(List.of());
+
+        when(root.cache()).thenReturn(new Cache(dir.resolve("created-on-first-use"), -1));
+        assertThat(validator.validate(root))
+                .extracting(ValidationMessage::code)
+                .contains("DCATCFG-035")
+                .doesNotContain("DCATCFG-036");
+
+        when(root.cache()).thenReturn(new Cache(Files.writeString(dir.resolve("file"), "x"), 256));
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).contains("DCATCFG-036");
+
+        when(root.cache()).thenReturn(new Cache(null, 256));
+        assertThat(validator.validate(root)).extracting(ValidationMessage::code).contains("DCATCFG-036");
+    }
 }
@@ -0,0 +1,158 @@
+package io.gdcc.spi.export.dcat3.config.validate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gdcc.spi.export.dcat3.config.model.Aggregate;
+import io.gdcc.spi.export.dcat3.config.model.Condition;
+import io.gdcc.spi.export.dcat3.config.model.Lookup;
+import io.gdcc.spi.export.dcat3.config.model.ValueSource;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ValueSourceValidatorTest {
+
+    private static ValueSource valueSource(String json, String when, Aggregate aggregate) {
+        return valueSource(json, when, aggregate, null);
+    }
+
+    private static ValueSource valueSource(String json, String when, Aggregate aggregate, Lookup lookup) {
+        return new ValueSource(
+                "dct:title", "literal", null, null, json, null, null, null, false, when, null, null, null, null, null,
+                null, aggregate, lookup, null, null);
+    }
+
+    private static List<ValidationMessage> validate(ValueSource valueSource) {
+        return new ValueSourceValidator(Map.of("dct", "http://purl.org/dc/terms/"), "props.title")
+                .validate(valueSource);
+    }
+
+    private static List<ValidationMessage> validate(String when) {
+        return validate(valueSource("$.title", when, null));
+    }
+
+    private static List<String> codes(Aggregate aggregate) {
+        return validate(valueSource(null, null, aggregate)).stream()
+                .map(ValidationMessage::code)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Well-formed when conditions pass validation")
+    void valid_when() {
+        assertThat(validate("$.restricted")).isEmpty();
+        assertThat(validate("!$.restricted && $$.datasetVersion.versionState == 'RELEASED'")).isEmpty();
+        assertThat(validate("$.filesize >= 1024 || ($.contentType != \"text/plain\")")).isEmpty();
+        assertThat(validate("$.files[?(@.label == 'a b')].id")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Malformed when conditions are errors")
+    void invalid_when() {
+        for (String when : List.of("restricted", "$.a ==", "($.a", "$.a == 'x", "$.a && && $.b", "$.a[0")) {
+            assertThat(validate(when))
+                    .as(when)
+                    .extracting(ValidationMessage::code)
+                    .containsExactly("DCATRSC-107");
+        }
+    }
+
+    @Test
+    @DisplayName("when conditions parse with && binding tighter than ||")
+    void when_precedence() {
+        Condition condition = Condition.parse("$.a || $.b && !$.c == 1");
+
+        assertThat(condition)
+                .isEqualTo(new Condition.Any(List.of(
+                        new Condition.Exists("$.a"),
+                        new Condition.All(List.of(
+                                new Condition.Exists("$.b"),
+                                new Condition.Not(new Condition.Compare(
+                                        "$.c", Condition.Operator.EQ, new Condition.Operand(null, "1"))))))));
+        assertThat(condition.paths()).containsExactly("$.a", "$.b", "$.c");
+    }
+
+    @Test
+    @DisplayName("Aggregates are a value source and their function, array, field and filter are checked")
+    void aggregates() {
+        assertThat(codes(new Aggregate("count", "$$.datasetFileDetails", null, null))).isEmpty();
+        assertThat(codes(new Aggregate("sum", "$$.datasetFileDetails", "$.filesize", "$.restricted != true")))
+                .isEmpty();
+        assertThat(codes(new Aggregate("median", "$$.datasetFileDetails", "$.filesize", null)))
+                .containsExactly("DCATRSC-108");
+        assertThat(codes(new Aggregate("count", null, null, null))).containsExactly("DCATRSC-109");
+        assertThat(codes(new Aggregate("distinct", "$$.datasetFileDetails", null, null)))
+                .containsExactly("DCATRSC-109");
+        assertThat(codes(new Aggregate("max", "$$.datasetFileDetails", "$$.filesize", null)))
+                .containsExactly("DCATRSC-109");
+        assertThat(codes(new Aggregate("any", "$$.datasetFileDetails", null, "restricted")))
+                .containsExactly("DCATRSC-110");
+    }
+
+    @Test
+    @DisplayName("Lookups need index, key and value paths and json keys")
+    void lookups() {
+        Lookup ore = new Lookup("$$.ore['ore:aggregates']", "$['schema:sameAs']", "$['@id']");
+
+        assertThat(validate(valueSource("$.dataFile.persistentId", null, null, ore)))
+                .isEmpty();
+        assertThat(validate(valueSource("$.dataFile.persistentId", null, null, new Lookup("$$.ore", null, "$.x"))))
+                .extracting(ValidationMessage::code)
+                .containsExactly("DCATRSC-111");
+        assertThat(validate(valueSource(
+                        "$.dataFile.persistentId", null, null, new Lookup("$$.ore", "$$.id", "$.x"))))
+                .extracting(ValidationMessage::code)
+                .containsExactly("DCATRSC-111");
+        assertThat(validate(valueSource(null, null, null, ore)))
+                .extracting(ValidationMessage::code)
+                .contains("DCATRSC-112");
+    }
+
+    @Test
+    @DisplayName("Map regexes must compile without back-references; empty patterns are warned about")
+    void map_patterns() {
+        Map<String, String> map = new java.util.LinkedHashMap<>();
+        map.put("regex.text/.*", "text");
+        map.put("regex.(unclosed", "x");
+        map.put("regex.(a)\\1", "y");
+        map.put("prefix.", "z");
+        ValueSource valueSource = new ValueSource(
+                "dct:title", "literal", null, null, "$.title", null, null, null, false, null, map, null, null, null,
+                null, null, null, null, null, null);
+
+        assertThat(validate(valueSource))
+                .extracting(ValidationMessage::code)
+                .containsExactly("DCATRSC-113", "DCATRSC-113", "DCATRSC-114");
+    }
+
+    @Test
+    @DisplayName("A code list must be readable")
+    void code_list() {
+        ValueSource missing = new ValueSource(
+                "dct:title", "literal", null, null, "$.title", null, null, null, false, null, null, null, null, null,
+                null, null, null, null, "no-such-code-list.tsv", null);
+
+        assertThat(validate(missing)).extracting(ValidationMessage::code).containsExactly("DCATRSC-115");
+    }
+
+    @Test
+    @DisplayName("Transforms must name known functions; only date and datetime take a valid pattern")
+    void transforms() {
+        for (String valid : new String[] {"lower", " normalize | LOWER ", "datetime(dd-MM-yyyy HH:mm)", "date()"}) {
+            assertThat(validate(transform(valid))).as(valid).isEmpty();
+        }
+        for (String invalid : new String[] {"lowercase", "lower |", "upper(x)", "date(yyyy-MM-dd", "date(qqqqqq)"}) {
+            assertThat(validate(transform(invalid)))
+                    .as(invalid)
+                    .extracting(ValidationMessage::code)
+                    .containsExactly("DCATRSC-116");
+        }
+    }
+
+    private static ValueSource transform(String transform) {
+        return new ValueSource(
+                "dct:title", "literal", null, null, "$.title", null, null, null, false, null, null, null, null, null,
+                null, null, null, null, null, transform);
+    }
+}
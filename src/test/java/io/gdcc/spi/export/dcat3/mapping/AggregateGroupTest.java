@@ -0,0 +1,139 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder.Options;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AggregateGroupTest {
+
+    private static final String DCT = "http://purl.org/dc/terms/";
+    private static final String DCAT = "http://www.w3.org/ns/dcat#";
+
+    private static final String FILES =
+            """
+        {"datasetFileDetails": [
+          {"filesize": 100, "contentType": "text/csv", "restricted": false},
+          {"filesize": 250, "contentType": "text/csv", "restricted": true},
+          {"filesize": 50, "contentType": "application/pdf", "restricted": false}
+        ]}
+        """;
+
+    private static Graph run(String properties, JsonNode input, EvaluationBudget budget) throws Exception {
+        ResourceConfig config;
+        try (InputStream in = new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        Prefixes prefixes = new Prefixes(Map.of(
+                "dct", DCT, "dcat", DCAT, "xsd", "http://www.w3.org/2001/XMLSchema#", "ex", "https://example.org/"));
+        return MappingCompiler.compile(config, prefixes, null)
+                .run(new JaywayJsonFinder(input, Options.NONE.withBudget(budget)));
+    }
+
+    private static List<String> objects(Graph graph, String predicate) {
+        return graph.find(Node.ANY, NodeFactory.createURI(predicate), Node.ANY).toList().stream()
+                .map(Triple::getObject)
+                .map(node -> node.isURI() ? node.getURI() : node.getLiteralLexicalForm())
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Aggregates over one array are computed in a single pass")
+    void aggregates_share_one_pass() throws Exception {
+        EvaluationBudget budget = new EvaluationBudget(Budget.UNLIMITED);
+
+        Graph graph = run(
+                """
+            subject.iri.const = https://example.org/dataset
+            props.count.predicate = ex:fileCount
+            props.count.datatype = xsd:integer
+            props.count.aggregate = count
+            props.count.aggregate.over = $$.datasetFileDetails
+            props.size.predicate = dcat:byteSize
+            props.size.aggregate = sum
+            props.size.aggregate.over = $$.datasetFileDetails
+            props.size.aggregate.field = $.filesize
+            props.largest.predicate = ex:largestFile
+            props.largest.aggregate = max
+            props.largest.aggregate.over = $$.datasetFileDetails
+            props.largest.aggregate.field = $.filesize
+            props.types.predicate = dcat:mediaType
+            props.types.aggregate = distinct
+            props.types.aggregate.over = $$.datasetFileDetails
+            props.types.aggregate.field = $.contentType
+            props.open.predicate = ex:openFiles
+            props.open.aggregate = count
+            props.open.aggregate.over = $$.datasetFileDetails
+            props.open.aggregate.filter = $.restricted != true
+            props.rights.predicate = dct:accessRights
+            props.rights.as = iri
+            props.rights.aggregate = any
+            props.rights.aggregate.over = $$.datasetFileDetails
+            props.rights.aggregate.field = $.restricted
+            props.rights.map.true = https://example.org/RESTRICTED
+            props.rights.map.false = https://example.org/PUBLIC
+            """,
+                new ObjectMapper().readTree(FILES),
+                budget);
+
+        assertThat(objects(graph, "https://example.org/fileCount")).containsExactly("3");
+        assertThat(objects(graph, DCAT + "byteSize")).containsExactly("400");
+        // numeric, not textual, maximum
+        assertThat(objects(graph, "https://example.org/largestFile")).containsExactly("250");
+        assertThat(objects(graph, DCAT + "mediaType")).containsExactlyInAnyOrder("text/csv", "application/pdf");
+        assertThat(objects(graph, "https://example.org/openFiles")).containsExactly("2");
+        assertThat(objects(graph, DCT + "accessRights")).containsExactly("https://example.org/RESTRICTED");
+        assertThat(budget.costs().get("$.datasetFileDetails").evaluations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Empty arrays give zero counts and sums, false any, true all and no min/max/distinct values")
+    void empty_array() throws Exception {
+        Graph graph = run(
+                """
+            subject.iri.const = https://example.org/dataset
+            props.count.predicate = ex:fileCount
+            props.count.aggregate = count
+            props.count.aggregate.over = $.datasetFileDetails
+            props.size.predicate = dcat:byteSize
+            props.size.aggregate = sum
+            props.size.aggregate.over = $.datasetFileDetails
+            props.size.aggregate.field = $.filesize
+            props.min.predicate = ex:smallestFile
+            props.min.aggregate = min
+            props.min.aggregate.over = $.datasetFileDetails
+            props.min.aggregate.field = $.filesize
+            props.any.predicate = ex:anyRestricted
+            props.any.aggregate = any
+            props.any.aggregate.over = $.datasetFileDetails
+            props.any.aggregate.field = $.restricted
+            props.all.predicate = ex:allRestricted
+            props.all.aggregate = all
+            props.all.aggregate.over = $.datasetFileDetails
+            props.all.aggregate.field = $.restricted
+            """,
+                new ObjectMapper().readTree("{\"datasetFileDetails\": []}"),
+                null);
+
+        assertThat(objects(graph, "https://example.org/fileCount")).containsExactly("0");
+        assertThat(objects(graph, DCAT + "byteSize")).containsExactly("0");
+        assertThat(objects(graph, "https://example.org/smallestFile")).isEmpty();
+        assertThat(objects(graph, "https://example.org/anyRestricted")).containsExactly("false");
+        assertThat(objects(graph, "https://example.org/allRestricted")).containsExactly("true");
+    }
+}
@@ -0,0 +1,139 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.BlankNodes;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder.Options;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BlankNodeLabelsTest {
+
+    private static final String CONFIG =
+            """
+            scope.json = $.files[*]
+            props.checksum.predicate = spdx:checksum
+            props.checksum.as = node-ref
+            props.checksum.node = checksum
+            nodes.checksum.kind = bnode
+            nodes.checksum.type = spdx:Checksum
+            nodes.checksum.props.value.predicate = spdx:checksumValue
+            nodes.checksum.props.value.json = $.md5
+            """;
+
+    private static MappingProgram program() throws Exception {
+        ResourceConfig config;
+        try (InputStream in = new java.io.ByteArrayInputStream(CONFIG.getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        return MappingCompiler.compile(config, new Prefixes(Map.of("spdx", "http://spdx.org/rdf/terms#")), null);
+    }
+
+    private static JsonNode input() throws Exception {
+        return new ObjectMapper().readTree("{\"files\": [{\"md5\": \"a1\"}, {\"md5\": \"b2\"}]}");
+    }
+
+    /** Labels of blank nodes and IRIs outside the spdx vocabulary: what the mapping minted. */
+    private static Set<String> minted(Graph graph) {
+        Set<String> out = new TreeSet<>();
+        for (Triple triple : graph.find().toList()) {
+            for (Node node : List.of(triple.getSubject(), triple.getObject())) {
+                if (node.isBlank()) {
+                    out.add("_:" + node.getBlankNodeLabel());
+                } else if (node.isURI() && !node.getURI().startsWith("http://spdx.org/")) {
+                    out.add(node.getURI());
+                }
+            }
+        }
+        return out;
+    }
+
+    private static JaywayJsonFinder finder(JsonNode input, BlankNodes config) {
+        return new JaywayJsonFinder(input, Options.NONE.withBlankNodeLabels(BlankNodeLabels.of(config)));
+    }
+
+    @Test
+    @DisplayName("Hash labels are the same on every run and differ per element")
+    void hash_labels_are_stable() throws Exception {
+        MappingProgram program = program();
+        BlankNodes hash = new BlankNodes(BlankNodes.HASH, null);
+
+        Set<String> first = minted(program.run(finder(input(), hash).forElement("distribution")));
+        Set<String> second = minted(program.run(finder(input(), hash).forElement("distribution")));
+        Set<String> other = minted(program.run(finder(input(), hash).forElement("other")));
+
+        // two blank subjects and two checksum nodes
+        assertThat(first).hasSize(4);
+        assertThat(first.stream().allMatch(label -> label.startsWith("_:b"))).isTrue();
+        assertThat(second).isEqualTo(first);
+        assertThat(other.stream().noneMatch(first::contains)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Skolem labelling mints IRIs under the configured base")
+    void skolem_iris_use_the_base() throws Exception {
+        BlankNodes skolem = new BlankNodes(BlankNodes.SKOLEM, "https://example.org/.well-known/genid/");
+
+        Set<String> iris = minted(program().run(finder(input(), skolem).forElement("distribution")));
+
+        assertThat(iris).hasSize(4);
+        assertThat(iris.stream()
+                        .filter(iri -> iri.startsWith("https://example.org/.well-known/genid/"))
+                        .count())
+                .isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Skolem IRIs of two datasets are disjoint, and stable per dataset")
+    void skolem_iris_differ_per_dataset() throws Exception {
+        MappingProgram program = program();
+        BlankNodes skolem = new BlankNodes(BlankNodes.SKOLEM, "https://example.org/.well-known/genid/");
+        JsonNode first = dataset("https://doi.org/10.5072/FK2/AAAAAA");
+        JsonNode second = dataset("https://doi.org/10.5072/FK2/BBBBBB");
+
+        Set<String> firstIris = minted(program.run(
+                new JaywayJsonFinder(first, Options.NONE.withBlankNodeLabels(BlankNodeLabels.of(skolem, first)))
+                        .forElement("distribution")));
+        Set<String> secondIris = minted(program.run(
+                new JaywayJsonFinder(second, Options.NONE.withBlankNodeLabels(BlankNodeLabels.of(skolem, second)))
+                        .forElement("distribution")));
+        Set<String> firstAgain = minted(program.run(
+                new JaywayJsonFinder(first, Options.NONE.withBlankNodeLabels(BlankNodeLabels.of(skolem, first)))
+                        .forElement("distribution")));
+
+        assertThat(firstIris).hasSize(4);
+        assertThat(secondIris).hasSize(4).doesNotContainAnyElementsOf(firstIris);
+        assertThat(firstAgain).isEqualTo(firstIris);
+        assertThat(BlankNodeLabels.of(skolem, first).key()).isNotEqualTo(BlankNodeLabels.of(skolem, second).key());
+    }
+
+    /** The same files in a dataset with persistent URL {@code url}. */
+    private static JsonNode dataset(String url) throws Exception {
+        return new ObjectMapper()
+                .readTree("{\"datasetJson\": {\"persistentUrl\": \"" + url + "\"},"
+                        + " \"files\": [{\"md5\": \"a1\"}, {\"md5\": \"b2\"}]}");
+    }
+
+    @Test
+    @DisplayName("Anonymous labelling is the default")
+    void anonymous_by_default() {
+        assertThat(BlankNodeLabels.of(BlankNodes.DEFAULT)).isNull();
+        assertThat(BlankNodeLabels.label("e", 0, "subject", 0))
+                .isEqualTo(BlankNodeLabels.label("e", 0, "subject", 0))
+                .isNotEqualTo(BlankNodeLabels.label("e", 1, "subject", 0))
+                .hasSize(32);
+    }
+}
@@ -0,0 +1,189 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CodeListTest {
+
+    private static final String FILE_TYPE = "http://publications.europa.eu/resource/authority/file-type/";
+
+    @TempDir
+    Path dir;
+
+    private Path cache;
+
+    @BeforeEach
+    void useTempCache() {
+        cache = dir.resolve("cache");
+        System.setProperty(CodeList.CACHE_DIR_PROP, cache.toString());
+    }
+
+    @AfterEach
+    void clearCache() {
+        System.clearProperty(CodeList.CACHE_DIR_PROP);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("A TSV code list is compiled into a shared memory-mapped index and binary-searched")
+    void tsv_index() throws IOException {
+        Path tsv = write(
+                "file-types.tsv",
+                """
+            # key\tvalue
+            text/csv\tCSV
+            application/pdf\tPDF
+            text/csv\tduplicate, first wins
+
+            image/png\t PNG\s
+            über\tUmlaut
+            no-value\t
+            """);
+
+        CodeList codeList = CodeList.load(tsv.toString());
+
+        assertThat(codeList.size()).isEqualTo(4);
+        assertThat(codeList.get("text/csv")).isEqualTo("CSV");
+        assertThat(codeList.get("application/pdf")).isEqualTo("PDF");
+        assertThat(codeList.get("image/png")).isEqualTo("PNG");
+        assertThat(codeList.get("über")).isEqualTo("Umlaut");
+        assertThat(codeList.get("text/plain")).isNull();
+        assertThat(codeList.get("no-value")).isNull();
+        assertThat(codeList.get("")).isNull();
+        List<String> indexes;
+        try (Stream<Path> files = Files.list(cache)) {
+            indexes = files.map(path -> path.getFileName().toString()).toList();
+        }
+        assertThat(indexes).hasSize(1);
+        assertThat(indexes.get(0)).endsWith(".idx");
+        assertThat(CodeList.load(tsv.toString())).isSameAs(codeList);
+    }
+
+    @Test
+    @DisplayName("An edited code list is compiled again and replaces the earlier version and its index")
+    void edited_list_replaces_entry() throws IOException {
+        Path tsv = write("licenses.tsv", "CC0\thttp://creativecommons.org/publicdomain/zero/1.0/\n");
+        CodeList first = CodeList.load(tsv.toString());
+        int loaded = CodeList.loaded();
+
+        write("licenses.tsv", "CC0\thttps://creativecommons.org/publicdomain/zero/1.0/\nCC-BY\tby\n");
+        Files.setLastModifiedTime(tsv, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        CodeList edited = CodeList.load(tsv.toString());
+
+        assertThat(edited).isNotSameAs(first);
+        assertThat(edited.get("CC0")).isEqualTo("https://creativecommons.org/publicdomain/zero/1.0/");
+        assertThat(CodeList.load(tsv.toString())).isSameAs(edited);
+        assertThat(CodeList.loaded()).isEqualTo(loaded);
+        try (Stream<Path> files = Files.list(cache)) {
+            assertThat(files.filter(path -> path.toString().endsWith(".idx"))).hasSize(1); // the earlier one deleted
+        }
+    }
+
+    @Test
+    @DisplayName("CSV columns may be quoted")
+    void csv_columns() throws IOException {
+        Path csv = write("languages.csv", "\"nl\",\"Dutch, Flemish\"\nen,\"English \"\"UK\"\"\"\n");
+
+        CodeList codeList = CodeList.load(csv.toString());
+
+        assertThat(codeList.get("nl")).isEqualTo("Dutch, Flemish");
+        assertThat(codeList.get("en")).isEqualTo("English \"UK\"");
+    }
+
+    @Test
+    @DisplayName("Lookups agree with a hash map over many keys")
+    void many_keys() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        StringBuilder tsv = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            String key = "code-" + Integer.toString(i * 7919 % 10_007, 36);
+            entries.put(key, "value-" + i);
+            tsv.append(key).append('\t').append("value-").append(i).append('\n');
+        }
+
+        CodeList codeList = CodeList.load(write("codes.tsv", tsv.toString()).toString());
+
+        entries.forEach((key, value) -> assertThat(codeList.get(key)).isEqualTo(value));
+        assertThat(codeList.get("code-")).isNull();
+        assertThat(codeList.get("code-zzzzzz")).isNull();
+    }
+
+    @Test
+    @DisplayName("A missing code list leaves the map without it")
+    void missing_file() {
+        assertThat(CodeList.load(dir.resolve("missing.tsv").toString())).isNull();
+        assertThat(CodeList.load(" ")).isNull();
+    }
+
+    @Test
+    @DisplayName("Value maps and node IRI maps fall back to the code list; inline entries win")
+    void mapping_uses_code_list() throws Exception {
+        write("file-types.tsv", "text/csv\t" + FILE_TYPE + "CSV\napplication/pdf\t" + FILE_TYPE + "PDF\n");
+        String properties =
+                """
+            subject.iri.const = https://example.org/distribution
+            props.format.predicate = dct:format
+            props.format.as = node-ref
+            props.format.node = format
+            props.label.predicate = dct:title
+            props.label.json = $.contentType[*]
+            props.label.multi = true
+            props.label.codeList = file-types.tsv
+            props.label.map.application/pdf = Portable Document Format
+            props.label.onUnMappedValue = other
+            nodes.format.kind = iri
+            nodes.format.multi = true
+            nodes.format.iri.json = $.contentType[*]
+            nodes.format.codeList = file-types.tsv
+            """;
+        ResourceConfig config;
+        try (InputStream in = new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader(dir).load(in);
+        }
+        assertThat(config.props().get("label").codeList())
+                .isEqualTo(dir.resolve("file-types.tsv").toAbsolutePath().toString());
+
+        Prefixes prefixes = new Prefixes(Map.of("dct", "http://purl.org/dc/terms/"));
+        Graph graph = MappingCompiler.compile(config, prefixes, null)
+                .run(new JaywayJsonFinder(new ObjectMapper()
+                        .readTree("{\"contentType\": [\"text/csv; charset=UTF-8\", \"application/pdf\", \"x\"]}")));
+
+        assertThat(objects(graph, "http://purl.org/dc/terms/format"))
+                .containsExactlyInAnyOrder(FILE_TYPE + "CSV", FILE_TYPE + "PDF");
+        assertThat(objects(graph, "http://purl.org/dc/terms/title"))
+                .containsExactlyInAnyOrder("other", "Portable Document Format");
+    }
+
+    private static List<String> objects(Graph graph, String predicate) {
+        return graph.find(Node.ANY, NodeFactory.createURI(predicate), Node.ANY).toList().stream()
+                .map(Triple::getObject)
+                .map(node -> node.isURI() ? node.getURI() : node.getLiteralLexicalForm())
+                .toList();
+    }
+}
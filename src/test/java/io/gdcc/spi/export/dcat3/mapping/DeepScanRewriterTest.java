@@ -0,0 +1,102 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.util.TestUtil.loadProps;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder.Options;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DeepScanRewriterTest {
+
+    private static JsonNode jsonNode(String json) throws Exception {
+        return new ObjectMapper().readTree(json);
+    }
+
+    private static JaywayJsonFinder finder(JsonNode root, DeepScanRewriter rewriter) {
+        return new JaywayJsonFinder(root, Options.NONE.withRewriter(rewriter));
+    }
+
+    @Test
+    @DisplayName("rewrite() learns the concrete locations of a leading deep scan once")
+    void learns_and_rewrites_leading_deep_scan() throws Exception {
+        JsonNode root = jsonNode("{\"datasetJson\":{\"datasetVersion\":{\"metadataBlocks\":{\"citation\":{\"a\":1}}}}}");
+        DeepScanRewriter rewriter = new DeepScanRewriter();
+        JaywayJsonFinder finder = finder(root, rewriter);
+
+        assertThat(finder.list("$..metadataBlocks.citation.a")).containsExactly("1");
+        assertThat(rewriter.size()).isEqualTo(1);
+        assertThat(finder.list("$..metadataBlocks.citation.a")).containsExactly("1");
+        assertThat(finder.nodes("$..metadataBlocks.citation")).hasSize(1);
+        assertThat(rewriter.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("paths without a leading $..name deep scan are not rewritten")
+    void ignores_other_paths() throws Exception {
+        DeepScanRewriter rewriter = new DeepScanRewriter();
+        JaywayJsonFinder finder = finder(jsonNode("{\"a\":{\"b\":[1,2]}}"), rewriter);
+
+        assertThat(finder.list("$.a.b[*]")).containsExactly("1", "2");
+        assertThat(finder.list("$.a..b[*]")).containsExactly("1", "2");
+        assertThat(finder.list("$..*")).isNotEmpty();
+        assertThat(rewriter.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("a changed input shape falls back to the full deep scan and relearns")
+    void falls_back_and_relearns_when_shape_changes() throws Exception {
+        DeepScanRewriter rewriter = new DeepScanRewriter();
+        JsonNode first = jsonNode("{\"v1\":{\"blocks\":{\"title\":\"A\"}}}");
+        JsonNode second = jsonNode("{\"v2\":{\"blocks\":{\"title\":\"B\"}}}");
+
+        assertThat(finder(first, rewriter).list("$..blocks.title")).containsExactly("A");
+        assertThat(finder(second, rewriter).list("$..blocks.title")).containsExactly("B");
+        assertThat(rewriter.size()).isZero();
+        assertThat(finder(second, rewriter).listTyped("$..blocks.title")).containsExactly("B");
+        assertThat(rewriter.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("scoped finders never use learned locations")
+    void scoped_paths_are_not_rewritten() throws Exception {
+        DeepScanRewriter rewriter = new DeepScanRewriter();
+        JsonNode root = jsonNode("{\"files\":[{\"x\":{\"id\":1}},{\"y\":{\"id\":2}}]}");
+        JaywayJsonFinder finder = finder(root, rewriter);
+
+        List<JsonNode> files = finder.nodes("$.files[*]");
+        assertThat(finder.at(files.get(0)).list("$..id")).containsExactly("1");
+        assertThat(finder.at(files.get(1)).list("$..id")).containsExactly("2");
+        assertThat(rewriter.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("AP_NL30 dataset deep scans give the same values with and without rewriting")
+    void rewritten_paths_match_full_scans_on_real_input() throws Exception {
+        JsonNode root = new ObjectMapper()
+                .readTree(Paths.get("src/test/resources/logged_real_input/ExportData_DCAT_AP_NL30.json")
+                        .toFile());
+        Properties mapping = loadProps(Paths.get("application_profiles/AP_NL30/mapping/dcat-dataset.properties"));
+        DeepScanRewriter rewriter = new DeepScanRewriter();
+
+        int deepScans = 0;
+        for (String key : mapping.stringPropertyNames()) {
+            String path = mapping.getProperty(key).trim();
+            if (!key.endsWith(".json") || !path.startsWith("$..")) {
+                continue;
+            }
+            deepScans++;
+            List<String> expected = new JaywayJsonFinder(root).list(path);
+            // first evaluation learns, second uses the learned locations
+            assertThat(finder(root, rewriter).list(path)).as(path).isEqualTo(expected);
+            assertThat(finder(root, rewriter).list(path)).as(path).isEqualTo(expected);
+        }
+        assertThat(deepScans).isGreaterThan(0);
+        assertThat(rewriter.size()).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,263 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.model.Cache;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder.Options;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jena.graph.Graph;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ElementCacheTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Prefixes PREFIXES = new Prefixes(Map.of("dct", "http://purl.org/dc/terms/"));
+
+    private static ResourceConfig config(String properties) throws Exception {
+        try (InputStream in = new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8))) {
+            return new ResourceConfigLoader().load(in);
+        }
+    }
+
+    private static JsonNode input(String apiBaseUrl, String datasetId) throws Exception {
+        return MAPPER.readTree("{\"env\": {\"apiBaseUrl\": \"" + apiBaseUrl + "\"}, \"datasetJson\": {\"id\": \""
+                + datasetId + "\"}}");
+    }
+
+    private static final String DATASERVICE =
+            """
+        subject.iri.json = $$.env.apiBaseUrl
+        props.title.predicate = dct:title
+        props.title.const = Dataverse API
+        props.identifier.predicate = dct:identifier
+        props.identifier.json = $$.env.apiBaseUrl
+        """;
+
+    @Test
+    @DisplayName("An element reading only site-level input is mapped once for all datasets of the site")
+    void reuses_graph_while_dependencies_are_equal() throws Exception {
+        ElementCache cache = new ElementCache();
+        AtomicInteger mapped = new AtomicInteger();
+
+        Graph first = graph(cache, config(DATASERVICE), input("https://x/api", "ds1"), mapped);
+        Graph second = graph(cache, config(DATASERVICE), input("https://x/api", "ds2"), mapped);
+
+        assertThat(mapped.get()).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThat(first.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A changed dependency, config or unbounded read maps the element again")
+    void maps_again_when_input_or_config_changes() throws Exception {
+        ElementCache cache = new ElementCache();
+        AtomicInteger mapped = new AtomicInteger();
+
+        graph(cache, config(DATASERVICE), input("https://x/api", "ds1"), mapped);
+        graph(cache, config(DATASERVICE), input("https://y/api", "ds1"), mapped);
+        assertThat(mapped.get()).isEqualTo(2);
+
+        graph(cache, config(DATASERVICE + "props.title.lang = en\n"), input("https://y/api", "ds1"), mapped);
+        assertThat(mapped.get()).isEqualTo(3);
+
+        ResourceConfig deepScan = config("subject.iri.json = $..apiBaseUrl\n");
+        graph(cache, deepScan, input("https://y/api", "ds1"), mapped);
+        graph(cache, deepScan, input("https://y/api", "ds1"), mapped);
+        assertThat(mapped.get()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Elements reading dataset input are not kept in memory")
+    void keeps_only_site_level_elements() throws Exception {
+        ElementCache cache = new ElementCache();
+        AtomicInteger mapped = new AtomicInteger();
+        ResourceConfig dataset = config(
+                """
+            subject.iri.json = $$.env.apiBaseUrl
+            props.id.predicate = dct:identifier
+            props.id.json = $.datasetJson.id
+            """);
+
+        graph(cache, dataset, input("https://x/api", "ds1"), mapped);
+        graph(cache, dataset, input("https://x/api", "ds1"), mapped);
+
+        assertThat(mapped.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A $^ path past the scope reads the root: a change there maps the element again")
+    void enclosing_read_of_the_root_is_a_dependency() throws Exception {
+        ElementCache cache = new ElementCache();
+        AtomicInteger mapped = new AtomicInteger();
+        ResourceConfig scoped = config(
+                """
+            scope.json = $.env
+            subject.iri.json = $.apiBaseUrl
+            props.id.predicate = dct:identifier
+            props.id.json = $^.datasetJson.id
+            """);
+
+        Graph first = graph(cache, scoped, input("https://x/api", "ds1"), mapped);
+        Graph second = graph(cache, scoped, input("https://x/api", "ds2"), mapped);
+
+        assertThat(mapped.get()).isEqualTo(2);
+        assertThat(second.isIsomorphicWith(first)).isFalse();
+    }
+
+    private static final String DISTRIBUTION =
+            """
+        scope.json = $.datasetJson.files[*]
+        subject.iri.json = $.uri
+        props.title.predicate = dct:title
+        props.title.json = $.name
+        props.publisher.predicate = dct:publisher
+        props.publisher.json = $$.env.apiBaseUrl
+        """;
+
+    private static JsonNode files(String apiBaseUrl, String... names) throws Exception {
+        StringBuilder files = new StringBuilder();
+        for (String name : names) {
+            files.append(files.isEmpty() ? "" : ", ")
+                    .append("{\"uri\": \"https://x/f/")
+                    .append(name)
+                    .append("\", \"name\": \"")
+                    .append(name)
+                    .append("\"}");
+        }
+        return MAPPER.readTree("{\"env\": {\"apiBaseUrl\": \"" + apiBaseUrl + "\"}, \"datasetJson\": {\"files\": ["
+                + files + "]}}");
+    }
+
+    @Test
+    @DisplayName("With a cache directory, element triples outlive the exporter and only changed scopes are mapped")
+    void stores_element_and_scope_triples(@TempDir Path dir) throws Exception {
+        FragmentStore store = FragmentStore.open(new Cache(dir, Cache.DEFAULT_MAX_MEGABYTES));
+        ResourceConfig config = config(DISTRIBUTION);
+        AtomicInteger mapped = new AtomicInteger();
+
+        Graph first = graph(new ElementCache(store), config, files("https://x/api", "a", "b"), mapped);
+        assertThat(first.size()).isEqualTo(4);
+        assertThat(mapped.get()).isEqualTo(2);
+        assertThat(store.size()).isEqualTo(1); // the fragments of all scopes in one entry
+
+        Graph restarted = graph(new ElementCache(store), config, files("https://x/api", "a", "b"), mapped);
+        assertThat(mapped.get()).isEqualTo(2); // no scope mapped
+        assertThat(restarted.isIsomorphicWith(first)).isTrue();
+
+        JsonNode unread = files("https://x/api", "a", "b");
+        ((ObjectNode) unread.at("/datasetJson/files/0")).put("size", 42);
+        graph(new ElementCache(store), config, unread, mapped);
+        assertThat(mapped.get()).isEqualTo(2); // a field no scope reads changed
+
+        Graph changed = graph(new ElementCache(store), config, files("https://x/api", "a", "c"), mapped);
+        assertThat(mapped.get()).isEqualTo(3); // the scope of "a" was reused
+        assertThat(store.size()).isEqualTo(1); // the entry was rewritten
+        assertThat(changed.isIsomorphicWith(new ResourceMapper(config, PREFIXES, null)
+                        .buildGraph(new JaywayJsonFinder(files("https://x/api", "a", "c")))))
+                .isTrue();
+
+        graph(new ElementCache(store), config, files("https://y/api", "a", "c"), mapped);
+        assertThat(mapped.get()).isEqualTo(5); // a root read changed: every scope is mapped again
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("With a cache directory, a $^ read of the root is part of the key of every scope")
+    void stored_scopes_depend_on_enclosing_reads_of_the_root(@TempDir Path dir) throws Exception {
+        FragmentStore store = FragmentStore.open(new Cache(dir, Cache.DEFAULT_MAX_MEGABYTES));
+        ResourceConfig config = config(
+                """
+            scope.json = $.datasetJson.files[*]
+            subject.iri.json = $.uri
+            props.title.predicate = dct:title
+            props.title.json = $^.datasetTitle
+            """);
+        AtomicInteger mapped = new AtomicInteger();
+        JsonNode first = files("https://x/api", "a", "b");
+        ((ObjectNode) first).put("datasetTitle", "First");
+        JsonNode retitled = files("https://x/api", "a", "b");
+        ((ObjectNode) retitled).put("datasetTitle", "Second");
+
+        graph(new ElementCache(store), config, first, mapped);
+        Graph changed = graph(new ElementCache(store), config, retitled, mapped);
+
+        assertThat(mapped.get()).isEqualTo(4); // every scope mapped again
+        assertThat(changed.isIsomorphicWith(new ResourceMapper(config, PREFIXES, null)
+                        .buildGraph(new JaywayJsonFinder(retitled))))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("A graph mapped while the budget skipped paths is neither kept in memory nor stored")
+    void skipped_evaluations_are_not_cached(@TempDir Path dir) throws Exception {
+        FragmentStore store = FragmentStore.open(new Cache(dir, Cache.DEFAULT_MAX_MEGABYTES));
+        ElementCache cache = new ElementCache(store);
+        AtomicInteger mapped = new AtomicInteger();
+        JsonNode site = input("https://x/api", "ds1");
+        JsonNode files = files("https://x/api", "a", "b");
+
+        graph(cache, config(DATASERVICE), skipping(site), site, mapped);
+        graph(cache, config(DISTRIBUTION), skipping(files), files, mapped);
+        assertThat(mapped.get()).isEqualTo(1); // the distribution scope read was skipped: no scope mapped
+        assertThat(store.size()).isZero();
+
+        graph(cache, config(DATASERVICE), new JaywayJsonFinder(site), site, mapped);
+        graph(cache, config(DATASERVICE), new JaywayJsonFinder(site), site, mapped);
+        assertThat(mapped.get()).isEqualTo(2); // the last graph came from memory
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    /** A finder whose export node budget skips every evaluation. */
+    private static JaywayJsonFinder skipping(JsonNode input) {
+        EvaluationBudget budget = new EvaluationBudget(new Budget(0, 0, 1, 0, Budget.SKIP));
+        return new JaywayJsonFinder(input, Options.NONE.withBudget(budget));
+    }
+
+    private static Graph graph(ElementCache cache, ResourceConfig config, JsonNode input, AtomicInteger mapped) {
+        return graph(cache, config, new JaywayJsonFinder(input), input, mapped);
+    }
+
+    private static Graph graph(
+            ElementCache cache, ResourceConfig config, JaywayJsonFinder finder, JsonNode input, AtomicInteger mapped) {
+        ResourceMapper mapper = new ResourceMapper(config, PREFIXES, null) {
+            @Override
+            public Graph buildGraph(JaywayJsonFinder finder) {
+                mapped.incrementAndGet();
+                return super.buildGraph(finder);
+            }
+
+            @Override
+            Graph buildGraph(JaywayJsonFinder finder, List<JsonNode> scopes, MappingProgram.Fragments fragments) {
+                return super.buildGraph(finder, scopes, new MappingProgram.Fragments() {
+                    @Override
+                    public boolean stored(int index, Graph graph) {
+                        return fragments.stored(index, graph);
+                    }
+
+                    @Override
+                    public void mapped(int index, Graph fragment) {
+                        mapped.incrementAndGet(); // counts scopes here, not builds
+                        fragments.mapped(index, fragment);
+                    }
+                });
+            }
+        };
+        ElementMappers.Compiled compiled = new ElementMappers.Compiled(
+                config, mapper, ResourceMappers.fingerprint(config, PREFIXES, null), "test");
+        return cache.graph("dataservice", compiled, finder, input);
+    }
+}
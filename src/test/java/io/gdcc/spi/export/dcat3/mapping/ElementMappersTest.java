@@ -0,0 +1,62 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ElementMappersTest {
+
+    private static final Prefixes PREFIXES = new Prefixes(Map.of("dct", "http://purl.org/dc/terms/"));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("An element is loaded and compiled once while its file and code lists are unchanged")
+    void compiles_once_per_file_version() throws Exception {
+        Path file = Files.writeString(dir.resolve("dataset.properties"), "props.title.predicate = dct:title\n");
+        ElementMappers mappers = new ElementMappers();
+
+        ElementMappers.Compiled first = mappers.get("dataset", dir, "dataset.properties", PREFIXES, "dct:Dataset");
+        ElementMappers.Compiled second = mappers.get("dataset", dir, "dataset.properties", PREFIXES, "dct:Dataset");
+        assertThat(second).isSameAs(first);
+        assertThat(first.fingerprint()).isEqualTo(ResourceMappers.fingerprint(first.config(), PREFIXES, "dct:Dataset"));
+
+        Files.writeString(file, "props.title.predicate = dct:title\nprops.title.lang = en\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        ElementMappers.Compiled edited = mappers.get("dataset", dir, "dataset.properties", PREFIXES, "dct:Dataset");
+        assertThat(edited).isNotSameAs(first);
+        assertThat(edited.config().props().get("title").lang()).isEqualTo("en");
+
+        assertThat(mappers.get("dataset", dir, "dataset.properties", PREFIXES, "dcat:Dataset"))
+                .isNotSameAs(edited);
+    }
+
+    @Test
+    @DisplayName("An edited code list compiles the element again")
+    void recompiles_when_code_list_changes() throws Exception {
+        Path list = Files.writeString(dir.resolve("types.tsv"), "csv\thttps://example.org/CSV\n");
+        Files.writeString(
+                dir.resolve("distribution.properties"),
+                """
+                props.format.predicate = dct:format
+                props.format.as = iri
+                props.format.json = $.type
+                props.format.codeList = types.tsv
+                """);
+        ElementMappers mappers = new ElementMappers();
+        ElementMappers.Compiled first = mappers.get("distribution", dir, "distribution.properties", PREFIXES, null);
+
+        Files.writeString(list, "csv\thttps://example.org/CSV\ntsv\thttps://example.org/TSV\n");
+        Files.setLastModifiedTime(list, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+        assertThat(mappers.get("distribution", dir, "distribution.properties", PREFIXES, null))
+                .isNotSameAs(first);
+    }
+}
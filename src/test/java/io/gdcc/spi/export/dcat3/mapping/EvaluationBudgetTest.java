@@ -0,0 +1,103 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.validate.Severity;
+import io.gdcc.spi.export.dcat3.config.validate.ValidationMessage;
+import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder.Options;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EvaluationBudgetTest {
+
+    private static final String INPUT =
+            "{\"files\":[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"},{\"id\":3,\"name\":\"c\"}]}";
+
+    private static JsonNode jsonNode(String json) throws Exception {
+        return new ObjectMapper().readTree(json);
+    }
+
+    private static JaywayJsonFinder finder(Budget budget) throws Exception {
+        return finder(new EvaluationBudget(budget));
+    }
+
+    private static JaywayJsonFinder finder(EvaluationBudget budget) throws Exception {
+        return new JaywayJsonFinder(jsonNode(INPUT), Options.NONE.withBudget(budget));
+    }
+
+    @Test
+    @DisplayName("costs() records evaluations and estimated nodes per path")
+    void records_cost_per_path() throws Exception {
+        EvaluationBudget budget = new EvaluationBudget(new Budget(0, 0, 1_000, 0, Budget.WARN));
+        JaywayJsonFinder finder = finder(budget);
+
+        finder.list("$.files[0].id");
+        finder.list("$.files[0].id");
+        finder.list("$..name");
+
+        assertThat(budget.costs().get("$.files[0].id").evaluations()).isEqualTo(2);
+        assertThat(budget.costs().get("$.files[0].id").nodes()).isEqualTo(6);
+        // deep scan: one walk over the 11 nodes of the document
+        assertThat(budget.costs().get("$..name").nodes()).isEqualTo(11);
+        assertThat(budget.report()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("warn keeps evaluating and reports the path once")
+    void warn_reports_once() throws Exception {
+        EvaluationBudget budget = new EvaluationBudget(new Budget(5, 0, 0, 0, Budget.WARN));
+        JaywayJsonFinder finder = finder(budget);
+
+        assertThat(finder.list("$..name")).containsExactly("a", "b", "c");
+        assertThat(finder.list("$..name")).containsExactly("a", "b", "c");
+
+        assertThat(budget.report()).hasSize(1);
+        ValidationMessage message = budget.report().get(0);
+        assertThat(message.severity()).isEqualTo(Severity.WARNING);
+        assertThat(message.code()).isEqualTo("DCATRUN-001");
+        assertThat(message.path()).isEqualTo("jsonPath $..name");
+        assertThat(budget.skipped()).isZero();
+    }
+
+    @Test
+    @DisplayName("skip refuses the over-budget path and leaves cheap paths alone")
+    void skip_refuses_path() throws Exception {
+        JaywayJsonFinder finder = finder(new Budget(5, 0, 0, 0, Budget.SKIP));
+
+        assertThat(finder.list("$..name")).isEmpty();
+        assertThat(finder.nodes("$..name")).isEmpty();
+        assertThat(finder.list("$.files[1].name")).containsExactly("b");
+    }
+
+    @Test
+    @DisplayName("skip on the export budget answers all remaining paths with no values")
+    void skip_export_budget() throws Exception {
+        EvaluationBudget budget = new EvaluationBudget(new Budget(0, 0, 6, 0, Budget.SKIP));
+        JaywayJsonFinder finder = finder(budget);
+
+        assertThat(finder.list("$.files[0].name")).containsExactly("a");
+        assertThat(finder.list("$.files[1].name")).containsExactly("b");
+        assertThat(finder.list("$.files[2].name")).isEmpty();
+        assertThat(finder.list("$.files[0].name")).isEmpty();
+        assertThat(budget.report()).extracting(ValidationMessage::code).containsExactly("DCATRUN-003");
+        assertThat(budget.skipped()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("abort throws with an ERROR message before the deep scan runs")
+    void abort_throws() throws Exception {
+        EvaluationBudget budget = new EvaluationBudget(new Budget(5, 0, 0, 0, Budget.ABORT));
+        JaywayJsonFinder finder = finder(budget);
+
+        assertThatThrownBy(() -> finder.at(jsonNode("{}")).listRoot("$..name"))
+                .isInstanceOf(EvaluationBudgetExceededException.class)
+                .hasMessageContaining("DCATRUN-001");
+        assertThat(budget.report()).hasSize(1);
+        assertThat(budget.report().get(0).severity()).isEqualTo(Severity.ERROR);
+        assertThat(budget.costs()).doesNotContainKey("$..name");
+    }
+}
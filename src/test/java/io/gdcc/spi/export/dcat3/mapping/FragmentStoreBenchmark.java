@@ -0,0 +1,126 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.util.TestUtil.loadProps;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Cache;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Re-exporting a large dataset with a {@link FragmentStore} against mapping it again: the AP_NL30
+ * distribution mapping over the logged input with {@code files} files (see {@link
+ * GraphEmissionBenchmark}). {@code remap} maps every file; {@code storedUnchanged} re-exports the
+ * same input, taking every scope from the entry of the element; {@code storedOneFileChanged} renames
+ * one file per export, so one scope is mapped and the entry is written again. Each export uses a new
+ * {@link ElementCache}, as after a restart. Run {@link #main} to include the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FragmentStoreBenchmark {
+
+    private static final Path PROFILE = Paths.get("application_profiles/AP_NL30/mapping");
+    private static final Path INPUT = Paths.get("src/test/resources/logged_real_input/ExportData_DCAT_AP_NL30.json");
+
+    @Param({"50000"})
+    public int files;
+
+    private JsonNode root;
+    private ObjectNode changedFile;
+    private int changes;
+    private ElementMappers.Compiled compiled;
+    private Path dir;
+    private FragmentStore store;
+
+    @Setup
+    public void setUp() throws IOException {
+        ResourceConfig config;
+        try (InputStream in = Files.newInputStream(PROFILE.resolve("dcat-distribution.properties"))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        Properties rootProps = loadProps(PROFILE.resolve("dcat-root.properties"));
+        Map<String, String> prefixMap = new HashMap<>();
+        rootProps.stringPropertyNames().stream()
+                .filter(key -> key.startsWith("prefix."))
+                .forEach(key -> prefixMap.put(key.substring("prefix.".length()), rootProps.getProperty(key).trim()));
+        Prefixes prefixes = new Prefixes(prefixMap);
+
+        root = GraphEmissionBenchmark.withFiles(new ObjectMapper().readTree(INPUT.toFile()), files);
+        changedFile = (ObjectNode) root.get("datasetFileDetails").get(0);
+        String fingerprint = ResourceMappers.fingerprint(config, prefixes, "dcat:Distribution");
+        ResourceMapper mapper = ResourceMappers.create(config, prefixes, "dcat:Distribution", fingerprint);
+        compiled = new ElementMappers.Compiled(config, mapper, fingerprint, "bench");
+        dir = Files.createTempDirectory("fragment-store-bench");
+        store = FragmentStore.load(dir, Cache.DEFAULT_MAX_MEGABYTES << 20);
+        stored(); // the first export fills the store
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private Graph stored() {
+        return new ElementCache(store).graph("distribution", compiled, new JaywayJsonFinder(root), root);
+    }
+
+    @Benchmark
+    public Graph remap() {
+        return compiled.mapper().buildGraph(new JaywayJsonFinder(root));
+    }
+
+    @Benchmark
+    public Graph storedUnchanged() {
+        return stored();
+    }
+
+    @Benchmark
+    public Graph storedOneFileChanged() {
+        changedFile.put("filename", "changed-" + changes++ + ".csv");
+        return stored();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(FragmentStoreBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
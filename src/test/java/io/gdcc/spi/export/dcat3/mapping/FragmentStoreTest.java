@@ -0,0 +1,151 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gdcc.spi.export.dcat3.config.model.Cache;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphMemFactory;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FragmentStoreTest {
+
+    private static final Node TITLE = NodeFactory.createURI("http://purl.org/dc/terms/title");
+
+    private static Graph graph(String subject, String title) {
+        Graph graph = GraphMemFactory.createDefaultGraph();
+        Node node = NodeFactory.createURI("https://x/" + subject);
+        graph.add(Triple.create(node, TITLE, NodeFactory.createLiteralLang(title, "en")));
+        return graph;
+    }
+
+    private static String key(char c) {
+        return String.valueOf(c).repeat(64);
+    }
+
+    @Test
+    @DisplayName("IRIs, labelled blank nodes and literals with language or datatype survive the encoding")
+    void encode_decode_roundtrip() throws Exception {
+        Graph graph = GraphMemFactory.createDefaultGraph();
+        Node subject = NodeFactory.createURI("https://x/f/1");
+        Node checksum = NodeFactory.createBlankNode("b0_checksum");
+        graph.add(Triple.create(subject, NodeFactory.createURI("http://spdx.org/rdf/terms#checksum"), checksum));
+        graph.add(Triple.create(checksum, TITLE, NodeFactory.createLiteralLang("Prüfsumme", "de")));
+        graph.add(Triple.create(
+                subject,
+                NodeFactory.createURI("http://www.w3.org/ns/dcat#byteSize"),
+                NodeFactory.createLiteralDT("1024", XSDDatatype.XSDinteger)));
+        graph.add(Triple.create(subject, TITLE, NodeFactory.createLiteralString("x".repeat(70_000))));
+
+        Graph decoded = FragmentStore.decode(FragmentStore.encode(graph));
+
+        assertThat(decoded.isIsomorphicWith(graph)).isTrue();
+        assertThat(decoded.contains(checksum, TITLE, NodeFactory.createLiteralLang("Prüfsumme", "de")))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("The fragments of all scopes of an element are one entry; a rewrite keeps the chunks in use")
+    void stores_scope_fragments_in_one_entry(@TempDir Path dir) throws Exception {
+        FragmentStore store = FragmentStore.open(new Cache(dir, Cache.DEFAULT_MAX_MEGABYTES));
+        int chunk = FragmentStore.ScopeFragments.CHUNK;
+        Map<String, Graph> mapped = new LinkedHashMap<>();
+        for (int i = 0; i < chunk + 3; i++) {
+            mapped.put("k" + i, graph("s" + i, "T" + i));
+        }
+        store.putFragments(key('f'), null, mapped);
+
+        FragmentStore.ScopeFragments read = store.getFragments(key('f'));
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(read.size()).isEqualTo(chunk + 3);
+        Graph one = GraphMemFactory.createDefaultGraph();
+        assertThat(read.addTo("k1", one)).isTrue();
+        assertThat(one.isIsomorphicWith(graph("s1", "T1"))).isTrue();
+        assertThat(read.addTo("missing", one)).isFalse();
+
+        Graph all = GraphMemFactory.createDefaultGraph();
+        for (int i = 2; i <= chunk; i++) { // "k0" and the last two unused
+            read.addTo("k" + i, all);
+        }
+        store.putFragments(key('f'), read, Map.of("new", graph("n", "N")));
+
+        FragmentStore.ScopeFragments rewritten = store.getFragments(key('f'));
+        Graph graph = GraphMemFactory.createDefaultGraph();
+        assertThat(rewritten.size()).isEqualTo(chunk + 2);
+        assertThat(rewritten.addTo("k0", graph)).isTrue(); // copied with its chunk
+        assertThat(rewritten.addTo("k" + (chunk + 1), graph)).isFalse(); // unused in a chunk mostly unused
+        assertThat(rewritten.addTo("k" + chunk, graph)).isTrue();
+        assertThat(rewritten.addTo("new", graph)).isTrue();
+        Node added = NodeFactory.createURI("https://x/n");
+        assertThat(graph.contains(added, TITLE, NodeFactory.createLiteralLang("N", "en")))
+                .isTrue();
+        assertThat(store.getFragments(key('g'))).isNull();
+        assertThat(store.get(key('f'))).isNull(); // not a graph entry: dropped
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Stores are shared per directory and keep their entries across restarts")
+    void shares_and_reloads(@TempDir Path dir) throws Exception {
+        FragmentStore store = FragmentStore.open(new Cache(dir, 1));
+        store.put(key('a'), graph("a", "A"));
+
+        assertThat(store.get(key('a')).isIsomorphicWith(graph("a", "A"))).isTrue();
+        assertThat(store.get(key('c'))).isNull();
+        assertThat(FragmentStore.open(new Cache(dir.resolve("."), 1))).isSameAs(store);
+
+        FragmentStore reloaded = FragmentStore.load(dir, 1 << 20);
+        assertThat(reloaded.size()).isEqualTo(1);
+        assertThat(reloaded.bytes()).isEqualTo(store.bytes());
+        assertThat(reloaded.get(key('a')).isIsomorphicWith(graph("a", "A"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Beyond the size bound the least recently used entries are deleted")
+    void evicts_least_recently_used(@TempDir Path dir) throws Exception {
+        long entryBytes = FragmentStore.encode(graph("a", "A")).length;
+        FragmentStore store = FragmentStore.load(dir, 2 * entryBytes);
+        store.put(key('a'), graph("a", "A"));
+        store.put(key('b'), graph("b", "B"));
+        assertThat(store.get(key('a'))).isNotNull(); // "b" is now the least recently used
+
+        store.put(key('c'), graph("c", "C"));
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.bytes()).isLessThanOrEqualTo(2 * entryBytes);
+        assertThat(store.get(key('b'))).isNull();
+        assertThat(store.get(key('a'))).isNotNull();
+        assertThat(store.get(key('c'))).isNotNull();
+        assertThat(Files.exists(dir.resolve("bb").resolve(key('b') + ".frag"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("An unreadable entry is dropped")
+    void drops_corrupt_entry(@TempDir Path dir) throws Exception {
+        FragmentStore store = FragmentStore.open(new Cache(dir, Cache.DEFAULT_MAX_MEGABYTES));
+        store.put(key('e'), graph("e", "E"));
+        Files.write(dir.resolve("ee").resolve(key('e') + ".frag"), new byte[] {1, 2, 3});
+
+        assertThat(store.get(key('e'))).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Without a directory, or with a file as directory, there is no store")
+    void no_store_without_directory(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("file"), "x");
+
+        assertThat(FragmentStore.open(null)).isNull();
+        assertThat(FragmentStore.open(new Cache(null, 1))).isNull();
+        assertThat(FragmentStore.open(new Cache(file, 1))).isNull();
+    }
+}
@@ -0,0 +1,120 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.util.TestUtil.getExportDataProvider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.ExportData;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.loader.RootConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Element;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.config.model.RootConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.ErrorHandlerFactory;
+import org.apache.jena.sparql.graph.GraphFactory;
+
+/**
+ * Golden graphs of the mapping profiles: for each element of a root config and each test input, the
+ * Turtle the tree-walking mapper of the baseline wrote. Compiled and generated mappers are checked
+ * against them. Run with {@code -Dgolden.update=true} to rewrite them from the compiled mapper after
+ * an intended change of the output.
+ */
+final class GoldenGraphs {
+
+    static final List<String> ROOTS = List.of(
+            "application_profiles/AP_NL30/mapping/dcat-root.properties",
+            "application_profiles/lightweight/mapping/dcat-root.properties",
+            "src/test/resources/mapping/determinism/dcat-root.properties",
+            "src/test/resources/mapping/issue_49_dataset_access_rights/issue-49-root.properties");
+
+    private static final Path DIR = Paths.get("src/test/resources/golden");
+    private static final Path INPUT_DIR = Paths.get("src/test/resources/input");
+    private static final boolean UPDATE = Boolean.getBoolean("golden.update");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private GoldenGraphs() {}
+
+    /** The golden graph of {@code element} of {@code rootFile} over {@code input}, or null without one. */
+    static Graph expected(String rootFile, Element element, String input, Graph actual) throws IOException {
+        Path file = DIR.resolve(Paths.get(rootFile).getParent())
+                .resolve(element.id())
+                .resolve(input + ".ttl");
+        if (UPDATE) {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                RDFDataMgr.write(out, actual, Lang.TURTLE);
+            }
+        }
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Graph expected = GraphFactory.createDefaultGraph();
+        // subjects minted from relative input IRIs stay relative
+        RDFParser.source(file)
+                .lang(Lang.TURTLE)
+                .resolveURIs(false)
+                .errorHandler(ErrorHandlerFactory.errorHandlerWarning(ErrorHandlerFactory.noLogger))
+                .parse(expected);
+        return expected;
+    }
+
+    static RootConfig loadRoot(String rootFile) throws IOException {
+        String original = System.getProperty(RootConfigLoader.SYS_PROP);
+        try {
+            System.setProperty(RootConfigLoader.SYS_PROP, rootFile);
+            return RootConfigLoader.load();
+        } finally {
+            if (original != null) {
+                System.setProperty(RootConfigLoader.SYS_PROP, original);
+            } else {
+                System.clearProperty(RootConfigLoader.SYS_PROP);
+            }
+        }
+    }
+
+    static ResourceConfig loadElement(RootConfig root, Element element) throws IOException {
+        try (InputStream in = Files.newInputStream(root.baseDir().resolve(element.file()))) {
+            return new ResourceConfigLoader(root.baseDir()).load(in);
+        }
+    }
+
+    /** Full ExportData trees, logged and built from provider fixtures, by golden file name. */
+    static Map<String, JsonNode> inputs() throws IOException {
+        Map<String, JsonNode> inputs = new LinkedHashMap<>();
+        try (Stream<Path> walk = Files.walk(Paths.get("src/test/resources/logged_real_input"))) {
+            for (Path file : (Iterable<Path>) walk.filter(p -> p.toString().endsWith(".json"))
+                    .sorted()::iterator) {
+                String name = file.getFileName().toString();
+                inputs.put(name.substring(0, name.length() - ".json".length()), MAPPER.readTree(file.toFile()));
+            }
+        }
+        List<Path> dirs = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(INPUT_DIR)) {
+            walk.filter(p -> p.getFileName().toString().equals("datasetJson.json"))
+                    .sorted()
+                    .forEach(p -> dirs.add(p.getParent()));
+        }
+        for (Path dir : dirs) {
+            ExportData exportData = ExportData.builder()
+                    .provider(getExportDataProvider(dir.toString()))
+                    .build();
+            inputs.put(INPUT_DIR.relativize(dir).toString().replace('/', '_'), MAPPER.valueToTree(exportData));
+        }
+        return inputs;
+    }
+}
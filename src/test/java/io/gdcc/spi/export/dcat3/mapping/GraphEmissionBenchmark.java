@@ -0,0 +1,103 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.util.TestUtil.loadProps;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Triple emission for a large dataset: the AP_NL30 distribution mapping over the logged input with
+ * its file list blown up to {@code files} entries. {@code graphSink} is the {@link TripleSink} path of
+ * {@link ResourceMapper#buildGraph}; DESIGN.md records the Model/Resource path of the baseline mapper
+ * it replaced. Run {@link #main} to include the GC profiler ({@code gc.alloc.rate.norm} is the
+ * allocation per export).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GraphEmissionBenchmark {
+
+    private static final Path PROFILE = Paths.get("application_profiles/AP_NL30/mapping");
+    private static final Path INPUT = Paths.get("src/test/resources/logged_real_input/ExportData_DCAT_AP_NL30.json");
+
+    @Param({"50000"})
+    public int files;
+
+    private JsonNode root;
+    private ResourceMapper compiled;
+
+    @Setup
+    public void setUp() throws IOException {
+        ResourceConfig config;
+        try (InputStream in = Files.newInputStream(PROFILE.resolve("dcat-distribution.properties"))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        Properties rootProps = loadProps(PROFILE.resolve("dcat-root.properties"));
+        Map<String, String> prefixes = new HashMap<>();
+        rootProps.stringPropertyNames().stream()
+                .filter(key -> key.startsWith("prefix."))
+                .forEach(key -> prefixes.put(key.substring("prefix.".length()), rootProps.getProperty(key).trim()));
+
+        root = withFiles(new ObjectMapper().readTree(INPUT.toFile()), files);
+        compiled = new ResourceMapper(config, new Prefixes(prefixes), "dcat:Distribution");
+    }
+
+    /** Copies of the logged files with distinct ids and names. */
+    static JsonNode withFiles(JsonNode input, int count) {
+        ObjectNode copy = (ObjectNode) input.deepCopy();
+        ArrayNode templates = (ArrayNode) input.get("datasetFileDetails");
+        ArrayNode files = copy.putArray("datasetFileDetails");
+        for (int i = 0; i < count; i++) {
+            ObjectNode file = (ObjectNode) templates.get(i % templates.size()).deepCopy();
+            file.put("id", 1_000_000 + i);
+            file.put("filename", "file-" + i + ".csv");
+            files.add(file);
+        }
+        return copy;
+    }
+
+    @Benchmark
+    public Graph graphSink() {
+        return compiled.buildGraph(new JaywayJsonFinder(root));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(GraphEmissionBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,106 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder.Options;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.NodeFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IriMinterTest {
+
+    @Test
+    @DisplayName("looksLikeIri accepts exactly what the scheme regex matched")
+    void looks_like_iri_matches_regex() {
+        List<String> candidates = List.of(
+                "https://example.org/a",
+                "urn:uuid:1234",
+                "mailto:someone@example.org",
+                "a:",
+                "a+b.c-d:x",
+                "doi:10.1234/abc def",
+                "1http://example.org",
+                "http//example.org",
+                ":nothing",
+                "ht_tp://example.org",
+                "text/csv",
+                "https://example.org/\nnext",
+                "https://example.org/ ",
+                "https:\r",
+                "",
+                "h");
+
+        for (String candidate : candidates) {
+            assertThat(IriMinter.looksLikeIri(candidate))
+                    .as(candidate)
+                    .isEqualTo(candidate.matches("^[a-zA-Z][a-zA-Z0-9+.-]*:.*"));
+        }
+        assertThat(IriMinter.looksLikeIri(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Valid IRIs are returned as is")
+    void valid_iris_are_kept() {
+        IriMinter minter = new IriMinter();
+        String iri = "https://example.org/api/access/datafile/42?format=original#f%C3%A9";
+
+        assertThat(minter.mint(iri)).isSameAs(iri);
+        assertThat(minter.mint("https://example.org/café")).isEqualTo("https://example.org/café");
+    }
+
+    @Test
+    @DisplayName("Spaces, illegal characters, stray % and a second # are percent-encoded")
+    void illegal_characters_are_encoded() {
+        IriMinter minter = new IriMinter();
+
+        assertThat(minter.mint("https://example.org/files/my data (1).csv"))
+                .isEqualTo("https://example.org/files/my%20data%20(1).csv");
+        assertThat(minter.mint("https://example.org/a b/<c>|d^e`f{g}\"h\\"))
+                .isEqualTo("https://example.org/a%20b/%3Cc%3E%7Cd%5Ee%60f%7Bg%7D%22h%5C");
+        assertThat(minter.mint("https://example.org/100%/50%25")).isEqualTo("https://example.org/100%25/50%25");
+        assertThat(minter.mint("https://example.org/x#frag/a#b")).isEqualTo("https://example.org/x#frag/a%23b");
+        assertThat(minter.mint("urn:x\ty")).isEqualTo("urn:x%09y");
+    }
+
+    @Test
+    @DisplayName("Strict finders percent-encode IRIs minted while mapping")
+    void strict_mapping_encodes_file_names() throws Exception {
+        ResourceConfig config;
+        try (InputStream in = new java.io.ByteArrayInputStream(
+                """
+                scope.json = $.files[*]
+                subject.iri.format = https://example.org/file/${$.name}
+                props.url.predicate = dcat:downloadURL
+                props.url.as = iri
+                props.url.format = https://example.org/download/${$.name}
+                """
+                        .getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        MappingProgram program =
+                MappingCompiler.compile(config, new Prefixes(Map.of("dcat", "http://www.w3.org/ns/dcat#")), null);
+        var input = new ObjectMapper().readTree("{\"files\": [{\"name\": \"my data.csv\"}]}");
+
+        Graph lenient = program.run(new JaywayJsonFinder(input));
+        Graph strict = program.run(new JaywayJsonFinder(input, Options.NONE.withIriMinter(new IriMinter())));
+
+        assertThat(lenient.contains(
+                        NodeFactory.createURI("https://example.org/file/my data.csv"),
+                        NodeFactory.createURI("http://www.w3.org/ns/dcat#downloadURL"),
+                        NodeFactory.createURI("https://example.org/download/my data.csv")))
+                .isTrue();
+        assertThat(strict.contains(
+                        NodeFactory.createURI("https://example.org/file/my%20data.csv"),
+                        NodeFactory.createURI("http://www.w3.org/ns/dcat#downloadURL"),
+                        NodeFactory.createURI("https://example.org/download/my%20data.csv")))
+                .isTrue();
+    }
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -104,4 +105,49 @@ class JaywayJsonFinderTest {
         List<com.fasterxml.jackson.databind.JsonNode> result = finder.nodes(path);
         assertThat(result).isEmpty();
     }
+
+    @Test
+    @DisplayName("listTyped() keeps JSON scalars typed on the fast path and through Jayway")
+    void list_typed_keeps_scalar_types() throws Exception {
+        JsonNode root = jsonNode(
+                """
+            {"file":{"name":"a.csv","size":12,"ratio":0.5,"restricted":false,"tags":["x",3]},
+             "files":[{"size":7},{"size":9}]}
+        """);
+        JaywayJsonFinder finder = new JaywayJsonFinder(root);
+
+        assertThat(finder.listTyped("$.file.name")).containsExactly("a.csv");
+        assertThat(finder.listTyped("$.file.size")).containsExactly(12L);
+        assertThat(finder.listTyped("$.file.ratio")).containsExactly(0.5);
+        assertThat(finder.listTyped("$.file.restricted")).containsExactly(false);
+        assertThat(finder.listTyped("$.files[*].size")).containsExactly(7L, 9L);
+        assertThat(finder.listTyped("$.file.tags[*]")).containsExactly("x", 3L);
+        assertThat(finder.at(root.get("file")).listRootTyped("$.files[1].size")).containsExactly(9L);
+        assertThat(finder.listTyped("$.file.missing")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("$^ paths read the enclosing scopes; forEachNode walks plain arrays in place")
+    void enclosing_scopes_and_lazy_iteration() throws Exception {
+        JsonNode root = jsonNode(
+                """
+            {"id":"ds","files":[{"id":"f1","tables":[{"name":"t1"},{"name":"t2"}]}]}
+        """);
+        JaywayJsonFinder finder = new JaywayJsonFinder(root);
+        JsonNode file = root.get("files").get(0);
+        JaywayJsonFinder fileFinder = finder.at(file);
+
+        List<JsonNode> tables = new ArrayList<>();
+        fileFinder.forEachNode("$.tables[*]", tables::add);
+        JaywayJsonFinder tableFinder = fileFinder.at(tables.get(1));
+
+        assertThat(tables).hasSize(2);
+        assertThat(tables.get(0)).isSameAs(file.get("tables").get(0));
+        assertThat(tableFinder.list("$.name")).containsExactly("t2");
+        assertThat(tableFinder.list("$^.id")).containsExactly("f1");
+        assertThat(tableFinder.list("$^^.id")).containsExactly("ds");
+        assertThat(tableFinder.list("$^^^.id")).containsExactly("ds");
+        assertThat(tableFinder.listTyped("$^.id")).containsExactly("f1");
+        assertThat(tableFinder.nodes("$^.tables[0]")).containsExactly(file.get("tables").get(0));
+    }
 }
@@ -0,0 +1,148 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.util.TestUtil.getExportDataProvider;
+import static io.gdcc.spi.export.util.TestUtil.loadProps;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.ExportData;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Differential test for the tiered JSONPath evaluation: every path used by the shipped and test
+ * mapping profiles must give the same answer on the native fast path and on Jayway, for every test
+ * input.
+ */
+class JsonPathTierDifferentialTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern JSON_KEY = Pattern.compile("(^|\\.)json(\\.\\d+)?$");
+    private static final Pattern INLINE_PATH = Pattern.compile("\\$\\{(\\$[^}]*)}");
+
+    private static final List<Path> PROFILE_DIRS =
+            List.of(Paths.get("application_profiles"), Paths.get("src/test/resources/mapping"));
+
+    @Test
+    void fast_path_and_jayway_agree_on_all_mapping_profiles() throws Exception {
+        Map<String, JsonNode> inputs = loadInputs();
+        assertThat(inputs).isNotEmpty();
+
+        List<String> mismatches = new ArrayList<>();
+        int compared = 0;
+        for (Path profile : mappingFiles()) {
+            Properties properties = loadProps(profile);
+            String scopePath = properties.getProperty("scope.json");
+            Set<String> paths = collectPaths(properties);
+
+            for (Map.Entry<String, JsonNode> input : inputs.entrySet()) {
+                String where = profile + " @ " + input.getKey();
+                JaywayJsonFinder fast = new JaywayJsonFinder(input.getValue());
+                JaywayJsonFinder slow = new JaywayJsonFinder(input.getValue(), false);
+
+                List<JaywayJsonFinder[]> scopes = new ArrayList<>();
+                if (scopePath == null || scopePath.isBlank()) {
+                    scopes.add(new JaywayJsonFinder[] {fast, slow});
+                } else {
+                    List<JsonNode> fastNodes = fast.nodes(scopePath);
+                    List<JsonNode> slowNodes = slow.nodes(scopePath);
+                    if (!fastNodes.equals(slowNodes)) {
+                        mismatches.add(where + " scope " + scopePath);
+                        continue;
+                    }
+                    for (int i = 0; i < fastNodes.size(); i++) {
+                        scopes.add(new JaywayJsonFinder[] {fast.at(fastNodes.get(i)), slow.at(slowNodes.get(i))});
+                    }
+                }
+
+                for (JaywayJsonFinder[] pair : scopes) {
+                    for (String path : paths) {
+                        List<String> expected = evaluate(pair[1], path);
+                        List<String> actual = evaluate(pair[0], path);
+                        compared++;
+                        if (!expected.equals(actual)) {
+                            mismatches.add(where + " " + path + ": jayway=" + expected + " fast=" + actual);
+                        }
+                    }
+                }
+            }
+        }
+
+        assertThat(compared).isGreaterThan(0);
+        assertThat(mismatches).as(String.join("\n", mismatches)).isEmpty();
+    }
+
+    private static List<String> evaluate(JaywayJsonFinder finder, String path) {
+        return path.startsWith("$$") ? finder.listRoot(path.substring(1)) : finder.list(path);
+    }
+
+    private static Set<String> collectPaths(Properties properties) {
+        Set<String> paths = new LinkedHashSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (key.equals("scope.json")) {
+                continue;
+            }
+            if (JSON_KEY.matcher(key).find() && value.startsWith("$")) {
+                paths.add(value);
+            }
+            if (key.endsWith("format")) {
+                Matcher matcher = INLINE_PATH.matcher(value);
+                while (matcher.find()) {
+                    paths.add(matcher.group(1));
+                }
+            }
+        }
+        return paths;
+    }
+
+    private static List<Path> mappingFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path dir : PROFILE_DIRS) {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.filter(p -> p.toString().endsWith(".properties")).sorted().forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    /** Full ExportData trees (logged and built from provider fixtures) plus the small raw inputs. */
+    private static Map<String, JsonNode> loadInputs() throws IOException {
+        Map<String, JsonNode> inputs = new LinkedHashMap<>();
+        try (Stream<Path> walk = Files.walk(Paths.get("src/test/resources/logged_real_input"))) {
+            for (Path file : (Iterable<Path>) walk.filter(p -> p.toString().endsWith(".json"))
+                    .sorted()::iterator) {
+                inputs.put(file.toString(), MAPPER.readTree(file.toFile()));
+            }
+        }
+        try (Stream<Path> walk = Files.walk(Paths.get("src/test/resources/input"))) {
+            for (Path file : (Iterable<Path>) walk.sorted()::iterator) {
+                if (file.getFileName().toString().equals("datasetJson.json")) {
+                    Path dir = file.getParent();
+                    ExportData exportData = ExportData.builder()
+                            .provider(getExportDataProvider(dir.toString()))
+                            .build();
+                    inputs.put(dir.toString(), MAPPER.valueToTree(exportData));
+                } else if (file.toString().endsWith(".json")
+                        && !Files.exists(file.resolveSibling("datasetJson.json"))) {
+                    inputs.put(file.toString(), MAPPER.readTree(file.toFile()));
+                }
+            }
+        }
+        return inputs;
+    }
+}
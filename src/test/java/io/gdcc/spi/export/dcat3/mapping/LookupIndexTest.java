@@ -0,0 +1,83 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder.Options;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LookupIndexTest {
+
+    private static final String INPUT =
+            """
+        {"datasetFileDetails": [
+           {"id": 1, "persistentId": "doi:10.5072/F1"},
+           {"id": 2, "persistentId": "doi:10.5072/F2"},
+           {"id": 3, "persistentId": "doi:10.5072/F3"}],
+         "ore": {"ore:aggregates": [
+           {"schema:sameAs": "doi:10.5072/F2", "@id": "https://example.org/file/2", "checksum": "b"},
+           {"schema:sameAs": "doi:10.5072/F1", "@id": "https://example.org/file/1", "checksum": "a"}]}}
+        """;
+
+    @Test
+    @DisplayName("Each scope finds its ORE entry in an index built once per export")
+    void joins_through_one_index() throws Exception {
+        ResourceConfig config;
+        try (InputStream in = new ByteArrayInputStream(
+                """
+            scope.json = $.datasetFileDetails[*]
+            subject.iri.json = $.id
+            subject.iri.format = https://example.org/distribution/${value}
+            props.landing.predicate = dcat:landingPage
+            props.landing.as = iri
+            props.landing.json = $.persistentId
+            props.landing.lookup.index = $$.ore['ore:aggregates']
+            props.landing.lookup.key = $['schema:sameAs']
+            props.landing.lookup.value = $['@id']
+            props.checksum.predicate = spdx:checksumValue
+            props.checksum.json = $.persistentId
+            props.checksum.lookup.index = $$.ore['ore:aggregates']
+            props.checksum.lookup.key = $['schema:sameAs']
+            props.checksum.lookup.value = $.checksum
+            """
+                        .getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        JsonNode input = new ObjectMapper().readTree(INPUT);
+        EvaluationBudget budget = new EvaluationBudget(Budget.UNLIMITED);
+        MappingProgram program = MappingCompiler.compile(
+                config,
+                new Prefixes(Map.of(
+                        "dcat", "http://www.w3.org/ns/dcat#", "spdx", "http://spdx.org/rdf/terms#")),
+                null);
+
+        Graph graph = program.run(new JaywayJsonFinder(input, Options.NONE.withBudget(budget)));
+
+        assertThat(objects(graph, "http://www.w3.org/ns/dcat#landingPage"))
+                .containsExactlyInAnyOrder("https://example.org/file/1", "https://example.org/file/2");
+        assertThat(objects(graph, "http://spdx.org/rdf/terms#checksumValue")).containsExactlyInAnyOrder("a", "b");
+        // two index definitions (different values), three scopes: the array is read once per index
+        assertThat(budget.costs().get("$.ore['ore:aggregates']").evaluations()).isEqualTo(2);
+    }
+
+    private static List<String> objects(Graph graph, String predicate) {
+        return graph.find(Node.ANY, NodeFactory.createURI(predicate), Node.ANY).toList().stream()
+                .map(Triple::getObject)
+                .map(node -> node.isURI() ? node.getURI() : node.getLiteralLexicalForm())
+                .toList();
+    }
+}
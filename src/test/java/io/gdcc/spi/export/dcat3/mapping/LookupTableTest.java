@@ -0,0 +1,102 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LookupTableTest {
+
+    @Test
+    @DisplayName("Absent or empty maps compile to no table")
+    void empty_maps_compile_to_null() {
+        assertThat(LookupTable.of(null)).isNull();
+        assertThat(LookupTable.of(Map.of())).isNull();
+    }
+
+    @Test
+    @DisplayName("Value map lookups are exact")
+    void exact_lookup() {
+        LookupTable table = LookupTable.of(Map.of("CC0", "http://creativecommons.org/publicdomain/zero/1.0/"));
+
+        assertThat(table.get("CC0")).isEqualTo("http://creativecommons.org/publicdomain/zero/1.0/");
+        assertThat(table.get("cc0")).isNull();
+        assertThat(table.get(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("IRI map lookups normalize case and parameters")
+    void normalized_lookup() {
+        LookupTable table = LookupTable.of(Map.of("text/csv", "http://www.iana.org/assignments/media-types/text/csv"));
+
+        assertThat(table.getNormalized("text/csv")).isEqualTo("http://www.iana.org/assignments/media-types/text/csv");
+        assertThat(table.getNormalized("Text/CSV; charset=UTF-8"))
+                .isEqualTo("http://www.iana.org/assignments/media-types/text/csv");
+        assertThat(table.getNormalized("application/json")).isNull();
+    }
+
+    @Test
+    @DisplayName("Keys that are not normalized still match the raw value")
+    void raw_key_fallback() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("Text/Tab-Separated-Values", "https://example.org/tsv");
+        map.put("text/csv", "https://example.org/csv");
+        LookupTable table = LookupTable.of(map);
+
+        assertThat(table.getNormalized("Text/Tab-Separated-Values")).isEqualTo("https://example.org/tsv");
+        assertThat(table.getNormalized("TEXT/CSV")).isEqualTo("https://example.org/csv");
+        assertThat(table.getNormalized("text/tab-separated-values")).isNull();
+        assertThat(table.values()).containsExactlyInAnyOrder("https://example.org/tsv", "https://example.org/csv");
+    }
+
+    @Test
+    @DisplayName("Patterns apply after exact keys: longest prefix, longest suffix, then regexes by pattern text")
+    void pattern_precedence() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("text/csv", "csv");
+        map.put("prefix.text/", "text");
+        map.put("prefix.text/x-", "text-x");
+        map.put("suffix.+xml", "xml");
+        map.put("suffix.+json", "json");
+        map.put("regex.application/(vnd|x)\\..*", "vendor");
+        map.put("regex.application/.*", "application");
+        map.put("regex.(a)(b)?c", "abc");
+        LookupTable table = LookupTable.of(map);
+
+        assertThat(table.get("text/csv")).isEqualTo("csv");
+        assertThat(table.get("text/plain")).isEqualTo("text");
+        assertThat(table.get("text/x-python")).isEqualTo("text-x");
+        assertThat(table.get("application/ld+json")).isEqualTo("json");
+        assertThat(table.get("text/rdf+xml")).isEqualTo("text");
+        // regexes are tried by pattern text: "application/(" sorts before "application/."
+        assertThat(table.get("application/vnd.ms-excel")).isEqualTo("vendor");
+        assertThat(table.get("application/pdf")).isEqualTo("application");
+        // groups inside patterns do not shift the dispatch
+        assertThat(table.get("ac")).isEqualTo("abc");
+        assertThat(table.get("image/png")).isNull();
+        assertThat(table.values()).contains("text-x", "vendor", "abc");
+    }
+
+    @Test
+    @DisplayName("IRI map patterns match the normalized value")
+    void normalized_patterns() {
+        LookupTable table = LookupTable.of(Map.of("prefix.image/", "https://example.org/image"));
+
+        assertThat(table.getNormalized("Image/PNG; q=0.9")).isEqualTo("https://example.org/image");
+    }
+
+    @Test
+    @DisplayName("Invalid regexes and back-references are left out")
+    void invalid_regexes_are_skipped() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("regex.(unclosed", "x");
+        map.put("regex.(a)\\1", "y");
+        map.put("regex.b+", "z");
+        LookupTable table = LookupTable.of(map);
+
+        assertThat(table.get("bbb")).isEqualTo("z");
+        assertThat(table.get("aa")).isNull();
+    }
+}
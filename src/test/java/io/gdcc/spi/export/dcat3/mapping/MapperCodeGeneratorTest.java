@@ -0,0 +1,222 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Element;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.config.model.RootConfig;
+import io.gdcc.spi.export.dcat3.mapping.MapperCodeGenerator.GeneratedMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.apache.jena.graph.Graph;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MapperCodeGeneratorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // generated classes are defined once per JVM; names carry the config fingerprint
+    private static final Map<String, ResourceMapperFactory> DEFINED = new HashMap<>();
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    @DisplayName("Generated mappers give the golden graphs of the baseline mapper for every profile and input")
+    void generated_matches_golden_graphs() throws Exception {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(javac != null, "needs a JDK to compile generated sources");
+        Map<String, JsonNode> inputs = GoldenGraphs.inputs();
+        List<String> mismatches = new ArrayList<>();
+        int compared = 0;
+
+        for (String rootFile : GoldenGraphs.ROOTS) {
+            RootConfig root = GoldenGraphs.loadRoot(rootFile);
+            Prefixes prefixes = new Prefixes(root.prefixes());
+            List<GeneratedMapper> generated = MapperCodeGenerator.generate(root);
+            Map<String, ResourceMapperFactory> factories = define(javac, generated);
+
+            for (Element element : root.elements()) {
+                ResourceConfig config = GoldenGraphs.loadElement(root, element);
+                String fingerprint = ResourceMappers.fingerprint(config, prefixes, element.typeCurieOrIri());
+                ResourceMapperFactory factory = factories.get(fingerprint);
+                assertThat(factory).as(element.id()).isNotNull();
+
+                ResourceMapper mapper = factory.create(config, prefixes, element.typeCurieOrIri());
+                for (Map.Entry<String, JsonNode> input : inputs.entrySet()) {
+                    Graph actual = mapper.buildGraph(new JaywayJsonFinder(input.getValue()));
+                    Graph expected = GoldenGraphs.expected(rootFile, element, input.getKey(), actual);
+                    compared++;
+                    if (expected == null || !expected.isIsomorphicWith(actual)) {
+                        mismatches.add(rootFile + " " + element.id() + " @ " + input.getKey() + ": golden="
+                                + (expected == null ? "missing" : expected.size()) + " generated=" + actual.size());
+                    }
+                }
+            }
+        }
+
+        assertThat(compared).isGreaterThan(0);
+        assertThat(mismatches).as(String.join("\n", mismatches)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Generated source folds predicates and constants and reads simple paths directly")
+    void generated_source_is_specialised() throws Exception {
+        ResourceConfig config;
+        try (InputStream in = new java.io.ByteArrayInputStream(
+                """
+                subject.iri.const = https://example.org/catalog
+                props.title.predicate = dct:title
+                props.title.json = $.datasetVersion.title
+                props.title.lang = en
+                props.kind.predicate = dct:type
+                props.kind.as = iri
+                props.kind.const = https://example.org/kind
+                props.license.predicate = dct:license
+                props.license.as = iri
+                props.license.json = $.license
+                props.license.map.CC0 = http://creativecommons.org/publicdomain/zero/1.0/
+                """
+                        .getBytes(java.nio.charset.StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        Prefixes prefixes = new Prefixes(Map.of("dct", "http://purl.org/dc/terms/", "dcat", "http://www.w3.org/ns/dcat#"));
+
+        GeneratedMapper generated = MapperCodeGenerator.generate("catalog", config, prefixes, "dcat:Catalog");
+
+        assertThat(generated.className()).startsWith("GeneratedCatalogMapper_");
+        assertThat(generated.fingerprint()).isEqualTo(ResourceMappers.fingerprint(config, prefixes, "dcat:Catalog"));
+        assertThat(generated.source())
+                .contains("SUBJECT = NodeFactory.createURI(\"https://example.org/catalog\")")
+                .contains("NodeFactory.createURI(\"http://purl.org/dc/terms/title\")")
+                .contains("SimpleJsonPath.compile(\"$.datasetVersion.title\")")
+                .contains("sink.literal(lexical, null, \"en\")")
+                .contains("NodeFactory.createURI(\"https://example.org/kind\")")
+                // mapped values keep the compiled step
+                .contains("program().prop(\"license\")");
+    }
+
+    @Test
+    @DisplayName("Code lists count by name and content, not by the directory they are deployed in")
+    void code_list_fingerprint_ignores_location() throws Exception {
+        String element = """
+                props.format.predicate = dct:format
+                props.format.as = iri
+                props.format.json = $.type
+                props.format.codeList = types.tsv
+                """;
+        Prefixes prefixes = new Prefixes(Map.of("dct", "http://purl.org/dc/terms/"));
+        Path build = Files.createDirectories(tmp.resolve("build"));
+        Path deployed = Files.createDirectories(tmp.resolve("deployed"));
+        Path edited = Files.createDirectories(tmp.resolve("edited"));
+        Files.writeString(build.resolve("types.tsv"), "csv\thttps://example.org/CSV\n");
+        Files.writeString(deployed.resolve("types.tsv"), "csv\thttps://example.org/CSV\n");
+        Files.writeString(edited.resolve("types.tsv"), "csv\thttps://example.org/TEXT\n");
+
+        String generatedFrom = ResourceMappers.fingerprint(load(build, element), prefixes, null);
+
+        assertThat(load(deployed, element).props().get("format").codeList()).startsWith(deployed.toString());
+        assertThat(ResourceMappers.fingerprint(load(deployed, element), prefixes, null)).isEqualTo(generatedFrom);
+        assertThat(ResourceMappers.fingerprint(load(edited, element), prefixes, null)).isNotEqualTo(generatedFrom);
+    }
+
+    @Test
+    @DisplayName("Paged and grouped runs of a generated mapper use its generated scope body")
+    void generated_body_runs_for_given_scopes() throws Exception {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(javac != null, "needs a JDK to compile generated sources");
+        ResourceConfig config = load(
+                tmp,
+                """
+                scope.json = $.files[*]
+                subject.iri.json = $.id
+                props.title.predicate = dct:title
+                props.title.json = $.name
+                """);
+        Prefixes prefixes = new Prefixes(Map.of("dct", "http://purl.org/dc/terms/"));
+        GeneratedMapper generated = MapperCodeGenerator.generate("file", config, prefixes, null);
+        ResourceMapper mapper = define(javac, List.of(generated))
+                .get(generated.fingerprint())
+                .create(config, prefixes, null);
+        JsonNode input = MAPPER.readTree(
+                "{\"files\":[{\"id\":\"https://x/1\",\"name\":\"a\"},{\"id\":\"https://x/2\",\"name\":\"b\"}]}");
+        JaywayJsonFinder finder = new JaywayJsonFinder(input);
+
+        assertThat(mapper.scopeBody()).isNotNull();
+        assertThat(mapper.buildGraph(finder, mapper.scopes(finder).subList(1, 2), 1).size()).isEqualTo(1);
+        assertThat(mapper.buildGraph(finder, mapper.scopes(finder)).isIsomorphicWith(mapper.buildGraph(finder)))
+                .isTrue();
+    }
+
+    private static ResourceConfig load(Path baseDir, String properties) throws IOException {
+        try (InputStream in = new java.io.ByteArrayInputStream(
+                properties.getBytes(java.nio.charset.StandardCharsets.UTF_8))) {
+            return new ResourceConfigLoader(baseDir).load(in);
+        }
+    }
+
+    @Test
+    @DisplayName("Without a matching generated mapper the compiled mapper is used")
+    void falls_back_to_compiled_mapper() throws Exception {
+        RootConfig root = GoldenGraphs.loadRoot(GoldenGraphs.ROOTS.get(1));
+        Element element = root.elements().get(0);
+        ResourceConfig config = GoldenGraphs.loadElement(root, element);
+
+        ResourceMapper mapper =
+                ResourceMappers.create(config, new Prefixes(root.prefixes()), element.typeCurieOrIri());
+
+        assertThat(mapper.getClass()).isEqualTo(ResourceMapper.class);
+    }
+
+    /** Compile the generated sources and define them next to the mapping package. */
+    private Map<String, ResourceMapperFactory> define(JavaCompiler javac, List<GeneratedMapper> generated)
+            throws Exception {
+        Path sources = tmp.resolve("src");
+        Path classes = tmp.resolve("classes");
+        Files.createDirectories(sources);
+        Files.createDirectories(classes);
+        List<String> args = new ArrayList<>(
+                List.of("-d", classes.toString(), "-cp", System.getProperty("java.class.path"), "-proc:none"));
+        for (GeneratedMapper mapper : generated) {
+            if (!DEFINED.containsKey(mapper.fingerprint())) {
+                Path file = sources.resolve(mapper.className() + ".java");
+                Files.writeString(file, mapper.source());
+                args.add(file.toString());
+            }
+        }
+        if (args.size() > 5) {
+            assertThat(javac.run(null, null, null, args.toArray(new String[0])))
+                    .as("generated sources compile")
+                    .isZero();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            String packageDir = MapperCodeGenerator.PACKAGE.replace('.', '/');
+            for (GeneratedMapper mapper : generated) {
+                if (DEFINED.containsKey(mapper.fingerprint())) {
+                    continue;
+                }
+                Path dir = classes.resolve(packageDir);
+                lookup.defineClass(Files.readAllBytes(dir.resolve(mapper.className() + ".class")));
+                Class<?> factory =
+                        lookup.defineClass(Files.readAllBytes(dir.resolve(mapper.className() + "$Factory.class")));
+                DEFINED.put(
+                        mapper.fingerprint(),
+                        (ResourceMapperFactory) factory.getDeclaredConstructor().newInstance());
+            }
+        }
+        return DEFINED;
+    }
+}
@@ -0,0 +1,346 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.Budget;
+import io.gdcc.spi.export.dcat3.config.model.Element;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.config.model.RootConfig;
+import io.gdcc.spi.export.dcat3.mapping.JaywayJsonFinder.Options;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MappingCompilerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static ResourceConfig config(String properties) throws IOException {
+        try (InputStream in = new java.io.ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8))) {
+            return new ResourceConfigLoader().load(in);
+        }
+    }
+
+    private static Prefixes prefixes() {
+        return new Prefixes(Map.of(
+                "dcat", "http://www.w3.org/ns/dcat#",
+                "dct", "http://purl.org/dc/terms/",
+                "xsd", "http://www.w3.org/2001/XMLSchema#"));
+    }
+
+    /** The expected model written as Turtle, with the prefixes above. */
+    private static Model turtle(String triples) {
+        String prefixes = "@prefix dcat: <http://www.w3.org/ns/dcat#> .\n"
+                + "@prefix dct: <http://purl.org/dc/terms/> .\n";
+        return ModelFactory.createDefaultModel().read(new StringReader(prefixes + triples), null, "TTL");
+    }
+
+    @Test
+    @DisplayName("Constant objects are built once and emitted for every scope")
+    void constant_objects_are_prebuilt() throws Exception {
+        ResourceConfig config = config(
+                """
+            scope.json = $.files[*]
+            subject.iri.json = $.uri
+            props.kind.predicate = dct:type
+            props.kind.as = iri
+            props.kind.const = https://example.org/kind/file
+            props.lang.predicate = dct:language
+            props.lang.as = literal
+            props.lang.const = nl
+            props.lang.datatype = xsd:string
+            props.blank.predicate = dct:title
+            props.blank.as = literal
+            props.blank.const = \\u0020
+        """);
+        JaywayJsonFinder finder =
+                new JaywayJsonFinder(MAPPER.readTree("{\"files\":[{\"uri\":\"https://x/1\"},{\"uri\":\"https://x/2\"}]}"));
+
+        Model model = new ResourceMapper(config, prefixes(), "dcat:Distribution").build(finder);
+
+        assertThat(model.listSubjects().toList()).hasSize(2);
+        // rdf:type, dct:type and dct:language per file; the blank constant emits nothing
+        assertThat(model.size()).isEqualTo(6);
+        assertThat(model.isIsomorphicWith(turtle(
+                        """
+            <https://x/1> a dcat:Distribution; dct:type <https://example.org/kind/file>; dct:language "nl" .
+            <https://x/2> a dcat:Distribution; dct:type <https://example.org/kind/file>; dct:language "nl" .
+            """)))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("Node templates may reference each other and unknown node refs emit nothing")
+    void node_templates_are_linked_after_lowering() throws Exception {
+        ResourceConfig config = config(
+                """
+            subject.iri.const = https://example.org/ds
+            props.contact.predicate = dcat:contactPoint
+            props.contact.as = node-ref
+            props.contact.node = outer
+            props.missing.predicate = dct:publisher
+            props.missing.as = node-ref
+            props.missing.node = nope
+            nodes.outer.kind = bnode
+            nodes.outer.props.inner.predicate = dct:relation
+            nodes.outer.props.inner.as = node-ref
+            nodes.outer.props.inner.node = inner
+            nodes.inner.kind = iri
+            nodes.inner.iri.const = https://example.org/inner
+        """);
+        JaywayJsonFinder finder = new JaywayJsonFinder(MAPPER.readTree("{}"));
+
+        Model model = new ResourceMapper(config, prefixes(), "dcat:Dataset").build(finder);
+
+        assertThat(model.size()).isEqualTo(3);
+        assertThat(model.isIsomorphicWith(turtle(
+                        """
+            <https://example.org/ds> a dcat:Dataset; dcat:contactPoint [ dct:relation <https://example.org/inner> ] .
+            """)))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("Scope-invariant IRI nodes are built once per run and linked from every scope")
+    void invariant_nodes_are_materialized_once() throws Exception {
+        ResourceConfig config = config(
+                """
+            scope.json = $.files[*]
+            subject.iri.json = $.uri
+            props.service.predicate = dcat:accessService
+            props.service.as = node-ref
+            props.service.node = service
+            props.license.predicate = dct:license
+            props.license.as = node-ref
+            props.license.node = license
+            nodes.service.kind = iri
+            nodes.service.type = dcat:DataService
+            nodes.service.iri.json = $$.env.apiBaseUrl
+            nodes.service.props.url.predicate = dcat:endpointURL
+            nodes.service.props.url.as = iri
+            nodes.service.props.url.json = $$.env.apiBaseUrl
+            nodes.license.kind = iri
+            nodes.license.iri.json = $.license
+        """);
+        JsonNode input = MAPPER.readTree(
+                """
+            {"env": {"apiBaseUrl": "https://x/api"},
+             "files": [{"uri": "https://x/1", "license": "https://l/a"},
+                       {"uri": "https://x/2", "license": "https://l/b"},
+                       {"uri": "https://x/3", "license": "https://l/a"}]}
+        """);
+        EvaluationBudget budget = new EvaluationBudget(Budget.UNLIMITED);
+
+        Model model = new ResourceMapper(config, prefixes(), "dcat:Distribution")
+                .build(new JaywayJsonFinder(input, Options.NONE.withBudget(budget)));
+
+        // per file: rdf:type, accessService, license; once: the service type and endpointURL
+        assertThat(model.size()).isEqualTo(11);
+        // iri.json and the nested prop, each read in the first scope only
+        assertThat(budget.costs().get("$.env.apiBaseUrl").evaluations()).isEqualTo(2);
+        assertThat(model.isIsomorphicWith(turtle(
+                        """
+            <https://x/1> a dcat:Distribution; dcat:accessService <https://x/api>; dct:license <https://l/a> .
+            <https://x/2> a dcat:Distribution; dcat:accessService <https://x/api>; dct:license <https://l/b> .
+            <https://x/3> a dcat:Distribution; dcat:accessService <https://x/api>; dct:license <https://l/a> .
+            <https://x/api> a dcat:DataService; dcat:endpointURL <https://x/api> .
+            """)))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("when conditions gate properties before their value paths are evaluated")
+    void when_conditions_skip_value_paths() throws Exception {
+        ResourceConfig config = config(
+                """
+            scope.json = $.files[*]
+            subject.iri.json = $.uri
+            props.title.predicate = dct:title
+            props.title.json = $$.catalog.title
+            props.title.when = $.public == true
+            props.size.predicate = dcat:byteSize
+            props.size.json = $.size
+            props.size.when = $.size >= 100
+            props.rights.predicate = dct:accessRights
+            props.rights.const = restricted
+            props.rights.when = $.public != true && ($.size || $$.catalog.title == 'Catalog')
+        """);
+        JsonNode input = MAPPER.readTree(
+                """
+            {"catalog": {"title": "Catalog"},
+             "files": [{"uri": "https://x/1", "public": true, "size": 10},
+                       {"uri": "https://x/2", "public": false, "size": 5},
+                       {"uri": "https://x/3", "size": 200}]}
+        """);
+        EvaluationBudget budget = new EvaluationBudget(Budget.UNLIMITED);
+
+        Model model = new ResourceMapper(config, prefixes(), null)
+                .build(new JaywayJsonFinder(input, Options.NONE.withBudget(budget)));
+
+        assertThat(subjectsWith(model, "http://purl.org/dc/terms/title")).containsExactly("https://x/1");
+        // numeric comparison: "5" is not >= 100
+        assertThat(subjectsWith(model, "http://www.w3.org/ns/dcat#byteSize")).containsExactly("https://x/3");
+        assertThat(subjectsWith(model, "http://purl.org/dc/terms/accessRights"))
+                .containsExactlyInAnyOrder("https://x/2", "https://x/3");
+        // the root title is read once, for the only public file
+        assertThat(budget.costs().get("$.catalog.title").evaluations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("dependencies() bounds what an element reads by the member prefixes of its paths")
+    void dependencies_are_member_prefixes() throws Exception {
+        ResourceConfig site = config(
+                """
+            subject.iri.json = $$.env.apiBaseUrl
+            props.title.predicate = dct:title
+            props.title.const = Dataverse API
+            props.name.predicate = dct:publisher
+            props.name.format = ${$.datasetSchemaDotOrg.includedInDataCatalog.name} (${value})
+            props.name.json = $.env.siteName
+            props.name.when = $.env.public == true
+            props.count.predicate = dct:extent
+            props.count.aggregate.over = $$.datasetFileDetails[*]
+            props.count.aggregate = count
+        """);
+        ResourceConfig scoped = config(
+                """
+            scope.json = $.datasetFileDetails[*]
+            subject.iri.json = $.uri
+            props.title.predicate = dct:title
+            props.title.json = $..label
+            props.catalog.predicate = dct:isPartOf
+            props.catalog.json = $$.env.apiBaseUrl
+        """);
+        ResourceConfig deepScan = config(
+                """
+            subject.iri.const = https://example.org/catalog
+            props.title.predicate = dct:title
+            props.title.json = $..citation.title
+        """);
+        ResourceConfig rootFilter = config(
+                """
+            subject.iri.const = https://example.org/catalog
+            props.title.predicate = dct:title
+            props.title.json = $.files[?(@.id == $.primary)].name
+        """);
+
+        assertThat(MappingCompiler.dependencies(site))
+                .containsExactlyInAnyOrder(
+                        "$.env.apiBaseUrl",
+                        "$.datasetSchemaDotOrg.includedInDataCatalog.name",
+                        "$.env.siteName",
+                        "$.env.public",
+                        "$.datasetFileDetails");
+        assertThat(MappingCompiler.dependencies(scoped))
+                .containsExactlyInAnyOrder("$.datasetFileDetails", "$.env.apiBaseUrl");
+        assertThat(MappingCompiler.dependencies(deepScan)).isNull();
+        assertThat(MappingCompiler.dependencies(rootFilter)).isNull();
+    }
+
+    @Test
+    @DisplayName("$^ paths going past the outermost scope read the root and are root dependencies")
+    void enclosing_paths_past_the_outermost_scope_are_root_dependencies() throws Exception {
+        ResourceConfig flat = config(
+                """
+            scope.json = $.datasetFileDetails[*]
+            subject.iri.json = $.id
+            props.title.predicate = dct:title
+            props.title.json = $^.datasetTitle
+        """);
+        ResourceConfig nested = config(
+                """
+            scope.json = $.files[*]
+            scope.json.2 = $.dataTables[*]
+            subject.iri.json = $.name
+            subject.iri.format = https://example.org/${$^.id}/${value}
+            props.dataset.predicate = dct:source
+            props.dataset.json = $^^.persistentId
+        """);
+
+        assertThat(MappingCompiler.dependencies(flat)).containsExactly("$.datasetFileDetails", "$.datasetTitle");
+        assertThat(MappingCompiler.rootDependencies(flat)).containsExactly("$.datasetTitle");
+        assertThat(MappingCompiler.scopeDependencies(flat)).containsExactly("$.id");
+        assertThat(MappingCompiler.dependencies(nested)).containsExactly("$.files", "$.persistentId");
+        assertThat(MappingCompiler.rootDependencies(nested)).containsExactly("$.persistentId");
+    }
+
+    @Test
+    @DisplayName("scopeDependencies() bounds what a scope reads of its scope node")
+    void scope_dependencies_are_scope_relative_prefixes() throws Exception {
+        ResourceConfig files = config(
+                """
+            scope.json = $.datasetFileDetails[*]
+            subject.iri.format = ${$$.env.apiBaseUrl}access/datafile/${value}
+            subject.iri.json = $.id
+            props.title.predicate = dct:title
+            props.title.json = $.filename
+            props.title.when = $.restricted == false
+            props.checksum.predicate = spdx:checksum
+            props.checksum.json = $.checksum[?(@.type == 'MD5')].value
+        """);
+        ResourceConfig deepScan = config(
+                """
+            scope.json = $.datasetFileDetails[*]
+            subject.iri.json = $.uri
+            props.title.predicate = dct:title
+            props.title.json = $..label
+        """);
+        ResourceConfig unscoped = config(
+                """
+            subject.iri.json = $.uri
+        """);
+
+        assertThat(MappingCompiler.scopeDependencies(files))
+                .containsExactlyInAnyOrder("$.id", "$.filename", "$.restricted", "$.checksum");
+        assertThat(MappingCompiler.scopeDependencies(deepScan)).isNull();
+        assertThat(MappingCompiler.scopeDependencies(unscoped)).isNull();
+    }
+
+    @Test
+    @DisplayName("Compiled programs give the golden graphs of the baseline mapper for every profile and input")
+    void compiled_matches_golden_graphs() throws Exception {
+        Map<String, JsonNode> inputs = GoldenGraphs.inputs();
+        List<String> mismatches = new ArrayList<>();
+        int compared = 0;
+
+        for (String rootFile : GoldenGraphs.ROOTS) {
+            RootConfig root = GoldenGraphs.loadRoot(rootFile);
+            Prefixes prefixes = new Prefixes(root.prefixes());
+            for (Element element : root.elements()) {
+                ResourceConfig config = GoldenGraphs.loadElement(root, element);
+                ResourceMapper compiled = new ResourceMapper(config, prefixes, element.typeCurieOrIri());
+                for (Map.Entry<String, JsonNode> input : inputs.entrySet()) {
+                    Graph actual = compiled.buildGraph(new JaywayJsonFinder(input.getValue()));
+                    Graph expected = GoldenGraphs.expected(rootFile, element, input.getKey(), actual);
+                    compared++;
+                    if (expected == null || !expected.isIsomorphicWith(actual)) {
+                        mismatches.add(rootFile + " " + element.id() + " @ " + input.getKey() + ": golden="
+                                + (expected == null ? "missing" : expected.size()) + " compiled=" + actual.size());
+                    }
+                }
+            }
+        }
+
+        assertThat(compared).isGreaterThan(0);
+        assertThat(mismatches).as(String.join("\n", mismatches)).isEmpty();
+    }
+
+    private static List<String> subjectsWith(Model model, String predicate) {
+        return model.listSubjectsWithProperty(model.createProperty(predicate)).toList().stream()
+                .map(Resource::getURI)
+                .toList();
+    }
+}
@@ -0,0 +1,121 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NodeCacheTest {
+
+    @Test
+    @DisplayName("IRIs and literals are interned by value, datatype and language")
+    void interns_by_value() {
+        NodeCache cache = new NodeCache();
+
+        assertThat(cache.iri("https://example.org/a")).isSameAs(cache.iri("https://example.org/a"));
+        assertThat(cache.literal("text/csv", null, null)).isSameAs(cache.literal("text/csv", null, null));
+        assertThat(cache.literal("csv", null, "en")).isNotSameAs(cache.literal("csv", null, null));
+        assertThat(cache.literal("1", XSDDatatype.XSDinteger, null))
+                .isEqualTo(NodeFactory.createLiteralDT("1", XSDDatatype.XSDinteger));
+        assertThat(cache.cachedIri("https://example.org/b")).isNull();
+        assertThat(cache.size()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("The export cache is bounded and evicts its oldest entries")
+    void bounded_cache_evicts_oldest() {
+        NodeCache cache = new NodeCache(2);
+        for (String iri : List.of("https://example.org/1", "https://example.org/2", "https://example.org/3")) {
+            cache.iri(iri);
+            cache.iri(iri);
+        }
+
+        assertThat(cache.cachedIri("https://example.org/1")).isNull();
+        assertThat(cache.cachedIri("https://example.org/3")).isNotNull();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("The export cache interns a value from its second occurrence on")
+    void bounded_cache_admits_repeated_values() {
+        NodeCache cache = new NodeCache(16);
+        NodeCache.LiteralKey key = new NodeCache.LiteralKey("file-1.csv", null, null);
+
+        Node first = cache.literal(key);
+        assertThat(cache.cachedLiteral(key)).isNull();
+        assertThat(cache.iri("https://example.org/f/1")).isNotNull();
+        assertThat(cache.size()).isZero();
+
+        Node second = cache.literal(key);
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+        assertThat(cache.literal(key)).isSameAs(second);
+        assertThat(cache.cachedLiteral(key)).isSameAs(second);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Repeated input and mapped values share one node across scopes")
+    void repeated_values_share_nodes() throws Exception {
+        ResourceConfig config;
+        try (InputStream in = new java.io.ByteArrayInputStream(
+                """
+                scope.json = $.files[*]
+                subject.iri.json = $.uri
+                props.format.predicate = dct:format
+                props.format.json = $.contentType
+                props.license.predicate = dct:license
+                props.license.as = iri
+                props.license.json = $.license
+                props.license.map.CC0 = http://creativecommons.org/publicdomain/zero/1.0/
+                """
+                        .getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        JsonNode input = new ObjectMapper()
+                .readTree(
+                        """
+                {"files": [
+                  {"uri": "https://example.org/f/1", "contentType": "text/csv", "license": "CC0"},
+                  {"uri": "https://example.org/f/2", "contentType": "text/csv", "license": "CC0"},
+                  {"uri": "https://example.org/f/3", "contentType": "text/csv", "license": "CC0"}
+                ]}
+                """);
+        MappingProgram program =
+                MappingCompiler.compile(config, new Prefixes(Map.of("dct", "http://purl.org/dc/terms/")), null);
+
+        Graph graph = program.run(new JaywayJsonFinder(input));
+
+        List<Triple> formats = graph.find(Node.ANY, NodeFactory.createURI("http://purl.org/dc/terms/format"), Node.ANY)
+                .toList();
+        List<Triple> licenses = graph.find(
+                        Node.ANY, NodeFactory.createURI("http://purl.org/dc/terms/license"), Node.ANY)
+                .toList();
+        // input values are interned from their second occurrence, config-derived ones from the start
+        assertThat(formats).hasSize(3);
+        assertThat(distinctInstances(formats)).isEqualTo(2);
+        assertThat(licenses).hasSize(3);
+        assertThat(distinctInstances(licenses)).isEqualTo(1);
+    }
+
+    private static int distinctInstances(List<Triple> triples) {
+        Set<Node> objects = Collections.newSetFromMap(new IdentityHashMap<>());
+        triples.forEach(triple -> objects.add(triple.getObject()));
+        return objects.size();
+    }
+}
@@ -0,0 +1,85 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.util.TestUtil.loadProps;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.rdf.model.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compiled ({@link ResourceMapper}) mapping of the AP_NL30 elements over the logged real input. It
+ * only uses the constructor and {@code build} of the baseline mapper: copied onto the baseline commit
+ * with the JMH test dependencies, it measures the tree-walking mapper the compiled one replaced. Not
+ * part of the test suite; run from the IDE or with {@code java -cp target/test-classes:<test
+ * classpath> ...ResourceMapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceMapperBenchmark {
+
+    private static final Path PROFILE = Paths.get("application_profiles/AP_NL30/mapping");
+    private static final Path INPUT = Paths.get("src/test/resources/logged_real_input/ExportData_DCAT_AP_NL30.json");
+
+    @Param({"dcat-dataset", "dcat-distribution"})
+    public String element;
+
+    private JsonNode root;
+    private ResourceMapper compiled;
+
+    @Setup
+    public void setUp() throws IOException {
+        ResourceConfig config;
+        try (InputStream in = Files.newInputStream(PROFILE.resolve(element + ".properties"))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        Properties rootProps = loadProps(PROFILE.resolve("dcat-root.properties"));
+        Map<String, String> prefixes = new HashMap<>();
+        rootProps.stringPropertyNames().stream()
+                .filter(key -> key.startsWith("prefix."))
+                .forEach(key -> prefixes.put(key.substring("prefix.".length()), rootProps.getProperty(key).trim()));
+
+        root = new ObjectMapper().readTree(INPUT.toFile());
+        compiled = new ResourceMapper(config, new Prefixes(prefixes), "dcat:Resource");
+    }
+
+    @Benchmark
+    public Model compiled() {
+        return compiled.build(new JaywayJsonFinder(root));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(ResourceMapperBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
@@ -7,16 +7,22 @@ import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
 import io.gdcc.spi.export.dcat3.config.model.NodeTemplate;
 import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
 import io.gdcc.spi.export.dcat3.config.model.ValueSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -258,6 +264,7 @@ class ResourceMapperTest {
                 emptyMap(),
                 emptyMap(),
                 null,
+                null,
                 null);
 
         Map<String, NodeTemplate> nodes = new LinkedHashMap<>();
@@ -313,6 +320,7 @@ class ResourceMapperTest {
                 emptyMap(),
                 emptyMap(),
                 null,
+                null,
                 null);
 
         Map<String, NodeTemplate> nodes = new LinkedHashMap<>();
@@ -364,7 +372,7 @@ class ResourceMapperTest {
         nodeMap.put("tech", "http://publications.europa.eu/resource/authority/data-theme/TECH");
 
         NodeTemplate themeT = new NodeTemplate(
-                "theme", "iri", null, "$.themes[*]", emptyList(), null, "skos:Concept", true, nodeMap, emptyMap(), null, null);
+                "theme", "iri", null, "$.themes[*]", emptyList(), null, "skos:Concept", true, nodeMap, emptyMap(), null, null, null);
 
         Map<String, NodeTemplate> nodes = new LinkedHashMap<>();
         nodes.put("theme", themeT);
@@ -483,7 +491,7 @@ class ResourceMapperTest {
 
         // NodeTemplate 'legi' is kind=iri and type=eli:LegalResource, but input is blank.
         NodeTemplate legiT = new NodeTemplate(
-                "legi", "iri", null, "$.legi[*]", emptyList(), null, "eli:LegalResource", true, emptyMap(), emptyMap(), null, null);
+                "legi", "iri", null, "$.legi[*]", emptyList(), null, "eli:LegalResource", true, emptyMap(), emptyMap(), null, null, null);
 
         Map<String, NodeTemplate> nodes = new LinkedHashMap<>();
         nodes.put("legi", legiT);
@@ -537,7 +545,7 @@ class ResourceMapperTest {
         nodeProps.put("prefLabel", prefLabel);
 
         NodeTemplate dtypeT = new NodeTemplate(
-                "dtype", "bnode", null, null, emptyList(), null, "skos:Concept", false, emptyMap(), nodeProps, null, null);
+                "dtype", "bnode", null, null, emptyList(), null, "skos:Concept", false, emptyMap(), nodeProps, null, null, null);
 
         Map<String, NodeTemplate> nodes = new LinkedHashMap<>();
         nodes.put("dtype", dtypeT);
@@ -592,7 +600,8 @@ class ResourceMapperTest {
                 nodeMap,
                 emptyMap(),
                 null,
-                "http://publications.europa.eu/resource/authority/access-right/PUBLIC");
+                "http://publications.europa.eu/resource/authority/access-right/PUBLIC",
+                null);
 
         Map<String, NodeTemplate> nodes = new LinkedHashMap<>();
         nodes.put("ar", ar);
@@ -831,4 +840,128 @@ class ResourceMapperTest {
         assertThat(statusStmt3.getObject().isLiteral()).isTrue();
         assertThat(statusStmt3.getObject().asLiteral().getString()).isEqualTo("not specified");
     }
+
+    @Test
+    @DisplayName("build() creates datatype literals from typed JSON numbers without changing their form")
+    void build_typed_literal_from_json_number() throws Exception {
+        Map<String, String> ns = new LinkedHashMap<>();
+        ns.put("dcat", "http://www.w3.org/ns/dcat#");
+        ns.put("xsd", "http://www.w3.org/2001/XMLSchema#");
+        Prefixes prefixes = new Prefixes(ns);
+
+        ResourceConfig rc = mock(ResourceConfig.class, RETURNS_DEEP_STUBS);
+        when(rc.subject().iriConst()).thenReturn(null);
+        when(rc.subject().iriTemplate()).thenReturn(null);
+        when(rc.subject().iriJson()).thenReturn("$.id");
+        when(rc.subject().iriFormat()).thenReturn("http://example.org/file/${value}");
+        when(rc.subject().iriJsonPaths()).thenReturn(emptyList());
+
+        ValueSource vsSize = mock(ValueSource.class);
+        when(vsSize.predicate()).thenReturn("dcat:byteSize");
+        when(vsSize.as()).thenReturn("literal");
+        when(vsSize.json()).thenReturn("$.filesize");
+        when(vsSize.datatype()).thenReturn("xsd:nonNegativeInteger");
+        when(vsSize.jsonPaths()).thenReturn(emptyList());
+
+        Map<String, ValueSource> props = new LinkedHashMap<>();
+        props.put("byteSize", vsSize);
+        when(rc.props()).thenReturn(props);
+        when(rc.nodes()).thenReturn(emptyMap());
+        when(rc.scopeJson()).thenReturn("$.files[*]");
+
+        JaywayJsonFinder finder = finderFor("{\"files\":[{\"id\":1,\"filesize\":1024},{\"id\":2,\"filesize\":\" 7 \"}]}");
+
+        Model model = new ResourceMapper(rc, prefixes, "dcat:Distribution").build(finder);
+
+        RDFNode first = model.getResource("http://example.org/file/1")
+                .getProperty(model.getProperty("http://www.w3.org/ns/dcat#byteSize"))
+                .getObject();
+        RDFNode second = model.getResource("http://example.org/file/2")
+                .getProperty(model.getProperty("http://www.w3.org/ns/dcat#byteSize"))
+                .getObject();
+        assertThat(first.asLiteral().getLexicalForm()).isEqualTo("1024");
+        assertThat(first.asLiteral().getDatatypeURI()).isEqualTo("http://www.w3.org/2001/XMLSchema#nonNegativeInteger");
+        assertThat(second.asLiteral().getLexicalForm()).isEqualTo("7");
+    }
+
+    @Test
+    @DisplayName("Nested scopes map one subject per innermost node; $^ reads the levels above")
+    void nested_scopes() throws Exception {
+        String properties =
+                """
+            scope.json = $.files[*]
+            scope.json.2 = $.dataTables[*]
+            scope.json.3 = $.dataVariables[*]
+            subject.iri.json = $.name
+            subject.iri.format = https://example.org/${$^^.id}/${$^.name}/${value}
+            props.label.predicate = dct:title
+            props.label.json = $.name
+            props.file.predicate = dct:isPartOf
+            props.file.json = $^^.id
+            props.dataset.predicate = dct:source
+            props.dataset.json = $$.id
+            """;
+        ResourceConfig config;
+        try (InputStream in = new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        JaywayJsonFinder finder = finderFor(
+                """
+            {"id": "ds", "files": [
+              {"id": "f1", "dataTables": [{"name": "t1", "dataVariables": [{"name": "age"}, {"name": "sex"}]}]},
+              {"id": "f2", "dataTables": [{"name": "t2", "dataVariables": [{"name": "income"}]}]},
+              {"id": "f3"}
+            ]}
+            """);
+
+        Model model = new ResourceMapper(config, new Prefixes(Map.of("dct", "http://purl.org/dc/terms/")), null)
+                .build(finder);
+
+        assertThat(config.nestedScopes()).containsExactly("$.dataTables[*]", "$.dataVariables[*]");
+        assertThat(model.listSubjects().toList())
+                .extracting(Resource::getURI)
+                .containsExactlyInAnyOrder(
+                        "https://example.org/f1/t1/age",
+                        "https://example.org/f1/t1/sex",
+                        "https://example.org/f2/t2/income");
+        Resource income = model.getResource("https://example.org/f2/t2/income");
+        assertThat(income.getProperty(model.getProperty("http://purl.org/dc/terms/isPartOf"))
+                        .getString())
+                .isEqualTo("f2");
+        assertThat(income.getProperty(model.getProperty("http://purl.org/dc/terms/source"))
+                        .getString())
+                .isEqualTo("ds");
+    }
+
+    @Test
+    @DisplayName("buildSubjects() emits only the typed subjects a full build mints")
+    void build_subjects_emits_typed_subjects_only() throws Exception {
+        String properties =
+                """
+            scope.json = $.files[*]
+            subject.iri.json = $.id
+            subject.iri.format = https://example.org/file/${value}
+            props.title.predicate = dct:title
+            props.title.json = $.name
+            """;
+        ResourceConfig config;
+        try (InputStream in = new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        ResourceMapper mapper = new ResourceMapper(
+                config,
+                new Prefixes(Map.of("dct", "http://purl.org/dc/terms/", "dcat", "http://www.w3.org/ns/dcat#")),
+                "dcat:Distribution");
+        JaywayJsonFinder finder =
+                finderFor("{\"files\": [{\"id\": 1, \"name\": \"a\"}, {\"id\": 2, \"name\": \"b\"}]}");
+
+        Model full = mapper.build(finder);
+        Model subjects = ModelFactory.createModelForGraph(mapper.buildSubjects(finder, null));
+
+        assertThat(subjects.size()).isEqualTo(2);
+        assertThat(subjects.listSubjects().toList())
+                .containsExactlyInAnyOrderElementsOf(full.listSubjects().toList());
+        assertThat(subjects.listStatements().toList())
+                .allMatch(statement -> statement.getPredicate().equals(RDF.type));
+    }
 }
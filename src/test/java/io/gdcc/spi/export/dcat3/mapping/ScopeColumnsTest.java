@@ -0,0 +1,101 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static io.gdcc.spi.export.util.TestUtil.loadProps;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.jena.rdf.model.Model;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ScopeColumnsTest {
+
+    private static JsonNode jsonNode(String json) throws Exception {
+        return new ObjectMapper().readTree(json);
+    }
+
+    @Test
+    @DisplayName("extract() reads simple paths column-wise; integral and text columns stringify like list()")
+    void extracts_columns_in_one_pass() throws Exception {
+        JsonNode files = jsonNode(
+                """
+            [{"id":1,"filename":"a.csv","filesize":12,"checksum":{"value":"x"}},
+             {"id":2,"filename":"b.csv","filesize":3.5},
+             {"id":3,"filename":null,"tags":["t"]}]
+        """);
+        ScopeColumns columns =
+                ScopeColumns.extract(files, List.of("$.id", "$.filename", "$.filesize", "$.checksum.value", "$.tags"));
+
+        assertThat(columns.size()).isEqualTo(3);
+        assertThat(columns.values("$.id", 1)).containsExactly("2");
+        assertThat(columns.values("$.filename", 0)).containsExactly("a.csv");
+        assertThat(columns.values("$.filename", 2)).isEmpty();
+        assertThat(columns.values("$.filesize", 1)).containsExactly("3.5");
+        assertThat(columns.values("$.checksum.value", 0)).containsExactly("x");
+        assertThat(columns.values("$.checksum.value", 1)).isEmpty();
+        // container values and unknown paths are left to the row finder
+        assertThat(columns.values("$.tags", 2)).isNull();
+        assertThat(columns.values("$.other", 0)).isNull();
+    }
+
+    @Test
+    @DisplayName("columns() only applies to <simple path>[*] scopes that resolve to an array")
+    void columns_only_for_simple_array_scopes() throws Exception {
+        JaywayJsonFinder finder = new JaywayJsonFinder(jsonNode("{\"files\":[{\"id\":1}],\"meta\":{\"id\":2}}"));
+
+        assertThat(finder.columns("$.files[*]", List.of("$.id"))).isNotNull();
+        assertThat(finder.columns("$.meta[*]", List.of("$.id"))).isNull();
+        assertThat(finder.columns("$..files[*]", List.of("$.id"))).isNull();
+        assertThat(finder.columns("$.files[?(@.id)]", List.of("$.id"))).isNull();
+        assertThat(new JaywayJsonFinder(jsonNode("{\"files\":[]}"), false).columns("$.files[*]", List.of()))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("row finders answer columnized paths and fall back to the row node for the rest")
+    void row_finder_reads_columns_then_row() throws Exception {
+        JaywayJsonFinder finder = new JaywayJsonFinder(
+                jsonNode("{\"env\":{\"base\":\"https://x/\"},\"files\":[{\"id\":7,\"tags\":[\"a\",\"b\"]}]}"));
+        ScopeColumns columns = finder.columns("$.files[*]", List.of("$.id"));
+        JaywayJsonFinder row = finder.atRow(columns, 0);
+
+        assertThat(row.list("$.id")).containsExactly("7");
+        assertThat(row.list("$.tags[*]")).containsExactly("a", "b");
+        assertThat(row.listRoot("$.env.base")).containsExactly("https://x/");
+    }
+
+    @Test
+    @DisplayName("Columnar distribution mapping is isomorphic to per-node mapping")
+    void columnar_mapping_matches_node_mapping() throws Exception {
+        ResourceConfig config;
+        try (InputStream in =
+                Files.newInputStream(Paths.get("application_profiles/AP_NL30/mapping/dcat-distribution.properties"))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        Path input = Paths.get("src/test/resources/logged_real_input/ExportData_DCAT_AP_NL30.json");
+        JsonNode root = new ObjectMapper().readTree(input.toFile());
+        Properties rootProps = loadProps(Paths.get("application_profiles/AP_NL30/mapping/dcat-root.properties"));
+        Map<String, String> prefixes = new HashMap<>();
+        rootProps.stringPropertyNames().stream()
+                .filter(key -> key.startsWith("prefix."))
+                .forEach(key -> prefixes.put(key.substring("prefix.".length()), rootProps.getProperty(key).trim()));
+        ResourceMapper mapper = new ResourceMapper(config, new Prefixes(prefixes), "dcat:Distribution");
+
+        Model columnar = mapper.build(new JaywayJsonFinder(root));
+        Model perNode = mapper.build(new JaywayJsonFinder(root, false));
+
+        assertThat(columnar.size()).isGreaterThan(0);
+        assertThat(columnar.isIsomorphicWith(perNode)).isTrue();
+    }
+}
@@ -0,0 +1,108 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ScopeGroupsTest {
+
+    private static final String DCAT = "http://www.w3.org/ns/dcat#";
+
+    private static final String FILES =
+            """
+        {"id": "ds1", "files": [
+          {"contentType": "text/csv", "filesize": 100, "restricted": false},
+          {"contentType": "application/pdf", "filesize": 20, "restricted": true},
+          {"contentType": "text/csv", "filesize": 5, "restricted": false},
+          {"filesize": 1, "restricted": false}
+        ]}
+        """;
+
+    private static JaywayJsonFinder finder() throws Exception {
+        return new JaywayJsonFinder(new ObjectMapper().readTree(FILES));
+    }
+
+    @Test
+    @DisplayName("Scopes are grouped by key in order of first appearance; a missing key is a group")
+    void group_by_key() throws Exception {
+        JaywayJsonFinder finder = finder();
+        List<JsonNode> files = finder.nodes("$.files[*]");
+
+        List<JsonNode> groups = ScopeGroups.group(finder, files, "$.contentType");
+
+        assertThat(groups).hasSize(3);
+        assertThat(groups.get(0).get("index").asInt()).isEqualTo(0);
+        assertThat(groups.get(0).get("key").asText()).isEqualTo("text/csv");
+        assertThat(groups.get(0).get("count").asInt()).isEqualTo(2);
+        assertThat(groups.get(0).get("files").get(1)).isSameAs(files.get(2));
+        assertThat(groups.get(1).get("key").asText()).isEqualTo("application/pdf");
+        assertThat(groups.get(2).get("key").isNull()).isTrue();
+        assertThat(groups.get(2).get("count").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Without a key all scopes form one group")
+    void single_group() throws Exception {
+        JaywayJsonFinder finder = finder();
+
+        List<JsonNode> groups = ScopeGroups.group(finder, finder.nodes("$.files[*]"), null);
+
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0).get("count").asInt()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("A group config maps one resource per group with aggregates over its files")
+    void grouped_mapping() throws Exception {
+        String properties =
+                """
+            scope.json = $.files[*]
+            subject.iri.json = $.key
+            subject.iri.format = https://example.org/files/${value}
+            props.restricted.predicate = dct:accessRights
+            props.restricted.json = $.key
+            props.files.predicate = dct:extent
+            props.files.json = $.count
+            props.byteSize.predicate = dcat:byteSize
+            props.byteSize.aggregate = sum
+            props.byteSize.aggregate.over = $.files
+            props.byteSize.aggregate.field = $.filesize
+            """;
+        ResourceConfig config;
+        try (InputStream in = new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        ResourceMapper mapper = new ResourceMapper(
+                config, new Prefixes(Map.of("dcat", DCAT, "dct", "http://purl.org/dc/terms/")), null);
+        JaywayJsonFinder finder = finder();
+
+        List<JsonNode> scopes = mapper.scopes(finder);
+        Graph graph = mapper.buildGraph(finder, ScopeGroups.group(finder, scopes, "$.restricted"));
+
+        assertThat(scopes).hasSize(4);
+        assertThat(objects(graph, "http://purl.org/dc/terms/accessRights")).containsExactlyInAnyOrder("false", "true");
+        assertThat(objects(graph, "http://purl.org/dc/terms/extent")).containsExactlyInAnyOrder("3", "1");
+        assertThat(objects(graph, DCAT + "byteSize")).containsExactlyInAnyOrder("106", "20");
+    }
+
+    private static List<String> objects(Graph graph, String predicate) {
+        return graph.find(Node.ANY, NodeFactory.createURI(predicate), Node.ANY).toList().stream()
+                .map(Triple::getObject)
+                .map(node -> node.isURI() ? node.getURI() : node.getLiteralLexicalForm())
+                .toList();
+    }
+}
@@ -0,0 +1,95 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SimpleJsonPathTest {
+
+    private static JsonNode jsonNode(String json) throws Exception {
+        return new ObjectMapper().readTree(json);
+    }
+
+    @ParameterizedTest(name = "''{0}'' is a simple path")
+    @ValueSource(
+            strings = {
+                "$.filename",
+                "$.checksum.value",
+                "$.datasetJson.datasetVersion.versionNumber",
+                "$['datasetJson'].datasetVersion",
+                "$[\"env\"][\"apiBaseUrl\"]",
+                "$.files[0].id"
+            })
+    void compiles_member_and_index_chains(String path) {
+        assertThat(SimpleJsonPath.compile(path)).isNotNull();
+    }
+
+    @ParameterizedTest(name = "''{0}'' falls back to Jayway")
+    @ValueSource(
+            strings = {
+                "$",
+                "$..metadataBlocks.citation",
+                "$.datasetFileDetails[*]",
+                "$.files.*",
+                "$.fields[?(@.typeName=='title')].value",
+                "$.files[-1]",
+                "$.files[0:2]",
+                "$['a','b']",
+                "$.files.length()",
+                "filename"
+            })
+    void rejects_everything_else(String path) {
+        assertThat(SimpleJsonPath.compile(path)).isNull();
+    }
+
+    @ParameterizedTest(name = "''{0}'' lies under ''{1}''")
+    @CsvSource({
+        "$.env.apiBaseUrl, $.env.apiBaseUrl",
+        "$.datasetFileDetails[*].filename, $.datasetFileDetails",
+        "$[\"datasetJson\"].datasetVersion..value, $[\"datasetJson\"].datasetVersion",
+        "$.fields[?(@.typeName==\"title\")].value, $.fields",
+        "$.files[0].tags[-1], $.files[0].tags",
+        "$.files.length(), $.files"
+    })
+    void prefix_is_the_leading_member_chain(String path, String prefix) {
+        assertThat(SimpleJsonPath.prefix(path)).isEqualTo(prefix);
+    }
+
+    @ParameterizedTest(name = "''{0}'' has no member prefix")
+    @ValueSource(strings = {"$", "$..metadataBlocks", "$.*", "$[*].id", "$$.env", "filename"})
+    void prefix_is_null_without_a_leading_member(String path) {
+        assertThat(SimpleJsonPath.prefix(path)).isNull();
+    }
+
+    @Test
+    @DisplayName("select() walks members and indexes and returns null on any mismatch")
+    void select_walks_chain() throws Exception {
+        JsonNode root = jsonNode("{\"files\":[{\"id\":5,\"checksum\":{\"value\":\"abc\"}}],\"env\":{}}");
+
+        assertThat(SimpleJsonPath.compile("$.files[0].checksum.value").select(root).textValue())
+                .isEqualTo("abc");
+        assertThat(SimpleJsonPath.compile("$.files[0].id").select(root).asInt()).isEqualTo(5);
+        assertThat(SimpleJsonPath.compile("$.files[1].id").select(root)).isNull();
+        assertThat(SimpleJsonPath.compile("$.env.apiBaseUrl").select(root)).isNull();
+        assertThat(SimpleJsonPath.compile("$.files.id").select(root)).isNull();
+    }
+
+    @Test
+    @DisplayName("The compile cache is bounded; paths beyond it still compile")
+    void cache_is_bounded() throws Exception {
+        JsonNode root = jsonNode("{\"f\": 7}");
+        for (int i = 0; i <= SimpleJsonPath.CACHE_SIZE; i++) {
+            SimpleJsonPath.compile("$.generated" + i);
+        }
+
+        assertThat(SimpleJsonPath.cached()).isLessThanOrEqualTo(SimpleJsonPath.CACHE_SIZE);
+        assertThat(SimpleJsonPath.compile("$.generated" + SimpleJsonPath.CACHE_SIZE)).isNotNull();
+        assertThat(SimpleJsonPath.compile("$.f").select(root).asInt()).isEqualTo(7);
+    }
+}
@@ -51,4 +51,53 @@ class TemplateFormatterTest {
         String out = TemplateFormatter.resolveInlineJsonPlaceholders("A-${foo}-B", finder);
         assertThat(out).isEqualTo("A-${foo}-B");
     }
+
+    @Test
+    @DisplayName("compile() keeps unknown tokens and unmatched indexes intact")
+    void compiled_leaves_unknown_tokens_intact() throws Exception {
+        JaywayJsonFinder finder = finderFor("{\"a\":\"ONE\",\"id\":\"5\"}");
+        TemplateFormatter.Template template = TemplateFormatter.compile("${1}/${foo}/${2}/${$.id}/${value");
+
+        String out = template.format(null, List.of("$.a"), finder, s -> s);
+
+        assertThat(out).isEqualTo("ONE/${foo}/${2}/5/${value");
+    }
+
+    @Test
+    @DisplayName("compile() formats exactly like format(), edge cases included")
+    void compiled_matches_format() throws Exception {
+        JaywayJsonFinder finder = finderFor(
+                "{\"a\":\"ONE\",\"b\":\"${1}\",\"c\":\"${$.id}\",\"id\":\"5\",\"x\":\"X\","
+                        + "\"env\":{\"apiBaseUrl\":\"https://acc.example/api/\"}}");
+        List<String> templates = List.of(
+                "${1}access/datafile/${2}",
+                "${$$.env.apiBaseUrl}access/datafile/${$.id}",
+                "https://example.org/${value}/${value}",
+                "${value}${1}${2}${3}",
+                "${0}-${01}-${10}-${}",
+                "A-${foo}-B",
+                "${$.x${value}}",
+                "${a${1}}",
+                "${$.",
+                "tail ${value",
+                "}${value}{",
+                "",
+                "   ");
+        List<List<String>> pathSets = List.of(List.of(), List.of("$.a"), List.of("$.a", "$.b"), List.of("$.c", "$$.id"));
+        List<String> bases = List.of("  AbC  ", "${1}", "${$.id}", "");
+
+        for (String template : templates) {
+            TemplateFormatter.Template compiled = TemplateFormatter.compile(template);
+            for (List<String> jsonPaths : pathSets) {
+                for (String base : bases) {
+                    assertThat(compiled.format(base, jsonPaths, finder, String::trim))
+                            .as(template + " " + jsonPaths + " " + base)
+                            .isEqualTo(TemplateFormatter.format(template, base, jsonPaths, finder, String::trim));
+                }
+            }
+            assertThat(compiled.format(null, null, finder, null))
+                    .as(template)
+                    .isEqualTo(TemplateFormatter.format(template, null, null, finder, null));
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package io.gdcc.spi.export.dcat3.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gdcc.spi.export.dcat3.config.loader.ResourceConfigLoader;
+import io.gdcc.spi.export.dcat3.config.model.ResourceConfig;
+import io.gdcc.spi.export.dcat3.config.model.Transform;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ValueTransformTest {
+
+    private static final String DCT = "http://purl.org/dc/terms/";
+    private static final String DCAT = "http://www.w3.org/ns/dcat#";
+
+    private static String apply(String pipeline, String value) {
+        return ValueTransform.compile(Transform.parse(pipeline), null).apply(value, null);
+    }
+
+    @Test
+    @DisplayName("Text functions: case, whitespace normalization and URL encoding")
+    void text() {
+        assertThat(apply("lower", "Text/CSV")).isEqualTo("text/csv");
+        assertThat(apply("upper", "nl")).isEqualTo("NL");
+        assertThat(apply("normalize", "  A \t title\n here ")).isEqualTo("A title here");
+        assertThat(apply("normalize", "été")).isEqualTo("été");
+        assertThat(apply("normalize", "already clean")).isEqualTo("already clean");
+        assertThat(apply("url-encode", "a b/ü")).isEqualTo("a%20b%2F%C3%BC");
+        assertThat(apply("normalize | lower", " Mixed  Case ")).isEqualTo("mixed case");
+    }
+
+    @Test
+    @DisplayName("Numbers are canonicalized; integer truncates; non-numbers are dropped")
+    void numbers() {
+        assertThat(apply("number", "+0012345")).isEqualTo("12345");
+        assertThat(apply("number", "1.2500")).isEqualTo("1.25");
+        assertThat(apply("number", "1E3")).isEqualTo("1000");
+        assertThat(apply("integer", "1234.99")).isEqualTo("1234");
+        assertThat(apply("integer", "-7")).isEqualTo("-7");
+        assertThat(apply("number", "12 MB")).isNull();
+        assertThat(apply("number", "1E100000")).isNull();
+    }
+
+    @Test
+    @DisplayName("Dates: ISO input by default, or a pattern; xsd:date and xsd:dateTime output")
+    void dates() {
+        assertThat(apply("date", "2024-03-05T10:15:30Z")).isEqualTo("2024-03-05");
+        assertThat(apply("datetime", "2024-03-05")).isEqualTo("2024-03-05T00:00:00");
+        assertThat(apply("datetime", "2024-03-05T10:15:30Z")).isEqualTo("2024-03-05T10:15:30Z");
+        assertThat(apply("datetime", "2024-03-05T10:15:30.5+01:00")).isEqualTo("2024-03-05T10:15:30.5+01:00");
+        assertThat(apply("datetime(dd-MM-yyyy HH:mm)", "05-03-2024 10:15")).isEqualTo("2024-03-05T10:15:00");
+        assertThat(apply("date(d MMM uuuu)", "5 Mar 2024")).isEqualTo("2024-03-05");
+        assertThat(apply("date", "yesterday")).isNull();
+    }
+
+    @Test
+    @DisplayName("wkt-bbox builds a polygon from west, south, east and north")
+    void wkt_bbox() {
+        assertThat(apply("wkt-bbox", "3.2, 50.7, 7.2, 53.6"))
+                .isEqualTo("POLYGON((3.2 50.7, 7.2 50.7, 7.2 53.6, 3.2 53.6, 3.2 50.7))");
+        assertThat(apply("wkt-bbox", "3.2 50.7 7.2")).isNull();
+    }
+
+    @Test
+    @DisplayName("Transforms run before map and format, on json values and on json.N for wkt-bbox")
+    void pipeline() throws Exception {
+        String properties =
+                """
+            subject.iri.const = https://example.org/dataset
+            props.issued.predicate = dct:issued
+            props.issued.datatype = xsd:dateTime
+            props.issued.json = $.publicationDate
+            props.issued.transform = datetime
+            props.language.predicate = dct:language
+            props.language.as = iri
+            props.language.json = $.language
+            props.language.transform = normalize | lower
+            props.language.map.dutch = http://publications.europa.eu/resource/authority/language/NLD
+            props.bbox.predicate = dcat:bbox
+            props.bbox.json.1 = $.box.west
+            props.bbox.json.2 = $.box.south
+            props.bbox.json.3 = $.box.east
+            props.bbox.json.4 = $.box.north
+            props.bbox.transform = wkt-bbox
+            """;
+        ResourceConfig config;
+        try (InputStream in = new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8))) {
+            config = new ResourceConfigLoader().load(in);
+        }
+        Prefixes prefixes = new Prefixes(
+                Map.of("dct", DCT, "dcat", DCAT, "xsd", "http://www.w3.org/2001/XMLSchema#"));
+        Graph graph = MappingCompiler.compile(config, prefixes, null)
+                .run(new JaywayJsonFinder(
+                        new ObjectMapper()
+                                .readTree(
+                                        """
+                    {"publicationDate": "2024-03-05", "language": " Dutch ",
+                     "box": {"west": 3.2, "south": 50.7, "east": 7.2, "north": 53.6}}
+                    """)));
+
+        assertThat(objects(graph, DCT + "issued")).containsExactly("2024-03-05T00:00:00");
+        assertThat(objects(graph, DCT + "language"))
+                .containsExactly("http://publications.europa.eu/resource/authority/language/NLD");
+        assertThat(objects(graph, DCAT + "bbox"))
+                .containsExactly("POLYGON((3.2 50.7, 7.2 50.7, 7.2 53.6, 3.2 53.6, 3.2 50.7))");
+    }
+
+    private static List<String> objects(Graph graph, String predicate) {
+        return graph.find(Node.ANY, NodeFactory.createURI(predicate), Node.ANY).toList().stream()
+                .map(Triple::getObject)
+                .map(node -> node.isURI() ? node.getURI() : node.getLiteralLexicalForm())
+                .toList();
+    }
+}